@@ -20,10 +20,13 @@ package org.apache.skywalking.apm.commons.datacarrier;
 
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatistics;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatisticsRegistry;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumeDriver;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerPool;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IDriver;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.WaitStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.partition.IDataPartitioner;
 import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
 
@@ -48,10 +51,23 @@ public class DataCarrier<T> {
     }
 
     public DataCarrier(String name, String envPrefix, int channelSize, int bufferSize, BufferStrategy strategy) {
+        this(name, envPrefix, channelSize, bufferSize, strategy, 0);
+    }
+
+    /**
+     * @param blockingTimeout the max milliseconds of the producer waiting for the free space in {@link
+     *                        BufferStrategy#BLOCKING}, 0 means waiting until the space is free.
+     */
+    public DataCarrier(String name, String envPrefix, int channelSize, int bufferSize, BufferStrategy strategy,
+        long blockingTimeout) {
         this.name = name;
         bufferSize = EnvUtil.getInt(envPrefix + "_BUFFER_SIZE", bufferSize);
         channelSize = EnvUtil.getInt(envPrefix + "_CHANNEL_SIZE", channelSize);
-        channels = new Channels<>(channelSize, bufferSize, new SimpleRollingPartitioner<T>(), strategy);
+        blockingTimeout = EnvUtil.getLong(envPrefix + "_BLOCKING_TIMEOUT", blockingTimeout);
+        channels = new Channels<>(
+            channelSize, bufferSize, new SimpleRollingPartitioner<T>(), strategy, blockingTimeout,
+            DataCarrierStatisticsRegistry.INSTANCE.get(name)
+        );
     }
 
     public DataCarrier(int channelSize, int bufferSize, BufferStrategy strategy) {
@@ -78,6 +94,7 @@ public class DataCarrier<T> {
     public boolean produce(T data) {
         if (driver != null) {
             if (!driver.isRunning(channels)) {
+                channels.getStatistics().onDropped();
                 return false;
             }
         }
@@ -85,6 +102,13 @@ public class DataCarrier<T> {
         return this.channels.save(data);
     }
 
+    /**
+     * @return the statistics shared by all DataCarriers with the same name.
+     */
+    public DataCarrierStatistics getStatistics() {
+        return channels.getStatistics();
+    }
+
     /**
      * set consumeDriver to this Carrier. consumer begin to run when {@link DataCarrier#produce} begin to work.
      *
@@ -118,10 +142,21 @@ public class DataCarrier<T> {
      * @param num      number of consumer threads
      */
     public DataCarrier consume(IConsumer<T> consumer, int num, long consumeCycle) {
+        return this.consume(consumer, num, consumeCycle, WaitStrategy.SLEEP);
+    }
+
+    /**
+     * set consumeDriver to this Carrier. consumer begin to run when {@link DataCarrier#produce} begin to work.
+     *
+     * @param consumer     single instance of consumer, all consumer threads will all use this instance.
+     * @param num          number of consumer threads
+     * @param waitStrategy how the consumer threads wait for the data when the channels are empty.
+     */
+    public DataCarrier consume(IConsumer<T> consumer, int num, long consumeCycle, WaitStrategy waitStrategy) {
         if (driver != null) {
             driver.close(channels);
         }
-        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle);
+        driver = new ConsumeDriver<T>(this.name, this.channels, consumer, num, consumeCycle, waitStrategy);
         driver.begin(channels);
         return this;
     }
@@ -20,6 +20,8 @@ package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatistics;
 
 /**
  * The buffer implementation based on JDK ArrayBlockingQueue.
@@ -31,23 +33,44 @@ public class ArrayBlockingQueueBuffer<T> implements QueueBuffer<T> {
     private BufferStrategy strategy;
     private ArrayBlockingQueue<T> queue;
     private int bufferSize;
+    private final long blockingTimeout;
+    private final DataCarrierStatistics statistics;
 
-    ArrayBlockingQueueBuffer(int bufferSize, BufferStrategy strategy) {
+    /**
+     * @param blockingTimeout the max milliseconds of waiting for the free space in {@link BufferStrategy#BLOCKING}, 0
+     *                        means waiting until the space is free.
+     */
+    ArrayBlockingQueueBuffer(int bufferSize, BufferStrategy strategy, long blockingTimeout,
+        DataCarrierStatistics statistics) {
         this.strategy = strategy;
         this.queue = new ArrayBlockingQueue<T>(bufferSize);
         this.bufferSize = bufferSize;
+        this.blockingTimeout = blockingTimeout;
+        this.statistics = statistics;
     }
 
     @Override
     public boolean save(T data) {
-        //only BufferStrategy.BLOCKING
+        if (queue.offer(data)) {
+            return true;
+        }
+        if (BufferStrategy.IF_POSSIBLE.equals(strategy)) {
+            return false;
+        }
+
+        final long startTime = System.nanoTime();
         try {
+            if (blockingTimeout > 0) {
+                return queue.offer(data, blockingTimeout, TimeUnit.MILLISECONDS);
+            }
             queue.put(data);
+            return true;
         } catch (InterruptedException e) {
             // Ignore the error
             return false;
+        } finally {
+            statistics.onBlocked(System.nanoTime() - startTime);
         }
-        return true;
     }
 
     @Override
@@ -19,20 +19,38 @@
 package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 import org.apache.skywalking.apm.commons.datacarrier.common.AtomicRangeInteger;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatistics;
 
 /**
  * Self implementation ring queue.
+ * <p>
+ * A slot is only taken when it is empty, so the data is never overwritten. When the slot is still occupied, {@link
+ * BufferStrategy#IF_POSSIBLE} gives up, {@link BufferStrategy#BLOCKING} waits for the consumer to obtain it, until
+ * the blocking timeout.
  */
 public class Buffer<T> implements QueueBuffer<T> {
-    private final Object[] buffer;
+    private static final long BLOCKING_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final AtomicReferenceArray<T> buffer;
     private BufferStrategy strategy;
     private AtomicRangeInteger index;
+    private final long blockingTimeoutNanos;
+    private final DataCarrierStatistics statistics;
 
-    Buffer(int bufferSize, BufferStrategy strategy) {
-        buffer = new Object[bufferSize];
+    /**
+     * @param blockingTimeout the max milliseconds of waiting for the free slot in {@link BufferStrategy#BLOCKING}, 0
+     *                        means waiting until the slot is free.
+     */
+    Buffer(int bufferSize, BufferStrategy strategy, long blockingTimeout, DataCarrierStatistics statistics) {
+        buffer = new AtomicReferenceArray<T>(bufferSize);
         this.strategy = strategy;
         index = new AtomicRangeInteger(0, bufferSize);
+        this.blockingTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockingTimeout);
+        this.statistics = statistics;
     }
 
     @Override
@@ -43,32 +61,57 @@ public class Buffer<T> implements QueueBuffer<T> {
     @Override
     public boolean save(T data) {
         int i = index.getAndIncrement();
-        if (buffer[i] != null) {
-            switch (strategy) {
-                case IF_POSSIBLE:
+        if (buffer.compareAndSet(i, null, data)) {
+            return true;
+        }
+        switch (strategy) {
+            case IF_POSSIBLE:
+                return false;
+            default:
+                return blockingSave(i, data);
+        }
+    }
+
+    /**
+     * Wait for the consumer to obtain the data in the slot, then save the data into it.
+     *
+     * @return false if timeout or interrupted.
+     */
+    private boolean blockingSave(int i, T data) {
+        final long startTime = System.nanoTime();
+        try {
+            while (!buffer.compareAndSet(i, null, data)) {
+                if (blockingTimeoutNanos > 0 && System.nanoTime() - startTime >= blockingTimeoutNanos) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, BLOCKING_PARK_NANOS);
+                if (Thread.currentThread().isInterrupted()) {
                     return false;
-                default:
+                }
             }
+            return true;
+        } finally {
+            statistics.onBlocked(System.nanoTime() - startTime);
         }
-        buffer[i] = data;
-        return true;
     }
 
     @Override
     public int getBufferSize() {
-        return buffer.length;
+        return buffer.length();
     }
 
     @Override
     public void obtain(List<T> consumeList) {
-        this.obtain(consumeList, 0, buffer.length);
+        this.obtain(consumeList, 0, buffer.length());
     }
 
     void obtain(List<T> consumeList, int start, int end) {
         for (int i = start; i < end; i++) {
-            if (buffer[i] != null) {
-                consumeList.add((T) buffer[i]);
-                buffer[i] = null;
+            T data = buffer.get(i);
+            if (data != null) {
+                consumeList.add(data);
+                // The slot is only taken by the producers when it is null, no one else could change it.
+                buffer.lazySet(i, null);
             }
         }
     }
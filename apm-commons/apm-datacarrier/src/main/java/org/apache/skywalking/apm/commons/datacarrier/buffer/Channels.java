@@ -18,6 +18,8 @@
 
 package org.apache.skywalking.apm.commons.datacarrier.buffer;
 
+import org.apache.skywalking.apm.commons.datacarrier.common.ConsumeSignal;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatistics;
 import org.apache.skywalking.apm.commons.datacarrier.partition.IDataPartitioner;
 
 /**
@@ -29,16 +31,32 @@ public class Channels<T> {
     private IDataPartitioner<T> dataPartitioner;
     private final BufferStrategy strategy;
     private final long size;
+    private final DataCarrierStatistics statistics;
+    /**
+     * The signals of the consumers waiting for the data of these channels. Copy on write, as it is read in every save.
+     */
+    private volatile ConsumeSignal[] consumeSignals = new ConsumeSignal[0];
 
     public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy) {
+        this(channelSize, bufferSize, partitioner, strategy, 0, new DataCarrierStatistics("DEFAULT"));
+    }
+
+    /**
+     * @param blockingTimeout the max milliseconds of waiting for the free space in {@link BufferStrategy#BLOCKING}, 0
+     *                        means waiting until the space is free. The data is dropped when timeout.
+     * @param statistics      records the produced, dropped data and the blocked time of the producers.
+     */
+    public Channels(int channelSize, int bufferSize, IDataPartitioner<T> partitioner, BufferStrategy strategy,
+        long blockingTimeout, DataCarrierStatistics statistics) {
         this.dataPartitioner = partitioner;
         this.strategy = strategy;
+        this.statistics = statistics;
         bufferChannels = new QueueBuffer[channelSize];
         for (int i = 0; i < channelSize; i++) {
             if (BufferStrategy.BLOCKING.equals(strategy)) {
-                bufferChannels[i] = new ArrayBlockingQueueBuffer<>(bufferSize, strategy);
+                bufferChannels[i] = new ArrayBlockingQueueBuffer<>(bufferSize, strategy, blockingTimeout, statistics);
             } else {
-                bufferChannels[i] = new Buffer<>(bufferSize, strategy);
+                bufferChannels[i] = new Buffer<>(bufferSize, strategy, blockingTimeout, statistics);
             }
         }
         // noinspection PointlessArithmeticExpression
@@ -56,12 +74,52 @@ public class Channels<T> {
         }
         for (; retryCountDown > 0; retryCountDown--) {
             if (bufferChannels[index].save(data)) {
+                statistics.onProduced();
+                signalConsumers();
                 return true;
             }
         }
+        statistics.onDropped();
         return false;
     }
 
+    private void signalConsumers() {
+        final ConsumeSignal[] signals = consumeSignals;
+        for (ConsumeSignal signal : signals) {
+            signal.signal();
+        }
+    }
+
+    /**
+     * Add the signal of a consumer, which is woken up when new data is saved into these channels.
+     */
+    public synchronized void addConsumeSignal(ConsumeSignal signal) {
+        ConsumeSignal[] signals = new ConsumeSignal[consumeSignals.length + 1];
+        System.arraycopy(consumeSignals, 0, signals, 0, consumeSignals.length);
+        signals[consumeSignals.length] = signal;
+        consumeSignals = signals;
+    }
+
+    /**
+     * Remove the signal of a consumer, which is shut down or replaced by another consume driver.
+     */
+    public synchronized void removeConsumeSignal(ConsumeSignal signal) {
+        int index = -1;
+        for (int i = 0; i < consumeSignals.length; i++) {
+            if (consumeSignals[i] == signal) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            return;
+        }
+        ConsumeSignal[] signals = new ConsumeSignal[consumeSignals.length - 1];
+        System.arraycopy(consumeSignals, 0, signals, 0, index);
+        System.arraycopy(consumeSignals, index + 1, signals, index, signals.length - index);
+        consumeSignals = signals;
+    }
+
     public void setPartitioner(IDataPartitioner<T> dataPartitioner) {
         this.dataPartitioner = dataPartitioner;
     }
@@ -87,6 +145,10 @@ public class Channels<T> {
         return size;
     }
 
+    public DataCarrierStatistics getStatistics() {
+        return statistics;
+    }
+
     public QueueBuffer<T> getBuffer(int index) {
         return this.bufferChannels[index];
     }
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.common;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ConsumeSignal parks the consumer thread when there is no data, and is signalled by the producers once the new data
+ * has been saved. The producers only unpark the consumer thread when it is waiting, so the cost of saving data is a
+ * volatile read in the usual case.
+ * <p>
+ * The consumer should {@link #prepare()} first, check the channels again, then {@link #await(long)} if they are still
+ * empty. Otherwise the signal of the data saved between the check and the park would be lost.
+ */
+public class ConsumeSignal {
+    private final Thread consumer;
+    private final AtomicBoolean waiting = new AtomicBoolean(false);
+
+    public ConsumeSignal(Thread consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * Declare the consumer is going to wait, called by the consumer thread before the last check of the channels.
+     */
+    public void prepare() {
+        waiting.set(true);
+    }
+
+    /**
+     * Give up waiting, called by the consumer thread when the last check finds new data.
+     */
+    public void cancel() {
+        waiting.set(false);
+    }
+
+    /**
+     * Park the consumer thread until {@link #signal()} or the timeout passes. The timeout keeps the consumer running in
+     * case of any missed signal.
+     */
+    public void await(long timeoutMillis) {
+        if (waiting.get()) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+        }
+        waiting.set(false);
+    }
+
+    /**
+     * Wake up the consumer thread if it is waiting, called by the producer threads after saving data.
+     */
+    public void signal() {
+        if (waiting.get() && waiting.compareAndSet(true, false)) {
+            LockSupport.unpark(consumer);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.common;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The produce statistics of the {@link org.apache.skywalking.apm.commons.datacarrier.DataCarrier}s sharing the same
+ * name. All counters are cumulative, the readers should calculate the increments by themselves.
+ */
+public class DataCarrierStatistics {
+    private final String name;
+    private final LongAdder produced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blockedTime = new LongAdder();
+
+    public DataCarrierStatistics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void onProduced() {
+        produced.increment();
+    }
+
+    public void onDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * @param nanos the time of the producer blocked by the full buffer.
+     */
+    public void onBlocked(long nanos) {
+        blockedTime.add(nanos);
+    }
+
+    /**
+     * @return the number of data saved into the buffers.
+     */
+    public long getProduced() {
+        return produced.sum();
+    }
+
+    /**
+     * @return the number of data abandoned, because of the full buffer, the blocking timeout or the stopped consumers.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the total time of the producers blocked by the full buffers, in nanoseconds.
+     */
+    public long getBlockedTime() {
+        return blockedTime.sum();
+    }
+}
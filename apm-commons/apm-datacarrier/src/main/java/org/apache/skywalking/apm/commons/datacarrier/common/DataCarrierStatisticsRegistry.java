@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.commons.datacarrier.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DataCarrierStatisticsRegistry holds the {@link DataCarrierStatistics} of all DataCarriers by their names, then the
+ * telemetry of the OAP and the meter system of the agent could report them.
+ */
+public enum DataCarrierStatisticsRegistry {
+    INSTANCE;
+
+    private final ConcurrentHashMap<String, DataCarrierStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * @return the statistics shared by all DataCarriers of the given name.
+     */
+    public DataCarrierStatistics get(String name) {
+        return statistics.computeIfAbsent(name, DataCarrierStatistics::new);
+    }
+
+    public Collection<DataCarrierStatistics> all() {
+        return new ArrayList<>(statistics.values());
+    }
+}
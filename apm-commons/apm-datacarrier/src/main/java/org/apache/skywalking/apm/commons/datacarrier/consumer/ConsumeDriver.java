@@ -30,6 +30,7 @@ public class ConsumeDriver<T> implements IDriver {
     private ConsumerThread[] consumerThreads;
     private Channels<T> channels;
     private ReentrantLock lock;
+    private WaitStrategy waitStrategy = WaitStrategy.SLEEP;
 
     public ConsumeDriver(String name, Channels<T> channels, Class<? extends IConsumer<T>> consumerClass, int num,
         long consumeCycle) {
@@ -41,10 +42,16 @@ public class ConsumeDriver<T> implements IDriver {
     }
 
     public ConsumeDriver(String name, Channels<T> channels, IConsumer<T> prototype, int num, long consumeCycle) {
+        this(name, channels, prototype, num, consumeCycle, WaitStrategy.SLEEP);
+    }
+
+    public ConsumeDriver(String name, Channels<T> channels, IConsumer<T> prototype, int num, long consumeCycle,
+        WaitStrategy waitStrategy) {
         this(channels, num);
+        this.waitStrategy = waitStrategy;
         prototype.init();
         for (int i = 0; i < num; i++) {
-            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumer." + i + ".Thread", prototype, consumeCycle);
+            consumerThreads[i] = new ConsumerThread("DataCarrier." + name + ".Consumer." + i + ".Thread", prototype, consumeCycle, waitStrategy);
             consumerThreads[i].setDaemon(true);
         }
 
@@ -112,6 +119,13 @@ public class ConsumeDriver<T> implements IDriver {
             consumerThreads[consumerIndex].addDataSource(channels.getBuffer(channelIndex));
         }
 
+        if (WaitStrategy.PARK.equals(waitStrategy)) {
+            for (ConsumerThread consumerThread : consumerThreads) {
+                if (consumerThread.hasDataSource()) {
+                    channels.addConsumeSignal(consumerThread.getConsumeSignal());
+                }
+            }
+        }
     }
 
     @Override
@@ -120,6 +134,9 @@ public class ConsumeDriver<T> implements IDriver {
         try {
             this.running = false;
             for (ConsumerThread consumerThread : consumerThreads) {
+                if (WaitStrategy.PARK.equals(waitStrategy)) {
+                    this.channels.removeConsumeSignal(consumerThread.getConsumeSignal());
+                }
                 consumerThread.shutdown();
             }
         } finally {
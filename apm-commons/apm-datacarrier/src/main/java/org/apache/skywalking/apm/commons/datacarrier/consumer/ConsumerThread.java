@@ -22,19 +22,39 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Buffer;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.apm.commons.datacarrier.common.ConsumeSignal;
 
 public class ConsumerThread<T> extends Thread {
     private volatile boolean running;
     private IConsumer<T> consumer;
     private List<DataSource> dataSources;
     private long consumeCycle;
+    private final WaitStrategy waitStrategy;
+    private final ConsumeSignal consumeSignal;
 
     ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle) {
+        this(threadName, consumer, consumeCycle, WaitStrategy.SLEEP);
+    }
+
+    ConsumerThread(String threadName, IConsumer<T> consumer, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumer = consumer;
         running = false;
         dataSources = new ArrayList<DataSource>(1);
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
+        this.consumeSignal = new ConsumeSignal(this);
+    }
+
+    /**
+     * @return the signal to wake up this consumer, only used in {@link WaitStrategy#PARK}.
+     */
+    ConsumeSignal getConsumeSignal() {
+        return consumeSignal;
+    }
+
+    boolean hasDataSource() {
+        return !dataSources.isEmpty();
     }
 
     /**
@@ -51,9 +71,18 @@ public class ConsumerThread<T> extends Thread {
         final List<T> consumeList = new ArrayList<T>(1500);
         while (running) {
             if (!consume(consumeList)) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
+                if (WaitStrategy.PARK.equals(waitStrategy)) {
+                    consumeSignal.prepare();
+                    if (consume(consumeList)) {
+                        consumeSignal.cancel();
+                    } else {
+                        consumeSignal.await(consumeCycle);
+                    }
+                } else {
+                    try {
+                        Thread.sleep(consumeCycle);
+                    } catch (InterruptedException e) {
+                    }
                 }
             }
         }
@@ -80,11 +109,18 @@ public class ConsumerThread<T> extends Thread {
             }
             return true;
         }
+        try {
+            consumer.nothingToConsume();
+        } catch (Throwable t) {
+            consumer.onError(consumeList, t);
+        }
         return false;
     }
 
     void shutdown() {
         running = false;
+        // Wake up the parked consumer to exit without waiting for the consume cycle.
+        consumeSignal.signal();
     }
 
     /**
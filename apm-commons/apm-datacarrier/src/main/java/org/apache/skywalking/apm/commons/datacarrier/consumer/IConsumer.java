@@ -28,4 +28,11 @@ public interface IConsumer<T> {
     void onError(List<T> data, Throwable t);
 
     void onExit();
+
+    /**
+     * Notify the consumer that no data was found in this consume cycle. The implementations could do the periodic
+     * work here, such as flushing or renewing the connections, even when there is no data.
+     */
+    default void nothingToConsume() {
+    }
 }
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.apm.commons.datacarrier.common.ConsumeSignal;
 
 /**
  * MultipleChannelsConsumer represent a single consumer thread, but support multiple channels with their {@link
@@ -33,11 +34,19 @@ public class MultipleChannelsConsumer extends Thread {
     @SuppressWarnings("NonAtomicVolatileUpdate")
     private volatile long size;
     private final long consumeCycle;
+    private final WaitStrategy waitStrategy;
+    private final ConsumeSignal consumeSignal;
 
     public MultipleChannelsConsumer(String threadName, long consumeCycle) {
+        this(threadName, consumeCycle, WaitStrategy.SLEEP);
+    }
+
+    public MultipleChannelsConsumer(String threadName, long consumeCycle, WaitStrategy waitStrategy) {
         super(threadName);
         this.consumeTargets = new ArrayList<Group>();
         this.consumeCycle = consumeCycle;
+        this.waitStrategy = waitStrategy;
+        this.consumeSignal = new ConsumeSignal(this);
     }
 
     @Override
@@ -46,16 +55,19 @@ public class MultipleChannelsConsumer extends Thread {
 
         final List consumeList = new ArrayList(2000);
         while (running) {
-            boolean hasData = false;
-            for (Group target : consumeTargets) {
-                boolean consume = consume(target, consumeList);
-                hasData = hasData || consume;
-            }
-
-            if (!hasData) {
-                try {
-                    Thread.sleep(consumeCycle);
-                } catch (InterruptedException e) {
+            if (!consumeAll(consumeList)) {
+                if (WaitStrategy.PARK.equals(waitStrategy)) {
+                    consumeSignal.prepare();
+                    if (consumeAll(consumeList)) {
+                        consumeSignal.cancel();
+                    } else {
+                        consumeSignal.await(consumeCycle);
+                    }
+                } else {
+                    try {
+                        Thread.sleep(consumeCycle);
+                    } catch (InterruptedException e) {
+                    }
                 }
             }
         }
@@ -69,6 +81,15 @@ public class MultipleChannelsConsumer extends Thread {
         }
     }
 
+    private boolean consumeAll(List consumeList) {
+        boolean hasData = false;
+        for (Group target : consumeTargets) {
+            boolean consume = consume(target, consumeList);
+            hasData = hasData || consume;
+        }
+        return hasData;
+    }
+
     private boolean consume(Group target, List consumeList) {
         for (int i = 0; i < target.channels.getChannelSize(); i++) {
             QueueBuffer buffer = target.channels.getBuffer(i);
@@ -85,6 +106,11 @@ public class MultipleChannelsConsumer extends Thread {
             }
             return true;
         }
+        try {
+            target.consumer.nothingToConsume();
+        } catch (Throwable t) {
+            target.consumer.onError(consumeList, t);
+        }
         return false;
     }
 
@@ -93,6 +119,9 @@ public class MultipleChannelsConsumer extends Thread {
      */
     public void addNewTarget(Channels channels, IConsumer consumer) {
         Group group = new Group(channels, consumer);
+        if (WaitStrategy.PARK.equals(waitStrategy)) {
+            channels.addConsumeSignal(consumeSignal);
+        }
         // Recreate the new list to avoid change list while the list is used in consuming.
         ArrayList<Group> newList = new ArrayList<Group>();
         for (Group target : consumeTargets) {
@@ -109,6 +138,13 @@ public class MultipleChannelsConsumer extends Thread {
 
     void shutdown() {
         running = false;
+        if (WaitStrategy.PARK.equals(waitStrategy)) {
+            for (Group target : consumeTargets) {
+                target.channels.removeConsumeSignal(consumeSignal);
+            }
+            // Wake up the parked consumer to exit without waiting for the consume cycle.
+            consumeSignal.signal();
+        }
     }
 
     private static class Group {
@@ -20,9 +20,11 @@ package org.apache.skywalking.apm.commons.datacarrier;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.QueueBuffer;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatistics;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.apm.commons.datacarrier.partition.ProducerThreadPartitioner;
 import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
@@ -147,4 +149,46 @@ public class DataCarrierTest {
 
         Assert.assertTrue(time2 - time1 > 2000);
     }
+
+    @Test
+    public void testBlockingTimeoutProduce() {
+        final DataCarrier<SampleData> carrier = new DataCarrier<SampleData>(
+            "testBlockingTimeoutProduce", "testBlockingTimeoutProduce", 1, 10, BufferStrategy.BLOCKING, 100);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(carrier.produce(new SampleData().setName("d" + i)));
+        }
+        Assert.assertFalse(carrier.produce(new SampleData().setName("timeout-data")));
+
+        DataCarrierStatistics statistics = carrier.getStatistics();
+        Assert.assertEquals(10, statistics.getProduced());
+        Assert.assertEquals(1, statistics.getDropped());
+        Assert.assertTrue(statistics.getBlockedTime() >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void testBlockingBufferNotOverwritten() {
+        DataCarrierStatistics statistics = new DataCarrierStatistics("testBlockingBufferNotOverwritten");
+        Channels<SampleData> channels = new Channels<SampleData>(
+            1, 100, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.IF_POSSIBLE, 100, statistics);
+        // Switch the ring buffer to blocking at runtime.
+        channels.setStrategy(BufferStrategy.BLOCKING);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(channels.save(new SampleData().setName("d" + i)));
+        }
+        Assert.assertFalse(channels.save(new SampleData().setName("overwrite-data")));
+
+        List<SampleData> result = new ArrayList<SampleData>();
+        channels.getBuffer(0).obtain(result);
+        Assert.assertEquals(100, result.size());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("d" + i, result.get(i).getName());
+        }
+        Assert.assertEquals(100, statistics.getProduced());
+        Assert.assertEquals(1, statistics.getDropped());
+
+        // The slot is free after obtained.
+        Assert.assertTrue(channels.save(new SampleData().setName("d100")));
+    }
 }
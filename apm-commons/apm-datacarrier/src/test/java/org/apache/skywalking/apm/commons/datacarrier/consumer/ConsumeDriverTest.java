@@ -21,6 +21,7 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 import org.apache.skywalking.apm.commons.datacarrier.SampleData;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.Channels;
+import org.apache.skywalking.apm.commons.datacarrier.common.ConsumeSignal;
 import org.apache.skywalking.apm.commons.datacarrier.partition.SimpleRollingPartitioner;
 import org.junit.Assert;
 import org.junit.Test;
@@ -55,4 +56,49 @@ public class ConsumeDriverTest {
         Assert.assertFalse((Boolean) MemberModifier.field(ConsumerThread.class, "running").get(threads[0]));
         Assert.assertFalse((Boolean) MemberModifier.field(ConsumerThread.class, "running").get(threads[1]));
     }
+
+    @Test
+    public void testReplaceParkedConsumeDriver() throws InterruptedException, IllegalAccessException {
+        Channels<SampleData> channels = new Channels<SampleData>(2, 100, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.BLOCKING);
+        ConsumeDriver<SampleData> pool = new ConsumeDriver<SampleData>(
+            "default", channels, new SampleConsumer(), 2, 20, WaitStrategy.PARK);
+        pool.begin(channels);
+        Assert.assertEquals(2, ((ConsumeSignal[]) MemberModifier.field(Channels.class, "consumeSignals")
+                                                                 .get(channels)).length);
+
+        Thread.sleep(500);
+        pool.close(channels);
+        Assert.assertEquals(0, ((ConsumeSignal[]) MemberModifier.field(Channels.class, "consumeSignals")
+                                                                 .get(channels)).length);
+        ConsumerThread[] threads = (ConsumerThread[]) MemberModifier.field(ConsumeDriver.class, "consumerThreads")
+                                                                    .get(pool);
+        threads[0].join(1000);
+        threads[1].join(1000);
+        Assert.assertFalse(threads[0].isAlive());
+        Assert.assertFalse(threads[1].isAlive());
+
+        ConsumeDriver<SampleData> newPool = new ConsumeDriver<SampleData>(
+            "default", channels, new SampleConsumer(), 1, 20, WaitStrategy.PARK);
+        newPool.begin(channels);
+        Assert.assertEquals(1, ((ConsumeSignal[]) MemberModifier.field(Channels.class, "consumeSignals")
+                                                                 .get(channels)).length);
+        newPool.close(channels);
+    }
+
+    @Test
+    public void testShutdownParkedMultipleChannelsConsumer() throws InterruptedException, IllegalAccessException {
+        Channels<SampleData> channels = new Channels<SampleData>(2, 100, new SimpleRollingPartitioner<SampleData>(), BufferStrategy.BLOCKING);
+        MultipleChannelsConsumer consumer = new MultipleChannelsConsumer("default", 20, WaitStrategy.PARK);
+        consumer.addNewTarget(channels, new SampleConsumer());
+        consumer.start();
+        Assert.assertEquals(1, ((ConsumeSignal[]) MemberModifier.field(Channels.class, "consumeSignals")
+                                                                 .get(channels)).length);
+
+        Thread.sleep(500);
+        consumer.shutdown();
+        Assert.assertEquals(0, ((ConsumeSignal[]) MemberModifier.field(Channels.class, "consumeSignals")
+                                                                 .get(channels)).length);
+        consumer.join(1000);
+        Assert.assertFalse(consumer.isAlive());
+    }
 }
@@ -21,7 +21,9 @@ package org.apache.skywalking.apm.commons.datacarrier.consumer;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.SampleData;
 import org.junit.Assert;
@@ -98,6 +100,55 @@ public class ConsumerTest {
         Assert.assertTrue(IS_OCCUR_ERROR);
     }
 
+    @Test
+    public void testParkedConsumerSignalled() throws InterruptedException {
+        BUFFER.drainTo(new ArrayList<SampleData>());
+        final DataCarrier<SampleData> carrier = new DataCarrier<SampleData>(2, 100);
+        // The consume cycle is much longer than the test, only the signal could wake up the consumer.
+        carrier.consume(new SampleConsumer(), 1, 60 * 1000L, WaitStrategy.PARK);
+        Thread.sleep(500);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(carrier.produce(new SampleData().setName("data" + i)));
+            Assert.assertNotNull(BUFFER.poll(5, TimeUnit.SECONDS));
+        }
+        carrier.shutdownConsumers();
+    }
+
+    @Test
+    public void testParkedBulkConsumerSignalled() throws InterruptedException {
+        BUFFER.drainTo(new ArrayList<SampleData>());
+        final BulkConsumePool pool = new BulkConsumePool("testParkedBulkConsumerSignalled", 1, 60 * 1000L, WaitStrategy.PARK);
+        final DataCarrier<SampleData> carrier1 = new DataCarrier<SampleData>(2, 100);
+        final DataCarrier<SampleData> carrier2 = new DataCarrier<SampleData>(2, 100);
+        carrier1.consume(pool, new SampleConsumer());
+        carrier2.consume(pool, new SampleConsumer());
+        Thread.sleep(500);
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(carrier1.produce(new SampleData().setName("data" + i)));
+            Assert.assertNotNull(BUFFER.poll(5, TimeUnit.SECONDS));
+            Assert.assertTrue(carrier2.produce(new SampleData().setName("data" + i)));
+            Assert.assertNotNull(BUFFER.poll(5, TimeUnit.SECONDS));
+        }
+        pool.close(null);
+    }
+
+    @Test
+    public void testNothingToConsume() throws InterruptedException {
+        final CountDownLatch idleCycles = new CountDownLatch(3);
+        final DataCarrier<SampleData> carrier = new DataCarrier<SampleData>(2, 100);
+        carrier.consume(new SampleConsumer() {
+            @Override
+            public void nothingToConsume() {
+                idleCycles.countDown();
+            }
+        }, 1, 10);
+
+        Assert.assertTrue(idleCycles.await(5, TimeUnit.SECONDS));
+        carrier.shutdownConsumers();
+    }
+
     class SampleConsumer2 implements IConsumer<SampleData> {
         public int i = 1;
 
@@ -160,6 +160,17 @@ public class Config {
          * How long grpc client will timeout in sending data to upstream.
          */
         public static int GRPC_UPSTREAM_TIMEOUT = 30;
+        /**
+         * If true, the trace segments are sent through a long-lived stream, which is renewed every half of the {@link
+         * #GRPC_UPSTREAM_TIMEOUT}, rather than a new stream for every batch waiting for the response of the collector.
+         */
+        public static boolean KEEP_SEGMENT_STREAM = false;
+        /**
+         * The max number of the segment streams waiting for the response of the collector, only works when {@link
+         * #KEEP_SEGMENT_STREAM} is true. When the window is full, the segments are abandoned after waiting for {@link
+         * #GRPC_UPSTREAM_TIMEOUT}.
+         */
+        public static int SEGMENT_STREAM_WINDOW = 4;
         /**
          * Get profile task list interval
          */
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.meter;
+
+import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatistics;
+
+/**
+ * Report the produced, dropped data and the blocked time of the producers of the agent {@link DataCarrier}s through
+ * the meter system.
+ */
+public class DataCarrierMeters {
+    /**
+     * Register the gauges of the cumulative statistics of the given DataCarrier, tagged by the name of the DataCarrier.
+     */
+    public static void register(DataCarrier<?> carrier) {
+        final DataCarrierStatistics statistics = carrier.getStatistics();
+        MeterFactory.gauge("datacarrier_produced_count", () -> (double) statistics.getProduced())
+                    .tag("name", statistics.getName())
+                    .build();
+        MeterFactory.gauge("datacarrier_dropped_count", () -> (double) statistics.getDropped())
+                    .tag("name", statistics.getName())
+                    .build();
+        MeterFactory.gauge("datacarrier_blocked_time", () -> (double) statistics.getBlockedTime() / 1000_000)
+                    .tag("name", statistics.getName())
+                    .build();
+    }
+}
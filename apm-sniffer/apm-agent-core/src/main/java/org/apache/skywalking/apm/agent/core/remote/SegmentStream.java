@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.apm.agent.core.remote;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
+import org.apache.skywalking.apm.agent.core.commands.CommandService;
+import org.apache.skywalking.apm.agent.core.conf.Config;
+import org.apache.skywalking.apm.agent.core.logging.api.ILog;
+import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.network.common.v3.Commands;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.TraceSegmentReportServiceGrpc;
+
+/**
+ * SegmentStream is a long-lived {@code collect} stream of the trace segments. The stream holds a permit of the window
+ * until the collector responds, the segments sent through it are counted as uplinked when the collector completes the
+ * stream, or abandoned when the stream fails.
+ *
+ * The segments are only sent when the transport is ready, so a slow collector pushes back to the sender rather than
+ * buffering the segments in the memory of the agent.
+ */
+class SegmentStream {
+    private static final ILog LOGGER = LogManager.getLogger(SegmentStream.class);
+
+    private final Semaphore window;
+    private final LongAdder uplinkedCounter;
+    private final LongAdder abandonedCounter;
+    private final long createTime;
+    private final AtomicInteger segments = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final Object readyLock = new Object();
+    private final ClientCallStreamObserver<SegmentObject> requestObserver;
+    private boolean completed;
+
+    /**
+     * Open the stream, the caller should have acquired a permit of the window, which is released when the stream is
+     * finished.
+     */
+    SegmentStream(TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub serviceStub,
+                  Semaphore window,
+                  LongAdder uplinkedCounter,
+                  LongAdder abandonedCounter) {
+        this.window = window;
+        this.uplinkedCounter = uplinkedCounter;
+        this.abandonedCounter = abandonedCounter;
+        this.createTime = System.currentTimeMillis();
+        this.requestObserver = (ClientCallStreamObserver<SegmentObject>) serviceStub.withDeadlineAfter(
+            Config.Collector.GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
+        ).collect(new ClientResponseObserver<SegmentObject, Commands>() {
+            @Override
+            public void beforeStart(ClientCallStreamObserver<SegmentObject> requestStream) {
+                requestStream.setOnReadyHandler(SegmentStream.this::signalReady);
+            }
+
+            @Override
+            public void onNext(Commands commands) {
+                ServiceManager.INSTANCE.findService(CommandService.class).receiveCommand(commands);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                finish(false);
+                if (LOGGER.isErrorEnable()) {
+                    LOGGER.error(throwable, "Send UpstreamSegment to collector fail with a grpc internal exception.");
+                }
+                ServiceManager.INSTANCE.findService(GRPCChannelManager.class).reportError(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                finish(true);
+            }
+        });
+    }
+
+    /**
+     * Send the segment when the transport is ready.
+     *
+     * @param deadline the {@link System#nanoTime()} to give up waiting for the transport.
+     * @return false if the segment is not sent, because the stream is finished, or the transport isn't ready before
+     * the deadline.
+     */
+    boolean send(SegmentObject segment, long deadline) {
+        synchronized (readyLock) {
+            while (!requestObserver.isReady() && !finished.get()) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(readyLock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        if (finished.get()) {
+            return false;
+        }
+        segments.incrementAndGet();
+        requestObserver.onNext(segment);
+        return true;
+    }
+
+    /**
+     * Complete the request side of the stream, the stream is finished after the collector responds.
+     */
+    void complete() {
+        if (completed || finished.get()) {
+            return;
+        }
+        completed = true;
+        requestObserver.onCompleted();
+    }
+
+    boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * @return true if the stream has lived for half of the {@link Config.Collector#GRPC_UPSTREAM_TIMEOUT}, it should
+     * be completed before the deadline exceeds.
+     */
+    boolean isExpired() {
+        return System.currentTimeMillis() - createTime >= Config.Collector.GRPC_UPSTREAM_TIMEOUT * 1000L / 2;
+    }
+
+    private void finish(boolean success) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        window.release();
+        if (success) {
+            uplinkedCounter.add(segments.get());
+        } else {
+            abandonedCounter.add(segments.get());
+        }
+        signalReady();
+    }
+
+    private void signalReady() {
+        synchronized (readyLock) {
+            readyLock.notifyAll();
+        }
+    }
+}
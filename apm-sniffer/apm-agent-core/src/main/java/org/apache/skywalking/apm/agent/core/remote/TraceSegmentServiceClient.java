@@ -30,6 +30,8 @@ import org.apache.skywalking.apm.agent.core.context.TracingContextListener;
 import org.apache.skywalking.apm.agent.core.context.trace.TraceSegment;
 import org.apache.skywalking.apm.agent.core.logging.api.ILog;
 import org.apache.skywalking.apm.agent.core.logging.api.LogManager;
+import org.apache.skywalking.apm.agent.core.meter.DataCarrierMeters;
+import org.apache.skywalking.apm.agent.core.meter.MeterFactory;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.buffer.BufferStrategy;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
@@ -38,7 +40,9 @@ import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.apm.network.language.agent.v3.TraceSegmentReportServiceGrpc;
 
 import java.util.List;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.BUFFER_SIZE;
 import static org.apache.skywalking.apm.agent.core.conf.Config.Buffer.CHANNEL_SIZE;
@@ -51,12 +55,20 @@ import static org.apache.skywalking.apm.agent.core.remote.GRPCChannelStatus.CONN
 public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSegment>, TracingContextListener, GRPCChannelListener {
     private static final ILog LOGGER = LogManager.getLogger(TraceSegmentServiceClient.class);
 
-    private long lastLogTime;
-    private long segmentUplinkedCounter;
-    private long segmentAbandonedCounter;
+    private final LongAdder segmentUplinkedCounter = new LongAdder();
+    private final LongAdder segmentAbandonedCounter = new LongAdder();
     private volatile DataCarrier<TraceSegment> carrier;
     private volatile TraceSegmentReportServiceGrpc.TraceSegmentReportServiceStub serviceStub;
     private volatile GRPCChannelStatus status = GRPCChannelStatus.DISCONNECT;
+    /**
+     * The permits of the segment streams waiting for the response, only used when {@link
+     * Config.Collector#KEEP_SEGMENT_STREAM} is true.
+     */
+    private final Semaphore streamWindow = new Semaphore(Math.max(1, Config.Collector.SEGMENT_STREAM_WINDOW));
+    /**
+     * The current long-lived segment stream, only accessed by the consumer thread.
+     */
+    private SegmentStream segmentStream;
 
     @Override
     public void prepare() {
@@ -66,12 +78,12 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
     @Override
     public void boot() {
-        // 初始化计数器
-        lastLogTime = System.currentTimeMillis();
-        segmentUplinkedCounter = 0;
-        segmentAbandonedCounter = 0;
-        carrier = new DataCarrier<>(CHANNEL_SIZE, BUFFER_SIZE, BufferStrategy.IF_POSSIBLE);
+        carrier = new DataCarrier<>(
+            "TraceSegmentServiceClient", "DEFAULT", CHANNEL_SIZE, BUFFER_SIZE, BufferStrategy.IF_POSSIBLE);
         carrier.consume(this, 1);
+        DataCarrierMeters.register(carrier);
+        MeterFactory.gauge("trace_segment_uplinked_count", segmentUplinkedCounter::doubleValue).build();
+        MeterFactory.gauge("trace_segment_abandoned_count", segmentAbandonedCounter::doubleValue).build();
     }
 
     @Override
@@ -92,72 +104,128 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
     @Override
     public void consume(List<TraceSegment> data) {
-        if (CONNECTED.equals(status)) {
-            final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
-            StreamObserver<SegmentObject> upstreamSegmentStreamObserver = serviceStub.withDeadlineAfter(
-                    Config.Collector.GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
-            ).collect(new StreamObserver<Commands>() {
-                @Override
-                public void onNext(Commands commands) {
-                    ServiceManager.INSTANCE.findService(CommandService.class)
-                            .receiveCommand(commands);
-                }
+        if (!CONNECTED.equals(status)) {
+            segmentAbandonedCounter.add(data.size());
+        } else if (Config.Collector.KEEP_SEGMENT_STREAM) {
+            consumeInSegmentStream(data);
+        } else {
+            consumeInNewStream(data);
+        }
+    }
 
-                @Override
-                public void onError(
-                        Throwable throwable) {
-                    status.finished();
-                    if (LOGGER.isErrorEnable()) {
-                        LOGGER.error(
-                                throwable,
-                                "Send UpstreamSegment to collector fail with a grpc internal exception."
-                        );
-                    }
-                    ServiceManager.INSTANCE
-                            .findService(GRPCChannelManager.class)
-                            .reportError(throwable);
-                }
+    @Override
+    public void nothingToConsume() {
+        if (segmentStream != null && (segmentStream.isFinished() || segmentStream.isExpired())) {
+            segmentStream.complete();
+            segmentStream = null;
+        }
+    }
 
-                @Override
-                public void onCompleted() {
-                    status.finished();
-                }
-            });
+    private void consumeInNewStream(List<TraceSegment> data) {
+        final GRPCStreamServiceStatus status = new GRPCStreamServiceStatus(false);
+        StreamObserver<SegmentObject> upstreamSegmentStreamObserver = serviceStub.withDeadlineAfter(
+                Config.Collector.GRPC_UPSTREAM_TIMEOUT, TimeUnit.SECONDS
+        ).collect(new StreamObserver<Commands>() {
+            @Override
+            public void onNext(Commands commands) {
+                ServiceManager.INSTANCE.findService(CommandService.class)
+                        .receiveCommand(commands);
+            }
 
-            try {
-                for (TraceSegment segment : data) {
-                    SegmentObject upstreamSegment = segment.transform();
-                    upstreamSegmentStreamObserver.onNext(upstreamSegment);
+            @Override
+            public void onError(
+                    Throwable throwable) {
+                status.finished();
+                if (LOGGER.isErrorEnable()) {
+                    LOGGER.error(
+                            throwable,
+                            "Send UpstreamSegment to collector fail with a grpc internal exception."
+                    );
                 }
-            } catch (Throwable t) {
-                LOGGER.error(t, "Transform and send UpstreamSegment to collector fail.");
+                ServiceManager.INSTANCE
+                        .findService(GRPCChannelManager.class)
+                        .reportError(throwable);
             }
 
-            upstreamSegmentStreamObserver.onCompleted();
+            @Override
+            public void onCompleted() {
+                status.finished();
+            }
+        });
 
-            status.wait4Finish();
-            segmentUplinkedCounter += data.size();
-        } else {
-            segmentAbandonedCounter += data.size();
+        try {
+            for (TraceSegment segment : data) {
+                SegmentObject upstreamSegment = segment.transform();
+                upstreamSegmentStreamObserver.onNext(upstreamSegment);
+            }
+        } catch (Throwable t) {
+            LOGGER.error(t, "Transform and send UpstreamSegment to collector fail.");
         }
 
-        printUplinkStatus();
+        upstreamSegmentStreamObserver.onCompleted();
+
+        status.wait4Finish();
+        segmentUplinkedCounter.add(data.size());
     }
 
-    private void printUplinkStatus() {
-        long currentTimeMillis = System.currentTimeMillis();
-        if (currentTimeMillis - lastLogTime > 30 * 1000) {
-            lastLogTime = currentTimeMillis;
-            if (segmentUplinkedCounter > 0) {
-                LOGGER.debug("{} trace segments have been sent to collector.", segmentUplinkedCounter);
-                segmentUplinkedCounter = 0;
+    /**
+     * Send the segments through the long-lived stream without waiting for the response. The stream is renewed when it
+     * expires, and the previous ones keep waiting for the response in the window. When a segment can't be sent in the
+     * middle of the batch, the stream is dropped, and the rest of the segments are resent through a new stream once.
+     * They are abandoned, if no stream could be opened or the transport isn't ready again in {@link
+     * Config.Collector#GRPC_UPSTREAM_TIMEOUT}.
+     */
+    private void consumeInSegmentStream(List<TraceSegment> data) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Config.Collector.GRPC_UPSTREAM_TIMEOUT);
+        int sent = 0;
+        boolean resent = false;
+        try {
+            while (sent < data.size()) {
+                final SegmentStream stream = currentSegmentStream(deadline);
+                if (stream == null) {
+                    break;
+                }
+                if (stream.send(data.get(sent).transform(), deadline)) {
+                    sent++;
+                    continue;
+                }
+                if (resent) {
+                    break;
+                }
+                // The stream is finished or stuck, the segments sent through it are counted when it finishes.
+                resent = true;
+                stream.complete();
+                segmentStream = null;
+                deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Config.Collector.GRPC_UPSTREAM_TIMEOUT);
             }
-            if (segmentAbandonedCounter > 0) {
-                LOGGER.debug(
-                        "{} trace segments have been abandoned, cause by no available channel.", segmentAbandonedCounter);
-                segmentAbandonedCounter = 0;
+        } catch (Throwable t) {
+            LOGGER.error(t, "Transform and send UpstreamSegment to collector fail.");
+        }
+        if (sent < data.size()) {
+            segmentAbandonedCounter.add(data.size() - sent);
+        }
+    }
+
+    private SegmentStream currentSegmentStream(long deadline) throws InterruptedException {
+        if (segmentStream != null && (segmentStream.isFinished() || segmentStream.isExpired())) {
+            segmentStream.complete();
+            segmentStream = null;
+        }
+        if (segmentStream == null) {
+            if (!streamWindow.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("No segment stream is available, {} streams are waiting for the response of collector.",
+                            Config.Collector.SEGMENT_STREAM_WINDOW);
+                return null;
+            }
+            try {
+                segmentStream = new SegmentStream(
+                    serviceStub, streamWindow, segmentUplinkedCounter, segmentAbandonedCounter);
+            } catch (Throwable t) {
+                streamWindow.release();
+                throw t;
             }
         }
+        return segmentStream;
     }
 
     @Override
@@ -167,7 +235,10 @@ public class TraceSegmentServiceClient implements BootService, IConsumer<TraceSe
 
     @Override
     public void onExit() {
-
+        if (segmentStream != null) {
+            segmentStream.complete();
+            segmentStream = null;
+        }
     }
 
     @Override
@@ -23,6 +23,7 @@ import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.skywalking.apm.agent.core.boot.ServiceManager;
 import org.apache.skywalking.apm.agent.core.conf.Config;
 import org.apache.skywalking.apm.agent.core.context.ContextManager;
@@ -155,4 +156,28 @@ public class TraceSegmentServiceClientTest {
         assertThat(reconnect, is(true));
 
     }
+
+    @Test
+    public void testSendTraceSegmentInSegmentStream() {
+        grpcServerRule.getServiceRegistry().addService(serviceImplBase);
+        Config.Collector.KEEP_SEGMENT_STREAM = true;
+        try {
+            AbstractSpan firstEntrySpan = ContextManager.createEntrySpan("/testFirstEntry", null);
+            firstEntrySpan.setComponent(ComponentsDefine.TOMCAT);
+            SpanLayer.asHttp(firstEntrySpan);
+            ContextManager.stopSpan();
+
+            serviceClient.consume(storage.getTraceSegments());
+            serviceClient.consume(storage.getTraceSegments());
+            serviceClient.nothingToConsume();
+            assertThat(upstreamSegments.size(), is(2));
+            LongAdder uplinked = Whitebox.getInternalState(serviceClient, "segmentUplinkedCounter");
+            assertThat(uplinked.intValue(), is(0));
+
+            serviceClient.onExit();
+            assertThat(uplinked.intValue(), is(2));
+        } finally {
+            Config.Collector.KEEP_SEGMENT_STREAM = false;
+        }
+    }
 }
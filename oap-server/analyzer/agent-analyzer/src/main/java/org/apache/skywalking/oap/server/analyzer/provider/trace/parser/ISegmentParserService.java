@@ -26,4 +26,12 @@ import org.apache.skywalking.oap.server.library.module.Service;
  */
 public interface ISegmentParserService extends Service {
     void send(SegmentObject segment);
+
+    /**
+     * Send the segment with the bytes it was deserialized from. The bytes are persisted as the segment data binary
+     * directly, rather than serializing the segment object again.
+     *
+     * @param rawSegment the serialized segment as received, or NULL if not available.
+     */
+    void send(SegmentObject segment, byte[] rawSegment);
 }
@@ -18,7 +18,6 @@
 
 package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
 
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -27,16 +26,29 @@ import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
 /**
  * The open service to the receivers.
  */
-@RequiredArgsConstructor
 public class SegmentParserServiceImpl implements ISegmentParserService {
     private final ModuleManager moduleManager;
     private final AnalyzerModuleConfig config;
     @Setter
     private SegmentParserListenerManager listenerManager;
+    /**
+     * The analyzer of every receiver thread, whose listeners are reused for all segments received by the thread.
+     */
+    private final ThreadLocal<TraceAnalyzer> traceAnalyzer;
+
+    public SegmentParserServiceImpl(ModuleManager moduleManager, AnalyzerModuleConfig config) {
+        this.moduleManager = moduleManager;
+        this.config = config;
+        this.traceAnalyzer = ThreadLocal.withInitial(() -> new TraceAnalyzer(moduleManager, listenerManager, config));
+    }
 
     @Override
     public void send(SegmentObject segment) {
-        final TraceAnalyzer traceAnalyzer = new TraceAnalyzer(moduleManager, listenerManager, config);
-        traceAnalyzer.doAnalysis(segment);
+        send(segment, null);
+    }
+
+    @Override
+    public void send(SegmentObject segment, byte[] rawSegment) {
+        traceAnalyzer.get().doAnalysis(segment, rawSegment);
     }
 }
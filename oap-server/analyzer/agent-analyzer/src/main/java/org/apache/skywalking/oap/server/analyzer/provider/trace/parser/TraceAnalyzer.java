@@ -20,13 +20,13 @@ package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
 
 import java.util.ArrayList;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
 import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
 import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
 import org.apache.skywalking.oap.server.analyzer.provider.AnalyzerModuleConfig;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListenerFactory;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.EntryAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.ExitAnalysisListener;
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.FirstAnalysisListener;
@@ -34,91 +34,135 @@ import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.
 import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.SegmentListener;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 
+/**
+ * TraceAnalyzer creates the listeners from all factories once, and dispatches the segment and spans to the listeners
+ * through the index of the listeners of every {@link AnalysisListener.Point}. The listeners are reset after every
+ * segment to be reused, so one TraceAnalyzer should only be used by one thread.
+ */
 @Slf4j
-@RequiredArgsConstructor
 public class TraceAnalyzer {
     private final ModuleManager moduleManager;
-    private final SegmentParserListenerManager listenerManager;
     private final AnalyzerModuleConfig config;
-    private List<AnalysisListener> analysisListeners = new ArrayList<>();
+    private final AnalysisListenerFactory[] factories;
+    private final AnalysisListener[] listeners;
+    private final int[] segmentListeners;
+    private final int[] firstListeners;
+    private final int[] entryListeners;
+    private final int[] exitListeners;
+    private final int[] localListeners;
+
+    public TraceAnalyzer(ModuleManager moduleManager,
+                         SegmentParserListenerManager listenerManager,
+                         AnalyzerModuleConfig config) {
+        this.moduleManager = moduleManager;
+        this.config = config;
+        this.factories = listenerManager.getSpanListenerFactories().toArray(new AnalysisListenerFactory[0]);
+        this.listeners = new AnalysisListener[factories.length];
+        for (int i = 0; i < factories.length; i++) {
+            listeners[i] = factories[i].create(moduleManager, config);
+        }
+        this.segmentListeners = indexOf(AnalysisListener.Point.Segment);
+        this.firstListeners = indexOf(AnalysisListener.Point.First);
+        this.entryListeners = indexOf(AnalysisListener.Point.Entry);
+        this.exitListeners = indexOf(AnalysisListener.Point.Exit);
+        this.localListeners = indexOf(AnalysisListener.Point.Local);
+    }
 
     public void doAnalysis(SegmentObject segmentObject) {
+        doAnalysis(segmentObject, null);
+    }
+
+    /**
+     * @param rawSegment the bytes which the segment object is deserialized from, NULL if not available.
+     */
+    public void doAnalysis(SegmentObject segmentObject, byte[] rawSegment) {
         if (segmentObject.getSpansList().size() == 0) {
             return;
         }
 
-        createSpanListeners();
-
-        notifySegmentListener(segmentObject);
-
-        segmentObject.getSpansList().forEach(spanObject -> {
-            if (spanObject.getSpanId() == 0) {
-                notifyFirstListener(spanObject, segmentObject);
+        try {
+            notifySegmentListener(segmentObject, rawSegment);
+
+            final List<SpanObject> spans = segmentObject.getSpansList();
+            for (int i = 0; i < spans.size(); i++) {
+                final SpanObject spanObject = spans.get(i);
+                if (spanObject.getSpanId() == 0) {
+                    notifyFirstListener(spanObject, segmentObject);
+                }
+
+                if (SpanType.Exit.equals(spanObject.getSpanType())) {
+                    notifyExitListener(spanObject, segmentObject);
+                } else if (SpanType.Entry.equals(spanObject.getSpanType())) {
+                    notifyEntryListener(spanObject, segmentObject);
+                } else if (SpanType.Local.equals(spanObject.getSpanType())) {
+                    notifyLocalListener(spanObject, segmentObject);
+                } else {
+                    log.error("span type value was unexpected, span type name: {}", spanObject.getSpanType()
+                                                                                              .name());
+                }
             }
 
-            if (SpanType.Exit.equals(spanObject.getSpanType())) {
-                notifyExitListener(spanObject, segmentObject);
-            } else if (SpanType.Entry.equals(spanObject.getSpanType())) {
-                notifyEntryListener(spanObject, segmentObject);
-            } else if (SpanType.Local.equals(spanObject.getSpanType())) {
-                notifyLocalListener(spanObject, segmentObject);
-            } else {
-                log.error("span type value was unexpected, span type name: {}", spanObject.getSpanType()
-                                                                                          .name());
-            }
-        });
-
-        notifyListenerToBuild();
+            notifyListenerToBuild();
+        } finally {
+            resetListeners();
+        }
     }
 
     private void notifyListenerToBuild() {
-        analysisListeners.forEach(AnalysisListener::build);
+        for (final AnalysisListener listener : listeners) {
+            listener.build();
+        }
     }
 
     private void notifyExitListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Exit)) {
-                ((ExitAnalysisListener) listener).parseExit(span, segmentObject);
-            }
-        });
+        for (final int index : exitListeners) {
+            ((ExitAnalysisListener) listeners[index]).parseExit(span, segmentObject);
+        }
     }
 
     private void notifyEntryListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Entry)) {
-                ((EntryAnalysisListener) listener).parseEntry(span, segmentObject);
-            }
-        });
+        for (final int index : entryListeners) {
+            ((EntryAnalysisListener) listeners[index]).parseEntry(span, segmentObject);
+        }
     }
 
     private void notifyLocalListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Local)) {
-                ((LocalAnalysisListener) listener).parseLocal(span, segmentObject);
-            }
-        });
+        for (final int index : localListeners) {
+            ((LocalAnalysisListener) listeners[index]).parseLocal(span, segmentObject);
+        }
     }
 
     private void notifyFirstListener(SpanObject span, SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.First)) {
-                ((FirstAnalysisListener) listener).parseFirst(span, segmentObject);
-            }
-        });
+        for (final int index : firstListeners) {
+            ((FirstAnalysisListener) listeners[index]).parseFirst(span, segmentObject);
+        }
     }
 
-    private void notifySegmentListener(SegmentObject segmentObject) {
-        analysisListeners.forEach(listener -> {
-            if (listener.containsPoint(AnalysisListener.Point.Segment)) {
-                ((SegmentListener) listener).parseSegment(segmentObject);
+    private void notifySegmentListener(SegmentObject segmentObject, byte[] rawSegment) {
+        for (final int index : segmentListeners) {
+            ((SegmentListener) listeners[index]).parseSegment(segmentObject, rawSegment);
+        }
+    }
+
+    /**
+     * Reset the listeners for the next segment, the ones not supporting reusing are replaced by the new instances. The
+     * points of the new instance are the same as the replaced one, as they are created by the same factory.
+     */
+    private void resetListeners() {
+        for (int i = 0; i < listeners.length; i++) {
+            if (!listeners[i].reset()) {
+                listeners[i] = factories[i].create(moduleManager, config);
             }
-        });
+        }
     }
 
-    private void createSpanListeners() {
-        listenerManager.getSpanListenerFactories()
-                       .forEach(
-                           spanListenerFactory -> analysisListeners.add(
-                               spanListenerFactory.create(moduleManager, config)));
+    private int[] indexOf(AnalysisListener.Point point) {
+        final List<Integer> indexes = new ArrayList<>(listeners.length);
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].containsPoint(point)) {
+                indexes.add(i);
+            }
+        }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
     }
 }
@@ -33,6 +33,17 @@ public interface AnalysisListener {
      */
     boolean containsPoint(Point point);
 
+    /**
+     * Clear the state of this listener after the analysis of a segment, including the failed one, to reuse it for the
+     * next segment.
+     *
+     * @return false if this listener doesn't support reusing, then a new instance is created by the factory for every
+     * segment.
+     */
+    default boolean reset() {
+        return false;
+    }
+
     /**
      * Analysis point when the analysis core traverses the segment
      */
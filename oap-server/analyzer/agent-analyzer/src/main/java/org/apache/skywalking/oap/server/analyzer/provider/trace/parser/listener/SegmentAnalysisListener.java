@@ -57,7 +57,7 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     private final SegmentStatusAnalyzer segmentStatusAnalyzer;
     private final TraceLatencyThresholdsAndWatcher traceLatencyThresholdsAndWatcher;
 
-    private final Segment segment = new Segment();
+    private Segment segment = new Segment();
     private SAMPLE_STATUS sampleStatus = SAMPLE_STATUS.UNKNOWN;
     private String serviceName = Const.EMPTY_STRING;
     private String serviceId = Const.EMPTY_STRING;
@@ -67,6 +67,7 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
     private long endTimestamp;
     private int duration;
     private boolean isError;
+    private byte[] rawSegment;
 
     @Override
     public boolean containsPoint(Point point) {
@@ -100,7 +101,7 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         segment.setTimeBucket(timeBucket);
         segment.setEndTime(endTimestamp);
         segment.setIsError(BooleanUtils.booleanToValue(isError));
-        segment.setDataBinary(segmentObject.toByteArray());
+        segment.setDataBinary(rawSegment != null ? rawSegment : segmentObject.toByteArray());
         segment.setVersion(3);
 
         endpointName = namingControl.formatEndpointName(serviceName, span.getOperationName());
@@ -125,6 +126,12 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         );
     }
 
+    @Override
+    public void parseSegment(SegmentObject segmentObject, byte[] rawSegment) {
+        this.rawSegment = rawSegment;
+        parseSegment(segmentObject);
+    }
+
     @Override
     public void parseSegment(SegmentObject segmentObject) {
         segment.setTraceId(segmentObject.getTraceId());
@@ -184,6 +191,25 @@ public class SegmentAnalysisListener implements FirstAnalysisListener, EntryAnal
         sourceReceiver.receive(segment);
     }
 
+    /**
+     * The segment source has been sent to the source receiver, so a new one is created for the next segment.
+     */
+    @Override
+    public boolean reset() {
+        segment = new Segment();
+        sampleStatus = SAMPLE_STATUS.UNKNOWN;
+        serviceName = Const.EMPTY_STRING;
+        serviceId = Const.EMPTY_STRING;
+        endpointId = Const.EMPTY_STRING;
+        endpointName = Const.EMPTY_STRING;
+        startTimestamp = 0;
+        endTimestamp = 0;
+        duration = 0;
+        isError = false;
+        rawSegment = null;
+        return true;
+    }
+
     private enum SAMPLE_STATUS {
         UNKNOWN, SAMPLED, IGNORE
     }
@@ -25,4 +25,13 @@ import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
  */
 public interface SegmentListener extends AnalysisListener {
     void parseSegment(SegmentObject segmentObject);
+
+    /**
+     * Parse the segment with the bytes it was deserialized from.
+     *
+     * @param rawSegment the serialized segment as received, NULL if not available.
+     */
+    default void parseSegment(SegmentObject segmentObject, byte[] rawSegment) {
+        parseSegment(segmentObject);
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.AnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.EntryAnalysisListener;
+import org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener.ExitAnalysisListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TraceAnalyzerTest {
+    private final List<MockListener> createdListeners = new ArrayList<>();
+
+    @Test
+    public void testReuseListeners() {
+        final TraceAnalyzer analyzer = new TraceAnalyzer(null, listenerManager(true), null);
+
+        analyzer.doAnalysis(mockSegment());
+        analyzer.doAnalysis(mockSegment());
+
+        Assert.assertEquals(2, createdListeners.size());
+        final MockListener entryListener = createdListeners.get(0);
+        Assert.assertEquals(2, entryListener.entries);
+        Assert.assertEquals(0, entryListener.exits);
+        Assert.assertEquals(2, entryListener.builds);
+        Assert.assertEquals(2, entryListener.resets);
+        final MockListener exitListener = createdListeners.get(1);
+        Assert.assertEquals(0, exitListener.entries);
+        Assert.assertEquals(4, exitListener.exits);
+    }
+
+    @Test
+    public void testRecreateNotReusableListeners() {
+        final TraceAnalyzer analyzer = new TraceAnalyzer(null, listenerManager(false), null);
+
+        analyzer.doAnalysis(mockSegment());
+        analyzer.doAnalysis(mockSegment());
+
+        Assert.assertEquals(6, createdListeners.size());
+        Assert.assertEquals(1, createdListeners.get(2).entries);
+        Assert.assertEquals(2, createdListeners.get(3).exits);
+        Assert.assertEquals(0, createdListeners.get(4).entries);
+    }
+
+    @Test
+    public void testResetAfterFailure() {
+        final TraceAnalyzer analyzer = new TraceAnalyzer(null, listenerManager(true), null);
+        createdListeners.get(1).failOnBuild = true;
+
+        try {
+            analyzer.doAnalysis(mockSegment());
+            Assert.fail();
+        } catch (IllegalStateException ignored) {
+        }
+
+        Assert.assertEquals(1, createdListeners.get(0).resets);
+        Assert.assertEquals(1, createdListeners.get(1).resets);
+    }
+
+    private SegmentParserListenerManager listenerManager(boolean reusable) {
+        final SegmentParserListenerManager listenerManager = new SegmentParserListenerManager();
+        listenerManager.add((moduleManager, config) -> created(new MockListener(AnalysisListener.Point.Entry, reusable)));
+        listenerManager.add((moduleManager, config) -> created(new MockListener(AnalysisListener.Point.Exit, reusable)));
+        return listenerManager;
+    }
+
+    private MockListener created(MockListener listener) {
+        createdListeners.add(listener);
+        return listener;
+    }
+
+    private static SegmentObject mockSegment() {
+        return SegmentObject.newBuilder()
+                            .addSpans(SpanObject.newBuilder().setSpanId(0).setSpanType(SpanType.Entry))
+                            .addSpans(SpanObject.newBuilder().setSpanId(1).setSpanType(SpanType.Exit))
+                            .addSpans(SpanObject.newBuilder().setSpanId(2).setSpanType(SpanType.Exit))
+                            .build();
+    }
+
+    private static class MockListener implements EntryAnalysisListener, ExitAnalysisListener {
+        private final Point point;
+        private final boolean reusable;
+        private boolean failOnBuild;
+        private int entries;
+        private int exits;
+        private int builds;
+        private int resets;
+
+        private MockListener(Point point, boolean reusable) {
+            this.point = point;
+            this.reusable = reusable;
+        }
+
+        @Override
+        public void parseEntry(SpanObject span, SegmentObject segmentObject) {
+            entries++;
+        }
+
+        @Override
+        public void parseExit(SpanObject span, SegmentObject segmentObject) {
+            exits++;
+        }
+
+        @Override
+        public void build() {
+            builds++;
+            if (failOnBuild) {
+                throw new IllegalStateException();
+            }
+        }
+
+        @Override
+        public boolean containsPoint(Point point) {
+            return this.point.equals(point);
+        }
+
+        @Override
+        public boolean reset() {
+            resets++;
+            return reusable;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.analyzer.provider.trace.parser.listener;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.apache.skywalking.apm.network.common.v3.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.v3.Log;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentReference;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanLayer;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the way to build the data binary of the segment record on the receiving path, serializing the deserialized
+ * segment again, or reusing the bytes received from the wire.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class SegmentDataBinaryBenchmark {
+    private static final int SPAN_SIZE = 30;
+
+    private byte[] received;
+
+    @Setup
+    public void setup() {
+        final long startTime = System.currentTimeMillis();
+        final SegmentObject.Builder segment = SegmentObject.newBuilder()
+                                                           .setTraceId("9a3f2c3b8c0e4b6e.46.16153012345670001")
+                                                           .setTraceSegmentId("9a3f2c3b8c0e4b6e.47.16153012345670002")
+                                                           .setService("mock-service")
+                                                           .setServiceInstance("mock-instance@10.0.0.1");
+        for (int i = 0; i < SPAN_SIZE; i++) {
+            final SpanObject.Builder span = SpanObject.newBuilder()
+                                                      .setSpanId(i)
+                                                      .setParentSpanId(i - 1)
+                                                      .setStartTime(startTime + i)
+                                                      .setEndTime(startTime + i + 10)
+                                                      .setOperationName("/mock/operation/" + i)
+                                                      .setPeer("10.0.0.2:8080")
+                                                      .setSpanType(i == 0 ? SpanType.Entry : SpanType.Exit)
+                                                      .setSpanLayer(SpanLayer.Http)
+                                                      .setComponentId(2)
+                                                      .addTags(KeyStringValuePair.newBuilder()
+                                                                                 .setKey("http.method")
+                                                                                 .setValue("GET"))
+                                                      .addTags(KeyStringValuePair.newBuilder()
+                                                                                 .setKey("url")
+                                                                                 .setValue("http://10.0.0.2:8080/mock/" + i))
+                                                      .addLogs(Log.newBuilder()
+                                                                  .setTime(startTime + i)
+                                                                  .addData(KeyStringValuePair.newBuilder()
+                                                                                             .setKey("event")
+                                                                                             .setValue("mock event")));
+            if (i == 0) {
+                span.addRefs(SegmentReference.newBuilder()
+                                             .setTraceId("9a3f2c3b8c0e4b6e.46.16153012345670001")
+                                             .setParentTraceSegmentId("9a3f2c3b8c0e4b6e.45.16153012345670000")
+                                             .setParentService("mock-parent-service")
+                                             .setParentServiceInstance("mock-parent-instance@10.0.0.3")
+                                             .setParentEndpoint("/mock/parent")
+                                             .setNetworkAddressUsedAtPeer("10.0.0.1:8080"));
+            }
+            segment.addSpans(span);
+        }
+        received = segment.build().toByteArray();
+    }
+
+    @Benchmark
+    public void testReserialize(Blackhole blackhole) throws InvalidProtocolBufferException {
+        final SegmentObject segment = SegmentObject.parseFrom(received);
+        blackhole.consume(segment.toByteArray());
+    }
+
+    @Benchmark
+    public void testRawBytes(Blackhole blackhole) throws InvalidProtocolBufferException {
+        final SegmentObject segment = SegmentObject.parseFrom(received);
+        blackhole.consume(segment);
+        blackhole.consume(received);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(SegmentDataBinaryBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.21
+        # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+        # VM options: -Xmx512m -Xms512m
+        # Warmup: 2 iterations, 3 s each
+        # Measurement: 3 iterations, 3 s each
+        # Threads: 1 thread, will synchronize iterations
+        # Benchmark mode: Throughput, ops/time
+
+        Benchmark                                                        Mode  Cnt       Score       Error  Units
+        SegmentDataBinaryBenchmark.testRawBytes                         thrpt    3   30305.991 ± 33123.684  ops/s
+        SegmentDataBinaryBenchmark.testRawBytes:·gc.alloc.rate.norm     thrpt    3   48752.005 ±     0.007  B/op
+        SegmentDataBinaryBenchmark.testReserialize                      thrpt    3    9924.683 ± 20640.874  ops/s
+        SegmentDataBinaryBenchmark.testReserialize:·gc.alloc.rate.norm  thrpt    3  107584.017 ±     0.070  B/op
+     */
+}
@@ -83,6 +83,7 @@ public class OALRuntime implements OALEngine {
     private static final String WITH_METADATA_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.metrics.WithMetadata";
     private static final String DISPATCHER_INTERFACE = "org.apache.skywalking.oap.server.core.analysis.SourceDispatcher";
     private static final String METRICS_STREAM_PROCESSOR = "org.apache.skywalking.oap.server.core.analysis.worker.MetricsStreamProcessor";
+    private static final String CACHED_ID_FIELD = "cachedId";
     private static final String[] METRICS_CLASS_METHODS = {
         "id",
         "hashCode",
@@ -236,6 +237,23 @@ public class OALRuntime implements OALEngine {
             throw new OALCompileException(e.getMessage(), e);
         }
 
+        /**
+         * Add the lazily built ID, which is reset when the ID fields or time bucket change.
+         *
+         * private transient String cachedId;
+         */
+        try {
+            metricsClass.addField(CtField.make("private transient String " + CACHED_ID_FIELD + ";", metricsClass));
+            metricsClass.addMethod(CtNewMethod.make(
+                "public void setTimeBucket(long timeBucket) {"
+                    + "super.setTimeBucket(timeBucket); this." + CACHED_ID_FIELD + " = null;}",
+                metricsClass
+            ));
+        } catch (CannotCompileException e) {
+            log.error("Can't add the cached ID in " + className + ".", e);
+            throw new OALCompileException(e.getMessage(), e);
+        }
+
         /**
          * Add fields with annotations.
          *
@@ -250,7 +268,18 @@ public class OALRuntime implements OALEngine {
                 metricsClass.addField(newField);
 
                 metricsClass.addMethod(CtNewMethod.getter(field.getFieldGetter(), newField));
-                metricsClass.addMethod(CtNewMethod.setter(field.getFieldSetter(), newField));
+                if (field.isID()) {
+                    /**
+                     * The setter of the ID field resets the cached ID.
+                     */
+                    metricsClass.addMethod(CtNewMethod.make(
+                        "public void " + field.getFieldSetter() + "(" + field.getType().getName() + " value) {"
+                            + "this." + field.getFieldName() + " = value; this." + CACHED_ID_FIELD + " = null;}",
+                        metricsClass
+                    ));
+                } else {
+                    metricsClass.addMethod(CtNewMethod.setter(field.getFieldSetter(), newField));
+                }
 
                 AnnotationsAttribute annotationsAttribute = new AnnotationsAttribute(
                     constPool, AnnotationsAttribute.visibleTag);
@@ -408,6 +437,23 @@ public class OALRuntime implements OALEngine {
             throw new OALCompileException(e.getMessage(), e);
         }
 
+        /**
+         * Add the shared matchers of the filter expressions and the entrance method arguments.
+         *
+         * private final ${matcher} _${matcherSimpleName} = new ${matcher}();
+         */
+        dispatcherContext.prepareSharedEvaluations();
+        for (String matcher : dispatcherContext.getMatchers()) {
+            try {
+                dispatcherClass.addField(CtField.make(
+                    "private final " + matcher + " _" + matcher.substring(matcher.lastIndexOf('.') + 1)
+                        + " = new " + matcher + "();", dispatcherClass));
+            } catch (CannotCompileException e) {
+                log.error("Can't add the matcher " + matcher + " in " + className + ".", e);
+                throw new OALCompileException(e.getMessage(), e);
+            }
+        }
+
         /**
          * Generate methods
          */
@@ -19,10 +19,18 @@
 package org.apache.skywalking.oal.rt.output;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.skywalking.oal.rt.parser.AnalysisResult;
+import org.apache.skywalking.oal.rt.parser.Expression;
+import org.apache.skywalking.oal.rt.parser.SourceColumn;
 
 @Getter
 @Setter
@@ -32,4 +40,79 @@ public class DispatcherContext {
     private String source;
     private String packageName;
     private List<AnalysisResult> metrics = new ArrayList<>();
+    /**
+     * The distinct filter expressions of all metrics. Each one is evaluated at most once per source, on its first use,
+     * and the filter expressions of a group are evaluated in the declared order until one of them doesn't match.
+     */
+    private List<Expression> filterExpressions = new ArrayList<>();
+    /**
+     * The metrics grouped by the same filter expressions.
+     */
+    private List<FilterGroup> filterGroups = new ArrayList<>();
+    /**
+     * The class names of the matchers used by the filter expressions and the entrance method arguments.
+     */
+    private Set<String> matchers = new LinkedHashSet<>();
+    /**
+     * The distinct fields of the source used by all metrics, read once per source.
+     */
+    private List<SourceColumn> sourceFields = new ArrayList<>();
+
+    /**
+     * Find the evaluations shared by the metrics, and group the metrics by their filter expressions. The identical
+     * filter expressions are evaluated lazily and at most once by the dispatcher, the source fields are read once, and
+     * the metrics of the same filter expressions are dispatched in one branch.
+     */
+    public void prepareSharedEvaluations() {
+        filterExpressions.clear();
+        filterGroups.clear();
+        matchers.clear();
+        sourceFields.clear();
+        final Set<String> sourceFieldNames = new HashSet<>();
+        final Map<String, Integer> expressionIndexes = new HashMap<>();
+        final Map<List<Integer>, FilterGroup> groups = new LinkedHashMap<>();
+        for (AnalysisResult metricsStmt : metrics) {
+            final List<Integer> indexes = new ArrayList<>();
+            if (metricsStmt.getFilterExpressions() != null) {
+                for (Expression expression : metricsStmt.getFilterExpressions()) {
+                    final Integer index = expressionIndexes.computeIfAbsent(
+                        expression.getExpressionObject() + " " + expression.getLeft() + " " + expression.getRight(),
+                        key -> {
+                            filterExpressions.add(expression);
+                            return filterExpressions.size() - 1;
+                        }
+                    );
+                    if (!indexes.contains(index)) {
+                        indexes.add(index);
+                    }
+                    matchers.add(expression.getExpressionObject());
+                }
+            }
+            for (SourceColumn field : metricsStmt.getFieldsFromSource()) {
+                if (sourceFieldNames.add(field.getFieldName())) {
+                    sourceFields.add(field);
+                }
+            }
+            for (Object arg : metricsStmt.getEntryMethod().getArgsExpressions()) {
+                if (arg instanceof Expression) {
+                    matchers.add(((Expression) arg).getExpressionObject());
+                }
+            }
+            groups.computeIfAbsent(indexes, FilterGroup::new).getMetrics().add(metricsStmt);
+        }
+        filterGroups.addAll(groups.values());
+    }
+
+    @Getter
+    public static class FilterGroup {
+        /**
+         * The indexes of the filter expressions in {@link DispatcherContext#filterExpressions}.
+         */
+        private final List<Integer> filterIndexes;
+        private final List<AnalysisResult> metrics = new ArrayList<>();
+
+        private FilterGroup(List<Integer> filterIndexes) {
+            this.filterIndexes = filterIndexes;
+        }
+    }
 }
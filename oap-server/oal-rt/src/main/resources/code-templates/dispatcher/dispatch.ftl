@@ -1,6 +1,24 @@
-public void dispatch(org.apache.skywalking.oap.server.core.source.Source source) {
-${sourcePackage}${source} _source = (${sourcePackage}${source})source;
-<#list metrics as metrics>
-    do${metrics.metricsName}(_source);
+public void dispatch(org.apache.skywalking.oap.server.core.source.Source _source) {
+${sourcePackage}${source} source = (${sourcePackage}${source})_source;
+<#list sourceFields as field>
+    ${field.typeName} _${field.fieldName} = source.${field.fieldGetter}();
 </#list>
-}
\ No newline at end of file
+<#list filterExpressions as filterExpression>
+    int _filter${filterExpression?index} = -1;
+</#list>
+<#list filterGroups as filterGroup>
+    <#list filterGroup.filterIndexes as filterIndex>
+        <#assign filterExpression = filterExpressions[filterIndex]>
+        if (_filter${filterIndex} < 0) {
+            _filter${filterIndex} = _${filterExpression.expressionObject?keep_after_last(".")}.match(${filterExpression.left}, ${filterExpression.right}) ? 1 : 0;
+        }
+        if (_filter${filterIndex} == 1) {
+    </#list>
+    <#list filterGroup.metrics as metrics>
+        do${metrics.metricsName}(source<#list metrics.fieldsFromSource as field>, _${field.fieldName}</#list>);
+    </#list>
+    <#list filterGroup.filterIndexes as filterIndex>
+        }
+    </#list>
+</#list>
+}
@@ -1,24 +1,15 @@
-private void do${metricsName}(${sourcePackage}${sourceName} source) {
+private void do${metricsName}(${sourcePackage}${sourceName} source<#list fieldsFromSource as field>, ${field.typeName} _${field.fieldName}</#list>) {
 ${metricsClassPackage}${metricsName}Metrics metrics = new ${metricsClassPackage}${metricsName}Metrics();
-
-<#if filterExpressions??>
-    <#list filterExpressions as filterExpression>
-        if (!new ${filterExpression.expressionObject}().match(${filterExpression.left}, ${filterExpression.right})) {
-        return;
-        }
-    </#list>
-</#if>
-
 metrics.setTimeBucket(source.getTimeBucket());
 <#list fieldsFromSource as field>
-    metrics.${field.fieldSetter}(source.${field.fieldGetter}());
+    metrics.${field.fieldSetter}(_${field.fieldName});
 </#list>
 metrics.${entryMethod.methodName}(
 <#list entryMethod.argsExpressions as arg>
     <#if entryMethod.argTypes[arg_index] < 3>
         ${arg}
     <#else>
-        new ${arg.expressionObject}().match(${arg.left}, ${arg.right})
+        _${arg.expressionObject?keep_after_last(".")}.match(${arg.left}, ${arg.right})
     </#if><#if arg_has_next>, </#if>
 </#list>);
 
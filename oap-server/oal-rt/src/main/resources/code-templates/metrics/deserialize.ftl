@@ -15,8 +15,16 @@ public void deserialize(org.apache.skywalking.oap.server.core.remote.grpc.proto.
     ${field.setter}(remoteData.getDataIntegers(${field?index}));
 </#list>
 
-<#list serializeFields.objectFields as field>
-    ${field.setter}(new ${field.fieldType}(remoteData.getDataObjectStrings(${field?index})));
-</#list>
+<#if serializeFields.objectFields?size gt 0>
+    if (remoteData.getDataObjectBytesCount() > 0) {
+    <#list serializeFields.objectFields as field>
+        ${field.setter}((${field.fieldType}) org.apache.skywalking.oap.server.core.remote.data.PackedObjects.unpack(remoteData.getDataObjectBytes(${field?index})));
+    </#list>
+    } else {
+    <#list serializeFields.objectFields as field>
+        ${field.setter}(new ${field.fieldType}(remoteData.getDataObjectStrings(${field?index})));
+    </#list>
+    }
+</#if>
 
 }
\ No newline at end of file
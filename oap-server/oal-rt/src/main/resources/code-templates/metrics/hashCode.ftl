@@ -1,14 +1,14 @@
 public int hashCode() {
-int result = 17;
+long result = 17;
 <#list fieldsFromSource as sourceField>
     <#if sourceField.isID()>
         <#if sourceField.getTypeName() == "java.lang.String">
             result = 31 * result + ${sourceField.fieldName}.hashCode();
         <#else>
-            result += Const.ID_CONNECTOR + ${sourceField.fieldName};
+            result = 31 * result + (long) ${sourceField.fieldName};
         </#if>
     </#if>
 </#list>
-result = 31 * result + (int)getTimeBucket();
-return result;
+result = 31 * result + getTimeBucket();
+return (int) (result ^ (result >>> 32));
 }
\ No newline at end of file
@@ -1,13 +1,24 @@
 public String id() {
-String splitJointId = String.valueOf(getTimeBucket());
+if (cachedId != null) {
+return cachedId;
+}
+int length = 20;
 <#list fieldsFromSource as sourceField>
     <#if sourceField.isID()>
         <#if sourceField.getTypeName() == "java.lang.String">
-            splitJointId += org.apache.skywalking.oap.server.core.Const.ID_CONNECTOR + ${sourceField.fieldName};
+            length += 1 + (${sourceField.fieldName} == null ? 4 : ${sourceField.fieldName}.length());
         <#else>
-            splitJointId += org.apache.skywalking.oap.server.core.Const.ID_CONNECTOR + String.valueOf(${sourceField.fieldName});
+            length += 21;
         </#if>
     </#if>
 </#list>
-return splitJointId;
+StringBuilder splitJointId = new StringBuilder(length);
+splitJointId.append(getTimeBucket());
+<#list fieldsFromSource as sourceField>
+    <#if sourceField.isID()>
+        splitJointId.append(org.apache.skywalking.oap.server.core.Const.ID_CONNECTOR).append(${sourceField.fieldName});
+    </#if>
+</#list>
+cachedId = splitJointId.toString();
+return cachedId;
 }
\ No newline at end of file
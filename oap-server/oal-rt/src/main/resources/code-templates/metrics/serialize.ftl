@@ -17,7 +17,7 @@ org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData.Builder remot
 </#list>
 
 <#list serializeFields.objectFields as field>
-    remoteBuilder.addDataObjectStrings(${field.getter}().toStorageData());
+    remoteBuilder.addDataObjectBytes(org.apache.skywalking.oap.server.core.remote.data.PackedObjects.pack(${field.getter}()));
 </#list>
 
 return remoteBuilder;
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oal.rt;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.oal.rt.OALDefine;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Build the IDs of the metrics classes generated from the default OAL scripts(oal/core.oal). Every metrics ID is read 3
+ * times per op, as the L2 aggregation, the database session and the storage DAO do in one persistence round.
+ *
+ * The legacy ID is built by the string concatenation of the previous id.ftl, the generated ID is built once by the
+ * pre-sized builder and cached, until the time bucket is set again.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class MetricsIdBenchmark {
+    private static final int ENTITY_SIZE = 100;
+    private static final long TIME_BUCKET = 202103011200L;
+
+    private final List<Metrics> metricsList = new ArrayList<>();
+    private final List<String> entityIds = new ArrayList<>();
+
+    @Setup
+    public void setup() throws Exception {
+        AnnotationScan scopeScan = new AnnotationScan();
+        scopeScan.registerListener(new DefaultScopeDefine.Listener());
+        scopeScan.scan();
+
+        final BenchmarkOALDefine define = new BenchmarkOALDefine();
+        final OALRuntime runtime = new OALRuntime(define);
+        final List<Class<?>> metricsClasses = new ArrayList<>();
+        runtime.setStorageBuilderFactory(new StorageBuilderFactory.Default());
+        runtime.setStreamListener(new StreamAnnotationListener(null) {
+            @Override
+            public void notify(Class aClass) {
+                metricsClasses.add(aClass);
+            }
+        });
+        runtime.setDispatcherListener(dispatcherClass -> {
+        });
+        runtime.start(MetricsIdBenchmark.class.getClassLoader());
+        runtime.notifyAllListeners();
+
+        final String serviceId = IDManager.ServiceID.buildId("mock-service", true);
+        for (Class<?> metricsClass : metricsClasses) {
+            final Method setEntityId;
+            try {
+                setEntityId = metricsClass.getMethod("setEntityId", String.class);
+            } catch (NoSuchMethodException e) {
+                continue;
+            }
+            for (int i = 0; i < ENTITY_SIZE; i++) {
+                final String entityId = IDManager.EndpointID.buildId(serviceId, "/mock/endpoint/" + i);
+                final Metrics metrics = (Metrics) metricsClass.newInstance();
+                setEntityId.invoke(metrics, entityId);
+                metrics.setTimeBucket(TIME_BUCKET);
+                metricsList.add(metrics);
+                entityIds.add(entityId);
+            }
+        }
+    }
+
+    @Benchmark
+    public void testLegacyId(Blackhole blackhole) {
+        for (int i = 0; i < entityIds.size(); i++) {
+            for (int j = 0; j < 3; j++) {
+                String splitJointId = String.valueOf(TIME_BUCKET);
+                splitJointId += Const.ID_CONNECTOR + entityIds.get(i);
+                blackhole.consume(splitJointId);
+            }
+        }
+    }
+
+    @Benchmark
+    public void testGeneratedId(Blackhole blackhole) {
+        for (int i = 0; i < metricsList.size(); i++) {
+            final Metrics metrics = metricsList.get(i);
+            metrics.setTimeBucket(TIME_BUCKET);
+            for (int j = 0; j < 3; j++) {
+                blackhole.consume(metrics.id());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(MetricsIdBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+
+    private static class BenchmarkOALDefine extends OALDefine {
+        private BenchmarkOALDefine() {
+            super("oal/core.oal", "org.apache.skywalking.oap.server.core.source");
+        }
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.21
+        # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+        # VM options: -Xmx512m -Xms512m
+        # Warmup: 3 iterations, 3 s each
+        # Measurement: 5 iterations, 3 s each
+        # Threads: 1 thread, will synchronize iterations
+        # Benchmark mode: Throughput, ops/time
+
+        Benchmark                                                   Mode  Cnt        Score      Error  Units
+        MetricsIdBenchmark.testGeneratedId                         thrpt    5     1881.966 ±  468.182  ops/s
+        MetricsIdBenchmark.testGeneratedId:·gc.alloc.rate.norm     thrpt    5  1152000.078 ±    0.023   B/op
+        MetricsIdBenchmark.testLegacyId                            thrpt    5     1444.146 ±  267.415  ops/s
+        MetricsIdBenchmark.testLegacyId:·gc.alloc.rate.norm        thrpt    5  2073600.101 ±    0.015   B/op
+
+        The generated ID is built once rather than 3 times per round, and the pre-sized builder doesn't copy the time
+        bucket string, so the allocation drops by ~45%.
+     */
+}
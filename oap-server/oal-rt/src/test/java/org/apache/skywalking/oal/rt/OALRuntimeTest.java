@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oal.rt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.NodeType;
+import org.apache.skywalking.oap.server.core.analysis.SourceDispatcher;
+import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.oal.rt.OALDefine;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.source.ServiceRelation;
+import org.apache.skywalking.oap.server.core.storage.StorageBuilderFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class OALRuntimeTest {
+    private static final TestOALDefine DEFINE = new TestOALDefine(
+        "oal/core.oal", "org.apache.skywalking.oap.server.core.source");
+    /**
+     * The bundled OAL scripts, and the sources of them.
+     */
+    private static final String[][] SCRIPTS = {
+        {"oal/core.oal", "org.apache.skywalking.oap.server.core.source"},
+        {"oal/java-agent.oal", "org.apache.skywalking.oap.server.core.source"},
+        {"oal/dotnet-agent.oal", "org.apache.skywalking.oap.server.core.source"},
+        {"oal/browser.oal", "org.apache.skywalking.oap.server.core.browser.source"}
+    };
+    private static final Map<String, List<Class<?>>> DISPATCHER_CLASSES = new LinkedHashMap<>();
+
+    @BeforeClass
+    public static void init() throws Exception {
+        AnnotationScan scopeScan = new AnnotationScan();
+        scopeScan.registerListener(new DefaultScopeDefine.Listener());
+        scopeScan.scan();
+
+        for (String[] script : SCRIPTS) {
+            final List<Class<?>> dispatcherClasses = new ArrayList<>();
+            OALRuntime runtime = new OALRuntime(new TestOALDefine(script[0], script[1]));
+            runtime.setStorageBuilderFactory(new StorageBuilderFactory.Default());
+            runtime.setStreamListener(new StreamAnnotationListener(null) {
+                @Override
+                public void notify(Class aClass) {
+                }
+            });
+            runtime.setDispatcherListener(dispatcherClasses::add);
+            runtime.start(OALRuntimeTest.class.getClassLoader());
+            runtime.notifyAllListeners();
+            DISPATCHER_CLASSES.put(script[0], dispatcherClasses);
+        }
+    }
+
+    @AfterClass
+    public static void clear() {
+        DefaultScopeDefine.reset();
+    }
+
+    @Test
+    public void testCompileBundledScripts() throws Exception {
+        Assert.assertEquals(SCRIPTS.length, DISPATCHER_CLASSES.size());
+        for (Map.Entry<String, List<Class<?>>> entry : DISPATCHER_CLASSES.entrySet()) {
+            Assert.assertFalse(entry.getKey(), entry.getValue().isEmpty());
+            for (Class<?> dispatcherClass : entry.getValue()) {
+                Assert.assertTrue(SourceDispatcher.class.isAssignableFrom(dispatcherClass));
+                dispatcherClass.newInstance();
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDispatchFilteredSources() throws Exception {
+        Class<?> dispatcherClass = Class.forName(DEFINE.getDynamicDispatcherClassPackage() + "ServiceRelationDispatcher");
+        SourceDispatcher<ServiceRelation> dispatcher = (SourceDispatcher<ServiceRelation>) dispatcherClass.newInstance();
+        for (DetectPoint detectPoint : DetectPoint.values()) {
+            for (boolean status : new boolean[] {true, false}) {
+                ServiceRelation source = new ServiceRelation();
+                source.setSourceServiceName("service-a");
+                source.setSourceServiceNodeType(NodeType.Normal);
+                source.setDestServiceName("service-b");
+                source.setDestServiceNodeType(NodeType.Normal);
+                source.setDetectPoint(detectPoint);
+                source.setStatus(status);
+                source.setTimeBucket(202010171230L);
+                source.prepare();
+                dispatcher.dispatch(source);
+            }
+        }
+    }
+
+    @Test
+    public void testCachedId() throws Exception {
+        Metrics metrics = newServiceRespTimeMetrics("service-a", 202010171230L);
+        String id = metrics.id();
+        Assert.assertEquals("202010171230_service-a", id);
+        Assert.assertSame(id, metrics.id());
+
+        metrics.getClass().getMethod("setEntityId", String.class).invoke(metrics, "service-b");
+        Assert.assertEquals("202010171230_service-b", metrics.id());
+
+        metrics.setTimeBucket(202010171231L);
+        Assert.assertEquals("202010171231_service-b", metrics.id());
+
+        Metrics hour = metrics.toHour();
+        Assert.assertEquals("2020101712_service-b", hour.id());
+    }
+
+    @Test
+    public void testHashCodeAndEquals() throws Exception {
+        Metrics metrics = newServiceRespTimeMetrics("service-a", 202010171230L);
+        Metrics same = newServiceRespTimeMetrics("service-a", 202010171230L);
+        Assert.assertEquals(metrics, same);
+        Assert.assertEquals(metrics.hashCode(), same.hashCode());
+
+        Assert.assertNotEquals(metrics, newServiceRespTimeMetrics("service-a", 202010171231L));
+        Assert.assertNotEquals(
+            metrics.hashCode(), newServiceRespTimeMetrics("service-a", 202010171231L).hashCode());
+        Assert.assertNotEquals(metrics, newServiceRespTimeMetrics("service-b", 202010171230L));
+    }
+
+    private static Metrics newServiceRespTimeMetrics(String entityId, long timeBucket) throws Exception {
+        Class<?> metricsClass = Class.forName(DEFINE.getDynamicMetricsClassPackage() + "ServiceRespTimeMetrics");
+        Metrics metrics = (Metrics) metricsClass.newInstance();
+        metricsClass.getMethod("setEntityId", String.class).invoke(metrics, entityId);
+        metrics.setTimeBucket(timeBucket);
+        return metrics;
+    }
+
+    private static class TestOALDefine extends OALDefine {
+        private TestOALDefine(String configFile, String sourcePackage) {
+            super(configFile, sourcePackage);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oal.rt.output;
+
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import freemarker.template.Version;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oal.rt.parser.AnalysisResult;
+import org.apache.skywalking.oal.rt.parser.ScriptParser;
+import org.apache.skywalking.oap.server.core.analysis.metrics.expression.BooleanMatch;
+import org.apache.skywalking.oap.server.core.analysis.metrics.expression.EqualMatch;
+import org.apache.skywalking.oap.server.core.annotation.AnnotationScan;
+import org.apache.skywalking.oap.server.core.source.DefaultScopeDefine;
+import org.apache.skywalking.oap.server.core.storage.StorageException;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DispatcherContextTest {
+    @BeforeClass
+    public static void init() throws IOException, StorageException {
+        AnnotationScan scopeScan = new AnnotationScan();
+        scopeScan.registerListener(new DefaultScopeDefine.Listener());
+        scopeScan.scan();
+    }
+
+    @AfterClass
+    public static void clear() {
+        DefaultScopeDefine.reset();
+    }
+
+    @Test
+    public void testPrepareSharedEvaluations() throws IOException {
+        DispatcherContext context = newDispatcherContext();
+
+        Assert.assertEquals(3, context.getFilterExpressions().size());
+        Assert.assertEquals(1, context.getSourceFields().size());
+        Assert.assertEquals("entityId", context.getSourceFields().get(0).getFieldName());
+        Assert.assertEquals(
+            Arrays.asList(EqualMatch.class.getName(), BooleanMatch.class.getName()),
+            Arrays.asList(context.getMatchers().toArray())
+        );
+
+        Assert.assertEquals(4, context.getFilterGroups().size());
+        DispatcherContext.FilterGroup client = context.getFilterGroups().get(0);
+        Assert.assertEquals(Collections.singletonList(0), client.getFilterIndexes());
+        Assert.assertEquals(Arrays.asList("ClientCpm", "ClientSla"), metricsNames(client));
+        DispatcherContext.FilterGroup server = context.getFilterGroups().get(1);
+        Assert.assertEquals(Collections.singletonList(1), server.getFilterIndexes());
+        Assert.assertEquals(Collections.singletonList("ServerCpm"), metricsNames(server));
+        DispatcherContext.FilterGroup all = context.getFilterGroups().get(2);
+        Assert.assertTrue(all.getFilterIndexes().isEmpty());
+        Assert.assertEquals(Collections.singletonList("AllCpm"), metricsNames(all));
+        DispatcherContext.FilterGroup clientFailed = context.getFilterGroups().get(3);
+        Assert.assertEquals(Arrays.asList(0, 2), clientFailed.getFilterIndexes());
+        Assert.assertEquals(Collections.singletonList("ClientFailedCpm"), metricsNames(clientFailed));
+    }
+
+    @Test
+    public void testLazyFilterEvaluations() throws IOException, TemplateException {
+        DispatcherContext context = newDispatcherContext();
+        Configuration configuration = new Configuration(new Version("2.3.28"));
+        configuration.setClassLoaderForTemplateLoading(DispatcherContext.class.getClassLoader(), "/code-templates");
+        StringWriter methodEntity = new StringWriter();
+        configuration.getTemplate("dispatcher/dispatch.ftl").process(context, methodEntity);
+        String method = methodEntity.toString().replaceAll("\\s+", " ");
+
+        // The filter expressions are only evaluated in the branches using them, and every evaluation is memoized.
+        Assert.assertTrue(method.contains("int _filter0 = -1; int _filter1 = -1; int _filter2 = -1;"));
+        Assert.assertTrue(method.contains(
+            "if (_filter0 < 0) { _filter0 = _EqualMatch.match(source.getDetectPoint(), "
+                + "org.apache.skywalking.oap.server.core.source.DetectPoint.CLIENT) ? 1 : 0; } "
+                + "if (_filter0 == 1) { doClientCpm(source, _entityId); doClientSla(source, _entityId); }"));
+        Assert.assertTrue(method.contains(
+            "if (_filter0 < 0) { _filter0 = _EqualMatch.match(source.getDetectPoint(), "
+                + "org.apache.skywalking.oap.server.core.source.DetectPoint.CLIENT) ? 1 : 0; } "
+                + "if (_filter0 == 1) { "
+                + "if (_filter2 < 0) { _filter2 = _BooleanMatch.match(source.isStatus(), false) ? 1 : 0; } "
+                + "if (_filter2 == 1) { doClientFailedCpm(source, _entityId); } }"));
+    }
+
+    private static DispatcherContext newDispatcherContext() throws IOException {
+        ScriptParser parser = ScriptParser.createFromScriptText(
+            "client_cpm = from(ServiceRelation.*).filter(detectPoint == DetectPoint.CLIENT).cpm();\n"
+                + "server_cpm = from(ServiceRelation.*).filter(detectPoint == DetectPoint.SERVER).cpm();\n"
+                + "client_sla = from(ServiceRelation.*).filter(detectPoint == DetectPoint.CLIENT).percent(status == true);\n"
+                + "all_cpm = from(ServiceRelation.*).cpm();\n"
+                + "client_failed_cpm = from(ServiceRelation.*).filter(detectPoint == DetectPoint.CLIENT).filter(status == false).cpm();",
+            "org.apache.skywalking.oap.server.core.source."
+        );
+        DispatcherContext context = new DispatcherContext();
+        context.setSourcePackage("org.apache.skywalking.oap.server.core.source.");
+        context.setSource("ServiceRelation");
+        context.getMetrics().addAll(parser.parse().getMetricsStmts());
+        context.prepareSharedEvaluations();
+        return context;
+    }
+
+    private static List<String> metricsNames(DispatcherContext.FilterGroup group) {
+        return group.getMetrics().stream().map(AnalysisResult::getMetricsName).collect(Collectors.toList());
+    }
+}
@@ -47,17 +47,45 @@ public class CoreModuleConfig extends ModuleConfig {
     private int maxConcurrentCallsPerConnection;
     private int maxMessageSize;
     private boolean enableDatabaseSession;
+    /**
+     * The max number of metrics cached by the database session of every metrics persistent worker. The least recently
+     * used metrics are evicted when exceeding.
+     */
+    private int maxSizeOfDatabaseSession = 100_000;
     private int topNReportPeriod;
+    /**
+     * The number of the threads consuming the top N records of every top N worker.
+     */
+    private int topNConsumerThreads = 1;
     private final List<String> downsampling;
     /**
      * The period of doing data persistence. Unit is second.
      */
 
     private long persistentPeriod = 3;
+    /**
+     * The number of shards of the persistent worker cache. The writes to different shards don't block each other. 1
+     * means a single lock guarded cache.
+     */
+    private int persistentCacheShardSize = 1;
+    /**
+     * How the L1 aggregation consumers wait for the metrics when their queues are empty. SLEEP sleeps the whole consume
+     * cycle, PARK parks the consumer until the metrics are produced, which cuts the latency of the L1 aggregation.
+     */
+    private String l1AggregationWaitStrategy = "SLEEP";
+    /**
+     * The number of threads building the batch requests of the persistent workers in parallel. The requests are
+     * executed while other workers are still preparing. 1 means building them one by one in the persistence timer.
+     */
+    private int persistentPrepareThreads = 1;
 
     private boolean enableDataKeeperExecutor = true;
 
     private int dataKeeperExecutePeriod = 5;
+    /**
+     * The number of threads removing the expired data of the models in parallel, on every OAP node.
+     */
+    private int dataKeeperExecuteThreads = 4;
     /**
      * The time to live of all metrics data. Unit is day.
      */
@@ -77,6 +105,43 @@ public class CoreModuleConfig extends ModuleConfig {
      */
 
     private int remoteTimeout = 20;
+    /**
+     * The virtual nodes of every OAP node on the consistent hash ring, which routes the metrics to the OAP node
+     * aggregating them. The ring only remaps about 1/N of the metrics when an OAP node joins or leaves the cluster. 0
+     * means routing by the modulo of the hash code. All OAP nodes in the cluster must use the same value.
+     */
+    private int remoteHashRingVirtualNodes = 0;
+    /**
+     * Compress the streams between OAP nodes in gzip. The receivers of all versions support it.
+     */
+    private boolean enableRemoteCompression = false;
+    /**
+     * The max number of in-flight streams to every other OAP node, the sender waits when all of them are waiting for
+     * the responses.
+     */
+    private int remoteStreamWindow = 10;
+    /**
+     * Send through a long-lived stream to every other OAP node, which is completed at the half of {@link
+     * #remoteTimeout}, rather than a stream per batch.
+     */
+    private boolean keepRemoteStream = false;
+    /**
+     * The max number of the cached metrics points, and the max number of the cached sorted metrics results, of the
+     * closed time buckets. 0 means the query cache is disabled.
+     */
+    private int queryCacheMaxSize = 0;
+    /**
+     * The seconds after the end of a time bucket, when the query cache considers it closed. It should be longer than
+     * the L1 aggregation flush, the {@link #persistentPeriod} and the refresh interval of the storage, or the cache
+     * could hold the partial metrics values.
+     */
+    private long queryCacheSettledTime = 120;
+    /**
+     * The minutes of the persisted service relations kept in memory, for building the global topology without loading
+     * the relations from the storage. The aggregator OAP nodes replicate the new relations to each other, so every
+     * aggregator holds the full index. 0 means disabled.
+     */
+    private int serviceRelationIndexMinutes = 0;
     /**
      * The size of network address alias.
      */
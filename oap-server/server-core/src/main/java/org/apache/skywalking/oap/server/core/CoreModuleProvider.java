@@ -23,11 +23,17 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
+import org.apache.skywalking.apm.commons.datacarrier.consumer.WaitStrategy;
 import org.apache.skywalking.oap.server.configuration.api.ConfigurationModule;
 import org.apache.skywalking.oap.server.configuration.api.DynamicConfigurationService;
 import org.apache.skywalking.oap.server.core.analysis.ApdexThresholdConfig;
 import org.apache.skywalking.oap.server.core.analysis.DisableRegister;
 import org.apache.skywalking.oap.server.core.analysis.StreamAnnotationListener;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationClientSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationIndex;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationIndexReplicaWorker;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationIndexWorker;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationServerSideMetrics;
 import org.apache.skywalking.oap.server.core.analysis.meter.MeterSystem;
 import org.apache.skywalking.oap.server.core.analysis.metrics.ApdexMetrics;
 import org.apache.skywalking.oap.server.core.analysis.worker.ManagementStreamProcessor;
@@ -62,6 +68,7 @@ import org.apache.skywalking.oap.server.core.query.MetadataQueryService;
 import org.apache.skywalking.oap.server.core.query.MetricsMetadataQueryService;
 import org.apache.skywalking.oap.server.core.query.MetricsQueryService;
 import org.apache.skywalking.oap.server.core.query.ProfileTaskQueryService;
+import org.apache.skywalking.oap.server.core.query.QueryResultCache;
 import org.apache.skywalking.oap.server.core.query.TopNRecordsQueryService;
 import org.apache.skywalking.oap.server.core.query.TopologyQueryService;
 import org.apache.skywalking.oap.server.core.query.TraceQueryService;
@@ -84,6 +91,7 @@ import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
 import org.apache.skywalking.oap.server.core.storage.model.ModelManipulator;
 import org.apache.skywalking.oap.server.core.storage.model.StorageModels;
 import org.apache.skywalking.oap.server.core.storage.ttl.DataTTLKeeperTimer;
+import org.apache.skywalking.oap.server.core.worker.DataCarrierTelemetryTimer;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
 import org.apache.skywalking.oap.server.core.worker.WorkerInstancesService;
@@ -237,7 +245,8 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(IWorkerInstanceGetter.class, instancesService);
         this.registerServiceImplementation(IWorkerInstanceSetter.class, instancesService);
 
-        this.registerServiceImplementation(RemoteSenderService.class, new RemoteSenderService(getManager()));
+        this.registerServiceImplementation(RemoteSenderService.class, new RemoteSenderService(
+            getManager(), moduleConfig.getRemoteHashRingVirtualNodes()));
         this.registerServiceImplementation(ModelCreator.class, storageModels);
         this.registerServiceImplementation(IModelManager.class, storageModels);
         this.registerServiceImplementation(ModelManipulator.class, storageModels);
@@ -245,14 +254,34 @@ public class CoreModuleProvider extends ModuleProvider {
         this.registerServiceImplementation(
                 NetworkAddressAliasCache.class, new NetworkAddressAliasCache(moduleConfig));
 
-        this.registerServiceImplementation(TopologyQueryService.class, new TopologyQueryService(getManager()));
+        final ServiceRelationIndex serviceRelationIndex = new ServiceRelationIndex(
+            moduleConfig.getServiceRelationIndexMinutes(),
+            () -> remoteClientManager.getRemoteClient()
+        );
+        MetricsStreamProcessor.getInstance().setServiceRelationIndex(serviceRelationIndex);
+        if (serviceRelationIndex.isEnabled()) {
+            ServiceRelationIndexReplicaWorker replicaWorker = new ServiceRelationIndexReplicaWorker(
+                getManager(), serviceRelationIndex);
+            instancesService.put(ServiceRelationIndexWorker.SERVER_SIDE_REPLICA_WORKER, replicaWorker,
+                                 ServiceRelationServerSideMetrics.class
+            );
+            instancesService.put(ServiceRelationIndexWorker.CLIENT_SIDE_REPLICA_WORKER, replicaWorker,
+                                 ServiceRelationClientSideMetrics.class
+            );
+        }
+        this.registerServiceImplementation(
+            TopologyQueryService.class, new TopologyQueryService(getManager(), serviceRelationIndex));
         this.registerServiceImplementation(MetricsMetadataQueryService.class, new MetricsMetadataQueryService());
-        this.registerServiceImplementation(MetricsQueryService.class, new MetricsQueryService(getManager()));
+        final QueryResultCache queryResultCache = new QueryResultCache(
+            getManager(), moduleConfig.getQueryCacheMaxSize(), moduleConfig.getQueryCacheSettledTime());
+        this.registerServiceImplementation(
+            MetricsQueryService.class, new MetricsQueryService(getManager(), queryResultCache));
         this.registerServiceImplementation(TraceQueryService.class, new TraceQueryService(getManager()));
         this.registerServiceImplementation(BrowserLogQueryService.class, new BrowserLogQueryService(getManager()));
         this.registerServiceImplementation(LogQueryService.class, new LogQueryService(getManager()));
         this.registerServiceImplementation(MetadataQueryService.class, new MetadataQueryService(getManager()));
-        this.registerServiceImplementation(AggregationQueryService.class, new AggregationQueryService(getManager()));
+        this.registerServiceImplementation(
+            AggregationQueryService.class, new AggregationQueryService(getManager(), queryResultCache));
         this.registerServiceImplementation(AlarmQueryService.class, new AlarmQueryService(getManager()));
         this.registerServiceImplementation(TopNRecordsQueryService.class, new TopNRecordsQueryService(getManager()));
         this.registerServiceImplementation(EventQueryService.class, new EventQueryService(getManager()));
@@ -273,10 +302,14 @@ public class CoreModuleProvider extends ModuleProvider {
 
         if (moduleConfig.isGRPCSslEnabled()) {
             this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteTimeout(),
-                    moduleConfig.getGRPCSslTrustedCAPath()
+                    moduleConfig.isEnableRemoteCompression(), moduleConfig.getRemoteStreamWindow(),
+                    moduleConfig.isKeepRemoteStream(), moduleConfig.getGRPCSslTrustedCAPath()
             );
         } else {
-            this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteTimeout());
+            this.remoteClientManager = new RemoteClientManager(getManager(), moduleConfig.getRemoteTimeout(),
+                    moduleConfig.isEnableRemoteCompression(), moduleConfig.getRemoteStreamWindow(),
+                    moduleConfig.isKeepRemoteStream()
+            );
         }
         this.registerServiceImplementation(RemoteClientManager.class, remoteClientManager);
 
@@ -285,7 +318,13 @@ public class CoreModuleProvider extends ModuleProvider {
                 UITemplateManagementService.class, new UITemplateManagementService(getManager()));
 
         MetricsStreamProcessor.getInstance().setEnableDatabaseSession(moduleConfig.isEnableDatabaseSession());
+        MetricsStreamProcessor.getInstance().setMaxSizeOfDatabaseSession(moduleConfig.getMaxSizeOfDatabaseSession());
+        MetricsStreamProcessor.getInstance().setPersistentCacheShardSize(moduleConfig.getPersistentCacheShardSize());
+        MetricsStreamProcessor.getInstance().setL1AggregationWaitStrategy(
+            WaitStrategy.valueOf(moduleConfig.getL1AggregationWaitStrategy().toUpperCase()));
         TopNStreamProcessor.getInstance().setTopNWorkerReportCycle(moduleConfig.getTopNReportPeriod());
+        TopNStreamProcessor.getInstance().setPersistentCacheShardSize(moduleConfig.getPersistentCacheShardSize());
+        TopNStreamProcessor.getInstance().setTopNConsumerThreads(moduleConfig.getTopNConsumerThreads());
         apdexThresholdConfig = new ApdexThresholdConfig(this);
         ApdexMetrics.setDICT(apdexThresholdConfig);
     }
@@ -347,6 +386,8 @@ public class CoreModuleProvider extends ModuleProvider {
 
         CacheUpdateTimer.INSTANCE.start(getManager(), moduleConfig.getMetricsDataTTL());
 
+        DataCarrierTelemetryTimer.INSTANCE.start(getManager());
+
         try {
             final File[] templateFiles = ResourceUtils.getPathFiles("ui-initialized-templates");
             for (final File templateFile : templateFiles) {
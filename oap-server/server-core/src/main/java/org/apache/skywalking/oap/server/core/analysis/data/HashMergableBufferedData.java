@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+
+/**
+ * HashMergableBufferedData works as same as {@link MergableBufferedData}, but locates the metrics by {@link
+ * Metrics#hashCode()} and {@link Metrics#equals(Object)} in an open addressing table, rather than by {@link
+ * Metrics#id()}. The ID fields and time bucket are compared directly, no ID string is built for every accepted
+ * metrics.
+ *
+ * This class is not thread safe, should avoid concurrency calling.
+ */
+public class HashMergableBufferedData<METRICS extends Metrics> implements BufferedData<METRICS> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The spread hash code of the metrics in the same slot of {@link #table}.
+     */
+    private int[] hashes;
+    private Metrics[] table;
+    private int mask;
+    private int size;
+
+    public HashMergableBufferedData() {
+        hashes = new int[INITIAL_CAPACITY];
+        table = new Metrics[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY - 1;
+    }
+
+    /**
+     * Accept the data into the cache and merge with the existing value.
+     *
+     * @param data to be added potentially.
+     */
+    @Override
+    public void accept(final METRICS data) {
+        final int hash = spread(data.hashCode());
+        int slot = hash & mask;
+        Metrics existed;
+        while ((existed = table[slot]) != null) {
+            if (hashes[slot] == hash && existed.equals(data)) {
+                final boolean isAbandoned = !existed.combine(data);
+                if (isAbandoned) {
+                    remove(slot);
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        table[slot] = data;
+        // Keep the load factor under 0.5
+        if (++size > table.length >> 1) {
+            resize();
+        }
+    }
+
+    /**
+     * Drain all metrics into a new list owned by the caller. The scan stops once all metrics are found, and the table
+     * shrinks when it is much larger than the drained metrics, so a burst doesn't make the following reads scan a
+     * mostly empty table.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<METRICS> read() {
+        if (size == 0) {
+            return new ArrayList<>(0);
+        }
+        final List<METRICS> result = new ArrayList<>(size);
+        for (int i = 0; result.size() < size; i++) {
+            if (table[i] != null) {
+                result.add((METRICS) table[i]);
+                table[i] = null;
+            }
+        }
+        size = 0;
+        if (table.length > INITIAL_CAPACITY && result.size() <= table.length >> 3) {
+            final int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(result.size()) << 2);
+            hashes = new int[capacity];
+            table = new Metrics[capacity];
+            mask = capacity - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Remove the metrics in the slot, and shift the following metrics of the same probe sequence backward, so no
+     * tombstone is required.
+     */
+    private void remove(int slot) {
+        table[slot] = null;
+        size--;
+        int gap = slot;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (table[next] == null) {
+                return;
+            }
+            final int home = hashes[next] & mask;
+            // Move the metrics into the gap, unless its home slot is in the cyclic range (gap, next].
+            final boolean stayed = gap <= next ? gap < home && home <= next : gap < home || home <= next;
+            if (!stayed) {
+                hashes[gap] = hashes[next];
+                table[gap] = table[next];
+                table[next] = null;
+                gap = next;
+            }
+        }
+    }
+
+    private void resize() {
+        final int[] oldHashes = hashes;
+        final Metrics[] oldTable = table;
+        final int capacity = oldTable.length << 1;
+        hashes = new int[capacity];
+        table = new Metrics[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldTable.length; i++) {
+            if (oldTable[i] != null) {
+                int slot = oldHashes[i] & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = oldHashes[i];
+                table[slot] = oldTable[i];
+            }
+        }
+    }
+
+    private static int spread(int hashCode) {
+        return hashCode ^ (hashCode >>> 16);
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.skywalking.oap.server.core.analysis.data;
 
 import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
 
 /**
  * ReadWriteSafeCache provides a read/write isolated cache.
@@ -37,6 +38,10 @@ public class ReadWriteSafeCache<T> {
      * Read/Write lock.
      */
     private final ReentrantLock lock;
+    /**
+     * Count the times of the lock being held by others when requiring it. Nullable.
+     */
+    private final CounterMetrics contentionCounter;
 
     /**
      * Build the Cache through two given buffer instances.
@@ -45,9 +50,21 @@ public class ReadWriteSafeCache<T> {
      * @param buffer2 read/write switchable buffer. It is the write buffer at the beginning.
      */
     public ReadWriteSafeCache(BufferedData<T> buffer1, BufferedData<T> buffer2) {
+        this(buffer1, buffer2, null);
+    }
+
+    /**
+     * Build the Cache through two given buffer instances, and count the lock contention.
+     *
+     * @param buffer1           read/write switchable buffer
+     * @param buffer2           read/write switchable buffer. It is the write buffer at the beginning.
+     * @param contentionCounter increases when the lock is held by others at the time of requiring.
+     */
+    public ReadWriteSafeCache(BufferedData<T> buffer1, BufferedData<T> buffer2, CounterMetrics contentionCounter) {
         readBufferPointer = buffer1;
         writeBufferPointer = buffer2;
         lock = new ReentrantLock();
+        this.contentionCounter = contentionCounter;
     }
 
     /**
@@ -56,7 +73,7 @@ public class ReadWriteSafeCache<T> {
      * @param data to enqueue.
      */
     public void write(T data) {
-        lock.lock();
+        lock();
         try {
             writeBufferPointer.accept(data);
         } finally {
@@ -70,7 +87,7 @@ public class ReadWriteSafeCache<T> {
      * @param data to enqueue.
      */
     public void write(List<T> data) {
-        lock.lock();
+        lock();
         try {
             data.forEach(writeBufferPointer::accept);
         } finally {
@@ -79,7 +96,7 @@ public class ReadWriteSafeCache<T> {
     }
 
     public List<T> read() {
-        lock.lock();
+        lock();
         try {
             // Switch the read and write pointers, when there is no writing.
             BufferedData<T> tempPointer = writeBufferPointer;
@@ -91,4 +108,14 @@ public class ReadWriteSafeCache<T> {
         // Call read method outside of write lock for concurrency read-write.
         return readBufferPointer.read();
     }
+
+    private void lock() {
+        if (lock.tryLock()) {
+            return;
+        }
+        if (contentionCounter != null) {
+            contentionCounter.inc();
+        }
+        lock.lock();
+    }
 }
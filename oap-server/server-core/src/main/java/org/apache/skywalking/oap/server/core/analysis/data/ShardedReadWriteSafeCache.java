@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+
+/**
+ * ShardedReadWriteSafeCache splits the data into several {@link ReadWriteSafeCache}s by {@link Object#hashCode()},
+ * each shard has its own lock and switches its read/write pointers independently. The writers of different shards
+ * don't block each other, and the reader only blocks the writers of the shard being switched.
+ *
+ * The hash code of the metrics is built from the same fields as its ID, so the data of the same ID always goes into
+ * the same shard, and the merging and ordering rules of the {@link BufferedData} implementations are kept.
+ *
+ * The shards still switch their buffers under the lock, rather than swapping them lock-free by epochs. The buffers are
+ * not thread safe, a lock-free swap has to wait for the writers of the old epoch to leave anyway, and the lock of one
+ * shard is rarely contended once the writers are spread across the shards.
+ */
+public class ShardedReadWriteSafeCache<T> {
+    private final ReadWriteSafeCache<T>[] shards;
+
+    /**
+     * @param shardSize         the number of shards, at least 1.
+     * @param bufferSupplier    creates the read/write switchable buffers of every shard.
+     * @param contentionCounter increases when any shard lock is held by others at the time of requiring. Nullable.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedReadWriteSafeCache(int shardSize, Supplier<BufferedData<T>> bufferSupplier,
+                                     CounterMetrics contentionCounter) {
+        if (shardSize < 1) {
+            throw new IllegalArgumentException("shardSize must be positive, but it is " + shardSize);
+        }
+        shards = new ReadWriteSafeCache[shardSize];
+        for (int i = 0; i < shardSize; i++) {
+            shards[i] = new ReadWriteSafeCache<>(bufferSupplier.get(), bufferSupplier.get(), contentionCounter);
+        }
+    }
+
+    public void write(T data) {
+        shards[shardOf(data)].write(data);
+    }
+
+    /**
+     * Group the data by shard, and write each group with one lock.
+     */
+    public void write(List<T> data) {
+        if (shards.length == 1) {
+            shards[0].write(data);
+            return;
+        }
+        @SuppressWarnings("unchecked") final List<T>[] groups = new List[shards.length];
+        for (T item : data) {
+            final int shard = shardOf(item);
+            if (groups[shard] == null) {
+                groups[shard] = new ArrayList<>();
+            }
+            groups[shard].add(item);
+        }
+        for (int shard = 0; shard < groups.length; shard++) {
+            if (groups[shard] != null) {
+                shards[shard].write(groups[shard]);
+            }
+        }
+    }
+
+    /**
+     * Switch the read/write pointers and read the data shard by shard.
+     */
+    public List<T> read() {
+        if (shards.length == 1) {
+            return shards[0].read();
+        }
+        final List<T> result = new ArrayList<>();
+        for (ReadWriteSafeCache<T> shard : shards) {
+            result.addAll(shard.read());
+        }
+        return result;
+    }
+
+    private int shardOf(T data) {
+        if (shards.length == 1) {
+            return 0;
+        }
+        final int hash = data.hashCode();
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % shards.length;
+    }
+}
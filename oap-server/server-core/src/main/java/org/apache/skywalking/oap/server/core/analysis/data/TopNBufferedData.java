@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+
+/**
+ * TopNBufferedData is a thread no safe implementation of {@link BufferedData}. It keeps the top N records of every
+ * service in every minute, by a bounded min heap. A new record replaces the smallest one of the full heap if it is
+ * bigger, otherwise it is dropped.
+ */
+public class TopNBufferedData<T extends TopN> implements BufferedData<T> {
+    private final Map<Key, PriorityQueue<T>> heaps;
+    private final int topNSize;
+    private final CounterMetrics droppedCounter;
+
+    /**
+     * @param droppedCounter increases when a record is dropped or replaced by a bigger one. Nullable.
+     */
+    public TopNBufferedData(int topNSize, CounterMetrics droppedCounter) {
+        if (topNSize < 1) {
+            throw new IllegalArgumentException("topNSize must be positive, but it is " + topNSize);
+        }
+        this.heaps = new HashMap<>();
+        this.topNSize = topNSize;
+        this.droppedCounter = droppedCounter;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void accept(final T data) {
+        final Key key = new Key(data.getServiceId(), toMinuteTimeBucket(data.getTimeBucket()));
+        PriorityQueue<T> heap = heaps.get(key);
+        if (heap == null) {
+            heap = new PriorityQueue<>(Math.min(topNSize, 16));
+            heaps.put(key, heap);
+        }
+
+        if (heap.size() < topNSize) {
+            heap.add(data);
+            return;
+        }
+        if (data.compareTo(heap.peek()) > 0) {
+            heap.poll();
+            heap.add(data);
+        }
+        if (droppedCounter != null) {
+            droppedCounter.inc();
+        }
+    }
+
+    @Override
+    public List<T> read() {
+        try {
+            int size = 0;
+            for (PriorityQueue<T> heap : heaps.values()) {
+                size += heap.size();
+            }
+            final List<T> collection = new ArrayList<>(size);
+            heaps.values().forEach(collection::addAll);
+            return collection;
+        } finally {
+            heaps.clear();
+        }
+    }
+
+    private static long toMinuteTimeBucket(long timeBucket) {
+        return TimeBucket.isSecondBucket(timeBucket) ? timeBucket / 100 : timeBucket;
+    }
+
+    private static class Key {
+        private final String serviceId;
+        private final long minuteTimeBucket;
+
+        private Key(String serviceId, long minuteTimeBucket) {
+            this.serviceId = serviceId;
+            this.minuteTimeBucket = minuteTimeBucket;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return minuteTimeBucket == key.minuteTimeBucket && Objects.equals(serviceId, key.serviceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(serviceId) + Long.hashCode(minuteTimeBucket);
+        }
+    }
+}
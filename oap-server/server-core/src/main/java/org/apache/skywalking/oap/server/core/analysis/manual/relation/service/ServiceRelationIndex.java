@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.relation.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.apache.skywalking.oap.server.core.analysis.TimeBucket;
+import org.apache.skywalking.oap.server.core.query.type.Call;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+
+/**
+ * ServiceRelationIndex holds the service relations persisted in the recent minutes, as the per-minute and per-hour
+ * adjacency sets, in order to build the global topology without loading all relations from the storage.
+ *
+ * The relations are distributed among the OAP nodes doing the L2 aggregation, every one of them replicates the
+ * relations it persists to the others, see {@link ServiceRelationIndexWorker}, so the index of every aggregator is
+ * complete. The index covers the time buckets from the minute after the next of the latest cluster change, so all
+ * aggregators have seen the change before, and is cleared when this OAP node is not an aggregator.
+ */
+public class ServiceRelationIndex {
+    private final int maxMinutes;
+    private final Supplier<List<RemoteClient>> aggregators;
+    private final LongSupplier currentTimeMillis;
+    private final ConcurrentSkipListMap<Long, Relations> minutes = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Relations> hours = new ConcurrentSkipListMap<>();
+    /**
+     * The first minute time bucket covered by the index, -1 means not covered.
+     */
+    private volatile long coveredSince = -1;
+    /**
+     * The aggregators seen when {@link #coveredSince} is set, the list is replaced when the cluster changes.
+     */
+    private volatile List<RemoteClient> coveredAggregators;
+
+    /**
+     * @param maxMinutes  the max minutes of the relations kept in the index, 0 means disabled.
+     * @param aggregators the OAP nodes doing the L2 aggregation, including this one if it's an aggregator.
+     */
+    public ServiceRelationIndex(int maxMinutes, Supplier<List<RemoteClient>> aggregators) {
+        this(maxMinutes, aggregators, System::currentTimeMillis);
+    }
+
+    ServiceRelationIndex(int maxMinutes, Supplier<List<RemoteClient>> aggregators, LongSupplier currentTimeMillis) {
+        this.maxMinutes = maxMinutes;
+        this.aggregators = aggregators;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    public boolean isEnabled() {
+        return maxMinutes > 0;
+    }
+
+    /**
+     * Add the persisted relation.
+     *
+     * @param minuteTimeBucket the time bucket of the relation metrics in minute.
+     * @return true if the relation is new to the index in the minute.
+     */
+    public boolean add(long minuteTimeBucket, String entityId, int componentId, DetectPoint detectPoint) {
+        Relations relations = minutes.get(minuteTimeBucket);
+        if (relations == null) {
+            final long retainedSince = retainedSince();
+            if (!checkCoverage() || minuteTimeBucket < retainedSince) {
+                return false;
+            }
+            relations = minutes.computeIfAbsent(minuteTimeBucket, key -> new Relations());
+            minutes.headMap(retainedSince).clear();
+            hours.headMap(retainedSince / 100).clear();
+        }
+        if (!relations.add(entityId, componentId, detectPoint)) {
+            return false;
+        }
+        hours.computeIfAbsent(minuteTimeBucket / 100, key -> new Relations()).add(entityId, componentId, detectPoint);
+        return true;
+    }
+
+    /**
+     * Load the relations in the time range, the time buckets are in minute, hour or day.
+     *
+     * @return the relations, or NULL if the time range is not covered by the index.
+     */
+    public List<Call.CallDetail> load(long startTB, long endTB, DetectPoint detectPoint) {
+        if (!isEnabled() || !checkCoverage()) {
+            return null;
+        }
+        final long startMinute;
+        final long endMinute;
+        if (TimeBucket.isMinuteBucket(startTB) && TimeBucket.isMinuteBucket(endTB)) {
+            startMinute = startTB;
+            endMinute = endTB;
+        } else if (TimeBucket.isHourBucket(startTB) && TimeBucket.isHourBucket(endTB)) {
+            startMinute = startTB * 100;
+            endMinute = endTB * 100 + 59;
+        } else if (TimeBucket.isDayBucket(startTB) && TimeBucket.isDayBucket(endTB)) {
+            startMinute = startTB * 10000;
+            endMinute = endTB * 10000 + 2359;
+        } else {
+            return null;
+        }
+        final long covered = coveredSince;
+        if (covered == -1 || startMinute < covered || startMinute < retainedSince()) {
+            return null;
+        }
+
+        final Map<String, Integer> merged = new HashMap<>();
+        long mergedHour = -1;
+        for (Map.Entry<Long, Relations> minute : minutes.subMap(startMinute, true, endMinute, true).entrySet()) {
+            final long hour = minute.getKey() / 100;
+            if (hour * 100 >= startMinute && hour * 100 + 59 <= endMinute) {
+                // The whole hour is in the range, merge the hour set once rather than the minute sets.
+                if (hour != mergedHour) {
+                    final Relations relations = hours.get(hour);
+                    if (relations != null) {
+                        relations.get(detectPoint).forEach(merged::putIfAbsent);
+                    }
+                    mergedHour = hour;
+                }
+            } else {
+                minute.getValue().get(detectPoint).forEach(merged::putIfAbsent);
+            }
+        }
+
+        final List<Call.CallDetail> calls = new ArrayList<>(merged.size());
+        merged.forEach((entityId, componentId) -> {
+            Call.CallDetail call = new Call.CallDetail();
+            call.buildFromServiceRelation(entityId, componentId, detectPoint);
+            calls.add(call);
+        });
+        return calls;
+    }
+
+    /**
+     * @return true if the index covers the relations from {@link #coveredSince}.
+     */
+    private boolean checkCoverage() {
+        final List<RemoteClient> current = aggregators.get();
+        if (current.stream().noneMatch(client -> client.getAddress().isSelf())) {
+            if (coveredSince != -1) {
+                coveredSince = -1;
+                coveredAggregators = null;
+                minutes.clear();
+                hours.clear();
+            }
+            return false;
+        }
+        if (current != coveredAggregators) {
+            // The other aggregators may see the change later, and not replicate the relations of the next minute yet.
+            coveredSince = TimeBucket.getMinuteTimeBucket(currentTimeMillis.getAsLong() + TimeUnit.MINUTES.toMillis(2));
+            coveredAggregators = current;
+        }
+        return true;
+    }
+
+    private long retainedSince() {
+        return TimeBucket.getMinuteTimeBucket(
+            currentTimeMillis.getAsLong() - TimeUnit.MINUTES.toMillis(maxMinutes));
+    }
+
+    /**
+     * The relation entity ids and their component ids, detected at the server side and the client side.
+     */
+    private static class Relations {
+        private final Map<String, Integer> serverSide = new ConcurrentHashMap<>();
+        private final Map<String, Integer> clientSide = new ConcurrentHashMap<>();
+
+        private boolean add(String entityId, int componentId, DetectPoint detectPoint) {
+            return get(detectPoint).putIfAbsent(entityId, componentId) == null;
+        }
+
+        private Map<String, Integer> get(DetectPoint detectPoint) {
+            return detectPoint == DetectPoint.SERVER ? serverSide : clientSide;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.relation.service;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+
+/**
+ * ServiceRelationIndexReplicaWorker adds the service relations replicated by the other aggregators into the {@link
+ * ServiceRelationIndex}. The replicated relations have been persisted by the other aggregators, they are not forwarded.
+ */
+public class ServiceRelationIndexReplicaWorker extends AbstractWorker<Metrics> {
+    private final ServiceRelationIndex serviceRelationIndex;
+
+    public ServiceRelationIndexReplicaWorker(ModuleDefineHolder moduleDefineHolder,
+                                             ServiceRelationIndex serviceRelationIndex) {
+        super(moduleDefineHolder);
+        this.serviceRelationIndex = serviceRelationIndex;
+    }
+
+    @Override
+    public void in(Metrics metrics) {
+        ServiceRelationIndexWorker.addTo(serviceRelationIndex, metrics);
+    }
+}
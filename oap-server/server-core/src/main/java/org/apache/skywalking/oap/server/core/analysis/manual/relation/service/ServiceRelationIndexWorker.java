@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.relation.service;
+
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+
+/**
+ * ServiceRelationIndexWorker adds the persisted service relation metrics into the {@link ServiceRelationIndex}, and
+ * forwards them to the next worker. The relations new to the index are replicated to the other aggregators, and added
+ * to their indexes by the {@link ServiceRelationIndexReplicaWorker}.
+ */
+public class ServiceRelationIndexWorker extends AbstractWorker<Metrics> {
+    public static final String SERVER_SIDE_REPLICA_WORKER = "ServiceRelationServerSideIndexReplica";
+    public static final String CLIENT_SIDE_REPLICA_WORKER = "ServiceRelationClientSideIndexReplica";
+
+    private final ServiceRelationIndex serviceRelationIndex;
+    private final AbstractWorker<Metrics> nextWorker;
+    private RemoteClientManager remoteClientManager;
+
+    public ServiceRelationIndexWorker(ModuleDefineHolder moduleDefineHolder,
+                                      ServiceRelationIndex serviceRelationIndex,
+                                      AbstractWorker<Metrics> nextWorker) {
+        super(moduleDefineHolder);
+        this.serviceRelationIndex = serviceRelationIndex;
+        this.nextWorker = nextWorker;
+    }
+
+    @Override
+    public void in(Metrics metrics) {
+        if (metrics instanceof ServiceRelationServerSideMetrics) {
+            if (addTo(serviceRelationIndex, metrics)) {
+                replicate(SERVER_SIDE_REPLICA_WORKER, metrics);
+            }
+        } else if (metrics instanceof ServiceRelationClientSideMetrics) {
+            if (addTo(serviceRelationIndex, metrics)) {
+                replicate(CLIENT_SIDE_REPLICA_WORKER, metrics);
+            }
+        }
+        nextWorker.in(metrics);
+    }
+
+    private void replicate(String replicaWorkerName, Metrics metrics) {
+        if (remoteClientManager == null) {
+            remoteClientManager = getModuleDefineHolder().find(CoreModule.NAME)
+                                                         .provider()
+                                                         .getService(RemoteClientManager.class);
+        }
+        for (RemoteClient client : remoteClientManager.getRemoteClient()) {
+            if (!client.getAddress().isSelf()) {
+                client.push(replicaWorkerName, metrics);
+            }
+        }
+    }
+
+    /**
+     * @return true if the relation is new to the index in the minute.
+     */
+    static boolean addTo(ServiceRelationIndex serviceRelationIndex, Metrics metrics) {
+        if (metrics instanceof ServiceRelationServerSideMetrics) {
+            ServiceRelationServerSideMetrics relation = (ServiceRelationServerSideMetrics) metrics;
+            return serviceRelationIndex.add(
+                relation.getTimeBucket(), relation.getEntityId(), relation.getComponentId(), DetectPoint.SERVER);
+        } else if (metrics instanceof ServiceRelationClientSideMetrics) {
+            ServiceRelationClientSideMetrics relation = (ServiceRelationClientSideMetrics) metrics;
+            return serviceRelationIndex.add(
+                relation.getTimeBucket(), relation.getEntityId(), relation.getComponentId(), DetectPoint.CLIENT);
+        }
+        return false;
+    }
+}
@@ -37,6 +37,7 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MultiIntValuesHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.PercentileMetrics;
 import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.remote.data.PackedObjects;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
@@ -226,9 +227,9 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(1)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(2)));
+        this.setDataset(PackedObjects.dataTable(remoteData, 0));
+        this.setRanks(PackedObjects.intList(remoteData, 1));
+        this.setPercentileValues(PackedObjects.dataTable(remoteData, 2));
     }
 
     @Override
@@ -238,9 +239,9 @@ public abstract class PercentileFunction extends Metrics implements AcceptableVa
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(dataset.toStorageData());
-        remoteBuilder.addDataObjectStrings(ranks.toStorageData());
-        remoteBuilder.addDataObjectStrings(percentileValues.toStorageData());
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(dataset));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(ranks));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(percentileValues));
 
         return remoteBuilder;
     }
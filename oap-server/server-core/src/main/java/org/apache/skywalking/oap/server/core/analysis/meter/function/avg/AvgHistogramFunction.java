@@ -35,6 +35,7 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFuncti
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.remote.data.PackedObjects;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
@@ -153,9 +154,9 @@ public abstract class AvgHistogramFunction extends Metrics implements Acceptable
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setDataset(new DataTable(remoteData.getDataObjectStrings(2)));
+        this.setCount(PackedObjects.dataTable(remoteData, 0));
+        this.setSummation(PackedObjects.dataTable(remoteData, 1));
+        this.setDataset(PackedObjects.dataTable(remoteData, 2));
     }
 
     @Override
@@ -165,9 +166,9 @@ public abstract class AvgHistogramFunction extends Metrics implements Acceptable
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
-        remoteBuilder.addDataObjectStrings(dataset.toStorageData());
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(count));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(summation));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(dataset));
 
         return remoteBuilder;
     }
@@ -19,15 +19,12 @@
 package org.apache.skywalking.oap.server.core.analysis.meter.function.avg;
 
 import com.google.common.base.Strings;
-import io.vavr.Tuple;
-import io.vavr.Tuple2;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collector;
 import java.util.stream.IntStream;
 import lombok.Getter;
 import lombok.Setter;
@@ -43,13 +40,11 @@ import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.analysis.metrics.MultiIntValuesHolder;
 import org.apache.skywalking.oap.server.core.query.type.Bucket;
+import org.apache.skywalking.oap.server.core.remote.data.PackedObjects;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
 
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.mapping;
-
 /**
  * AvgPercentile intends to calculate percentile based on the average of raw values over the interval(minute, hour or day).
  *
@@ -192,63 +187,84 @@ public abstract class AvgHistogramPercentileFunction extends Metrics implements
                 }
                 dataset.put(key, value);
             }
-            dataset.keys().stream()
-                   .map(key -> {
-                       if (key.contains(":")) {
-                           int index = key.lastIndexOf(":");
-                           return Tuple.of(key.substring(0, index), key);
-                       } else {
-                           return Tuple.of(DEFAULT_GROUP, key);
-                       }
-                   })
-                   .collect(groupingBy(Tuple2::_1, mapping(Tuple2::_2, Collector.of(
-                       DataTable::new,
-                       (dt, key) -> {
-                           String v;
-                           if (key.contains(":")) {
-                               int index = key.lastIndexOf(":");
-                               v = key.substring(index + 1);
-                           } else {
-                               v = key;
-                           }
-                           dt.put(v, dataset.get(key));
-                       },
-                       DataTable::append
-                   ))))
-                   .forEach((group, subDataset) -> {
-                       long total;
-                       total = subDataset.sumOfValues();
-
-                    int[] roofs = new int[ranks.size()];
-                    for (int i = 0; i < ranks.size(); i++) {
-                        roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
-                    }
 
-                    int count = 0;
-                    final List<String> sortedKeys = subDataset.sortedKeys(Comparator.comparingLong(Long::parseLong));
+            final Map<String, GroupedBuckets> groups = new HashMap<>();
+            for (String key : dataset.keys()) {
+                String group = DEFAULT_GROUP;
+                String bucketName = key;
+                if (key.contains(":")) {
+                    int index = key.lastIndexOf(":");
+                    group = key.substring(0, index);
+                    bucketName = key.substring(index + 1);
+                }
+                final long bucket = bucketName.equals(Bucket.INFINITE_NEGATIVE) ?
+                    Long.MIN_VALUE : Long.parseLong(bucketName);
+                groups.computeIfAbsent(group, g -> new GroupedBuckets()).add(bucket, dataset.get(key));
+            }
 
-                    int loopIndex = 0;
+            groups.forEach((group, buckets) -> {
+                long total = buckets.sumOfValues();
 
-                    for (String key : sortedKeys) {
-                        final Long value = subDataset.get(key);
+                int[] roofs = new int[ranks.size()];
+                for (int i = 0; i < ranks.size(); i++) {
+                    roofs[i] = Math.round(total * ranks.get(i) * 1.0f / 100);
+                }
 
-                        count += value;
-                        for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
-                            int roof = roofs[rankIdx];
+                int count = 0;
+                int loopIndex = 0;
 
-                            if (count >= roof) {
-                                if (group.equals(DEFAULT_GROUP)) {
-                                    percentileValues.put(String.valueOf(ranks.get(rankIdx)), Long.parseLong(key));
-                                } else {
-                                    percentileValues.put(String.format("%s:%s", group, ranks.get(rankIdx)), Long.parseLong(key));
-                                }
-                                loopIndex++;
+                // The buckets are in ascending order.
+                for (int i = 0; i < buckets.size; i++) {
+                    count += buckets.values[i];
+                    for (int rankIdx = loopIndex; rankIdx < roofs.length; rankIdx++) {
+                        int roof = roofs[rankIdx];
+
+                        if (count >= roof) {
+                            if (group.equals(DEFAULT_GROUP)) {
+                                percentileValues.put(String.valueOf(ranks.get(rankIdx)), buckets.buckets[i]);
                             } else {
-                                break;
+                                percentileValues.put(String.format("%s:%s", group, ranks.get(rankIdx)), buckets.buckets[i]);
                             }
+                            loopIndex++;
+                        } else {
+                            break;
                         }
                     }
-                });
+                }
+            });
+        }
+    }
+
+    /**
+     * The bucket and value pairs of one group, sorted by the bucket in the primitive arrays.
+     */
+    private static class GroupedBuckets {
+        private long[] buckets = new long[16];
+        private long[] values = new long[16];
+        private int size;
+
+        private void add(long bucket, long value) {
+            if (size == buckets.length) {
+                buckets = Arrays.copyOf(buckets, size << 1);
+                values = Arrays.copyOf(values, size << 1);
+            }
+            int index = size;
+            while (index > 0 && buckets[index - 1] > bucket) {
+                buckets[index] = buckets[index - 1];
+                values[index] = values[index - 1];
+                index--;
+            }
+            buckets[index] = bucket;
+            values[index] = value;
+            size++;
+        }
+
+        private long sumOfValues() {
+            long sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += values[i];
+            }
+            return sum;
         }
     }
 
@@ -295,10 +311,10 @@ public abstract class AvgHistogramPercentileFunction extends Metrics implements
 
         this.setEntityId(remoteData.getDataStrings(0));
 
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(1)));
-        this.setRanks(new IntList(remoteData.getDataObjectStrings(2)));
-        this.setPercentileValues(new DataTable(remoteData.getDataObjectStrings(3)));
+        this.setSummation(PackedObjects.dataTable(remoteData, 0));
+        this.setCount(PackedObjects.dataTable(remoteData, 1));
+        this.setRanks(PackedObjects.intList(remoteData, 2));
+        this.setPercentileValues(PackedObjects.dataTable(remoteData, 3));
     }
 
     @Override
@@ -308,10 +324,10 @@ public abstract class AvgHistogramPercentileFunction extends Metrics implements
 
         remoteBuilder.addDataStrings(entityId);
 
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(ranks.toStorageData());
-        remoteBuilder.addDataObjectStrings(percentileValues.toStorageData());
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(summation));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(count));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(ranks));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(percentileValues));
 
         return remoteBuilder;
     }
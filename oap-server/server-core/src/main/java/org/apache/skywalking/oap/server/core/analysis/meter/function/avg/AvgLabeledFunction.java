@@ -34,6 +34,7 @@ import org.apache.skywalking.oap.server.core.analysis.meter.function.MeterFuncti
 import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
 import org.apache.skywalking.oap.server.core.analysis.metrics.LabeledValueHolder;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.remote.data.PackedObjects;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.annotation.Column;
@@ -128,8 +129,8 @@ public abstract class AvgLabeledFunction extends Metrics implements AcceptableVa
 
     @Override
     public void deserialize(final RemoteData remoteData) {
-        this.setCount(new DataTable(remoteData.getDataObjectStrings(0)));
-        this.setSummation(new DataTable(remoteData.getDataObjectStrings(1)));
+        this.setCount(PackedObjects.dataTable(remoteData, 0));
+        this.setSummation(PackedObjects.dataTable(remoteData, 1));
         setTimeBucket(remoteData.getDataLongs(0));
 
         this.entityId = remoteData.getDataStrings(0);
@@ -139,8 +140,8 @@ public abstract class AvgLabeledFunction extends Metrics implements AcceptableVa
     @Override
     public RemoteData.Builder serialize() {
         RemoteData.Builder remoteBuilder = RemoteData.newBuilder();
-        remoteBuilder.addDataObjectStrings(count.toStorageData());
-        remoteBuilder.addDataObjectStrings(summation.toStorageData());
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(count));
+        remoteBuilder.addDataObjectBytes(PackedObjects.pack(summation));
         remoteBuilder.addDataLongs(getTimeBucket());
 
         remoteBuilder.addDataStrings(entityId);
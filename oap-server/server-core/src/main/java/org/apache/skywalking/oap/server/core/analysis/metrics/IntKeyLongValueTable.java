@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import java.util.Arrays;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * IntKeyLongValueTable stores int key and long value pairs in two arrays sorted by the keys. It is the primitive
+ * alternative of {@link DataTable} for the numeric buckets, such as the dataset of {@link PercentileMetrics} and {@link
+ * HistogramMetrics}. No boxing or key string is required in the accumulation, and the iteration is in the key order
+ * naturally.
+ *
+ * The storage format is the same as {@link DataTable}, `key,value|key,value`, so the data is readable by each other.
+ */
+public class IntKeyLongValueTable implements StorageDataComplexObject<IntKeyLongValueTable> {
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    public IntKeyLongValueTable() {
+        this(8);
+    }
+
+    public IntKeyLongValueTable(int initialCapacity) {
+        keys = new int[initialCapacity];
+        values = new long[initialCapacity];
+    }
+
+    public IntKeyLongValueTable(String data) {
+        this();
+        toObject(data);
+    }
+
+    /**
+     * @return the value of the key, or 0 if the key doesn't exist.
+     */
+    public long get(int key) {
+        final int index = Arrays.binarySearch(keys, 0, size, key);
+        return index < 0 ? 0L : values[index];
+    }
+
+    public void put(int key, long value) {
+        final int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            values[index] = value;
+        } else {
+            insert(-index - 1, key, value);
+        }
+    }
+
+    /**
+     * Accumulate the value with existing value in the same given key.
+     */
+    public void valueAccumulation(int key, long value) {
+        final int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            values[index] += value;
+        } else {
+            insert(-index - 1, key, value);
+        }
+    }
+
+    /**
+     * @return the key at the position, keys are in ascending order.
+     */
+    public int keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return the value of the key at the position.
+     */
+    public long valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return the sum of all values.
+     */
+    public long sumOfValues() {
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    public boolean keysEqual(IntKeyLongValueTable that) {
+        if (this.size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (this.keys[i] != that.keys[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasData() {
+        return size > 0;
+    }
+
+    public boolean hasKey(int key) {
+        return Arrays.binarySearch(keys, 0, size, key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Accumulate all values of the given table into this one.
+     */
+    public IntKeyLongValueTable append(IntKeyLongValueTable that) {
+        if (this.keysEqual(that)) {
+            // The most common case, such as the histogram with the same steps.
+            for (int i = 0; i < size; i++) {
+                values[i] += that.values[i];
+            }
+            return this;
+        }
+        for (int i = 0; i < that.size; i++) {
+            valueAccumulation(that.keys[i], that.values[i]);
+        }
+        return this;
+    }
+
+    @Override
+    public String toStorageData() {
+        StringBuilder builder = new StringBuilder(size * 8);
+        for (int i = 0; i < size; i++) {
+            if (i != 0) {
+                builder.append(Const.ARRAY_SPLIT);
+            }
+            builder.append(keys[i]).append(Const.KEY_VALUE_SPLIT).append(values[i]);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void toObject(String data) {
+        String[] keyValues = data.split(Const.ARRAY_PARSER_SPLIT);
+        for (String keyValue : keyValues) {
+            final String[] keyValuePair = keyValue.split(Const.KEY_VALUE_SPLIT);
+            if (keyValuePair.length == 2) {
+                put(Integer.parseInt(keyValuePair[0]), Long.parseLong(keyValuePair[1]));
+            }
+        }
+    }
+
+    @Override
+    public void copyFrom(IntKeyLongValueTable source) {
+        this.append(source);
+    }
+
+    private void insert(int index, int key, long value) {
+        if (size == keys.length) {
+            final int capacity = Math.max(8, size << 1);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        if (index < size) {
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+        }
+        keys[index] = key;
+        values[index] = value;
+        size++;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IntKeyLongValueTable)) {
+            return false;
+        }
+        IntKeyLongValueTable that = (IntKeyLongValueTable) o;
+        if (!keysEqual(that)) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (values[i] != that.values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + keys[i];
+            result = 31 * result + Long.hashCode(values[i]);
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "IntKeyLongValueTable(" + toStorageData() + ")";
+    }
+}
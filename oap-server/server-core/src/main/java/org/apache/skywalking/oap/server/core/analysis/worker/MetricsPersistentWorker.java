@@ -21,20 +21,17 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.ConsumerPoolFactory;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
-import org.apache.skywalking.oap.server.core.analysis.data.MergableBufferedData;
-import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.data.HashMergableBufferedData;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.exporter.ExportEvent;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
@@ -52,8 +49,14 @@ import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
  */
 @Slf4j
 public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
+    /**
+     * Hard coded the max size. This is only the batch size of one metrics, too large number is meaningless.
+     */
+    private static final int MAX_BATCH_GET_SIZE = 2000;
+
+    @Getter
     private final Model model;
-    private final Map<Metrics, Metrics> context;
+    private final MetricsSessionCache context;
     private final IMetricsDAO metricsDAO;
     private final Optional<AbstractWorker<Metrics>> nextAlarmWorker;
     private final Optional<AbstractWorker<ExportEvent>> nextExportWorker;
@@ -61,20 +64,27 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     private final Optional<MetricsTransWorker> transWorker;
     private final boolean enableDatabaseSession;
     private final boolean supportUpdate;
+    /**
+     * The metrics are added to the existing ones by the storage, rather than loaded and combined here. The metrics
+     * flowing to the alarm or exporter must be the combined ones, which are never upserted.
+     */
+    private final boolean upsert;
     private CounterMetrics aggregationCounter;
 
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
                             AbstractWorker<Metrics> nextAlarmWorker, AbstractWorker<ExportEvent> nextExportWorker,
-                            MetricsTransWorker transWorker, boolean enableDatabaseSession, boolean supportUpdate) {
-        super(moduleDefineHolder, new ReadWriteSafeCache<>(new MergableBufferedData(), new MergableBufferedData()));
+                            MetricsTransWorker transWorker, boolean enableDatabaseSession, boolean supportUpdate,
+                            int cacheShardSize, int maxSizeOfDatabaseSession) {
+        super(moduleDefineHolder, createCache(moduleDefineHolder, model, cacheShardSize, HashMergableBufferedData::new));
         this.model = model;
-        this.context = new HashMap<>(100);
         this.enableDatabaseSession = enableDatabaseSession;
         this.metricsDAO = metricsDAO;
         this.nextAlarmWorker = Optional.ofNullable(nextAlarmWorker);
         this.nextExportWorker = Optional.ofNullable(nextExportWorker);
         this.transWorker = Optional.ofNullable(transWorker);
         this.supportUpdate = supportUpdate;
+        this.upsert = supportUpdate && nextAlarmWorker == null && nextExportWorker == null
+            && metricsDAO.isUpsertSupported(model);
 
         String name = "METRICS_L2_AGGREGATION";
         int size = BulkConsumePool.Creator.recommendMaxSize() / 8;
@@ -99,16 +109,33 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
             new MetricsTag.Keys("metricName", "level", "dimensionality"),
             new MetricsTag.Values(model.getName(), "2", model.getDownsampling().getName())
         );
+        this.context = new MetricsSessionCache(
+            // The metrics of the current batch must not be evicted before they are used.
+            Math.max(maxSizeOfDatabaseSession, MAX_BATCH_GET_SIZE),
+            createSessionCacheCounter(metricsCreator, model, "hit"),
+            createSessionCacheCounter(metricsCreator, model, "miss"),
+            createSessionCacheCounter(metricsCreator, model, "eviction"),
+            createSessionCacheCounter(metricsCreator, model, "expiration")
+        );
     }
 
     /**
      * Create the leaf MetricsPersistentWorker, no next step.
      */
     MetricsPersistentWorker(ModuleDefineHolder moduleDefineHolder, Model model, IMetricsDAO metricsDAO,
-                            boolean enableDatabaseSession, boolean supportUpdate) {
+                            boolean enableDatabaseSession, boolean supportUpdate, int cacheShardSize,
+                            int maxSizeOfDatabaseSession) {
         this(moduleDefineHolder, model, metricsDAO,
              null, null, null,
-             enableDatabaseSession, supportUpdate
+             enableDatabaseSession, supportUpdate, cacheShardSize, maxSizeOfDatabaseSession
+        );
+    }
+
+    private static CounterMetrics createSessionCacheCounter(MetricsCreator metricsCreator, Model model, String status) {
+        return metricsCreator.createCounter(
+            "metrics_persistent_session_cache", "The number of hit, miss, eviction and expiration of the session cache",
+            new MetricsTag.Keys("metricName", "dimensionality", "status"),
+            new MetricsTag.Values(model.getName(), model.getDownsampling().getName(), status)
         );
     }
 
@@ -121,6 +148,17 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         dataCarrier.produce(metrics);
     }
 
+    /**
+     * Accept the metrics received from the other OAP nodes in batch.
+     */
+    @Override
+    public void in(List<Metrics> metrics) {
+        aggregationCounter.inc(metrics.size());
+        for (Metrics m : metrics) {
+            dataCarrier.produce(m);
+        }
+    }
+
     @Override
     public void prepareBatch(Collection<Metrics> lastCollection, List<PrepareRequest> prepareRequests) {
         long start = System.currentTimeMillis();
@@ -128,11 +166,7 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
             return;
         }
 
-        /*
-         * Hard coded the max size. This is only the batch size of one metrics, too large number is meaningless.
-         */
-        int maxBatchGetSize = 2000;
-        final int batchSize = Math.min(maxBatchGetSize, lastCollection.size());
+        final int batchSize = Math.min(MAX_BATCH_GET_SIZE, lastCollection.size());
         List<Metrics> metricsList = new ArrayList<>();
         for (Metrics data : lastCollection) {
             transWorker.ifPresent(metricsTransWorker -> metricsTransWorker.in(data));
@@ -159,6 +193,12 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
     private void flushDataToStorage(List<Metrics> metricsList,
                                     List<PrepareRequest> prepareRequests) {
         try {
+            if (upsert) {
+                metricsList.forEach(Metrics::calculate);
+                prepareRequests.addAll(metricsDAO.prepareBatchUpsert(model, metricsList));
+                return;
+            }
+
             loadFromStorage(metricsList);
 
             for (Metrics metrics : metricsList) {
@@ -215,25 +255,17 @@ public class MetricsPersistentWorker extends PersistenceWorker<Metrics> {
         }
 
         List<Metrics> noInCacheMetrics = metrics.stream()
-                                                .filter(m -> !context.containsKey(m))
+                                                .filter(m -> context.lookup(m) == null)
                                                 .collect(Collectors.toList());
         if (!noInCacheMetrics.isEmpty()) {
-            metricsDAO.multiGet(model, noInCacheMetrics).forEach(m -> context.put(m, m));
+            metricsDAO.multiGet(model, noInCacheMetrics).forEach(context::put);
         }
     }
 
     @Override
     public void endOfRound(long tookTime) {
         if (enableDatabaseSession) {
-            Iterator<Metrics> iterator = context.values().iterator();
-            while (iterator.hasNext()) {
-                Metrics metrics = iterator.next();
-                metrics.extendSurvivalTime(tookTime);
-                // 70,000ms means more than one minute.
-                if (metrics.getSurvivalTime() > 70000) {
-                    iterator.remove();
-                }
-            }
+            context.endOfRound(tookTime);
         }
     }
 
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+
+/**
+ * MetricsSessionCache holds the metrics loaded from the storage by the {@link MetricsPersistentWorker}, in order to
+ * avoid loading them again in the next rounds. The cache is bounded by the max size, the least recently used metrics
+ * are evicted first when the size exceeds. The metrics which have been cached for more than the survival time are
+ * expired at the end of every round.
+ *
+ * This cache is not thread safe, it is only accessed by the persistence of one worker.
+ */
+class MetricsSessionCache {
+    /**
+     * 70,000ms means more than one minute.
+     */
+    static final long SURVIVAL_TIME = 70000;
+
+    private final LinkedHashMap<Metrics, Metrics> cache;
+    private final CounterMetrics hitCounter;
+    private final CounterMetrics missCounter;
+    private final CounterMetrics evictionCounter;
+    private final CounterMetrics expirationCounter;
+
+    /**
+     * @param maxSize the max number of cached metrics, should not be less than the batch size of the worker, otherwise
+     *                the metrics of the current batch could be evicted before they are used.
+     */
+    MetricsSessionCache(int maxSize, CounterMetrics hitCounter, CounterMetrics missCounter,
+                        CounterMetrics evictionCounter, CounterMetrics expirationCounter) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The max size of the metrics session cache should be positive.");
+        }
+        this.hitCounter = hitCounter;
+        this.missCounter = missCounter;
+        this.evictionCounter = evictionCounter;
+        this.expirationCounter = expirationCounter;
+        this.cache = new LinkedHashMap<Metrics, Metrics>(Math.min(maxSize, 100), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Metrics, Metrics> eldest) {
+                if (size() > maxSize) {
+                    MetricsSessionCache.this.evictionCounter.inc();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Look up the cached metrics with the same ID, and record the hit or miss.
+     *
+     * @return NULL if not cached.
+     */
+    Metrics lookup(Metrics metrics) {
+        final Metrics cached = cache.get(metrics);
+        if (cached != null) {
+            hitCounter.inc();
+        } else {
+            missCounter.inc();
+        }
+        return cached;
+    }
+
+    /**
+     * @return the cached metrics with the same ID, or NULL. No hit or miss is recorded.
+     */
+    Metrics get(Metrics metrics) {
+        return cache.get(metrics);
+    }
+
+    void put(Metrics metrics) {
+        cache.put(metrics, metrics);
+    }
+
+    void clear() {
+        cache.clear();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    /**
+     * Extend the survival time of all cached metrics, and remove the ones which live longer than {@link
+     * #SURVIVAL_TIME}.
+     */
+    void endOfRound(long tookTime) {
+        Iterator<Metrics> iterator = cache.values().iterator();
+        while (iterator.hasNext()) {
+            Metrics metrics = iterator.next();
+            metrics.extendSurvivalTime(tookTime);
+            if (metrics.getSurvivalTime() > SURVIVAL_TIME) {
+                iterator.remove();
+                expirationCounter.inc();
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
+import org.apache.skywalking.apm.commons.datacarrier.consumer.WaitStrategy;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.analysis.DownSampling;
@@ -32,6 +33,10 @@ import org.apache.skywalking.oap.server.core.analysis.MetricsExtension;
 import org.apache.skywalking.oap.server.core.analysis.Stream;
 import org.apache.skywalking.oap.server.core.analysis.StreamDefinition;
 import org.apache.skywalking.oap.server.core.analysis.StreamProcessor;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationClientSideMetrics;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationIndex;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationIndexWorker;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationServerSideMetrics;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.config.DownSamplingConfigService;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
@@ -43,6 +48,7 @@ import org.apache.skywalking.oap.server.core.storage.annotation.Storage;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.model.ModelCreator;
 import org.apache.skywalking.oap.server.core.storage.type.StorageBuilder;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 
@@ -77,6 +83,34 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
     @Getter
     private boolean enableDatabaseSession;
 
+    /**
+     * Hold and forward CoreModuleConfig#persistentCacheShardSize to the persistent worker.
+     */
+    @Setter
+    @Getter
+    private int persistentCacheShardSize = 1;
+
+    /**
+     * Hold and forward CoreModuleConfig#maxSizeOfDatabaseSession to the persistent worker.
+     */
+    @Setter
+    @Getter
+    private int maxSizeOfDatabaseSession = 100_000;
+
+    /**
+     * Hold and forward CoreModuleConfig#l1AggregationWaitStrategy to the aggregate worker.
+     */
+    @Setter
+    @Getter
+    private WaitStrategy l1AggregationWaitStrategy = WaitStrategy.SLEEP;
+
+    /**
+     * Hold and forward the index of the persisted service relations to the persistent workers of the relation metrics.
+     */
+    @Setter
+    @Getter
+    private ServiceRelationIndex serviceRelationIndex;
+
     public static MetricsStreamProcessor getInstance() {
         return PROCESSOR;
     }
@@ -157,7 +191,7 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
         Model model = modelSetter.add(
             metricsClass, stream.getScopeId(), new Storage(stream.getName(), DownSampling.Minute), false);
         MetricsPersistentWorker minutePersistentWorker = minutePersistentWorker(
-            moduleDefineHolder, metricsDAO, model, transWorker, supportUpdate);
+            moduleDefineHolder, metricsDAO, model, transWorker, supportUpdate, metricsClass);
 
         String remoteReceiverWorkerName = stream.getName() + "_rec";
         IWorkerInstanceSetter workerInstanceSetter = moduleDefineHolder.find(CoreModule.NAME)
@@ -167,7 +201,7 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
 
         MetricsRemoteWorker remoteWorker = new MetricsRemoteWorker(moduleDefineHolder, remoteReceiverWorkerName);
         MetricsAggregateWorker aggregateWorker = new MetricsAggregateWorker(
-            moduleDefineHolder, remoteWorker, stream.getName());
+            moduleDefineHolder, remoteWorker, stream.getName(), l1AggregationWaitStrategy);
 
         entryWorkers.put(metricsClass, aggregateWorker);
     }
@@ -176,13 +210,21 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                            IMetricsDAO metricsDAO,
                                                            Model model,
                                                            MetricsTransWorker transWorker,
-                                                           boolean supportUpdate) {
-        AlarmNotifyWorker alarmNotifyWorker = new AlarmNotifyWorker(moduleDefineHolder);
+                                                           boolean supportUpdate,
+                                                           Class<? extends Metrics> metricsClass) {
+        AbstractWorker<Metrics> alarmNotifyWorker = new AlarmNotifyWorker(moduleDefineHolder);
         ExportWorker exportWorker = new ExportWorker(moduleDefineHolder);
+        if (serviceRelationIndex != null && serviceRelationIndex.isEnabled()
+            && (ServiceRelationServerSideMetrics.class.equals(metricsClass)
+            || ServiceRelationClientSideMetrics.class.equals(metricsClass))) {
+            // The persisted relations go through the index before the alarm.
+            alarmNotifyWorker = new ServiceRelationIndexWorker(
+                moduleDefineHolder, serviceRelationIndex, alarmNotifyWorker);
+        }
 
         MetricsPersistentWorker minutePersistentWorker = new MetricsPersistentWorker(
             moduleDefineHolder, model, metricsDAO, alarmNotifyWorker, exportWorker, transWorker, enableDatabaseSession,
-            supportUpdate
+            supportUpdate, persistentCacheShardSize, maxSizeOfDatabaseSession
         );
         persistentWorkers.add(minutePersistentWorker);
 
@@ -194,7 +236,9 @@ public class MetricsStreamProcessor implements StreamProcessor<Metrics> {
                                                        Model model,
                                                        boolean supportUpdate) {
         MetricsPersistentWorker persistentWorker = new MetricsPersistentWorker(
-            moduleDefineHolder, model, metricsDAO, enableDatabaseSession, supportUpdate);
+            moduleDefineHolder, model, metricsDAO, enableDatabaseSession, supportUpdate, persistentCacheShardSize,
+            maxSizeOfDatabaseSession
+        );
         persistentWorkers.add(persistentWorker);
 
         return persistentWorker;
@@ -20,14 +20,21 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.data.BufferedData;
+import org.apache.skywalking.oap.server.core.analysis.data.ShardedReadWriteSafeCache;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * PersistenceWorker take the responsibility to pushing data to the final storage. The target storage is based on the
@@ -38,9 +45,9 @@ import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 @Slf4j
 public abstract class PersistenceWorker<INPUT extends StorageData> extends AbstractWorker<INPUT> {
     @Getter(AccessLevel.PROTECTED)
-    private final ReadWriteSafeCache<INPUT> cache;
+    private final ShardedReadWriteSafeCache<INPUT> cache;
 
-    PersistenceWorker(ModuleDefineHolder moduleDefineHolder, ReadWriteSafeCache<INPUT> cache) {
+    PersistenceWorker(ModuleDefineHolder moduleDefineHolder, ShardedReadWriteSafeCache<INPUT> cache) {
         super(moduleDefineHolder);
         this.cache = cache;
     }
@@ -52,6 +59,11 @@ public abstract class PersistenceWorker<INPUT extends StorageData> extends Abstr
         cache.write(input);
     }
 
+    /**
+     * @return the storage model of the data persisted by this worker.
+     */
+    public abstract Model getModel();
+
     /**
      * The persistence process is driven by the {@link org.apache.skywalking.oap.server.core.storage.PersistenceTimer}.
      * This is a notification method for the worker when every round finished.
@@ -73,4 +85,23 @@ public abstract class PersistenceWorker<INPUT extends StorageData> extends Abstr
         final List<INPUT> dataList = getCache().read();
         prepareBatch(dataList, prepareRequests);
     }
+
+    /**
+     * Create the read/write switchable cache of the persistence worker.
+     *
+     * @param shardSize      the number of the cache shards, 1 or less means a single lock guarded cache.
+     * @param bufferSupplier creates the buffers used by the cache.
+     */
+    static <INPUT extends StorageData> ShardedReadWriteSafeCache<INPUT> createCache(
+        ModuleDefineHolder moduleDefineHolder, Model model, int shardSize, Supplier<BufferedData<INPUT>> bufferSupplier) {
+        MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                          .provider()
+                                                          .getService(MetricsCreator.class);
+        CounterMetrics contentionCounter = metricsCreator.createCounter(
+            "persistence_cache_contention", "The number of times the persistence cache lock was held by others",
+            new MetricsTag.Keys("metricName", "dimensionality"),
+            new MetricsTag.Values(model.getName(), model.getDownsampling().getName())
+        );
+        return new ShardedReadWriteSafeCache<>(Math.max(shardSize, 1), bufferSupplier, contentionCounter);
+    }
 }
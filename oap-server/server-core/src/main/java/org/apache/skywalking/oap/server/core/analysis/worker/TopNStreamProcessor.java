@@ -60,6 +60,18 @@ public class TopNStreamProcessor implements StreamProcessor<TopN> {
     @Setter
     @Getter
     private int topSize = 50;
+    /**
+     * Hold and forward CoreModuleConfig#persistentCacheShardSize to the persistent worker.
+     */
+    @Setter
+    @Getter
+    private int persistentCacheShardSize = 1;
+    /**
+     * Hold and forward CoreModuleConfig#topNConsumerThreads to the persistent worker.
+     */
+    @Setter
+    @Getter
+    private int topNConsumerThreads = 1;
 
     public static TopNStreamProcessor getInstance() {
         return PROCESSOR;
@@ -87,7 +99,9 @@ public class TopNStreamProcessor implements StreamProcessor<TopN> {
             topNClass, stream.scopeId(), new Storage(stream.name(), DownSampling.Second), true);
 
         TopNWorker persistentWorker = new TopNWorker(
-            moduleDefineHolder, model, topSize, topNWorkerReportCycle * 60 * 1000L, recordDAO);
+            moduleDefineHolder, model, topSize, topNWorkerReportCycle * 60 * 1000L, recordDAO,
+            persistentCacheShardSize, topNConsumerThreads
+        );
         persistentWorkers.add(persistentWorker);
         workers.put(topNClass, persistentWorker);
     }
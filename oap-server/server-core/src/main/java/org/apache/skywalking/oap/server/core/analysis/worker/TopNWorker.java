@@ -20,38 +20,72 @@ package org.apache.skywalking.oap.server.core.analysis.worker;
 
 import java.util.Collection;
 import java.util.List;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
-import org.apache.skywalking.oap.server.core.analysis.data.LimitedSizeBufferedData;
-import org.apache.skywalking.oap.server.core.analysis.data.ReadWriteSafeCache;
+import org.apache.skywalking.oap.server.core.analysis.data.TopNBufferedData;
 import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
 import org.apache.skywalking.oap.server.core.storage.IRecordDAO;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * Top N worker is a persistence worker. Cache and order the data, flush in longer period.
+ *
+ * The records are consumed by several threads, and kept in the bounded min heaps of every service in every minute. When
+ * the cache is sharded, the heaps of the same service and minute in different shards are merged at flush time.
  */
 @Slf4j
 public class TopNWorker extends PersistenceWorker<TopN> {
     private final IRecordDAO recordDAO;
+    @Getter
     private final Model model;
     private final DataCarrier<TopN> dataCarrier;
+    private final int topNSize;
+    private final boolean mergeOnFlush;
+    private final CounterMetrics inCounter;
+    private final CounterMetrics droppedCounter;
     private long reportPeriod;
     private volatile long lastReportTimestamp;
 
     TopNWorker(ModuleDefineHolder moduleDefineHolder, Model model, int topNSize, long reportPeriod,
-               IRecordDAO recordDAO) {
+               IRecordDAO recordDAO, int cacheShardSize, int consumerThreads) {
+        this(
+            moduleDefineHolder, model, topNSize, reportPeriod, recordDAO, cacheShardSize, consumerThreads,
+            createCounter(
+                moduleDefineHolder, model, "topn_in_count",
+                "The number of the top N records received by the top N worker"
+            ),
+            createCounter(
+                moduleDefineHolder, model, "topn_dropped_count",
+                "The number of the top N records dropped as they are not in the top N"
+            )
+        );
+    }
+
+    private TopNWorker(ModuleDefineHolder moduleDefineHolder, Model model, int topNSize, long reportPeriod,
+                       IRecordDAO recordDAO, int cacheShardSize, int consumerThreads, CounterMetrics inCounter,
+                       CounterMetrics droppedCounter) {
         super(
             moduleDefineHolder,
-            new ReadWriteSafeCache<>(new LimitedSizeBufferedData<>(topNSize), new LimitedSizeBufferedData<>(topNSize))
+            createCache(
+                moduleDefineHolder, model, cacheShardSize, () -> new TopNBufferedData<>(topNSize, droppedCounter))
         );
         this.recordDAO = recordDAO;
         this.model = model;
-        this.dataCarrier = new DataCarrier<>("TopNWorker", 1, 1000);
-        this.dataCarrier.consume(new TopNWorker.TopNConsumer(), 1);
+        this.topNSize = topNSize;
+        this.mergeOnFlush = cacheShardSize > 1;
+        this.inCounter = inCounter;
+        this.droppedCounter = droppedCounter;
+        final int threads = Math.max(consumerThreads, 1);
+        this.dataCarrier = new DataCarrier<>("TopNWorker", threads, 1000);
+        this.dataCarrier.consume(new TopNWorker.TopNConsumer(), threads);
         this.lastReportTimestamp = System.currentTimeMillis();
         // Top N persistent works per 10 minutes default.
         this.reportPeriod = reportPeriod;
@@ -73,6 +107,11 @@ public class TopNWorker extends PersistenceWorker<TopN> {
 
     @Override
     public void prepareBatch(Collection<TopN> lastCollection, List<PrepareRequest> prepareRequests) {
+        if (mergeOnFlush) {
+            final TopNBufferedData<TopN> merged = new TopNBufferedData<>(topNSize, droppedCounter);
+            lastCollection.forEach(merged::accept);
+            lastCollection = merged.read();
+        }
         lastCollection.forEach(record -> {
             try {
                 prepareRequests.add(recordDAO.prepareBatchInsert(model, record));
@@ -91,9 +130,21 @@ public class TopNWorker extends PersistenceWorker<TopN> {
 
     @Override
     public void in(TopN n) {
+        inCounter.inc();
         dataCarrier.produce(n);
     }
 
+    private static CounterMetrics createCounter(ModuleDefineHolder moduleDefineHolder, Model model, String name,
+                                                String tips) {
+        return moduleDefineHolder.find(TelemetryModule.NAME)
+                                 .provider()
+                                 .getService(MetricsCreator.class)
+                                 .createCounter(
+                                     name, tips,
+                                     new MetricsTag.Keys("metricName"), new MetricsTag.Values(model.getName())
+                                 );
+    }
+
     private class TopNConsumer implements IConsumer<TopN> {
         @Override
         public void init() {
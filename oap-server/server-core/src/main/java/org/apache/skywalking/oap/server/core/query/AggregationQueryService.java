@@ -37,10 +37,12 @@ import org.apache.skywalking.oap.server.library.module.Service;
 
 public class AggregationQueryService implements Service {
     private final ModuleManager moduleManager;
+    private final QueryResultCache queryResultCache;
     private IAggregationQueryDAO aggregationQueryDAO;
 
-    public AggregationQueryService(ModuleManager moduleManager) {
+    public AggregationQueryService(ModuleManager moduleManager, QueryResultCache queryResultCache) {
         this.moduleManager = moduleManager;
+        this.queryResultCache = queryResultCache;
     }
 
     private IAggregationQueryDAO getAggregationQueryDAO() {
@@ -52,7 +54,15 @@ public class AggregationQueryService implements Service {
         return aggregationQueryDAO;
     }
 
+    /**
+     * Sort the metrics in the duration, the result could be read from the {@link QueryResultCache} when the whole
+     * duration is closed.
+     */
     public List<SelectedRecord> sortMetrics(TopNCondition condition, Duration duration) throws IOException {
+        return queryResultCache.sortMetrics(condition, duration, d -> readSortedMetrics(condition, d));
+    }
+
+    private List<SelectedRecord> readSortedMetrics(TopNCondition condition, Duration duration) throws IOException {
         final String valueCName = ValueColumnMetadata.INSTANCE.getValueCName(condition.getName());
         List<KeyValue> additionalConditions = null;
         if (StringUtil.isNotEmpty(condition.getParentService())) {
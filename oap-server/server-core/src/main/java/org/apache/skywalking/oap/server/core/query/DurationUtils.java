@@ -97,7 +97,7 @@ public enum DurationUtils {
         durations.add(new PointOfTime(startTimeBucket));
 
         int i = 0;
-        do {
+        while (endTimeBucket != durations.get(durations.size() - 1).getPoint()) {
             switch (step) {
                 case DAY:
                     dateTime = dateTime.plusDays(1);
@@ -130,7 +130,6 @@ public enum DurationUtils {
                 throw new UnexpectedException(errorMsg);
             }
         }
-        while (endTimeBucket != durations.get(durations.size() - 1).getPoint());
 
         return durations;
     }
@@ -163,6 +162,42 @@ public enum DurationUtils {
         throw new UnexpectedException("Unsupported step " + step.name());
     }
 
+    /**
+     * @return the timestamp of the end of the time bucket, which is also the start of the next time bucket.
+     */
+    public long endOfTimeBucket(Step step, long timeBucket) {
+        DateTime dateTime = parseToDateTime(step, timeBucket);
+        switch (step) {
+            case DAY:
+                return dateTime.plusDays(1).getMillis();
+            case HOUR:
+                return dateTime.plusHours(1).getMillis();
+            case MINUTE:
+                return dateTime.plusMinutes(1).getMillis();
+            case SECOND:
+                return dateTime.plusSeconds(1).getMillis();
+        }
+        throw new UnexpectedException("Unsupported step " + step.name());
+    }
+
+    /**
+     * Convert the time bucket to the time in the duration, such as `yyyy-MM-dd HHmm` in minute precision.
+     */
+    public String timeBucketToDurationTime(Step step, long timeBucket) {
+        DateTime dateTime = parseToDateTime(step, timeBucket);
+        switch (step) {
+            case DAY:
+                return YYYY_MM_DD.print(dateTime);
+            case HOUR:
+                return YYYY_MM_DD_HH.print(dateTime);
+            case MINUTE:
+                return YYYY_MM_DD_HHMM.print(dateTime);
+            case SECOND:
+                return YYYY_MM_DD_HHMMSS.print(dateTime);
+        }
+        throw new UnexpectedException("Unsupported step " + step.name());
+    }
+
     private DateTime parseToDateTime(Step step, long time) {
         switch (step) {
             case DAY:
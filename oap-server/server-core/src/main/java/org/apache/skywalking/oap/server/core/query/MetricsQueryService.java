@@ -34,10 +34,12 @@ import org.apache.skywalking.oap.server.library.module.Service;
 @Slf4j
 public class MetricsQueryService implements Service {
     private final ModuleManager moduleManager;
+    private final QueryResultCache queryResultCache;
     private IMetricsQueryDAO metricQueryDAO;
 
-    public MetricsQueryService(ModuleManager moduleManager) {
+    public MetricsQueryService(ModuleManager moduleManager, QueryResultCache queryResultCache) {
         this.moduleManager = moduleManager;
+        this.queryResultCache = queryResultCache;
     }
 
     private IMetricsQueryDAO getMetricQueryDAO() {
@@ -56,11 +58,13 @@ public class MetricsQueryService implements Service {
     }
 
     /**
-     * Read time-series values in the duration of required metrics
+     * Read time-series values in the duration of required metrics, the values of the closed time buckets could be read
+     * from the {@link QueryResultCache}.
      */
     public MetricsValues readMetricsValues(MetricsCondition condition, Duration duration) throws IOException {
-        return getMetricQueryDAO().readMetricsValues(
-            condition, ValueColumnMetadata.INSTANCE.getValueCName(condition.getName()), duration);
+        final String valueCName = ValueColumnMetadata.INSTANCE.getValueCName(condition.getName());
+        return queryResultCache.readMetricsValues(
+            condition, duration, d -> getMetricQueryDAO().readMetricsValues(condition, valueCName, d));
     }
 
     /**
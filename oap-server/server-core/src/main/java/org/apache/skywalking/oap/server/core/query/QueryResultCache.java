@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.oap.server.core.query.enumeration.Order;
+import org.apache.skywalking.oap.server.core.query.enumeration.Scope;
+import org.apache.skywalking.oap.server.core.query.enumeration.Step;
+import org.apache.skywalking.oap.server.core.query.input.Duration;
+import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.TopNCondition;
+import org.apache.skywalking.oap.server.core.query.type.KVInt;
+import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
+import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * QueryResultCache holds the metrics query results of the closed time buckets, which have been settled in the storage
+ * and are not changed anymore. The points of the time-series are cached one by one, so the dashboards refreshing the
+ * same duration only read the open tail buckets from the storage. The sorted metrics are cached when the whole
+ * duration is closed.
+ *
+ * The cache is bounded by the max number of the cached points and results, the least recently used ones are evicted
+ * first.
+ */
+public class QueryResultCache {
+    private final ModuleDefineHolder moduleDefineHolder;
+    private final LongSupplier currentTimeMillis;
+    /**
+     * The time bucket is considered closed when it ended for more than the settled time, in milliseconds.
+     */
+    private final long settledTime;
+    private final Cache<PointKey, KVInt> points;
+    private final Cache<SortKey, List<SelectedRecord>> sortedRecords;
+    private volatile Counters metricsValuesCounters;
+    private volatile Counters sortMetricsCounters;
+
+    /**
+     * @param maxSize            the max number of the cached points and the cached sorted results each, 0 means
+     *                           disabled.
+     * @param settledTimeSeconds the seconds after the end of a time bucket, when its metrics have been aggregated,
+     *                           persisted and visible in the storage, and not changed anymore.
+     */
+    public QueryResultCache(ModuleDefineHolder moduleDefineHolder, int maxSize, long settledTimeSeconds) {
+        this(moduleDefineHolder, maxSize, settledTimeSeconds, System::currentTimeMillis);
+    }
+
+    QueryResultCache(ModuleDefineHolder moduleDefineHolder,
+                     int maxSize,
+                     long settledTimeSeconds,
+                     LongSupplier currentTimeMillis) {
+        this.moduleDefineHolder = moduleDefineHolder;
+        this.currentTimeMillis = currentTimeMillis;
+        this.settledTime = TimeUnit.SECONDS.toMillis(settledTimeSeconds);
+        if (maxSize > 0) {
+            points = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+            sortedRecords = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        } else {
+            points = null;
+            sortedRecords = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return points != null;
+    }
+
+    /**
+     * Read the time-series values, the cached points of the closed time buckets are reused, and the rest are read from
+     * the storage in one query, from the first uncached point to the end of the duration.
+     *
+     * @param reader reads the values in the given duration from the storage, one value for each point of the duration
+     *               in order.
+     */
+    public MetricsValues readMetricsValues(MetricsCondition condition,
+                                           Duration duration,
+                                           Reader<MetricsValues> reader) throws IOException {
+        if (!isEnabled()) {
+            return reader.read(duration);
+        }
+        final String entityId = condition.getEntity().buildId();
+        final Step step = duration.getStep();
+        final List<PointOfTime> pointOfTimes = duration.assembleDurationPoints();
+        final long now = currentTimeMillis.getAsLong();
+
+        final KVInt[] values = new KVInt[pointOfTimes.size()];
+        int uncached = 0;
+        for (; uncached < values.length; uncached++) {
+            final PointOfTime pointOfTime = pointOfTimes.get(uncached);
+            if (!isClosed(step, pointOfTime.getPoint(), now)) {
+                break;
+            }
+            final KVInt cached = points.getIfPresent(new PointKey(condition.getName(), pointOfTime.id(entityId)));
+            if (cached == null) {
+                break;
+            }
+            values[uncached] = cached;
+        }
+        getMetricsValuesCounters().record(uncached, values.length - uncached);
+        if (uncached == values.length) {
+            return toMetricsValues(values);
+        }
+
+        final Duration tail;
+        if (uncached == 0) {
+            tail = duration;
+        } else {
+            tail = new Duration();
+            tail.setStart(DurationUtils.INSTANCE.timeBucketToDurationTime(
+                step, pointOfTimes.get(uncached).getPoint()));
+            tail.setEnd(duration.getEnd());
+            tail.setStep(step);
+        }
+        final MetricsValues fetched = reader.read(tail);
+        final List<KVInt> fetchedValues = fetched.getValues().getValues();
+        if (fetchedValues.size() != values.length - uncached) {
+            // Not one value per point, the values can't be matched with the points.
+            return uncached == 0 ? fetched : reader.read(duration);
+        }
+        for (int i = uncached; i < values.length; i++) {
+            final KVInt value = fetchedValues.get(i - uncached);
+            values[i] = value;
+            final PointOfTime pointOfTime = pointOfTimes.get(i);
+            if (isClosed(step, pointOfTime.getPoint(), now)) {
+                points.put(new PointKey(condition.getName(), pointOfTime.id(entityId)), copy(value));
+            }
+        }
+        return toMetricsValues(values);
+    }
+
+    /**
+     * Sort the metrics, the result is cached when the whole duration is closed.
+     *
+     * @param reader sorts the metrics in the given duration from the storage.
+     */
+    public List<SelectedRecord> sortMetrics(TopNCondition condition,
+                                            Duration duration,
+                                            Reader<List<SelectedRecord>> reader) throws IOException {
+        if (!isEnabled()) {
+            return reader.read(duration);
+        }
+        if (!isClosed(duration.getStep(), duration.getEndTimeBucket(), currentTimeMillis.getAsLong())) {
+            getSortMetricsCounters().record(0, 1);
+            return reader.read(duration);
+        }
+        final SortKey key = new SortKey(
+            condition.getName(), condition.getParentService(), condition.isNormal(), condition.getScope(),
+            condition.getTopN(), condition.getOrder(), duration.getStep(), duration.getStart(), duration.getEnd()
+        );
+        final List<SelectedRecord> cached = sortedRecords.getIfPresent(key);
+        if (cached != null) {
+            getSortMetricsCounters().record(1, 0);
+            return new ArrayList<>(cached);
+        }
+        getSortMetricsCounters().record(0, 1);
+        final List<SelectedRecord> selectedRecords = reader.read(duration);
+        sortedRecords.put(key, new ArrayList<>(selectedRecords));
+        return selectedRecords;
+    }
+
+    private boolean isClosed(Step step, long timeBucket, long now) {
+        return DurationUtils.INSTANCE.endOfTimeBucket(step, timeBucket) + settledTime <= now;
+    }
+
+    private static MetricsValues toMetricsValues(KVInt[] values) {
+        MetricsValues metricsValues = new MetricsValues();
+        for (KVInt value : values) {
+            metricsValues.getValues().addKVInt(copy(value));
+        }
+        return metricsValues;
+    }
+
+    private static KVInt copy(KVInt value) {
+        KVInt copy = new KVInt();
+        copy.setId(value.getId());
+        copy.setValue(value.getValue());
+        return copy;
+    }
+
+    private Counters getMetricsValuesCounters() {
+        if (metricsValuesCounters == null) {
+            metricsValuesCounters = new Counters("metrics_values");
+        }
+        return metricsValuesCounters;
+    }
+
+    private Counters getSortMetricsCounters() {
+        if (sortMetricsCounters == null) {
+            sortMetricsCounters = new Counters("sort_metrics");
+        }
+        return sortMetricsCounters;
+    }
+
+    /**
+     * Read the query result from the storage.
+     */
+    @FunctionalInterface
+    public interface Reader<T> {
+        T read(Duration duration) throws IOException;
+    }
+
+    private class Counters {
+        private final CounterMetrics hitCounter;
+        private final CounterMetrics missCounter;
+
+        private Counters(String query) {
+            MetricsCreator metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                         .provider()
+                                                         .getService(MetricsCreator.class);
+            hitCounter = metricsCreator.createCounter(
+                "query_cache_hit_count", "The number of the query results(points) read from the query cache.",
+                new MetricsTag.Keys("query"), new MetricsTag.Values(query)
+            );
+            missCounter = metricsCreator.createCounter(
+                "query_cache_miss_count", "The number of the query results(points) read from the storage.",
+                new MetricsTag.Keys("query"), new MetricsTag.Values(query)
+            );
+        }
+
+        private void record(int hits, int misses) {
+            if (hits > 0) {
+                hitCounter.inc(hits);
+            }
+            if (misses > 0) {
+                missCounter.inc(misses);
+            }
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class PointKey {
+        private final String metricsName;
+        private final String pointId;
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class SortKey {
+        private final String metricsName;
+        private final String parentService;
+        private final boolean normal;
+        private final Scope scope;
+        private final int topN;
+        private final Order order;
+        private final Step step;
+        private final String start;
+        private final String end;
+    }
+}
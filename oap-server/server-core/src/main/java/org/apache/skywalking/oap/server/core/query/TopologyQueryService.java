@@ -28,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.manual.relation.service.ServiceRelationIndex;
 import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
 import org.apache.skywalking.oap.server.core.query.type.Call;
 import org.apache.skywalking.oap.server.core.query.type.EndpointNode;
@@ -45,11 +46,13 @@ import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 @Slf4j
 public class TopologyQueryService implements Service {
     private final ModuleManager moduleManager;
+    private final ServiceRelationIndex serviceRelationIndex;
     private ITopologyQueryDAO topologyQueryDAO;
     private IComponentLibraryCatalogService componentLibraryCatalogService;
 
-    public TopologyQueryService(ModuleManager moduleManager) {
+    public TopologyQueryService(ModuleManager moduleManager, ServiceRelationIndex serviceRelationIndex) {
         this.moduleManager = moduleManager;
+        this.serviceRelationIndex = serviceRelationIndex;
     }
 
     private ITopologyQueryDAO getTopologyQueryDAO() {
@@ -68,12 +71,18 @@ public class TopologyQueryService implements Service {
         return componentLibraryCatalogService;
     }
 
+    /**
+     * Build the global topology, the relations are loaded from the {@link ServiceRelationIndex} if it covers the time
+     * range, otherwise from the storage.
+     */
     public Topology getGlobalTopology(final long startTB,
                                       final long endTB) throws IOException {
-        List<Call.CallDetail> serviceRelationServerCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(
-            startTB, endTB);
-        List<Call.CallDetail> serviceRelationClientCalls = getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(
-            startTB, endTB);
+        List<Call.CallDetail> serviceRelationServerCalls = serviceRelationIndex.load(startTB, endTB, DetectPoint.SERVER);
+        List<Call.CallDetail> serviceRelationClientCalls = serviceRelationIndex.load(startTB, endTB, DetectPoint.CLIENT);
+        if (serviceRelationServerCalls == null || serviceRelationClientCalls == null) {
+            serviceRelationServerCalls = getTopologyQueryDAO().loadServiceRelationsDetectedAtServerSide(startTB, endTB);
+            serviceRelationClientCalls = getTopologyQueryDAO().loadServiceRelationDetectedAtClientSide(startTB, endTB);
+        }
 
         ServiceTopologyBuilder builder = new ServiceTopologyBuilder(moduleManager);
         return builder.build(serviceRelationClientCalls, serviceRelationServerCalls);
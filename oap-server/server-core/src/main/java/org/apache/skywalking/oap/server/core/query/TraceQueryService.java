@@ -18,17 +18,20 @@
 
 package org.apache.skywalking.oap.server.core.query;
 
+import com.google.common.base.Strings;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
 import org.apache.skywalking.oap.server.core.Const;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.analysis.manual.searchtag.Tag;
 import org.apache.skywalking.oap.server.core.analysis.manual.segment.SegmentRecord;
 import org.apache.skywalking.oap.server.core.config.IComponentLibraryCatalogService;
+import org.apache.skywalking.oap.server.core.query.input.TraceWindowCondition;
 import org.apache.skywalking.oap.server.core.query.type.KeyValue;
 import org.apache.skywalking.oap.server.core.query.type.LogEntity;
 import org.apache.skywalking.oap.server.core.query.type.Pagination;
@@ -39,6 +42,8 @@ import org.apache.skywalking.oap.server.core.query.type.Span;
 import org.apache.skywalking.oap.server.core.query.type.Trace;
 import org.apache.skywalking.oap.server.core.query.type.TraceBrief;
 import org.apache.skywalking.oap.server.core.query.type.TraceState;
+import org.apache.skywalking.oap.server.core.query.type.TraceWindow;
+import org.apache.skywalking.oap.server.core.query.type.TraceWindowSpan;
 import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.query.ITraceQueryDAO;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
@@ -48,6 +53,14 @@ import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import static java.util.Objects.nonNull;
 
 public class TraceQueryService implements Service {
+    /**
+     * The default number of the spans in a trace window.
+     */
+    static final int DEFAULT_WINDOW_SIZE = 200;
+    /**
+     * The max number of the spans in a trace window, to bound the response of the huge traces.
+     */
+    static final int MAX_WINDOW_SIZE = 1000;
 
     private final ModuleManager moduleManager;
     private ITraceQueryDAO traceQueryDAO;
@@ -129,82 +142,143 @@ public class TraceQueryService implements Service {
         return trace;
     }
 
+    /**
+     * Query a window of the spans of the trace, in the same order as {@link #queryTrace(String)}. Only the skeletons of
+     * all spans are read to build the span tree, the spans in the window are fully parsed. The spans deeper than the max
+     * depth are collapsed, and could be expanded by querying their ancestor as the subtree root.
+     */
+    public TraceWindow queryTraceWindow(final TraceWindowCondition condition) throws IOException {
+        final TraceWindow traceWindow = new TraceWindow();
+
+        final List<SegmentRecord> segmentRecords = getTraceQueryDAO().queryByTraceId(condition.getTraceId());
+        final TraceSpanTree tree;
+        if (segmentRecords.isEmpty()) {
+            tree = TraceSpanTree.ofSpans(getTraceQueryDAO().doFlexibleTraceQuery(condition.getTraceId()));
+        } else {
+            final List<byte[]> segments = new ArrayList<>(segmentRecords.size());
+            for (SegmentRecord segment : segmentRecords) {
+                if (nonNull(segment)) {
+                    segments.add(segment.getDataBinary());
+                }
+            }
+            tree = TraceSpanTree.ofSegments(segments);
+        }
+
+        TraceSpanTree.SpanNode subtreeRoot = null;
+        if (!Strings.isNullOrEmpty(condition.getSubtreeRoot())) {
+            subtreeRoot = tree.find(condition.getSubtreeRoot());
+            if (subtreeRoot == null) {
+                return traceWindow;
+            }
+        }
+        final int maxDepth = nonNull(condition.getMaxDepth()) ? condition.getMaxDepth() : -1;
+        final int from = nonNull(condition.getFrom()) ? Math.max(condition.getFrom(), 0) : 0;
+        final int size = nonNull(condition.getSize())
+            ? Math.max(Math.min(condition.getSize(), MAX_WINDOW_SIZE), 0) : DEFAULT_WINDOW_SIZE;
+
+        final TraceSpanTree.Window window = tree.window(subtreeRoot, maxDepth, from, size);
+        for (TraceSpanTree.Visit visit : window.getVisits()) {
+            final TraceSpanTree.SpanNode node = visit.getNode();
+            Span span = node.getSpan();
+            if (span == null) {
+                final TraceSpanTree.SegmentHeader segment = node.getSegment();
+                span = buildSpan(
+                    segment.getTraceId(), segment.getSegmentId(), segment.getService(), segment.getServiceInstance(),
+                    node.parse()
+                );
+            }
+            span.setRoot(node.isRoot());
+            traceWindow.getSpans().add(new TraceWindowSpan(span, visit.getDepth(), visit.getCollapsedDescendants()));
+        }
+        traceWindow.setTotal(window.getTotal());
+        return traceWindow;
+    }
+
     private List<Span> buildSpanList(SegmentObject segmentObject) {
         List<Span> spans = new ArrayList<>();
 
-        segmentObject.getSpansList().forEach(spanObject -> {
-            Span span = new Span();
-            span.setTraceId(segmentObject.getTraceId());
-            span.setSegmentId(segmentObject.getTraceSegmentId());
-            span.setSpanId(spanObject.getSpanId());
-            span.setParentSpanId(spanObject.getParentSpanId());
-            span.setStartTime(spanObject.getStartTime());
-            span.setEndTime(spanObject.getEndTime());
-            span.setError(spanObject.getIsError());
-            span.setLayer(spanObject.getSpanLayer().name());
-            span.setType(spanObject.getSpanType().name());
-
-            String segmentSpanId = segmentObject.getTraceSegmentId() + Const.SEGMENT_SPAN_SPLIT + spanObject.getSpanId();
-            span.setSegmentSpanId(segmentSpanId);
-
-            String segmentParentSpanId = segmentObject.getTraceSegmentId() + Const.SEGMENT_SPAN_SPLIT + spanObject.getParentSpanId();
-            span.setSegmentParentSpanId(segmentParentSpanId);
-
-            span.setPeer(spanObject.getPeer());
-
-            span.setEndpointName(spanObject.getOperationName());
-
-            span.setServiceCode(segmentObject.getService());
-            span.setServiceInstanceName(segmentObject.getServiceInstance());
-
-            span.setComponent(getComponentLibraryCatalogService().getComponentName(spanObject.getComponentId()));
-
-            spanObject.getRefsList().forEach(reference -> {
-                Ref ref = new Ref();
-                ref.setTraceId(reference.getTraceId());
-                ref.setParentSegmentId(reference.getParentTraceSegmentId());
-
-                switch (reference.getRefType()) {
-                    case CrossThread:
-                        ref.setType(RefType.CROSS_THREAD);
-                        break;
-                    case CrossProcess:
-                        ref.setType(RefType.CROSS_PROCESS);
-                        break;
-                }
-                ref.setParentSpanId(reference.getParentSpanId());
+        segmentObject.getSpansList().forEach(spanObject -> spans.add(buildSpan(
+            segmentObject.getTraceId(), segmentObject.getTraceSegmentId(), segmentObject.getService(),
+            segmentObject.getServiceInstance(), spanObject
+        )));
 
-                span.setSegmentParentSpanId(
-                    ref.getParentSegmentId() + Const.SEGMENT_SPAN_SPLIT + ref.getParentSpanId());
+        return spans;
+    }
 
-                span.getRefs().add(ref);
-            });
+    private Span buildSpan(final String traceId,
+                           final String segmentId,
+                           final String service,
+                           final String serviceInstance,
+                           final SpanObject spanObject) {
+        Span span = new Span();
+        span.setTraceId(traceId);
+        span.setSegmentId(segmentId);
+        span.setSpanId(spanObject.getSpanId());
+        span.setParentSpanId(spanObject.getParentSpanId());
+        span.setStartTime(spanObject.getStartTime());
+        span.setEndTime(spanObject.getEndTime());
+        span.setError(spanObject.getIsError());
+        span.setLayer(spanObject.getSpanLayer().name());
+        span.setType(spanObject.getSpanType().name());
+
+        String segmentSpanId = segmentId + Const.SEGMENT_SPAN_SPLIT + spanObject.getSpanId();
+        span.setSegmentSpanId(segmentSpanId);
+
+        String segmentParentSpanId = segmentId + Const.SEGMENT_SPAN_SPLIT + spanObject.getParentSpanId();
+        span.setSegmentParentSpanId(segmentParentSpanId);
+
+        span.setPeer(spanObject.getPeer());
+
+        span.setEndpointName(spanObject.getOperationName());
+
+        span.setServiceCode(service);
+        span.setServiceInstanceName(serviceInstance);
+
+        span.setComponent(getComponentLibraryCatalogService().getComponentName(spanObject.getComponentId()));
+
+        spanObject.getRefsList().forEach(reference -> {
+            Ref ref = new Ref();
+            ref.setTraceId(reference.getTraceId());
+            ref.setParentSegmentId(reference.getParentTraceSegmentId());
+
+            switch (reference.getRefType()) {
+                case CrossThread:
+                    ref.setType(RefType.CROSS_THREAD);
+                    break;
+                case CrossProcess:
+                    ref.setType(RefType.CROSS_PROCESS);
+                    break;
+            }
+            ref.setParentSpanId(reference.getParentSpanId());
 
-            spanObject.getTagsList().forEach(tag -> {
-                KeyValue keyValue = new KeyValue();
-                keyValue.setKey(tag.getKey());
-                keyValue.setValue(tag.getValue());
-                span.getTags().add(keyValue);
-            });
+            span.setSegmentParentSpanId(
+                ref.getParentSegmentId() + Const.SEGMENT_SPAN_SPLIT + ref.getParentSpanId());
 
-            spanObject.getLogsList().forEach(log -> {
-                LogEntity logEntity = new LogEntity();
-                logEntity.setTime(log.getTime());
+            span.getRefs().add(ref);
+        });
 
-                log.getDataList().forEach(data -> {
-                    KeyValue keyValue = new KeyValue();
-                    keyValue.setKey(data.getKey());
-                    keyValue.setValue(data.getValue());
-                    logEntity.getData().add(keyValue);
-                });
+        spanObject.getTagsList().forEach(tag -> {
+            KeyValue keyValue = new KeyValue();
+            keyValue.setKey(tag.getKey());
+            keyValue.setValue(tag.getValue());
+            span.getTags().add(keyValue);
+        });
 
-                span.getLogs().add(logEntity);
+        spanObject.getLogsList().forEach(log -> {
+            LogEntity logEntity = new LogEntity();
+            logEntity.setTime(log.getTime());
+
+            log.getDataList().forEach(data -> {
+                KeyValue keyValue = new KeyValue();
+                keyValue.setKey(data.getKey());
+                keyValue.setValue(data.getValue());
+                logEntity.getData().add(keyValue);
             });
 
-            spans.add(span);
+            span.getLogs().add(logEntity);
         });
 
-        return spans;
+        return span;
     }
 
     private List<Span> findRoot(List<Span> spans) {
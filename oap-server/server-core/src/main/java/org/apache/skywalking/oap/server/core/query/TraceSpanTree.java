@@ -0,0 +1,351 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.query.type.Span;
+
+/**
+ * TraceSpanTree is the span tree of one trace, built from the skeletons of the spans, which are the IDs, the parent IDs
+ * and the start time only. The segments are not parsed into the {@link SpanObject}s when the tree is built, a span is
+ * only parsed from the bytes of its segment when it is in the queried window, so the cost of a window is bounded by the
+ * window size rather than the trace size.
+ *
+ * The order of the spans is the same as {@link TraceQueryService#queryTrace(String)}, the roots are sorted by the start
+ * time, and the children follow their parent in the order of the segments and spans.
+ */
+class TraceSpanTree {
+    private static final int SEGMENT_TRACE_ID = 1;
+    private static final int SEGMENT_ID = 2;
+    private static final int SEGMENT_SPANS = 3;
+    private static final int SEGMENT_SERVICE = 4;
+    private static final int SEGMENT_SERVICE_INSTANCE = 5;
+    private static final int SPAN_ID = 1;
+    private static final int SPAN_PARENT_ID = 2;
+    private static final int SPAN_START_TIME = 3;
+    private static final int SPAN_REFS = 5;
+    private static final int REF_PARENT_SEGMENT_ID = 3;
+    private static final int REF_PARENT_SPAN_ID = 4;
+
+    private final List<SpanNode> roots;
+    private final Map<String, SpanNode> index;
+
+    private TraceSpanTree(List<SpanNode> nodes) {
+        this.index = new HashMap<>(nodes.size() * 4 / 3 + 1);
+        for (SpanNode node : nodes) {
+            index.putIfAbsent(node.segmentSpanId, node);
+        }
+        this.roots = new ArrayList<>();
+        for (SpanNode node : nodes) {
+            SpanNode parent = index.get(node.segmentParentSpanId);
+            if (parent == null) {
+                node.root = true;
+                roots.add(node);
+            } else {
+                parent.addChild(node);
+            }
+        }
+        roots.sort(Comparator.comparingLong(SpanNode::getStartTime));
+        countDescendants();
+    }
+
+    /**
+     * Build the tree from the binary of the segments, only the skeletons of the spans are read.
+     */
+    static TraceSpanTree ofSegments(List<byte[]> segments) throws IOException {
+        List<SpanNode> nodes = new ArrayList<>();
+        for (byte[] segment : segments) {
+            readSegment(segment, nodes);
+        }
+        return new TraceSpanTree(nodes);
+    }
+
+    /**
+     * Build the tree from the spans have been built, such as the spans of the flexible trace query.
+     */
+    static TraceSpanTree ofSpans(List<Span> spans) {
+        List<SpanNode> nodes = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            SpanNode node = new SpanNode(null, 0, 0, span.getStartTime());
+            node.span = span;
+            node.segmentSpanId = span.getSegmentSpanId();
+            node.segmentParentSpanId = span.getSegmentParentSpanId();
+            nodes.add(node);
+        }
+        return new TraceSpanTree(nodes);
+    }
+
+    /**
+     * @return the span of the given segment span ID, or NULL if absent.
+     */
+    SpanNode find(String segmentSpanId) {
+        return index.get(segmentSpanId);
+    }
+
+    /**
+     * Walk the tree in the depth first order, from the roots of the trace or the given subtree root, and collect the
+     * spans in the window.
+     *
+     * @param subtreeRoot the root of the walked subtree, the whole trace is walked if NULL.
+     * @param maxDepth    the spans deeper than it are collapsed into their ancestors at this depth, the depth of the
+     *                    walked roots is 0. No limit if negative.
+     * @param from        the index of the first collected span in the walked order.
+     * @param size        the max number of the collected spans.
+     */
+    Window window(SpanNode subtreeRoot, int maxDepth, int from, int size) {
+        final Window window = new Window();
+        final List<SpanNode> starts = subtreeRoot == null ? roots : Collections.singletonList(subtreeRoot);
+        final Deque<SpanNode> nodeStack = new ArrayDeque<>();
+        final Deque<Integer> depthStack = new ArrayDeque<>();
+        for (int i = starts.size() - 1; i >= 0; i--) {
+            nodeStack.push(starts.get(i));
+            depthStack.push(0);
+        }
+
+        int walked = 0;
+        while (!nodeStack.isEmpty()) {
+            final SpanNode node = nodeStack.pop();
+            final int depth = depthStack.pop();
+            final boolean collapsed = maxDepth >= 0 && depth >= maxDepth && node.descendants > 0;
+            if (walked >= from && walked - from < size) {
+                window.visits.add(new Visit(node, depth, collapsed ? node.descendants : 0));
+            }
+            walked++;
+            if (!collapsed && node.children != null) {
+                for (int i = node.children.size() - 1; i >= 0; i--) {
+                    nodeStack.push(node.children.get(i));
+                    depthStack.push(depth + 1);
+                }
+            }
+        }
+        window.total = walked;
+        return window;
+    }
+
+    /**
+     * Count the descendants of every span reachable from the roots, in the reversed depth first order, so that the
+     * children are always counted before their parents. The spans of a parent cycle are not reachable from the roots,
+     * which are ignored as {@link TraceQueryService#queryTrace(String)} does.
+     */
+    private void countDescendants() {
+        final List<SpanNode> order = new ArrayList<>(index.size());
+        final Deque<SpanNode> stack = new ArrayDeque<>(roots);
+        while (!stack.isEmpty()) {
+            final SpanNode node = stack.pop();
+            order.add(node);
+            if (node.children != null) {
+                node.children.forEach(stack::push);
+            }
+        }
+        for (int i = order.size() - 1; i >= 0; i--) {
+            final SpanNode node = order.get(i);
+            if (node.children != null) {
+                for (SpanNode child : node.children) {
+                    node.descendants += child.descendants + 1;
+                }
+            }
+        }
+    }
+
+    private static void readSegment(byte[] data, List<SpanNode> nodes) throws IOException {
+        final SegmentHeader header = new SegmentHeader(data);
+        final int firstNode = nodes.size();
+        final CodedInputStream input = CodedInputStream.newInstance(data);
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SEGMENT_TRACE_ID:
+                    header.traceId = input.readString();
+                    break;
+                case SEGMENT_ID:
+                    header.segmentId = input.readString();
+                    break;
+                case SEGMENT_SPANS:
+                    nodes.add(readSpan(input, header));
+                    break;
+                case SEGMENT_SERVICE:
+                    header.service = input.readString();
+                    break;
+                case SEGMENT_SERVICE_INSTANCE:
+                    header.serviceInstance = input.readString();
+                    break;
+                default:
+                    input.skipField(tag);
+            }
+        }
+        // The segment ID is only known for sure after the whole segment is read.
+        for (int i = firstNode; i < nodes.size(); i++) {
+            final SpanNode node = nodes.get(i);
+            node.segmentSpanId = header.segmentId + Const.SEGMENT_SPAN_SPLIT + node.spanId;
+            node.segmentParentSpanId = node.refParentSegmentId != null
+                ? node.refParentSegmentId + Const.SEGMENT_SPAN_SPLIT + node.refParentSpanId
+                : header.segmentId + Const.SEGMENT_SPAN_SPLIT + node.parentSpanId;
+            node.refParentSegmentId = null;
+        }
+    }
+
+    private static SpanNode readSpan(CodedInputStream input, SegmentHeader header) throws IOException {
+        final int length = input.readRawVarint32();
+        final int offset = input.getTotalBytesRead();
+        final int oldLimit = input.pushLimit(length);
+        int spanId = 0;
+        int parentSpanId = 0;
+        long startTime = 0;
+        String refParentSegmentId = null;
+        int refParentSpanId = 0;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SPAN_ID:
+                    spanId = input.readInt32();
+                    break;
+                case SPAN_PARENT_ID:
+                    parentSpanId = input.readInt32();
+                    break;
+                case SPAN_START_TIME:
+                    startTime = input.readInt64();
+                    break;
+                case SPAN_REFS:
+                    // The last reference is the parent, as TraceQueryService#queryTrace(String) does.
+                    final int refOldLimit = input.pushLimit(input.readRawVarint32());
+                    refParentSegmentId = "";
+                    refParentSpanId = 0;
+                    int refTag;
+                    while ((refTag = input.readTag()) != 0) {
+                        switch (WireFormat.getTagFieldNumber(refTag)) {
+                            case REF_PARENT_SEGMENT_ID:
+                                refParentSegmentId = input.readString();
+                                break;
+                            case REF_PARENT_SPAN_ID:
+                                refParentSpanId = input.readInt32();
+                                break;
+                            default:
+                                input.skipField(refTag);
+                        }
+                    }
+                    input.popLimit(refOldLimit);
+                    break;
+                default:
+                    input.skipField(tag);
+            }
+        }
+        input.popLimit(oldLimit);
+
+        final SpanNode node = new SpanNode(header, offset, length, startTime);
+        node.spanId = spanId;
+        node.parentSpanId = parentSpanId;
+        node.refParentSegmentId = refParentSegmentId;
+        node.refParentSpanId = refParentSpanId;
+        return node;
+    }
+
+    /**
+     * The fields of the segment shared by its spans, and the binary to parse the spans from.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static class SegmentHeader {
+        private final byte[] data;
+        private String traceId = "";
+        private String segmentId = "";
+        private String service = "";
+        private String serviceInstance = "";
+    }
+
+    static class SpanNode {
+        @Getter
+        private final SegmentHeader segment;
+        private final int offset;
+        private final int length;
+        @Getter
+        private final long startTime;
+        private int spanId;
+        private int parentSpanId;
+        private String refParentSegmentId;
+        private int refParentSpanId;
+        @Getter
+        private String segmentSpanId;
+        private String segmentParentSpanId;
+        private List<SpanNode> children;
+        @Getter
+        private boolean root;
+        @Getter
+        private int descendants;
+        /**
+         * The span has been built, which is not parsed from the segment.
+         */
+        @Getter
+        private Span span;
+
+        private SpanNode(SegmentHeader segment, int offset, int length, long startTime) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.startTime = startTime;
+        }
+
+        /**
+         * Parse the span from the binary of its segment.
+         */
+        SpanObject parse() throws IOException {
+            return SpanObject.parseFrom(CodedInputStream.newInstance(segment.data, offset, length));
+        }
+
+        private void addChild(SpanNode child) {
+            if (children == null) {
+                children = new ArrayList<>(2);
+            }
+            children.add(child);
+        }
+    }
+
+    @Getter
+    static class Window {
+        private final List<Visit> visits = new ArrayList<>();
+        /**
+         * The number of the walked spans, excluding the collapsed ones.
+         */
+        private int total;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Visit {
+        private final SpanNode node;
+        private final int depth;
+        /**
+         * The number of the spans collapsed into this span by the max depth.
+         */
+        private final int collapsedDescendants;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query.input;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The condition of querying a window of the spans of one trace.
+ */
+@Getter
+@Setter
+public class TraceWindowCondition {
+    private String traceId;
+    /**
+     * The segment span ID of the span, whose subtree is queried. The whole trace is queried if absent.
+     */
+    private String subtreeRoot;
+    /**
+     * The spans deeper than it are collapsed into their ancestors, the depth of the roots is 0. No limit if absent.
+     */
+    private Integer maxDepth;
+    /**
+     * The index of the first span in the depth first order. 0 if absent.
+     */
+    private Integer from;
+    /**
+     * The max number of the spans in the window.
+     */
+    private Integer size;
+}
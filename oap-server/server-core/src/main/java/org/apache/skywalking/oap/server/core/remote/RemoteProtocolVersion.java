@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+/**
+ * The versions of the protocol between OAP nodes, negotiated by the handshake of every connection. The sender uses the
+ * lower one of the versions of both sides, so the OAP nodes of different versions could work in the same cluster.
+ */
+public final class RemoteProtocolVersion {
+    /**
+     * The worker names and the string encodings of the objects, used by the receivers not supporting the handshake.
+     */
+    public static final int LEGACY = 0;
+    /**
+     * The worker ids of the dictionary of the receiver and the packed encodings of the objects.
+     */
+    public static final int COMPACT = 1;
+
+    public static final int CURRENT = COMPACT;
+
+    private RemoteProtocolVersion() {
+    }
+}
@@ -23,12 +23,19 @@ import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
 import org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.selector.ConsistentHashSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.ForeverFirstSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.HashCodeSelector;
+import org.apache.skywalking.oap.server.core.remote.selector.RemoteClientSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.RollingSelector;
 import org.apache.skywalking.oap.server.core.remote.selector.Selector;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.library.module.Service;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,13 +47,25 @@ public class RemoteSenderService implements Service {
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteSenderService.class);
 
     private final ModuleManager moduleManager;
-    private final HashCodeSelector hashCodeSelector;
+    private final RemoteClientSelector hashCodeSelector;
     private final ForeverFirstSelector foreverFirstSelector;
     private final RollingSelector rollingSelector;
+    private GaugeMetrics remapFractionGauge;
+    private CounterMetrics membershipChangeCounter;
 
     public RemoteSenderService(ModuleManager moduleManager) {
+        this(moduleManager, 0);
+    }
+
+    /**
+     * @param hashRingVirtualNodes the virtual nodes of every OAP node on the consistent hash ring for the {@link
+     *                             Selector#HashCode} routing, 0 means routing by the modulo of the hash code.
+     */
+    public RemoteSenderService(ModuleManager moduleManager, int hashRingVirtualNodes) {
         this.moduleManager = moduleManager;
-        this.hashCodeSelector = new HashCodeSelector();
+        this.hashCodeSelector = hashRingVirtualNodes > 0
+            ? new ConsistentHashSelector(hashRingVirtualNodes, this::onHashRingChanged)
+            : new HashCodeSelector();
         this.foreverFirstSelector = new ForeverFirstSelector();
         this.rollingSelector = new RollingSelector();
     }
@@ -83,4 +102,24 @@ public class RemoteSenderService implements Service {
         }
         remoteClient.push(nextWorkName, streamData);
     }
+
+    private void onHashRingChanged(double remapFraction) {
+        if (remapFractionGauge == null) {
+            MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                                         .provider()
+                                                         .getService(MetricsCreator.class);
+            remapFractionGauge = metricsCreator.createGauge(
+                "remote_hash_ring_remap_fraction",
+                "The fraction of keys routed to another OAP node by the last cluster change", MetricsTag.EMPTY_KEY,
+                MetricsTag.EMPTY_VALUE
+            );
+            membershipChangeCounter = metricsCreator.createCounter(
+                "remote_hash_ring_change_count", "The number of cluster changes applied to the hash ring",
+                MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+            );
+        }
+        remapFractionGauge.setValue(remapFraction);
+        membershipChangeCounter.inc();
+        LOGGER.info("The cluster changed, {}% of the keys are routed to another OAP node.", remapFraction * 100);
+    }
 }
@@ -18,19 +18,29 @@
 
 package org.apache.skywalking.oap.server.core.remote;
 
+import io.grpc.Status;
 import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeResponse;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
-import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.RemoteHandleWorker;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.library.server.grpc.GRPCHandler;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
@@ -43,12 +53,29 @@ import org.slf4j.LoggerFactory;
  * This class is Server-side streaming RPC implementation. It's a common service for OAP servers to receive message from
  * each others. The stream data id is used to find the object to deserialize message. The next worker id is used to find
  * the worker to process message.
+ *
+ * The senders fetch the worker id dictionary through the handshake, and send the worker ids rather than the names. The
+ * dictionary id is checked at the first message of every stream, in case of this OAP node restarted with a different
+ * dictionary after the handshake.
  */
 public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBase implements GRPCHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteServiceHandler.class);
+    /**
+     * The max number of the stream data held by one stream before delivered to the workers.
+     */
+    private static final int MAX_BATCH_SIZE = 512;
+    /**
+     * The max time(ms) of the stream data held by one stream before delivered to the workers.
+     */
+    private static final long MAX_BATCH_DELAY = 100;
 
     private final ModuleDefineHolder moduleDefineHolder;
+    /**
+     * Flush the batches held for {@link #MAX_BATCH_DELAY}, when no more stream data arrive to trigger the flush.
+     */
+    private final ScheduledExecutorService batchFlusher = Executors.newSingleThreadScheduledExecutor(
+        new CustomThreadFactory("RemoteServiceBatchFlusher", true));
     private IWorkerInstanceGetter workerInstanceGetter;
     private CounterMetrics remoteInCounter;
     private CounterMetrics remoteInErrorCounter;
@@ -87,68 +114,166 @@ public class RemoteServiceHandler extends RemoteServiceGrpc.RemoteServiceImplBas
                                               .getService(MetricsCreator.class)
                                               .createHistogramMetric(
                                                   "remote_in_latency",
-                                                  "The latency(server side) of inside remote inside aggregate rpc.",
+                                                  "The latency(server side) of delivering one batch of the remote inside aggregate rpc to the workers.",
                                                   MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
                                               );
     }
 
     /**
      * gRPC handler of {@link RemoteServiceGrpc}. Continue the distributed aggregation at the current OAP node.
+     *
+     * The received stream data are accumulated per stream and grouped by the target worker, every worker receives the
+     * batch at once, when the batch is full, the eldest data has been held for {@link #MAX_BATCH_DELAY}, or the stream
+     * finishes. The streams could be kept open while idle, so the delay is checked by every received stream data, and
+     * by the flusher scheduled at the beginning of every batch.
      */
     @Override
     public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
-        if (Objects.isNull(workerInstanceGetter)) {
-            synchronized (RemoteServiceHandler.class) {
-                if (Objects.isNull(workerInstanceGetter)) {
-                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
-                                                             .provider()
-                                                             .getService(IWorkerInstanceGetter.class);
-                }
-            }
-        }
+        IWorkerInstanceGetter workerInstanceGetter = getWorkerInstanceGetter();
 
         return new StreamObserver<RemoteMessage>() {
+            private long workerDictionaryId;
+            private boolean workerDictionaryMismatched;
+            private final Map<RemoteHandleWorker, List<StreamData>> batch = new HashMap<>();
+            private int batchSize;
+            private long batchStartTime;
+            /**
+             * The sequence of the batches, for the scheduled flush to skip the batches flushed already.
+             */
+            private long batchSequence;
+
             @Override
-            public void onNext(RemoteMessage message) {
+            public synchronized void onNext(RemoteMessage message) {
                 remoteInCounter.inc();
-                HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+                if (message.getWorkerDictionaryId() != 0) {
+                    workerDictionaryId = message.getWorkerDictionaryId();
+                }
+                int nextWorkerId = message.getNextWorkerId();
+                RemoteData remoteData = message.getRemoteData();
+
                 try {
-                    String nextWorkerName = message.getNextWorkerName();
-                    RemoteData remoteData = message.getRemoteData();
-
-                    try {
-                        RemoteHandleWorker handleWorker = workerInstanceGetter.get(nextWorkerName);
-                        if (handleWorker != null) {
-                            AbstractWorker nextWorker = handleWorker.getWorker();
-                            StreamData streamData = handleWorker.getStreamDataClass().newInstance();
-                            streamData.deserialize(remoteData);
-                            nextWorker.in(streamData);
-                        } else {
-                            remoteInTargetNotFoundCounter.inc();
-                            LOGGER.warn(
-                                "Work name [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
-                                nextWorkerName
-                            );
+                    RemoteHandleWorker handleWorker;
+                    if (nextWorkerId != 0) {
+                        if (workerDictionaryId != workerInstanceGetter.getWorkerDictionaryId()) {
+                            workerDictionaryMismatched = true;
+                            remoteInErrorCounter.inc();
+                            return;
+                        }
+                        handleWorker = workerInstanceGetter.get(nextWorkerId);
+                    } else {
+                        handleWorker = workerInstanceGetter.get(message.getNextWorkerName());
+                    }
+                    if (handleWorker != null) {
+                        StreamData streamData = handleWorker.newStreamData();
+                        streamData.deserialize(remoteData);
+                        if (batchSize == 0) {
+                            batchStartTime = System.currentTimeMillis();
+                            scheduleFlush(batchSequence);
                         }
-                    } catch (Throwable t) {
-                        remoteInErrorCounter.inc();
-                        LOGGER.error(t.getMessage(), t);
+                        batch.computeIfAbsent(handleWorker, worker -> new ArrayList<>()).add(streamData);
+                        batchSize++;
+                    } else {
+                        remoteInTargetNotFoundCounter.inc();
+                        LOGGER.warn(
+                            "Work name [{}] or id [{}] not found. Check OAL script, make sure they are same in the whole cluster.",
+                            message.getNextWorkerName(), nextWorkerId
+                        );
                     }
+                } catch (Throwable t) {
+                    remoteInErrorCounter.inc();
+                    LOGGER.error(t.getMessage(), t);
                 } finally {
-                    timer.finish();
+                    if (batchSize >= MAX_BATCH_SIZE
+                        || batchSize > 0 && System.currentTimeMillis() - batchStartTime >= MAX_BATCH_DELAY) {
+                        flush();
+                    }
                 }
             }
 
             @Override
-            public void onError(Throwable throwable) {
+            public synchronized void onError(Throwable throwable) {
+                flush();
                 LOGGER.error(throwable.getMessage(), throwable);
             }
 
             @Override
-            public void onCompleted() {
+            public synchronized void onCompleted() {
+                flush();
+                if (workerDictionaryMismatched) {
+                    LOGGER.warn("Received the worker ids of an unknown dictionary, the sender should handshake again.");
+                    responseObserver.onError(
+                        Status.FAILED_PRECONDITION.withDescription("Unknown worker dictionary.").asRuntimeException());
+                    return;
+                }
                 responseObserver.onNext(Empty.newBuilder().build());
                 responseObserver.onCompleted();
             }
+
+            private void scheduleFlush(long sequence) {
+                try {
+                    batchFlusher.schedule(() -> {
+                        synchronized (this) {
+                            if (sequence == batchSequence) {
+                                flush();
+                            }
+                        }
+                    }, MAX_BATCH_DELAY, TimeUnit.MILLISECONDS);
+                } catch (Throwable t) {
+                    LOGGER.error(t.getMessage(), t);
+                }
+            }
+
+            @SuppressWarnings("unchecked")
+            private void flush() {
+                if (batchSize == 0) {
+                    return;
+                }
+                batchSequence++;
+                HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+                try {
+                    for (Map.Entry<RemoteHandleWorker, List<StreamData>> entry : batch.entrySet()) {
+                        try {
+                            entry.getKey().getWorker().in(entry.getValue());
+                        } catch (Throwable t) {
+                            remoteInErrorCounter.inc(entry.getValue().size());
+                            LOGGER.error(t.getMessage(), t);
+                        }
+                    }
+                } finally {
+                    batch.clear();
+                    batchSize = 0;
+                    timer.finish();
+                }
+            }
         };
     }
+
+    /**
+     * gRPC handler of {@link RemoteServiceGrpc}. Negotiate the protocol version, and provide the worker id dictionary.
+     */
+    @Override
+    public void handshake(HandshakeRequest request, StreamObserver<HandshakeResponse> responseObserver) {
+        IWorkerInstanceGetter workerInstanceGetter = getWorkerInstanceGetter();
+
+        responseObserver.onNext(HandshakeResponse.newBuilder()
+                                                 .setProtocolVersion(Math.min(
+                                                     request.getProtocolVersion(), RemoteProtocolVersion.CURRENT))
+                                                 .setWorkerDictionaryId(workerInstanceGetter.getWorkerDictionaryId())
+                                                 .putAllWorkerIds(workerInstanceGetter.getWorkerIds())
+                                                 .build());
+        responseObserver.onCompleted();
+    }
+
+    private IWorkerInstanceGetter getWorkerInstanceGetter() {
+        if (Objects.isNull(workerInstanceGetter)) {
+            synchronized (RemoteServiceHandler.class) {
+                if (Objects.isNull(workerInstanceGetter)) {
+                    workerInstanceGetter = moduleDefineHolder.find(CoreModule.NAME)
+                                                             .provider()
+                                                             .getService(IWorkerInstanceGetter.class);
+                }
+            }
+        }
+        return workerInstanceGetter;
+    }
 }
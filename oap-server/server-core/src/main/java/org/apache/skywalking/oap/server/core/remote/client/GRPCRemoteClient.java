@@ -19,22 +19,29 @@
 package org.apache.skywalking.oap.server.core.remote.client;
 
 import io.grpc.ManagedChannel;
-import io.grpc.stub.StreamObserver;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.netty.handler.ssl.SslContext;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.IConsumer;
+import org.apache.skywalking.oap.server.core.remote.RemoteProtocolVersion;
+import org.apache.skywalking.oap.server.core.remote.data.PackedObjects;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
-import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.library.client.grpc.GRPCClient;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 import org.slf4j.Logger;
@@ -43,22 +50,55 @@ import org.slf4j.LoggerFactory;
 /**
  * This is a wrapper of the gRPC client for sending message to each other OAP server. It contains a block queue to
  * buffering the message and sending the message by batch.
+ *
+ * The protocol is negotiated by the handshake once per connection. The compact protocol sends the worker ids in the
+ * dictionary of the receiver and the packed objects, while the legacy protocol sends the worker names and the objects
+ * in strings, for the receivers of the old versions.
+ *
+ * The messages are sent through a stream per batch, or a long-lived stream rotated every half of the remote timeout.
+ * Either way, the number of in-flight streams is bounded by the stream window, and the messages are only sent when the
+ * transport is ready.
  */
 public class GRPCRemoteClient implements RemoteClient {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GRPCRemoteClient.class);
+    /**
+     * The workers could be registered at runtime, handshake again to fetch the ids of the new workers, but not more
+     * often than this interval.
+     */
+    private static final long HANDSHAKE_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final HandshakeResponse LEGACY_HANDSHAKE = HandshakeResponse.newBuilder()
+                                                                               .setProtocolVersion(
+                                                                                   RemoteProtocolVersion.LEGACY)
+                                                                               .build();
 
     private final int channelSize;
     private final int bufferSize;
     private final Address address;
-    private final AtomicInteger concurrentStreamObserverNumber = new AtomicInteger(0);
+    private final Semaphore inFlightStreams;
+    private final boolean keepStream;
     private SslContext sslContext;
     private GRPCClient client;
     private DataCarrier<RemoteMessage> carrier;
     private boolean isConnect;
     private CounterMetrics remoteOutCounter;
     private CounterMetrics remoteOutErrorCounter;
+    private GaugeMetrics queueDepthGauge;
+    private HistogramMetrics sendLatencyHistogram;
     private int remoteTimeout;
+    private final boolean compressionEnabled;
+    /**
+     * The negotiated protocol of the current connection, NULL means the handshake is required.
+     */
+    private volatile HandshakeResponse handshake;
+    /**
+     * The time of the latest handshake, set before {@link #handshake} is published.
+     */
+    private volatile long handshakeTime;
+    /**
+     * The long-lived stream, only accessed by the consumer thread.
+     */
+    private RemoteStream stream;
 
     public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
                             final Address address,
@@ -66,12 +106,32 @@ public class GRPCRemoteClient implements RemoteClient {
                             final int bufferSize,
                             final int remoteTimeout,
                             final SslContext sslContext) {
+        this(moduleDefineHolder, address, channelSize, bufferSize, remoteTimeout, sslContext, false, 10, false);
+    }
+
+    /**
+     * @param compressionEnabled compress the streams in gzip.
+     * @param streamWindow       the max number of the in-flight streams.
+     * @param keepStream         send through a long-lived stream rather than a stream per batch.
+     */
+    public GRPCRemoteClient(final ModuleDefineHolder moduleDefineHolder,
+                            final Address address,
+                            final int channelSize,
+                            final int bufferSize,
+                            final int remoteTimeout,
+                            final SslContext sslContext,
+                            final boolean compressionEnabled,
+                            final int streamWindow,
+                            final boolean keepStream) {
 
         this.address = address;
         this.channelSize = channelSize;
         this.bufferSize = bufferSize;
         this.remoteTimeout = remoteTimeout;
         this.sslContext = sslContext;
+        this.compressionEnabled = compressionEnabled;
+        this.inFlightStreams = new Semaphore(streamWindow);
+        this.keepStream = keepStream;
 
         remoteOutCounter = moduleDefineHolder.find(TelemetryModule.NAME)
                                              .provider()
@@ -83,6 +143,24 @@ public class GRPCRemoteClient implements RemoteClient {
                                                   .getService(MetricsCreator.class)
                                                   .createCounter("remote_out_error_count", "The error number(client side) of inside remote inside aggregate rpc.", new MetricsTag.Keys("dest", "self"), new MetricsTag.Values(address
                                                                                                                                                                                                                                   .toString(), "N"));
+        queueDepthGauge = moduleDefineHolder.find(TelemetryModule.NAME)
+                                            .provider()
+                                            .getService(MetricsCreator.class)
+                                            .createGauge(
+                                                "remote_out_queue_depth",
+                                                "The number(client side) of messages waiting to be sent to the remote.",
+                                                new MetricsTag.Keys("dest", "self"),
+                                                new MetricsTag.Values(address.toString(), "N")
+                                            );
+        sendLatencyHistogram = moduleDefineHolder.find(TelemetryModule.NAME)
+                                                 .provider()
+                                                 .getService(MetricsCreator.class)
+                                                 .createHistogramMetric(
+                                                     "remote_out_latency",
+                                                     "The latency(client side) of sending a batch to the remote, including the time waiting for the flow control.",
+                                                     new MetricsTag.Keys("dest", "self"),
+                                                     new MetricsTag.Values(address.toString(), "N")
+                                                 );
     }
 
     @Override
@@ -118,6 +196,10 @@ public class GRPCRemoteClient implements RemoteClient {
         return RemoteServiceGrpc.newStub(getChannel());
     }
 
+    RemoteServiceGrpc.RemoteServiceBlockingStub getBlockingStub() {
+        return RemoteServiceGrpc.newBlockingStub(getChannel());
+    }
+
     DataCarrier<RemoteMessage> getDataCarrier() {
         if (Objects.isNull(this.carrier)) {
             synchronized (GRPCRemoteClient.class) {
@@ -132,7 +214,8 @@ public class GRPCRemoteClient implements RemoteClient {
     /**
      * Push stream data which need to send to another OAP server.
      *
-     * @param nextWorkerName the name of a worker which will process this stream data.
+     * @param nextWorkerName the name of a worker which will process this stream data, replaced by the worker id when
+     *                       sending in the compact protocol.
      * @param streamData     the entity contains the values.
      */
     @Override
@@ -141,7 +224,9 @@ public class GRPCRemoteClient implements RemoteClient {
         builder.setNextWorkerName(nextWorkerName);
         builder.setRemoteData(streamData.serialize());
 
-        this.getDataCarrier().produce(builder.build());
+        if (this.getDataCarrier().produce(builder.build())) {
+            queueDepthGauge.inc();
+        }
     }
 
     class RemoteMessageConsumer implements IConsumer<RemoteMessage> {
@@ -151,16 +236,62 @@ public class GRPCRemoteClient implements RemoteClient {
 
         @Override
         public void consume(List<RemoteMessage> remoteMessages) {
+            queueDepthGauge.dec(remoteMessages.size());
+            HistogramMetrics.Timer timer = sendLatencyHistogram.createTimer();
             try {
-                StreamObserver<RemoteMessage> streamObserver = createStreamObserver();
-                for (RemoteMessage remoteMessage : remoteMessages) {
-                    remoteOutCounter.inc();
-                    streamObserver.onNext(remoteMessage);
+                int sent = send(remoteMessages, 0);
+                if (sent < remoteMessages.size()) {
+                    LOGGER.warn("The stream to {} is finished or not ready in {} seconds, resend {} messages through a "
+                                    + "new stream.", address, remoteTimeout, remoteMessages.size() - sent);
+                    sent = send(remoteMessages, sent);
+                }
+                int failed = remoteMessages.size() - sent;
+                if (failed > 0) {
+                    remoteOutErrorCounter.inc(failed);
+                    LOGGER.warn("{} messages are not sent to {}, the stream is finished or not ready in {} seconds.",
+                                failed, address, remoteTimeout
+                    );
                 }
-                streamObserver.onCompleted();
             } catch (Throwable t) {
                 remoteOutErrorCounter.inc();
                 LOGGER.error(t.getMessage(), t);
+            } finally {
+                timer.finish();
+            }
+        }
+
+        /**
+         * Send the messages from the given index through one stream. The stream is cancelled once a message can't be
+         * sent, the messages sent through it before may be lost.
+         *
+         * @return the index of the first message not sent, or the size of the messages if all are sent.
+         */
+        private int send(List<RemoteMessage> remoteMessages, int from) throws InterruptedException {
+            HandshakeResponse handshake = handshake();
+            boolean compact = handshake.getProtocolVersion() >= RemoteProtocolVersion.COMPACT;
+            RemoteStream remoteStream = acquireStream(handshake);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(remoteTimeout);
+            for (int i = from; i < remoteMessages.size(); i++) {
+                RemoteMessage message = compact
+                    ? toCompact(remoteMessages.get(i), handshake, remoteStream.isFresh())
+                    : toLegacy(remoteMessages.get(i));
+                if (!remoteStream.send(message, deadline)) {
+                    remoteStream.cancel("The stream is not ready.");
+                    return i;
+                }
+                remoteOutCounter.inc();
+            }
+            if (!keepStream) {
+                remoteStream.complete();
+            }
+            return remoteMessages.size();
+        }
+
+        @Override
+        public void nothingToConsume() {
+            if (stream != null && stream.isExpired()) {
+                stream.complete();
+                stream = null;
             }
         }
 
@@ -171,49 +302,102 @@ public class GRPCRemoteClient implements RemoteClient {
 
         @Override
         public void onExit() {
+            if (stream != null) {
+                stream.complete();
+                stream = null;
+            }
         }
     }
 
     /**
-     * Create a gRPC stream observer to sending stream data, one stream observer could send multiple stream data by a
-     * single consume. The max number of concurrency allowed at the same time is 10.
-     *
-     * @return stream observer
+     * @return the negotiated protocol, or the legacy one if the handshake failed temporarily, which is supported by the
+     * receivers of all versions.
      */
-    private StreamObserver<RemoteMessage> createStreamObserver() {
-        int sleepTotalMillis = 0;
-        int sleepMillis = 10;
-        while (concurrentStreamObserverNumber.incrementAndGet() > 10) {
-            concurrentStreamObserverNumber.addAndGet(-1);
-
-            try {
-                Thread.sleep(sleepMillis);
-            } catch (InterruptedException e) {
-                LOGGER.error(e.getMessage(), e);
+    private HandshakeResponse handshake() {
+        HandshakeResponse current = handshake;
+        if (current != null) {
+            return current;
+        }
+        try {
+            current = getBlockingStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS)
+                                       .handshake(HandshakeRequest.newBuilder()
+                                                                  .setProtocolVersion(RemoteProtocolVersion.CURRENT)
+                                                                  .build());
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() != Status.Code.UNIMPLEMENTED) {
+                LOGGER.warn("Handshake with {} failed, send in the legacy protocol. {}", address, e.getMessage());
+                return LEGACY_HANDSHAKE;
             }
+            current = LEGACY_HANDSHAKE;
+        }
+        LOGGER.info("Handshake with {}, protocol version: {}", address, current.getProtocolVersion());
+        handshakeTime = System.currentTimeMillis();
+        handshake = current;
+        return current;
+    }
 
-            sleepTotalMillis += sleepMillis;
-
-            if (sleepTotalMillis > 60000) {
-                LOGGER.warn("Remote client block times over 60 seconds.");
+    private RemoteMessage toCompact(RemoteMessage message, HandshakeResponse handshake, boolean first) {
+        Integer nextWorkerId = handshake.getWorkerIdsMap().get(message.getNextWorkerName());
+        if (nextWorkerId == null) {
+            if (System.currentTimeMillis() - handshakeTime > HANDSHAKE_REFRESH_INTERVAL) {
+                this.handshake = null;
             }
+            return first ? message.toBuilder().setWorkerDictionaryId(handshake.getWorkerDictionaryId()).build() : message;
+        }
+        RemoteMessage.Builder builder = RemoteMessage.newBuilder()
+                                                     .setNextWorkerId(nextWorkerId)
+                                                     .setRemoteData(message.getRemoteData());
+        if (first) {
+            builder.setWorkerDictionaryId(handshake.getWorkerDictionaryId());
+        }
+        return builder.build();
+    }
+
+    private RemoteMessage toLegacy(RemoteMessage message) {
+        RemoteData remoteData = message.getRemoteData();
+        if (remoteData.getDataObjectBytesCount() == 0) {
+            return message;
         }
+        return message.toBuilder().setRemoteData(PackedObjects.toLegacy(remoteData)).build();
+    }
 
-        return getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS).call(new StreamObserver<Empty>() {
-            @Override
-            public void onNext(Empty empty) {
+    /**
+     * @return the long-lived stream if it's still available for the negotiated protocol, otherwise a new stream.
+     */
+    private RemoteStream acquireStream(HandshakeResponse handshake) throws InterruptedException {
+        if (stream != null) {
+            if (!stream.isExpired() && stream.getHandshake() == handshake) {
+                return stream;
             }
+            stream.complete();
+            stream = null;
+        }
+        RemoteStream remoteStream = openStream(handshake);
+        if (keepStream) {
+            stream = remoteStream;
+        }
+        return remoteStream;
+    }
 
-            @Override
-            public void onError(Throwable throwable) {
-                concurrentStreamObserverNumber.addAndGet(-1);
-                LOGGER.error(throwable.getMessage(), throwable);
-            }
+    /**
+     * Open a stream when there is a free permit in the stream window, wait for the in-flight streams finished
+     * otherwise.
+     */
+    private RemoteStream openStream(HandshakeResponse handshake) throws InterruptedException {
+        while (!inFlightStreams.tryAcquire(remoteTimeout, TimeUnit.SECONDS)) {
+            LOGGER.warn("Remote client to {} blocked by the in-flight streams over {} seconds.", address, remoteTimeout);
+        }
 
-            @Override
-            public void onCompleted() {
-                concurrentStreamObserverNumber.addAndGet(-1);
-            }
+        RemoteServiceGrpc.RemoteServiceStub stub = getStub().withDeadlineAfter(remoteTimeout, TimeUnit.SECONDS);
+        if (compressionEnabled) {
+            stub = stub.withCompression("gzip");
+        }
+        // Complete the long-lived stream at the half of the deadline, so the messages sent at last have time to arrive.
+        long lifetime = keepStream ? TimeUnit.SECONDS.toMillis(remoteTimeout) / 2 : Long.MAX_VALUE;
+        return new RemoteStream(stub, inFlightStreams, handshake, lifetime, throwable -> {
+            // The receiver may restart in another version or worker dictionary.
+            this.handshake = null;
+            LOGGER.error(throwable.getMessage(), throwable);
         });
     }
 
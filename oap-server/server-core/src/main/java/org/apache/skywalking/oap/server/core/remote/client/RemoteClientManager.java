@@ -62,18 +62,27 @@ public class RemoteClientManager implements Service {
     private volatile List<RemoteClient> usingClients;
     private GaugeMetrics gauge;
     private int remoteTimeout;
+    private boolean compressionEnabled;
+    private int streamWindow;
+    private boolean keepStream;
 
     /**
      * Initial the manager for all remote communication clients.
      *
      * @param moduleDefineHolder for looking up other modules
      * @param remoteTimeout      for cluster internal communication, in second unit.
+     * @param compressionEnabled compress the cluster internal communication in gzip.
+     * @param streamWindow       the max number of in-flight streams to every other OAP node.
+     * @param keepStream         send through a long-lived stream to every other OAP node.
      * @param trustedCAFile      SslContext to verify server certificates.
      */
     public RemoteClientManager(ModuleDefineHolder moduleDefineHolder,
                                int remoteTimeout,
+                               boolean compressionEnabled,
+                               int streamWindow,
+                               boolean keepStream,
                                String trustedCAFile) {
-        this(moduleDefineHolder, remoteTimeout);
+        this(moduleDefineHolder, remoteTimeout, compressionEnabled, streamWindow, keepStream);
         sslContext = DynamicSslContext.forClient(trustedCAFile);
     }
 
@@ -86,9 +95,29 @@ public class RemoteClientManager implements Service {
      * @param remoteTimeout      for cluster internal communication, in second unit.
      */
     public RemoteClientManager(final ModuleDefineHolder moduleDefineHolder, final int remoteTimeout) {
+        this(moduleDefineHolder, remoteTimeout, false, 10, false);
+    }
+
+    /**
+     * Initial the manager for all remote communication clients.
+     *
+     * @param moduleDefineHolder for looking up other modules
+     * @param remoteTimeout      for cluster internal communication, in second unit.
+     * @param compressionEnabled compress the cluster internal communication in gzip.
+     * @param streamWindow       the max number of in-flight streams to every other OAP node.
+     * @param keepStream         send through a long-lived stream to every other OAP node.
+     */
+    public RemoteClientManager(final ModuleDefineHolder moduleDefineHolder,
+                               final int remoteTimeout,
+                               final boolean compressionEnabled,
+                               final int streamWindow,
+                               final boolean keepStream) {
         this.moduleDefineHolder = moduleDefineHolder;
         this.usingClients = ImmutableList.of();
         this.remoteTimeout = remoteTimeout;
+        this.compressionEnabled = compressionEnabled;
+        this.streamWindow = streamWindow;
+        this.keepStream = keepStream;
     }
 
     public void start() {
@@ -232,7 +261,10 @@ public class RemoteClientManager implements Service {
                         newRemoteClients.add(client);
                     } else {
                         RemoteClient client;
-                        client = new GRPCRemoteClient(moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext);
+                        client = new GRPCRemoteClient(
+                            moduleDefineHolder, address, 1, 3000, remoteTimeout, sslContext, compressionEnabled,
+                            streamWindow, keepStream
+                        );
                         client.connect();
                         newRemoteClients.add(client);
                     }
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.client;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeResponse;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
+
+/**
+ * RemoteStream is a {@code call} stream of {@link GRPCRemoteClient}, carrying the metrics and records routed to another
+ * OAP node for the L2 aggregation. The messages are encoded in the protocol negotiated by the handshake of the stream,
+ * the first message of the compact protocol carries the worker dictionary of the receiver.
+ *
+ * Every stream holds a permit of the in-flight stream window of the client until the receiver responds, so a receiver
+ * slower than the other nodes bounds the streams opened to it, and the messages wait in the data carrier of the client
+ * rather than in the memory of gRPC.
+ */
+class RemoteStream {
+    private final Semaphore window;
+    private final HandshakeResponse handshake;
+    private final long createTime;
+    private final long lifetime;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final Object readyLock = new Object();
+    private final ClientCallStreamObserver<RemoteMessage> requestObserver;
+    private boolean completed;
+    private boolean sent;
+
+    /**
+     * Open the stream, the caller should have acquired a permit of the window, which is released when the stream is
+     * finished.
+     *
+     * @param handshake the negotiated protocol of the messages sent through this stream.
+     * @param lifetime  in milliseconds, the stream is expired after that.
+     * @param onError   called when the stream fails.
+     */
+    RemoteStream(RemoteServiceGrpc.RemoteServiceStub stub,
+                 Semaphore window,
+                 HandshakeResponse handshake,
+                 long lifetime,
+                 Consumer<Throwable> onError) {
+        this.window = window;
+        this.handshake = handshake;
+        this.createTime = System.currentTimeMillis();
+        this.lifetime = lifetime;
+        this.requestObserver = (ClientCallStreamObserver<RemoteMessage>) stub.call(
+            new ClientResponseObserver<RemoteMessage, Empty>() {
+                @Override
+                public void beforeStart(ClientCallStreamObserver<RemoteMessage> requestStream) {
+                    requestStream.setOnReadyHandler(RemoteStream.this::signalReady);
+                }
+
+                @Override
+                public void onNext(Empty empty) {
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    finish();
+                    onError.accept(throwable);
+                }
+
+                @Override
+                public void onCompleted() {
+                    finish();
+                }
+            });
+    }
+
+    /**
+     * Send the message when the transport is ready.
+     *
+     * @param deadline the {@link System#nanoTime()} to give up waiting for the transport.
+     * @return false if the message is not sent, because the stream is finished, or the transport isn't ready before
+     * the deadline.
+     */
+    boolean send(RemoteMessage message, long deadline) {
+        synchronized (readyLock) {
+            while (!requestObserver.isReady() && !finished.get()) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(readyLock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        if (finished.get()) {
+            return false;
+        }
+        sent = true;
+        requestObserver.onNext(message);
+        return true;
+    }
+
+    /**
+     * Complete the request side of the stream, the stream is finished after the receiver responds.
+     */
+    void complete() {
+        if (completed || finished.get()) {
+            return;
+        }
+        completed = true;
+        requestObserver.onCompleted();
+    }
+
+    /**
+     * Cancel the stream, the messages sent through it may be lost.
+     */
+    void cancel(String reason) {
+        if (finished.get()) {
+            return;
+        }
+        completed = true;
+        requestObserver.cancel(reason, null);
+    }
+
+    HandshakeResponse getHandshake() {
+        return handshake;
+    }
+
+    /**
+     * @return true if nothing has been sent through this stream.
+     */
+    boolean isFresh() {
+        return !sent;
+    }
+
+    /**
+     * @return true if the stream can't send any more, or has lived for the lifetime and should be completed before the
+     * deadline exceeds.
+     */
+    boolean isExpired() {
+        return completed || finished.get() || System.currentTimeMillis() - createTime >= lifetime;
+    }
+
+    private void finish() {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        window.release();
+        signalReady();
+    }
+
+    private void signalReady() {
+        synchronized (readyLock) {
+            readyLock.notifyAll();
+        }
+    }
+}
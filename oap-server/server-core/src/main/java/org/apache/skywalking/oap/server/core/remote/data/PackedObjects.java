@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import java.io.IOException;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
+
+/**
+ * PackedObjects encodes the complex objects of the {@link StreamData} into the {@link RemoteData#getDataObjectBytesList()}.
+ * Different from {@link StorageDataComplexObject#toStorageData()}, the numbers are written in varint rather than text,
+ * so the objects are smaller and decoded without splitting and parsing strings.
+ *
+ * Every packed object starts with a type byte, so the receivers of the old versions could be served by {@link
+ * #toLegacy(RemoteData)} without knowing the stream data type.
+ */
+public final class PackedObjects {
+    private static final byte DATA_TABLE = 1;
+    private static final byte INT_LIST = 2;
+    private static final byte INT_KEY_LONG_VALUE_TABLE = 3;
+
+    private PackedObjects() {
+    }
+
+    public static ByteString pack(StorageDataComplexObject object) {
+        try {
+            ByteString.Output output = ByteString.newOutput();
+            CodedOutputStream stream = CodedOutputStream.newInstance(output);
+            if (object instanceof DataTable) {
+                DataTable table = (DataTable) object;
+                stream.writeRawByte(DATA_TABLE);
+                stream.writeUInt32NoTag(table.size());
+                for (String key : table.keys()) {
+                    stream.writeStringNoTag(key);
+                    stream.writeSInt64NoTag(table.get(key));
+                }
+            } else if (object instanceof IntList) {
+                IntList list = (IntList) object;
+                stream.writeRawByte(INT_LIST);
+                stream.writeUInt32NoTag(list.size());
+                for (int i = 0; i < list.size(); i++) {
+                    stream.writeSInt32NoTag(list.get(i));
+                }
+            } else if (object instanceof IntKeyLongValueTable) {
+                IntKeyLongValueTable table = (IntKeyLongValueTable) object;
+                stream.writeRawByte(INT_KEY_LONG_VALUE_TABLE);
+                stream.writeUInt32NoTag(table.size());
+                for (int i = 0; i < table.size(); i++) {
+                    stream.writeSInt32NoTag(table.keyAt(i));
+                    stream.writeSInt64NoTag(table.valueAt(i));
+                }
+            } else {
+                throw new UnexpectedException("Unsupported packed object type: " + object.getClass().getName());
+            }
+            stream.flush();
+            return output.toByteString();
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    public static StorageDataComplexObject unpack(ByteString bytes) {
+        try {
+            CodedInputStream stream = bytes.newCodedInput();
+            byte type = stream.readRawByte();
+            int size = stream.readUInt32();
+            switch (type) {
+                case DATA_TABLE:
+                    DataTable table = new DataTable(size);
+                    for (int i = 0; i < size; i++) {
+                        table.put(stream.readString(), stream.readSInt64());
+                    }
+                    return table;
+                case INT_LIST:
+                    IntList list = new IntList(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(stream.readSInt32());
+                    }
+                    return list;
+                case INT_KEY_LONG_VALUE_TABLE:
+                    IntKeyLongValueTable intKeyTable = new IntKeyLongValueTable(Math.max(size, 1));
+                    for (int i = 0; i < size; i++) {
+                        intKeyTable.put(stream.readSInt32(), stream.readSInt64());
+                    }
+                    return intKeyTable;
+                default:
+                    throw new UnexpectedException("Unknown packed object type: " + type);
+            }
+        } catch (IOException e) {
+            throw new UnexpectedException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Read the object at the index, from the packed bytes or the strings written by the old versions.
+     */
+    public static DataTable dataTable(RemoteData remoteData, int index) {
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            return (DataTable) unpack(remoteData.getDataObjectBytes(index));
+        }
+        return new DataTable(remoteData.getDataObjectStrings(index));
+    }
+
+    /**
+     * Read the object at the index, from the packed bytes or the strings written by the old versions.
+     */
+    public static IntList intList(RemoteData remoteData, int index) {
+        if (remoteData.getDataObjectBytesCount() > 0) {
+            return (IntList) unpack(remoteData.getDataObjectBytes(index));
+        }
+        return new IntList(remoteData.getDataObjectStrings(index));
+    }
+
+    /**
+     * Convert the packed objects to the strings, for the receivers of the old versions.
+     */
+    public static RemoteData toLegacy(RemoteData remoteData) {
+        if (remoteData.getDataObjectBytesCount() == 0) {
+            return remoteData;
+        }
+        RemoteData.Builder builder = remoteData.toBuilder().clearDataObjectBytes();
+        for (ByteString bytes : remoteData.getDataObjectBytesList()) {
+            builder.addDataObjectStrings(unpack(bytes).toStorageData());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+
+/**
+ * ConsistentHashSelector routes the stream data by a consistent hash ring. Every OAP node owns a number of virtual nodes
+ * on the ring, which are hashed from its address, so the ring is the same on all OAP nodes as long as they see the same
+ * cluster. Different from {@link HashCodeSelector}, when a node joins or leaves the cluster, only about 1/N of the
+ * keys are routed to another node, rather than almost all of them.
+ *
+ * The ring is rebuilt when the client list changes, {@link org.apache.skywalking.oap.server.core.remote.client.RemoteClientManager}
+ * replaces the list instance rather than modifying it, so the identity check is enough. The fraction of the key space
+ * remapped by every membership change is reported to the given listener.
+ */
+public class ConsistentHashSelector implements RemoteClientSelector {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+    private static final long KEY_SPACE = 1L << 32;
+
+    private final int virtualNodes;
+    private final DoubleConsumer remapListener;
+    private volatile HashRing ring;
+
+    /**
+     * @param virtualNodes  the number of virtual nodes of every OAP node on the ring.
+     * @param remapListener receives the fraction(0 to 1) of the key space routed to another node after the cluster
+     *                      changed.
+     */
+    public ConsistentHashSelector(int virtualNodes, DoubleConsumer remapListener) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("The virtual nodes of the hash ring should be positive.");
+        }
+        this.virtualNodes = virtualNodes;
+        this.remapListener = remapListener;
+    }
+
+    @Override
+    public RemoteClient select(List<RemoteClient> clients, StreamData streamData) {
+        HashRing current = ring;
+        if (current == null || current.clients != clients) {
+            current = rebuild(clients);
+        }
+        return current.locate(key(streamData.remoteHashCode()));
+    }
+
+    private synchronized HashRing rebuild(List<RemoteClient> clients) {
+        HashRing previous = ring;
+        if (previous != null && previous.clients == clients) {
+            return previous;
+        }
+        HashRing current = new HashRing(clients, virtualNodes);
+        ring = current;
+        if (previous != null) {
+            remapListener.accept(previous.remapFraction(current));
+        }
+        return current;
+    }
+
+    /**
+     * The remote hash codes are usually String hash codes, which are not spread evenly, mix them by the finalizer of
+     * MurmurHash3 before placing on the ring.
+     */
+    static long key(int hashCode) {
+        int h = hashCode;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & 0xFFFFFFFFL;
+    }
+
+    static class HashRing {
+        private final List<RemoteClient> clients;
+        /**
+         * The sorted and distinct positions of the virtual nodes, in unsigned 32 bits.
+         */
+        private final long[] points;
+        private final RemoteClient[] owners;
+
+        HashRing(List<RemoteClient> clients, int virtualNodes) {
+            this.clients = clients;
+
+            List<VirtualNode> nodes = new ArrayList<>(clients.size() * virtualNodes);
+            for (RemoteClient client : clients) {
+                String address = client.getAddress().toString();
+                for (int i = 0; i < virtualNodes; i++) {
+                    long point = HASH_FUNCTION.hashString(address + "#" + i, StandardCharsets.UTF_8).asInt() & 0xFFFFFFFFL;
+                    nodes.add(new VirtualNode(point, address, client));
+                }
+            }
+            // Break the ties by the address, so all OAP nodes choose the same owner of a collided point.
+            nodes.sort(Comparator.<VirtualNode>comparingLong(node -> node.point).thenComparing(node -> node.address));
+
+            long[] points = new long[nodes.size()];
+            RemoteClient[] owners = new RemoteClient[nodes.size()];
+            int size = 0;
+            for (VirtualNode node : nodes) {
+                if (size > 0 && points[size - 1] == node.point) {
+                    continue;
+                }
+                points[size] = node.point;
+                owners[size] = node.client;
+                size++;
+            }
+            this.points = Arrays.copyOf(points, size);
+            this.owners = Arrays.copyOf(owners, size);
+        }
+
+        /**
+         * @return the owner of the first virtual node clockwise from the key.
+         */
+        RemoteClient locate(long key) {
+            int index = Arrays.binarySearch(points, key);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            if (index == points.length) {
+                index = 0;
+            }
+            return owners[index];
+        }
+
+        /**
+         * Compare the owners of all arcs split by the virtual nodes of both rings. Every arc is owned by one node in
+         * each ring, so the result is exact rather than sampled.
+         *
+         * @return the fraction of the key space owned by another OAP node in the given ring.
+         */
+        double remapFraction(HashRing other) {
+            if (points.length == 0 || other.points.length == 0) {
+                return 1;
+            }
+            long[] merged = new long[points.length + other.points.length];
+            System.arraycopy(points, 0, merged, 0, points.length);
+            System.arraycopy(other.points, 0, merged, points.length, other.points.length);
+            Arrays.sort(merged);
+
+            long remapped = 0;
+            long lower = merged[merged.length - 1] - KEY_SPACE;
+            for (long point : merged) {
+                if (point == lower) {
+                    continue;
+                }
+                Address owner = locate(point).getAddress();
+                if (!owner.equals(other.locate(point).getAddress())) {
+                    remapped += point - lower;
+                }
+                lower = point;
+            }
+            return (double) remapped / KEY_SPACE;
+        }
+    }
+
+    private static class VirtualNode {
+        private final long point;
+        private final String address;
+        private final RemoteClient client;
+
+        private VirtualNode(long point, String address, RemoteClient client) {
+            this.point = point;
+            this.address = address;
+            this.client = client;
+        }
+    }
+}
@@ -32,7 +32,19 @@ public interface IHistoryDeleteDAO extends DAO {
      * @param model                data entity.
      * @param timeBucketColumnName column name represents the time. Right now, always {@link Metrics#TIME_BUCKET}
      * @param ttl                 the number of days should be kept
+     * @return the number of the deleted rows or documents, or -1 if it is unknown, such as the whole indices or
+     * partitions are dropped.
      * @throws IOException when error happens in the deletion process.
      */
-    void deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException;
+    long deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException;
+
+    /**
+     * The models of the same deletion key are executed one by one by the same OAP node, because their expired data
+     * are removed from the same storage, such as the same physical index.
+     *
+     * @return the model name by default.
+     */
+    default String getDeletionKey(Model model) {
+        return model.getName();
+    }
 }
@@ -19,10 +19,14 @@
 package org.apache.skywalking.oap.server.core.storage;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
 
 /**
@@ -54,4 +58,42 @@ public interface IMetricsDAO extends DAO {
      * executed ASAP.
      */
     UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException;
+
+    /**
+     * @return true if the metrics of the given model could be persisted through {@link #prepareBatchUpsert(Model,
+     * List)}, without reading the existing ones by {@link #multiGet(Model, List)} first. Only the metrics whose value is
+     * the sum of the combined metrics, such as sum and count, could be combined by the storage.
+     */
+    default boolean isUpsertSupported(Model model) {
+        return false;
+    }
+
+    /**
+     * Transfer the given metrics to the executable statements, which insert the metrics, or add the values of them to
+     * the existing ones of the same IDs. The IDs of the given metrics should be unique.
+     *
+     * The default implementation reads the existing metrics, and combines the given ones into them through {@link
+     * #prepareBatchInsert(Model, Metrics)} and {@link #prepareBatchUpdate(Model, Metrics)}. The storages returning true
+     * from {@link #isUpsertSupported(Model)} should override it without the read.
+     *
+     * @return the statements of all given metrics, one statement could include multiple metrics.
+     */
+    default List<PrepareRequest> prepareBatchUpsert(Model model, List<Metrics> metrics) throws IOException {
+        final Map<String, Metrics> existedMetrics = new HashMap<>();
+        for (Metrics existed : multiGet(model, metrics)) {
+            existedMetrics.put(existed.id(), existed);
+        }
+        final List<PrepareRequest> requests = new ArrayList<>(metrics.size());
+        for (Metrics m : metrics) {
+            final Metrics existed = existedMetrics.get(m.id());
+            if (existed == null) {
+                requests.add(prepareBatchInsert(model, m));
+            } else {
+                existed.combine(m);
+                existed.calculate();
+                requests.add(prepareBatchUpdate(model, existed));
+            }
+        }
+        return requests;
+    }
 }
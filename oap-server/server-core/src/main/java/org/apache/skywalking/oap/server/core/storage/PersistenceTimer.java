@@ -19,8 +19,15 @@
 package org.apache.skywalking.oap.server.core.storage;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
@@ -30,6 +37,7 @@ import org.apache.skywalking.oap.server.core.analysis.worker.PersistenceWorker;
 import org.apache.skywalking.oap.server.core.analysis.worker.TopNStreamProcessor;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
@@ -47,6 +55,15 @@ public enum PersistenceTimer {
     private HistogramMetrics executeLatency;
     private long lastTime = System.currentTimeMillis();
     private final List<PrepareRequest> prepareRequests = new ArrayList<>(50000);
+    private MetricsCreator metricsCreator;
+    /**
+     * The prepare latency of every persistence worker, only accessed by the timer thread.
+     */
+    private final Map<PersistenceWorker, HistogramMetrics> workerPrepareLatency = new HashMap<>();
+    /**
+     * Build the batch requests of the workers in parallel, null means building them one by one in the timer thread.
+     */
+    private ExecutorService prepareExecutorService;
 
     PersistenceTimer() {
         this.debug = System.getProperty("debug") != null;
@@ -56,9 +73,9 @@ public enum PersistenceTimer {
         log.info("persistence timer start");
         IBatchDAO batchDAO = moduleManager.find(StorageModule.NAME).provider().getService(IBatchDAO.class);
 
-        MetricsCreator metricsCreator = moduleManager.find(TelemetryModule.NAME)
-                                                     .provider()
-                                                     .getService(MetricsCreator.class);
+        metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                      .provider()
+                                      .getService(MetricsCreator.class);
         errorCounter = metricsCreator.createCounter(
             "persistence_timer_bulk_error_count", "Error execution of the prepare stage in persistence timer",
             MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
@@ -73,6 +90,10 @@ public enum PersistenceTimer {
         );
 
         if (!isStarted) {
+            if (moduleConfig.getPersistentPrepareThreads() > 1) {
+                prepareExecutorService = Executors.newFixedThreadPool(
+                    moduleConfig.getPersistentPrepareThreads(), new CustomThreadFactory("PersistenceTimerPrepare"));
+            }
             Executors.newSingleThreadScheduledExecutor()
                      .scheduleWithFixedDelay(
                          new RunnableWithExceptionProtection(() -> extractDataAndSave(batchDAO), t -> log
@@ -92,37 +113,27 @@ public enum PersistenceTimer {
         long startTime = System.currentTimeMillis();
 
         try {
-            HistogramMetrics.Timer timer = prepareLatency.createTimer();
-
-            try {
-                List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
-                persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
-                persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
+            List<PersistenceWorker> persistenceWorkers = new ArrayList<>();
+            persistenceWorkers.addAll(TopNStreamProcessor.getInstance().getPersistentWorkers());
+            persistenceWorkers.addAll(MetricsStreamProcessor.getInstance().getPersistentWorkers());
 
-                persistenceWorkers.forEach(worker -> {
-                    if (log.isDebugEnabled()) {
-                        log.debug("extract {} worker data and save", worker.getClass().getName());
-                    }
+            if (prepareExecutorService == null) {
+                HistogramMetrics.Timer timer = prepareLatency.createTimer();
 
-                    worker.buildBatchRequests(prepareRequests);
+                try {
+                    final long tookTime = System.currentTimeMillis() - lastTime;
+                    persistenceWorkers.forEach(worker -> prepare(worker, prepareRequests, tookTime));
 
-                    worker.endOfRound(System.currentTimeMillis() - lastTime);
-                });
-
-                if (debug) {
-                    log.info("build batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
+                    if (debug) {
+                        log.info("build batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
+                    }
+                } finally {
+                    timer.finish();
                 }
-            } finally {
-                timer.finish();
-            }
 
-            HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
-            try {
-                if (CollectionUtils.isNotEmpty(prepareRequests)) {
-                    batchDAO.synchronous(prepareRequests);
-                }
-            } finally {
-                executeLatencyTimer.finish();
+                execute(batchDAO, prepareRequests);
+            } else {
+                extractDataAndSaveInParallel(batchDAO, persistenceWorkers);
             }
         } catch (Throwable e) {
             errorCounter.inc();
@@ -140,4 +151,102 @@ public enum PersistenceTimer {
             log.info("Batch persistence duration: {} ms", System.currentTimeMillis() - startTime);
         }
     }
+
+    /**
+     * Build the batch requests of the workers in the prepare thread pool. The timer thread executes the requests of the
+     * prepared workers as soon as they are ready, and all workers prepared during one execution are executed together
+     * in the next one. So the execution of the prepared workers overlaps the preparation of the others.
+     */
+    private void extractDataAndSaveInParallel(IBatchDAO batchDAO,
+                                              List<PersistenceWorker> persistenceWorkers) throws InterruptedException {
+        final long tookTime = System.currentTimeMillis() - lastTime;
+        final CompletionService<List<PrepareRequest>> completionService =
+            new ExecutorCompletionService<>(prepareExecutorService);
+
+        HistogramMetrics.Timer timer = prepareLatency.createTimer();
+        for (PersistenceWorker worker : persistenceWorkers) {
+            final HistogramMetrics latency = prepareLatencyOf(worker);
+            completionService.submit(() -> {
+                List<PrepareRequest> requests = new ArrayList<>();
+                prepare(worker, requests, tookTime, latency);
+                return requests;
+            });
+        }
+
+        int unfinished = persistenceWorkers.size();
+        while (unfinished > 0) {
+            // Wait for one prepared worker at least, then take all others prepared in the meantime.
+            Future<List<PrepareRequest>> prepared = completionService.take();
+            while (prepared != null) {
+                unfinished--;
+                collect(prepared, prepareRequests);
+                prepared = unfinished > 0 ? completionService.poll() : null;
+            }
+
+            if (unfinished == 0) {
+                timer.finish();
+            }
+
+            try {
+                execute(batchDAO, prepareRequests);
+            } catch (Throwable t) {
+                // Keep executing the requests of other workers.
+                errorCounter.inc();
+                log.error(t.getMessage(), t);
+            } finally {
+                prepareRequests.clear();
+            }
+        }
+    }
+
+    private void prepare(PersistenceWorker worker, List<PrepareRequest> requests, long tookTime) {
+        prepare(worker, requests, tookTime, prepareLatencyOf(worker));
+    }
+
+    private void prepare(PersistenceWorker worker, List<PrepareRequest> requests, long tookTime,
+                         HistogramMetrics latency) {
+        if (log.isDebugEnabled()) {
+            log.debug("extract {} worker data and save", worker.getClass().getName());
+        }
+
+        HistogramMetrics.Timer timer = latency.createTimer();
+        try {
+            worker.buildBatchRequests(requests);
+
+            worker.endOfRound(tookTime);
+        } finally {
+            timer.finish();
+        }
+    }
+
+    private void collect(Future<List<PrepareRequest>> prepared, List<PrepareRequest> requests) {
+        try {
+            requests.addAll(prepared.get());
+        } catch (ExecutionException e) {
+            errorCounter.inc();
+            log.error(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void execute(IBatchDAO batchDAO, List<PrepareRequest> requests) {
+        if (CollectionUtils.isEmpty(requests)) {
+            return;
+        }
+        HistogramMetrics.Timer executeLatencyTimer = executeLatency.createTimer();
+        try {
+            batchDAO.synchronous(requests);
+        } finally {
+            executeLatencyTimer.finish();
+        }
+    }
+
+    private HistogramMetrics prepareLatencyOf(PersistenceWorker worker) {
+        return workerPrepareLatency.computeIfAbsent(worker, w -> metricsCreator.createHistogramMetric(
+            "persistence_timer_model_prepare_latency", "Latency of the prepare stage of every model in persistence timer",
+            new MetricsTag.Keys("metricName", "dimensionality"),
+            new MetricsTag.Values(w.getModel().getName(), w.getModel().getDownsampling().getName())
+        ));
+    }
 }
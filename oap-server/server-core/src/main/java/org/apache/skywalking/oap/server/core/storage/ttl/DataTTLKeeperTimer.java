@@ -18,8 +18,16 @@
 
 package org.apache.skywalking.oap.server.core.storage.ttl;
 
-import java.io.IOException;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
@@ -35,7 +43,13 @@ import org.apache.skywalking.oap.server.core.storage.StorageModule;
 import org.apache.skywalking.oap.server.core.storage.model.IModelManager;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.library.module.ModuleManager;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
 
 /**
  * TTL = Time To Live
@@ -49,14 +63,30 @@ import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 public enum DataTTLKeeperTimer {
     INSTANCE;
 
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_32();
+
     private ModuleManager moduleManager;
     private ClusterNodesQuery clusterNodesQuery;
     private CoreModuleConfig moduleConfig;
+    private ExecutorService executorService;
+    private MetricsCreator metricsCreator;
+    private CounterMetrics errorCounter;
+    private final Map<String, HistogramMetrics> modelLatency = new ConcurrentHashMap<>();
+    private final Map<String, CounterMetrics> modelDeletedCounter = new ConcurrentHashMap<>();
 
     public void start(ModuleManager moduleManager, CoreModuleConfig moduleConfig) {
         this.moduleManager = moduleManager;
         this.clusterNodesQuery = moduleManager.find(ClusterModule.NAME).provider().getService(ClusterNodesQuery.class);
         this.moduleConfig = moduleConfig;
+        this.metricsCreator = moduleManager.find(TelemetryModule.NAME)
+                                           .provider()
+                                           .getService(MetricsCreator.class);
+        this.errorCounter = metricsCreator.createCounter(
+            "data_ttl_keeper_error_count", "The number of the models failed to remove the expired data",
+            MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE
+        );
+        this.executorService = Executors.newFixedThreadPool(
+            moduleConfig.getDataKeeperExecuteThreads(), new CustomThreadFactory("DataTTLKeeper"));
 
         Executors.newSingleThreadScheduledExecutor()
                  .scheduleAtFixedRate(
@@ -68,36 +98,111 @@ public enum DataTTLKeeperTimer {
     }
 
     /**
-     * DataTTLKeeperTimer starts in every OAP node, but the deletion only work when it is as the first node in the OAP
-     * node list from {@link ClusterNodesQuery}.
+     * DataTTLKeeperTimer starts in every OAP node, the models are distributed to the OAP nodes from {@link
+     * ClusterNodesQuery} by their deletion keys, see {@link #isSelected(String, List)}. The models of different keys
+     * are executed in parallel by the executor, the next round doesn't start until all models are executed.
      */
     private void delete() {
         List<RemoteInstance> remoteInstances = clusterNodesQuery.queryRemoteNodes();
-        if (CollectionUtils.isNotEmpty(remoteInstances) && !remoteInstances.get(0).getAddress().isSelf()) {
-            log.info("The selected first getAddress is {}. Skip.", remoteInstances.get(0).toString());
-            return;
+        IHistoryDeleteDAO historyDeleteDAO = moduleManager.find(StorageModule.NAME)
+                                                          .provider()
+                                                          .getService(IHistoryDeleteDAO.class);
+        IModelManager modelGetter = moduleManager.find(CoreModule.NAME).provider().getService(IModelManager.class);
+
+        Map<String, List<Model>> modelsOfKeys = new LinkedHashMap<>();
+        for (Model model : modelGetter.allModels()) {
+            if (model.isTimeSeries()) {
+                modelsOfKeys.computeIfAbsent(historyDeleteDAO.getDeletionKey(model), key -> new ArrayList<>())
+                            .add(model);
+            }
         }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        modelsOfKeys.forEach((key, models) -> {
+            if (isSelected(key, remoteInstances)) {
+                tasks.add(() -> {
+                    models.forEach(model -> execute(historyDeleteDAO, model));
+                    return null;
+                });
+            }
+        });
 
-        log.info("Beginning to remove expired metrics from the storage.");
-        IModelManager modelGetter = moduleManager.find(CoreModule.NAME).provider().getService(IModelManager.class);
-        List<Model> models = modelGetter.allModels();
-        models.forEach(this::execute);
+        log.info("Beginning to remove expired data of {} in {} deletion keys from the storage.", tasks.size(),
+                 modelsOfKeys.size()
+        );
+        try {
+            executorService.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
-    private void execute(Model model) {
+    private void execute(IHistoryDeleteDAO historyDeleteDAO, Model model) {
+        HistogramMetrics.Timer timer = latencyOf(model).createTimer();
         try {
-            if (!model.isTimeSeries()) {
-                return;
+            long deleted = historyDeleteDAO.deleteHistory(
+                model, Metrics.TIME_BUCKET,
+                model.isRecord() ? moduleConfig.getRecordDataTTL() : moduleConfig.getMetricsDataTTL()
+            );
+            if (deleted > 0) {
+                deletedCounterOf(model).inc(deleted);
             }
-            moduleManager.find(StorageModule.NAME)
-                         .provider()
-                         .getService(IHistoryDeleteDAO.class)
-                         .deleteHistory(model, Metrics.TIME_BUCKET,
-                                        model.isRecord() ? moduleConfig.getRecordDataTTL() : moduleConfig.getMetricsDataTTL()
-                         );
-        } catch (IOException e) {
+        } catch (Exception e) {
+            errorCounter.inc();
             log.warn("History of {} delete failure", model.getName());
             log.error(e.getMessage(), e);
+        } finally {
+            timer.finish();
         }
     }
+
+    /**
+     * The deletion key is executed by the OAP node of the highest hash of the key and the node address, which is the
+     * rendezvous hashing. All OAP nodes select the same node as long as they see the same cluster, and only the keys of
+     * the joined or left node move to another node when the cluster changes.
+     *
+     * @return true if the current OAP node is selected, or there is no OAP node in the cluster.
+     */
+    static boolean isSelected(String key, List<RemoteInstance> remoteInstances) {
+        if (CollectionUtils.isEmpty(remoteInstances)) {
+            return true;
+        }
+        RemoteInstance selected = null;
+        long highestHash = -1;
+        String selectedAddress = null;
+        for (RemoteInstance instance : remoteInstances) {
+            String address = instance.getAddress().toString();
+            long hash = HASH_FUNCTION.hashString(key + "@" + address, StandardCharsets.UTF_8).asInt() & 0xFFFFFFFFL;
+            // Break the ties by the address, so all OAP nodes select the same one.
+            if (hash > highestHash || hash == highestHash && address.compareTo(selectedAddress) < 0) {
+                selected = instance;
+                highestHash = hash;
+                selectedAddress = address;
+            }
+        }
+        return selected.getAddress().isSelf();
+    }
+
+    HistogramMetrics latencyOf(Model model) {
+        return modelLatency.computeIfAbsent(metricsKeyOf(model), key -> metricsCreator.createHistogramMetric(
+            "data_ttl_keeper_model_latency", "The latency of removing the expired data of every model",
+            new MetricsTag.Keys("metricName", "dimensionality"),
+            new MetricsTag.Values(model.getName(), model.getDownsampling().getName())
+        ));
+    }
+
+    private CounterMetrics deletedCounterOf(Model model) {
+        return modelDeletedCounter.computeIfAbsent(metricsKeyOf(model), key -> metricsCreator.createCounter(
+            "data_ttl_keeper_model_deleted_count", "The number of the expired rows or documents removed of every model",
+            new MetricsTag.Keys("metricName", "dimensionality"),
+            new MetricsTag.Values(model.getName(), model.getDownsampling().getName())
+        ));
+    }
+
+    /**
+     * The minute, hour and day models of one metrics share the name, so the telemetry of every model is keyed by the
+     * name and the downsampling, the same as its labels.
+     */
+    private static String metricsKeyOf(Model model) {
+        return model.getName() + "-" + model.getDownsampling().getName();
+    }
 }
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
+import java.util.List;
 import lombok.Getter;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 
@@ -40,4 +41,13 @@ public abstract class AbstractWorker<INPUT> {
      * Main entrance of this worker.
      */
     public abstract void in(INPUT input);
+
+    /**
+     * Batch entrance of this worker, the workers could override it to process the inputs at once.
+     */
+    public void in(List<INPUT> inputs) {
+        for (INPUT input : inputs) {
+            in(input);
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.worker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatistics;
+import org.apache.skywalking.apm.commons.datacarrier.common.DataCarrierStatisticsRegistry;
+import org.apache.skywalking.apm.util.RunnableWithExceptionProtection;
+import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+
+/**
+ * DataCarrierTelemetryTimer reports the produced, dropped data and the blocked time of the producers of all
+ * DataCarriers, by their names, to the telemetry.
+ */
+@Slf4j
+public enum DataCarrierTelemetryTimer {
+    INSTANCE;
+
+    private final Map<String, Reporter> reporters = new HashMap<>();
+    private MetricsCreator metricsCreator;
+
+    public void start(ModuleDefineHolder moduleDefineHolder) {
+        log.info("DataCarrier telemetry timer start");
+
+        metricsCreator = moduleDefineHolder.find(TelemetryModule.NAME)
+                                           .provider()
+                                           .getService(MetricsCreator.class);
+
+        Executors.newSingleThreadScheduledExecutor()
+                 .scheduleWithFixedDelay(
+                     new RunnableWithExceptionProtection(this::report, t -> log
+                         .error("DataCarrier telemetry report failure.", t)), 10, 10, TimeUnit.SECONDS);
+    }
+
+    private void report() {
+        for (DataCarrierStatistics statistics : DataCarrierStatisticsRegistry.INSTANCE.all()) {
+            reporters.computeIfAbsent(statistics.getName(), Reporter::new).report(statistics);
+        }
+    }
+
+    /**
+     * Report the increments of the cumulative statistics since the last report.
+     */
+    private class Reporter {
+        private final CounterMetrics producedCounter;
+        private final CounterMetrics droppedCounter;
+        private final CounterMetrics blockedTimeCounter;
+        private long produced;
+        private long dropped;
+        private long blockedTime;
+
+        private Reporter(String name) {
+            producedCounter = metricsCreator.createCounter(
+                "datacarrier_produced_count", "The number of data produced into the DataCarrier",
+                new MetricsTag.Keys("name"), new MetricsTag.Values(name)
+            );
+            droppedCounter = metricsCreator.createCounter(
+                "datacarrier_dropped_count", "The number of data dropped by the DataCarrier",
+                new MetricsTag.Keys("name"), new MetricsTag.Values(name)
+            );
+            blockedTimeCounter = metricsCreator.createCounter(
+                "datacarrier_blocked_time", "The time of producers blocked by the full DataCarrier, in milliseconds",
+                new MetricsTag.Keys("name"), new MetricsTag.Values(name)
+            );
+        }
+
+        private void report(DataCarrierStatistics statistics) {
+            final long currentProduced = statistics.getProduced();
+            final long currentDropped = statistics.getDropped();
+            final long currentBlockedTime = statistics.getBlockedTime();
+
+            producedCounter.inc(currentProduced - produced);
+            droppedCounter.inc(currentDropped - dropped);
+            // Truncate the accumulated time rather than the delta, to keep the sub-millisecond remainder of every
+            // period.
+            blockedTimeCounter.inc(
+                TimeUnit.NANOSECONDS.toMillis(currentBlockedTime) - TimeUnit.NANOSECONDS.toMillis(blockedTime));
+
+            produced = currentProduced;
+            dropped = currentDropped;
+            blockedTime = currentBlockedTime;
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
+import java.util.Map;
 import org.apache.skywalking.oap.server.library.module.Service;
 
 /**
@@ -26,4 +27,19 @@ import org.apache.skywalking.oap.server.library.module.Service;
 public interface IWorkerInstanceGetter extends Service {
     RemoteHandleWorker get(String nextWorkerName);
 
+    /**
+     * @param nextWorkerId the id in the worker id dictionary of this OAP node.
+     * @return NULL if the id doesn't exist.
+     */
+    RemoteHandleWorker get(int nextWorkerId);
+
+    /**
+     * @return the worker id dictionary of this OAP node, the ids of the registered workers never change.
+     */
+    Map<String, Integer> getWorkerIds();
+
+    /**
+     * @return the random id of the worker id dictionary, different in every OAP process.
+     */
+    long getWorkerDictionaryId();
 }
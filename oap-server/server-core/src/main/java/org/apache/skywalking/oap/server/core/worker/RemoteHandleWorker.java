@@ -18,13 +18,72 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
-import lombok.AllArgsConstructor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.function.Supplier;
 import lombok.Getter;
+import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 
-@AllArgsConstructor
+/**
+ * RemoteHandleWorker is the worker receiving the stream data from the other OAP nodes, with the factory of the stream
+ * data type. The factory is bound to the constructor once, rather than invoking the constructor by reflection for
+ * every received message.
+ */
 @Getter
 public class RemoteHandleWorker {
-    private AbstractWorker worker;
-    private Class<? extends StreamData> streamDataClass;
+    private final AbstractWorker worker;
+    private final Class<? extends StreamData> streamDataClass;
+    private final Supplier<StreamData> streamDataFactory;
+
+    public RemoteHandleWorker(AbstractWorker worker, Class<? extends StreamData> streamDataClass) {
+        this.worker = worker;
+        this.streamDataClass = streamDataClass;
+        this.streamDataFactory = createFactory(streamDataClass);
+    }
+
+    /**
+     * @return a new instance of the stream data type.
+     */
+    public StreamData newStreamData() {
+        return streamDataFactory.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<StreamData> createFactory(Class<? extends StreamData> streamDataClass) {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final MethodHandle constructor;
+        try {
+            Constructor<? extends StreamData> declared = streamDataClass.getDeclaredConstructor();
+            declared.setAccessible(true);
+            constructor = lookup.unreflectConstructor(declared);
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException e) {
+            return () -> {
+                throw new UnexpectedException(
+                    "Stream data " + streamDataClass.getName() + " should have a constructor without arguments.", e);
+            };
+        }
+        try {
+            CallSite callSite = LambdaMetafactory.metafactory(
+                lookup, "get", MethodType.methodType(Supplier.class), MethodType.methodType(Object.class),
+                constructor, MethodType.methodType(streamDataClass)
+            );
+            return (Supplier<StreamData>) callSite.getTarget().invoke();
+        } catch (Throwable t) {
+            // The classes invisible to the class loader of the lambda, or not public, are created through the
+            // constructor handle directly.
+            final MethodHandle generic = constructor.asType(MethodType.methodType(StreamData.class));
+            return () -> {
+                try {
+                    return (StreamData) generic.invokeExact();
+                } catch (Throwable e) {
+                    throw new UnexpectedException(e.getMessage(), e instanceof Exception ? (Exception) e : null);
+                }
+            };
+        }
+    }
 }
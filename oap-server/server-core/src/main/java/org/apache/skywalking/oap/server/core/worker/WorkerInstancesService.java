@@ -18,23 +18,36 @@
 
 package org.apache.skywalking.oap.server.core.worker;
 
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import org.apache.skywalking.oap.server.core.UnexpectedException;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Worker Instance Service hosts all remote handler workers with the stream data type.
+ * Worker Instance Service hosts all remote handler workers with the stream data type. Every worker is assigned an id in
+ * the registration order, which the other OAP nodes use instead of the worker name after the handshake.
  */
 public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerInstanceGetter {
     private static final Logger LOGGER = LoggerFactory.getLogger(WorkerInstancesService.class);
 
     private final Map<String, RemoteHandleWorker> instances;
+    private final long workerDictionaryId;
+    private volatile Map<String, Integer> workerIds;
+    /**
+     * Indexed by the worker id, the 0 is reserved as absent.
+     */
+    private volatile RemoteHandleWorker[] workersById;
 
     public WorkerInstancesService() {
         this.instances = new HashMap<>();
+        this.workerDictionaryId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        this.workerIds = ImmutableMap.of();
+        this.workersById = new RemoteHandleWorker[1];
     }
 
     @Override
@@ -43,12 +56,43 @@ public class WorkerInstancesService implements IWorkerInstanceSetter, IWorkerIns
     }
 
     @Override
-    public void put(String remoteReceiverWorkName, AbstractWorker instance,
+    public RemoteHandleWorker get(int nextWorkerId) {
+        RemoteHandleWorker[] workers = workersById;
+        if (nextWorkerId <= 0 || nextWorkerId >= workers.length) {
+            return null;
+        }
+        return workers[nextWorkerId];
+    }
+
+    @Override
+    public Map<String, Integer> getWorkerIds() {
+        return workerIds;
+    }
+
+    @Override
+    public long getWorkerDictionaryId() {
+        return workerDictionaryId;
+    }
+
+    /**
+     * The workers of the meter system could be registered at runtime, copy on write to keep the lookups lock free.
+     */
+    @Override
+    public synchronized void put(String remoteReceiverWorkName, AbstractWorker instance,
         Class<? extends StreamData> streamDataClass) {
         if (instances.containsKey(remoteReceiverWorkName)) {
             throw new UnexpectedException("Duplicate worker name:" + remoteReceiverWorkName);
         }
-        instances.put(remoteReceiverWorkName, new RemoteHandleWorker(instance, streamDataClass));
+        RemoteHandleWorker worker = new RemoteHandleWorker(instance, streamDataClass);
+        instances.put(remoteReceiverWorkName, worker);
+
+        RemoteHandleWorker[] workers = Arrays.copyOf(workersById, workersById.length + 1);
+        workers[workers.length - 1] = worker;
+        workerIds = ImmutableMap.<String, Integer>builder()
+                                .putAll(workerIds)
+                                .put(remoteReceiverWorkName, workers.length - 1)
+                                .build();
+        workersById = workers;
         LOGGER.debug("Worker {} has been registered as {}", instance.toString(), remoteReceiverWorkName);
     }
 }
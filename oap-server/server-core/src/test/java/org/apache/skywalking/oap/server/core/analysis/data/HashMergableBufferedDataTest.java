@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MockMetrics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+public class HashMergableBufferedDataTest {
+    @Test
+    public void testMerge() {
+        HashMergableBufferedData<MockMetrics> buffer = new HashMergableBufferedData<>();
+        for (int i = 0; i < 1000; i++) {
+            buffer.accept(new MockMetrics("entity-" + (i % 100), 202103011200L, 1));
+        }
+        buffer.accept(new MockMetrics("entity-0", 202103011201L, 1));
+
+        List<MockMetrics> result = buffer.read();
+        Assert.assertEquals(101, result.size());
+        long total = 0;
+        for (MockMetrics metrics : result) {
+            total += metrics.getValue();
+        }
+        Assert.assertEquals(1001, total);
+
+        Assert.assertTrue(buffer.read().isEmpty());
+    }
+
+    @Test
+    public void testAbandonWithCollision() {
+        HashMergableBufferedData<MockMetrics> buffer = new HashMergableBufferedData<>();
+        // All metrics share the same hash code, so they are in the same probe sequence.
+        for (int i = 0; i < 20; i++) {
+            buffer.accept(new CollidedMetrics("entity-" + i, 1));
+        }
+        // Negative value makes the combination abandoned, removes the existing one.
+        buffer.accept(new CollidedMetrics("entity-5", -1));
+        buffer.accept(new CollidedMetrics("entity-6", 1));
+        buffer.accept(new CollidedMetrics("entity-0", -1));
+        buffer.accept(new CollidedMetrics("entity-19", 1));
+
+        Map<String, Long> values = new HashMap<>();
+        buffer.read().forEach(metrics -> values.put(metrics.getEntityId(), metrics.getValue()));
+        Assert.assertEquals(18, values.size());
+        Assert.assertFalse(values.containsKey("entity-0"));
+        Assert.assertFalse(values.containsKey("entity-5"));
+        Assert.assertEquals(2L, values.get("entity-6").longValue());
+        Assert.assertEquals(2L, values.get("entity-19").longValue());
+    }
+
+    @Test
+    public void testShrinkAfterBurst() {
+        HashMergableBufferedData<MockMetrics> buffer = new HashMergableBufferedData<>();
+        for (int i = 0; i < 10000; i++) {
+            buffer.accept(new MockMetrics("entity-" + i, 202103011200L, 1));
+        }
+        List<MockMetrics> burst = buffer.read();
+        Assert.assertEquals(10000, burst.size());
+        Assert.assertTrue(tableLength(buffer) >= 20000);
+
+        for (int i = 0; i < 10; i++) {
+            buffer.accept(new MockMetrics("entity-" + i, 202103011201L, 1));
+        }
+        List<MockMetrics> result = buffer.read();
+        Assert.assertEquals(10, result.size());
+        Assert.assertEquals(64, tableLength(buffer));
+        // The lists of different reads are owned by the callers.
+        Assert.assertEquals(10000, burst.size());
+
+        buffer.accept(new MockMetrics("entity-0", 202103011201L, 1));
+        Assert.assertEquals(1, buffer.read().size());
+        Assert.assertEquals(10, result.size());
+    }
+
+    private static int tableLength(HashMergableBufferedData<?> buffer) {
+        return Whitebox.<Metrics[]>getInternalState(buffer, "table").length;
+    }
+
+    private static class CollidedMetrics extends MockMetrics {
+        private CollidedMetrics(String entityId, long value) {
+            super(entityId, 202103011200L, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+}
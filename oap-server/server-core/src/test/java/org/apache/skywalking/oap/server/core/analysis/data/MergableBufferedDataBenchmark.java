@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MockMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare {@link MergableBufferedData} and {@link HashMergableBufferedData} in the L1/L2 aggregation pattern, accept a
+ * batch of endpoint metrics and read them out.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class MergableBufferedDataBenchmark {
+    private static final int ENTITY_SIZE = 2000;
+    private static final int BATCH_SIZE = 10000;
+
+    private final List<MockMetrics> batch = new ArrayList<>(BATCH_SIZE);
+    private MergableBufferedData<MockMetrics> mergableBufferedData;
+    private HashMergableBufferedData<MockMetrics> hashMergableBufferedData;
+
+    @Setup
+    public void setup() {
+        final String serviceId = IDManager.ServiceID.buildId("mock-service", true);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            final String entityId = IDManager.EndpointID.buildId(serviceId, "/mock/endpoint/" + i % ENTITY_SIZE);
+            batch.add(new MockMetrics(entityId, 202103011200L, 1));
+        }
+        mergableBufferedData = new MergableBufferedData<>();
+        hashMergableBufferedData = new HashMergableBufferedData<>();
+    }
+
+    @Benchmark
+    public void testMergableBufferedData(Blackhole blackhole) {
+        batch.forEach(mergableBufferedData::accept);
+        blackhole.consume(mergableBufferedData.read());
+    }
+
+    @Benchmark
+    public void testHashMergableBufferedData(Blackhole blackhole) {
+        batch.forEach(hashMergableBufferedData::accept);
+        blackhole.consume(hashMergableBufferedData.read());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(MergableBufferedDataBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.storage.StorageData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ShardedReadWriteSafeCacheTest {
+    @Test
+    public void testWriteAndRead() {
+        ShardedReadWriteSafeCache<MockStorageData> cache = new ShardedReadWriteSafeCache<>(
+            4, MockBufferedData::new, null);
+        List<MockStorageData> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new MockStorageData(String.valueOf(i)));
+        }
+        cache.write(batch);
+        cache.write(new MockStorageData("100"));
+
+        List<MockStorageData> result = cache.read();
+        Assert.assertEquals(101, result.size());
+        Assert.assertEquals(0, cache.read().size());
+
+        cache.write(new MockStorageData("101"));
+        Assert.assertEquals(Collections.singletonList("101"), ids(cache.read()));
+    }
+
+    @Test
+    public void testSameIdInSameShard() {
+        ShardedReadWriteSafeCache<MockStorageData> cache = new ShardedReadWriteSafeCache<>(
+            8, DistinctBufferedData::new, null);
+        for (int i = 0; i < 10; i++) {
+            List<MockStorageData> batch = new ArrayList<>();
+            for (int j = 0; j < 50; j++) {
+                batch.add(new MockStorageData(String.valueOf(j)));
+            }
+            cache.write(batch);
+        }
+        Assert.assertEquals(50, cache.read().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalShardSize() {
+        new ShardedReadWriteSafeCache<>(0, MockBufferedData::new, null);
+    }
+
+    private static List<String> ids(List<MockStorageData> data) {
+        List<String> ids = new ArrayList<>();
+        data.forEach(d -> ids.add(d.id()));
+        return ids;
+    }
+
+    private static class MockStorageData implements StorageData {
+        private final String id;
+
+        private MockStorageData(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String id() {
+            return id;
+        }
+
+        /**
+         * Same as the metrics, the data of the same id has the same hash code.
+         */
+        @Override
+        public int hashCode() {
+            return id.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof MockStorageData && id.equals(((MockStorageData) obj).id);
+        }
+    }
+
+    private static class MockBufferedData implements BufferedData<MockStorageData> {
+        private final List<MockStorageData> buffer = new ArrayList<>();
+
+        @Override
+        public void accept(MockStorageData data) {
+            buffer.add(data);
+        }
+
+        @Override
+        public List<MockStorageData> read() {
+            try {
+                return new ArrayList<>(buffer);
+            } finally {
+                buffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Only keep the first data of the id, works like a merging buffer.
+     */
+    private static class DistinctBufferedData extends MockBufferedData {
+        private final List<String> ids = new ArrayList<>();
+
+        @Override
+        public void accept(MockStorageData data) {
+            if (!ids.contains(data.id())) {
+                ids.add(data.id());
+                super.accept(data);
+            }
+        }
+    }
+}
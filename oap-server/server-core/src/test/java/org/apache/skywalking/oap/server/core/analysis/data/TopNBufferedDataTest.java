@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.data;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.analysis.MockCounter;
+import org.apache.skywalking.oap.server.core.analysis.topn.TopN;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TopNBufferedDataTest {
+    @Test
+    public void testKeepTopNOfEveryServiceAndMinute() {
+        MockCounter dropped = new MockCounter();
+        TopNBufferedData<MockTopN> buffer = new TopNBufferedData<>(3, dropped);
+        for (long latency : new long[] {5, 1, 9, 3, 7}) {
+            buffer.accept(new MockTopN("service-a", 20210301120001L, latency));
+        }
+        // Another minute and another service keep their own top N.
+        buffer.accept(new MockTopN("service-a", 20210301120101L, 2));
+        buffer.accept(new MockTopN("service-b", 20210301120002L, 4));
+
+        List<MockTopN> records = buffer.read();
+        Assert.assertEquals(5, records.size());
+        Assert.assertEquals(
+            "[5, 7, 9]",
+            records.stream()
+                   .filter(record -> record.getServiceId().equals("service-a")
+                       && record.getTimeBucket() == 20210301120001L)
+                   .map(TopN::getLatency)
+                   .sorted()
+                   .collect(Collectors.toList())
+                   .toString()
+        );
+        Assert.assertEquals(2, dropped.getValue());
+        Assert.assertTrue(buffer.read().isEmpty());
+    }
+
+    @Test
+    public void testMergeBuffers() {
+        TopNBufferedData<MockTopN> shard1 = new TopNBufferedData<>(2, null);
+        TopNBufferedData<MockTopN> shard2 = new TopNBufferedData<>(2, null);
+        shard1.accept(new MockTopN("service-a", 20210301120001L, 1));
+        shard1.accept(new MockTopN("service-a", 20210301120002L, 8));
+        shard2.accept(new MockTopN("service-a", 20210301120003L, 6));
+        shard2.accept(new MockTopN("service-a", 20210301120004L, 3));
+
+        TopNBufferedData<MockTopN> merged = new TopNBufferedData<>(2, null);
+        shard1.read().forEach(merged::accept);
+        shard2.read().forEach(merged::accept);
+        Assert.assertEquals(
+            "[6, 8]",
+            merged.read().stream().map(TopN::getLatency).sorted().collect(Collectors.toList()).toString()
+        );
+    }
+
+    private static class MockTopN extends TopN {
+        private MockTopN(String serviceId, long timeBucket, long latency) {
+            setServiceId(serviceId);
+            setTimeBucket(timeBucket);
+            setLatency(latency);
+        }
+
+        @Override
+        public String id() {
+            return getServiceId() + "_" + getTimeBucket() + "_" + getLatency();
+        }
+    }
+}
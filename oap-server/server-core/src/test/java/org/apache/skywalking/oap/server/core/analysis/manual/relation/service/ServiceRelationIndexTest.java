@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.manual.relation.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.IDManager;
+import org.apache.skywalking.oap.server.core.query.DurationUtils;
+import org.apache.skywalking.oap.server.core.query.enumeration.Step;
+import org.apache.skywalking.oap.server.core.query.type.Call;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.source.DetectPoint;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ServiceRelationIndexTest {
+    private static final String A_TO_B = relationId("A", "B");
+    private static final String B_TO_C = relationId("B", "C");
+
+    private long now;
+    private List<RemoteClient> aggregators;
+
+    @Before
+    public void setUp() {
+        now = DurationUtils.INSTANCE.startTimeToTimestamp(Step.MINUTE, "2021-03-01 1200") + 30_000;
+        aggregators = Arrays.asList(client("oap-1", true), client("oap-2", false));
+    }
+
+    @Test
+    public void testLoadCoveredMinutes() {
+        ServiceRelationIndex index = new ServiceRelationIndex(60, () -> aggregators, () -> now);
+        index.add(202103011202L, A_TO_B, 1, DetectPoint.SERVER);
+        index.add(202103011203L, A_TO_B, 1, DetectPoint.SERVER);
+        index.add(202103011203L, A_TO_B, 2, DetectPoint.CLIENT);
+        index.add(202103011204L, B_TO_C, 3, DetectPoint.SERVER);
+
+        List<Call.CallDetail> serverSide = index.load(202103011203L, 202103011205L, DetectPoint.SERVER);
+        Assert.assertEquals(2, serverSide.size());
+        Call.CallDetail aToB = serverSide.stream().filter(call -> A_TO_B.equals(call.getId())).findFirst().get();
+        Assert.assertEquals(IDManager.ServiceID.buildId("A", true), aToB.getSource());
+        Assert.assertEquals(IDManager.ServiceID.buildId("B", true), aToB.getTarget());
+        Assert.assertEquals(1, aToB.getComponentId().intValue());
+        Assert.assertEquals(DetectPoint.SERVER, aToB.getDetectPoint());
+
+        List<Call.CallDetail> clientSide = index.load(202103011203L, 202103011205L, DetectPoint.CLIENT);
+        Assert.assertEquals(1, clientSide.size());
+        Assert.assertEquals(2, clientSide.get(0).getComponentId().intValue());
+
+        // The other aggregators may not replicate the relations of the next minute yet.
+        Assert.assertNull(index.load(202103011201L, 202103011205L, DetectPoint.SERVER));
+    }
+
+    @Test
+    public void testAddReturnsNewRelation() {
+        ServiceRelationIndex index = new ServiceRelationIndex(60, () -> aggregators, () -> now);
+        Assert.assertTrue(index.add(202103011202L, A_TO_B, 1, DetectPoint.SERVER));
+        Assert.assertFalse(index.add(202103011202L, A_TO_B, 1, DetectPoint.SERVER));
+        Assert.assertTrue(index.add(202103011202L, A_TO_B, 1, DetectPoint.CLIENT));
+        Assert.assertTrue(index.add(202103011203L, A_TO_B, 1, DetectPoint.SERVER));
+    }
+
+    @Test
+    public void testLoadHoursAndDays() {
+        ServiceRelationIndex index = new ServiceRelationIndex(24 * 60, () -> aggregators, () -> now);
+        index.add(202103011203L, A_TO_B, 1, DetectPoint.SERVER);
+        now += 2 * 3600_000;
+        index.add(202103011305L, B_TO_C, 1, DetectPoint.SERVER);
+        index.add(202103011401L, A_TO_B, 1, DetectPoint.SERVER);
+
+        Assert.assertNull(index.load(2021030112L, 2021030113L, DetectPoint.SERVER));
+        Assert.assertEquals(
+            B_TO_C, index.load(2021030113L, 2021030113L, DetectPoint.SERVER).get(0).getId());
+        Assert.assertEquals(2, index.load(2021030113L, 2021030114L, DetectPoint.SERVER).size());
+        Assert.assertNull(index.load(20210301L, 20210301L, DetectPoint.SERVER));
+        Assert.assertEquals(0, index.load(2021030113L, 2021030114L, DetectPoint.CLIENT).size());
+    }
+
+    @Test
+    public void testRetention() {
+        ServiceRelationIndex index = new ServiceRelationIndex(10, () -> aggregators, () -> now);
+        index.add(202103011203L, A_TO_B, 1, DetectPoint.SERVER);
+        now += 20 * 60_000;
+        index.add(202103011203L, B_TO_C, 1, DetectPoint.SERVER);
+        index.add(202103011215L, B_TO_C, 1, DetectPoint.SERVER);
+
+        Assert.assertNull(index.load(202103011203L, 202103011220L, DetectPoint.SERVER));
+        List<Call.CallDetail> calls = index.load(202103011211L, 202103011220L, DetectPoint.SERVER);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(B_TO_C, calls.get(0).getId());
+    }
+
+    @Test
+    public void testNotAggregator() {
+        ServiceRelationIndex index = new ServiceRelationIndex(60, () -> aggregators, () -> now);
+        index.add(202103011203L, A_TO_B, 1, DetectPoint.SERVER);
+
+        aggregators = Collections.singletonList(client("oap-2", false));
+        Assert.assertFalse(index.add(202103011204L, B_TO_C, 1, DetectPoint.SERVER));
+        Assert.assertNull(index.load(202103011203L, 202103011205L, DetectPoint.SERVER));
+
+        aggregators = Arrays.asList(client("oap-1", true), client("oap-2", false));
+        Assert.assertEquals(0, index.load(202103011203L, 202103011205L, DetectPoint.SERVER).size());
+        now += 5 * 60_000;
+        index.add(202103011207L, B_TO_C, 1, DetectPoint.SERVER);
+        List<Call.CallDetail> calls = index.load(202103011207L, 202103011207L, DetectPoint.SERVER);
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(B_TO_C, calls.get(0).getId());
+    }
+
+    @Test
+    public void testClusterChanged() {
+        ServiceRelationIndex index = new ServiceRelationIndex(60, () -> aggregators, () -> now);
+        index.add(202103011203L, A_TO_B, 1, DetectPoint.SERVER);
+        now += 5 * 60_000;
+        Assert.assertEquals(1, index.load(202103011203L, 202103011205L, DetectPoint.SERVER).size());
+
+        aggregators = Arrays.asList(client("oap-1", true), client("oap-3", false));
+        Assert.assertNull(index.load(202103011203L, 202103011205L, DetectPoint.SERVER));
+        index.add(202103011207L, B_TO_C, 1, DetectPoint.SERVER);
+        Assert.assertNull(index.load(202103011206L, 202103011207L, DetectPoint.SERVER));
+        Assert.assertEquals(1, index.load(202103011207L, 202103011207L, DetectPoint.SERVER).size());
+    }
+
+    @Test
+    public void testDisabled() {
+        ServiceRelationIndex index = new ServiceRelationIndex(0, () -> aggregators, () -> now);
+        index.add(202103011203L, A_TO_B, 1, DetectPoint.SERVER);
+        Assert.assertNull(index.load(202103011203L, 202103011205L, DetectPoint.SERVER));
+    }
+
+    private static RemoteClient client(String host, boolean isSelf) {
+        RemoteClient client = mock(RemoteClient.class);
+        when(client.getAddress()).thenReturn(new Address(host, 11800, isSelf));
+        return client;
+    }
+
+    private static String relationId(String source, String dest) {
+        return IDManager.ServiceID.buildRelationId(new IDManager.ServiceID.ServiceRelationDefine(
+            IDManager.ServiceID.buildId(source, true), IDManager.ServiceID.buildId(dest, true)));
+    }
+}
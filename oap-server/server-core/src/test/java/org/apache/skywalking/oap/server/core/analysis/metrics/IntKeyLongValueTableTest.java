@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IntKeyLongValueTableTest {
+
+    private IntKeyLongValueTable table;
+
+    @Before
+    public void init() {
+        table = new IntKeyLongValueTable(2);
+        table.valueAccumulation(5, 500L);
+        table.valueAccumulation(6, 600L);
+        table.valueAccumulation(1, 100L);
+        table.valueAccumulation(2, 200L);
+        table.valueAccumulation(7, 700L);
+    }
+
+    @Test
+    public void toStorageData() {
+        Assert.assertEquals("1,100|2,200|5,500|6,600|7,700", table.toStorageData());
+    }
+
+    @Test
+    public void toObject() {
+        IntKeyLongValueTable table = new IntKeyLongValueTable("6,600|1,100|7,700|2,200|5,500");
+
+        Assert.assertEquals(this.table, table);
+        Assert.assertEquals(0, table.get(3));
+        Assert.assertEquals(2100, table.sumOfValues());
+    }
+
+    @Test
+    public void compatibleWithDataTable() {
+        DataTable dataTable = new DataTable(table.toStorageData());
+        Assert.assertEquals(500, dataTable.get("5").longValue());
+
+        Assert.assertEquals(table, new IntKeyLongValueTable(dataTable.toStorageData()));
+    }
+
+    @Test
+    public void append() {
+        IntKeyLongValueTable another = new IntKeyLongValueTable();
+        another.valueAccumulation(3, 300L);
+        another.valueAccumulation(7, 1L);
+        table.append(another);
+
+        Assert.assertEquals("1,100|2,200|3,300|5,500|6,600|7,701", table.toStorageData());
+
+        IntKeyLongValueTable sameKeys = new IntKeyLongValueTable(table.toStorageData());
+        table.append(sameKeys);
+        Assert.assertEquals("1,200|2,400|3,600|5,1000|6,1200|7,1402", table.toStorageData());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.metrics;
+
+import org.apache.skywalking.oap.server.core.Const;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+
+/**
+ * The metrics of an entity for the tests of the caches and buffers, with the same ID, equals and hashCode
+ * implementations as the OAL generated metrics. The values are summed when combined, and the combination is abandoned
+ * when the value to combine is negative.
+ */
+public class MockMetrics extends Metrics {
+    private final String entityId;
+    private long value;
+
+    public MockMetrics(String entityId) {
+        this(entityId, 0, 0);
+    }
+
+    public MockMetrics(String entityId, long timeBucket, long value) {
+        this.entityId = entityId;
+        this.value = value;
+        setTimeBucket(timeBucket);
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean combine(Metrics metrics) {
+        final MockMetrics mockMetrics = (MockMetrics) metrics;
+        if (mockMetrics.value < 0) {
+            return false;
+        }
+        value += mockMetrics.value;
+        return true;
+    }
+
+    @Override
+    public String id() {
+        String splitJointId = String.valueOf(getTimeBucket());
+        splitJointId += Const.ID_CONNECTOR + entityId;
+        return splitJointId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MockMetrics metrics = (MockMetrics) o;
+        return entityId.equals(metrics.entityId) && getTimeBucket() == metrics.getTimeBucket();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 17;
+        result = 31 * result + entityId.hashCode();
+        result = 31 * result + (int) getTimeBucket();
+        return result;
+    }
+
+    @Override
+    public void calculate() {
+    }
+
+    @Override
+    public Metrics toHour() {
+        return null;
+    }
+
+    @Override
+    public Metrics toDay() {
+        return null;
+    }
+
+    @Override
+    public int remoteHashCode() {
+        return entityId.hashCode();
+    }
+
+    @Override
+    public void deserialize(RemoteData remoteData) {
+    }
+
+    @Override
+    public RemoteData.Builder serialize() {
+        return null;
+    }
+}
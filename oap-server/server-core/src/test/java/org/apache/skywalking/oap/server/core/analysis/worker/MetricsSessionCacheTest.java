@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.analysis.worker;
+
+import org.apache.skywalking.oap.server.core.analysis.MockCounter;
+import org.apache.skywalking.oap.server.core.analysis.metrics.MockMetrics;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsSessionCacheTest {
+    private MockCounter hit;
+    private MockCounter miss;
+    private MockCounter eviction;
+    private MockCounter expiration;
+
+    @Before
+    public void setUp() {
+        hit = new MockCounter();
+        miss = new MockCounter();
+        eviction = new MockCounter();
+        expiration = new MockCounter();
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        MetricsSessionCache cache = new MetricsSessionCache(3, hit, miss, eviction, expiration);
+        cache.put(new MockMetrics("a"));
+        cache.put(new MockMetrics("b"));
+        cache.put(new MockMetrics("c"));
+
+        Assert.assertNotNull(cache.lookup(new MockMetrics("a")));
+        cache.put(new MockMetrics("d"));
+
+        Assert.assertEquals(3, cache.size());
+        Assert.assertNull(cache.lookup(new MockMetrics("b")));
+        Assert.assertNotNull(cache.get(new MockMetrics("a")));
+        Assert.assertNotNull(cache.get(new MockMetrics("c")));
+        Assert.assertNotNull(cache.get(new MockMetrics("d")));
+
+        Assert.assertEquals(1, hit.getValue());
+        Assert.assertEquals(1, miss.getValue());
+        Assert.assertEquals(1, eviction.getValue());
+    }
+
+    @Test
+    public void testExpireAtEndOfRound() {
+        MetricsSessionCache cache = new MetricsSessionCache(10, hit, miss, eviction, expiration);
+        cache.put(new MockMetrics("a"));
+        cache.endOfRound(60000);
+        cache.put(new MockMetrics("b"));
+        cache.endOfRound(20000);
+
+        Assert.assertEquals(1, cache.size());
+        Assert.assertNull(cache.get(new MockMetrics("a")));
+        Assert.assertNotNull(cache.get(new MockMetrics("b")));
+        Assert.assertEquals(1, expiration.getValue());
+        Assert.assertEquals(0, eviction.getValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMaxSize() {
+        new MetricsSessionCache(0, hit, miss, eviction, expiration);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.query.enumeration.Order;
+import org.apache.skywalking.oap.server.core.query.enumeration.Scope;
+import org.apache.skywalking.oap.server.core.query.enumeration.Step;
+import org.apache.skywalking.oap.server.core.query.input.Duration;
+import org.apache.skywalking.oap.server.core.query.input.Entity;
+import org.apache.skywalking.oap.server.core.query.input.MetricsCondition;
+import org.apache.skywalking.oap.server.core.query.input.TopNCondition;
+import org.apache.skywalking.oap.server.core.query.type.KVInt;
+import org.apache.skywalking.oap.server.core.query.type.MetricsValues;
+import org.apache.skywalking.oap.server.core.query.type.SelectedRecord;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+    private final List<Duration> readDurations = new ArrayList<>();
+    private ModuleManagerTesting moduleManager;
+    private long now;
+
+    @Before
+    public void setUp() {
+        moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, new MetricsCreatorNoop());
+        now = DurationUtils.INSTANCE.startTimeToTimestamp(Step.MINUTE, "2021-03-01 1210");
+    }
+
+    @Test
+    public void testReadOpenTailOnly() throws IOException {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 100, 120, () -> now);
+        MetricsCondition condition = condition();
+        Duration duration = duration("2021-03-01 1200", "2021-03-01 1209");
+
+        MetricsValues first = cache.readMetricsValues(condition, duration, this::readValues);
+        assertValues(first, 1200, 1209);
+        Assert.assertEquals(1, readDurations.size());
+        Assert.assertSame(duration, readDurations.get(0));
+
+        MetricsValues second = cache.readMetricsValues(condition, duration, this::readValues);
+        assertValues(second, 1200, 1209);
+        Assert.assertEquals(2, readDurations.size());
+        // The buckets before 12:08 have been closed for 2 minutes.
+        Assert.assertEquals("2021-03-01 1208", readDurations.get(1).getStart());
+        Assert.assertEquals("2021-03-01 1209", readDurations.get(1).getEnd());
+        Assert.assertEquals(Step.MINUTE, readDurations.get(1).getStep());
+
+        now += 60_000;
+        MetricsValues third = cache.readMetricsValues(condition, duration, this::readValues);
+        assertValues(third, 1200, 1209);
+        Assert.assertEquals("2021-03-01 1208", readDurations.get(2).getStart());
+
+        MetricsValues fourth = cache.readMetricsValues(condition, duration, this::readValues);
+        assertValues(fourth, 1200, 1209);
+        Assert.assertEquals("2021-03-01 1209", readDurations.get(3).getStart());
+    }
+
+    @Test
+    public void testReadUncachedHead() throws IOException {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 100, 120, () -> now);
+        MetricsCondition condition = condition();
+
+        cache.readMetricsValues(condition, duration("2021-03-01 1205", "2021-03-01 1209"), this::readValues);
+        MetricsValues values = cache.readMetricsValues(
+            condition, duration("2021-03-01 1200", "2021-03-01 1209"), this::readValues);
+
+        assertValues(values, 1200, 1209);
+        Assert.assertEquals("2021-03-01 1200", readDurations.get(1).getStart());
+    }
+
+    @Test
+    public void testSettledTime() throws IOException {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 100, 300, () -> now);
+        MetricsCondition condition = condition();
+        Duration duration = duration("2021-03-01 1200", "2021-03-01 1209");
+
+        cache.readMetricsValues(condition, duration, this::readValues);
+        MetricsValues values = cache.readMetricsValues(condition, duration, this::readValues);
+        assertValues(values, 1200, 1209);
+        // The buckets before 12:05 have been closed for 5 minutes.
+        Assert.assertEquals("2021-03-01 1205", readDurations.get(1).getStart());
+    }
+
+    @Test
+    public void testSortMetricsOfClosedDuration() throws IOException {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 100, 120, () -> now);
+        TopNCondition condition = new TopNCondition();
+        condition.setName("service_resp_time");
+        condition.setScope(Scope.Service);
+        condition.setTopN(10);
+        condition.setOrder(Order.DES);
+
+        Duration closed = duration("2021-03-01 1200", "2021-03-01 1207");
+        Assert.assertEquals(1, cache.sortMetrics(condition, closed, this::readRecords).size());
+        Assert.assertEquals(1, cache.sortMetrics(condition, closed, this::readRecords).size());
+        Assert.assertEquals(1, readDurations.size());
+
+        Duration open = duration("2021-03-01 1200", "2021-03-01 1208");
+        cache.sortMetrics(condition, open, this::readRecords);
+        cache.sortMetrics(condition, open, this::readRecords);
+        Assert.assertEquals(3, readDurations.size());
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        QueryResultCache cache = new QueryResultCache(moduleManager, 0, 120, () -> now);
+        Duration duration = duration("2021-03-01 1200", "2021-03-01 1209");
+
+        cache.readMetricsValues(condition(), duration, this::readValues);
+        cache.readMetricsValues(condition(), duration, this::readValues);
+
+        Assert.assertEquals(2, readDurations.size());
+        Assert.assertSame(duration, readDurations.get(1));
+    }
+
+    private MetricsValues readValues(Duration duration) {
+        readDurations.add(duration);
+        MetricsValues metricsValues = new MetricsValues();
+        for (PointOfTime pointOfTime : duration.assembleDurationPoints()) {
+            KVInt kvInt = new KVInt();
+            kvInt.setId(pointOfTime.id("mock-service"));
+            kvInt.setValue(pointOfTime.getPoint() % 10000);
+            metricsValues.getValues().addKVInt(kvInt);
+        }
+        return metricsValues;
+    }
+
+    private List<SelectedRecord> readRecords(Duration duration) {
+        readDurations.add(duration);
+        SelectedRecord record = new SelectedRecord();
+        record.setId("mock-service");
+        record.setValue("100");
+        return Collections.singletonList(record);
+    }
+
+    private static void assertValues(MetricsValues metricsValues, long from, long to) {
+        List<KVInt> values = metricsValues.getValues().getValues();
+        Assert.assertEquals(to - from + 1, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Assert.assertEquals(from + i, values.get(i).getValue());
+            Assert.assertEquals("20210301" + (from + i) + "_mock-service", values.get(i).getId());
+        }
+    }
+
+    private static MetricsCondition condition() {
+        Entity entity = new Entity();
+        entity.setScope(Scope.Service);
+        entity.setServiceName("mock-service");
+        entity.setNormal(true);
+        MetricsCondition condition = new MetricsCondition();
+        condition.setName("service_resp_time");
+        condition.setEntity(entity);
+        return condition;
+    }
+
+    private static Duration duration(String start, String end) {
+        Duration duration = new Duration();
+        duration.setStart(start);
+        duration.setEnd(end);
+        duration.setStep(Step.MINUTE);
+        return duration;
+    }
+}
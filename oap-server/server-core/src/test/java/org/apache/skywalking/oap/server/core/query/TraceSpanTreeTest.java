@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.skywalking.apm.network.common.v3.KeyStringValuePair;
+import org.apache.skywalking.apm.network.language.agent.v3.RefType;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentReference;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TraceSpanTreeTest {
+    private TraceSpanTree tree;
+
+    /**
+     * segA: 0 -> 1 -> 2, and 0 -> 3
+     * segB: 0, referring to segA 1
+     * segC: 0, without the parent segment, starting earlier than segA
+     */
+    @Before
+    public void setUp() throws Exception {
+        SegmentObject segA = SegmentObject.newBuilder()
+                                          .setTraceId("trace")
+                                          .setTraceSegmentId("segA")
+                                          .setService("service")
+                                          .setServiceInstance("instance")
+                                          .addSpans(span(0, -1, 100))
+                                          .addSpans(span(1, 0, 101).addTags(
+                                              KeyStringValuePair.newBuilder().setKey("k").setValue("v")))
+                                          .addSpans(span(2, 1, 102))
+                                          .addSpans(span(3, 0, 103))
+                                          .build();
+        SegmentObject segB = SegmentObject.newBuilder()
+                                          .setTraceId("trace")
+                                          .setTraceSegmentId("segB")
+                                          .addSpans(span(0, -1, 110).addRefs(
+                                              SegmentReference.newBuilder()
+                                                              .setRefType(RefType.CrossProcess)
+                                                              .setParentTraceSegmentId("segA")
+                                                              .setParentSpanId(1)))
+                                          .build();
+        SegmentObject segC = SegmentObject.newBuilder()
+                                          .setTraceId("trace")
+                                          .setTraceSegmentId("segC")
+                                          .addSpans(span(0, -1, 50))
+                                          .build();
+        tree = TraceSpanTree.ofSegments(Arrays.asList(segB.toByteArray(), segA.toByteArray(), segC.toByteArray()));
+    }
+
+    @Test
+    public void testWholeTrace() throws Exception {
+        TraceSpanTree.Window window = tree.window(null, -1, 0, 100);
+
+        Assert.assertEquals(6, window.getTotal());
+        Assert.assertEquals(
+            Arrays.asList("segCS0", "segAS0", "segAS1", "segBS0", "segAS2", "segAS3"), ids(window.getVisits()));
+        Assert.assertEquals(
+            Arrays.asList(0, 0, 1, 2, 2, 1),
+            window.getVisits().stream().map(TraceSpanTree.Visit::getDepth).collect(Collectors.toList())
+        );
+        Assert.assertTrue(window.getVisits().get(0).getNode().isRoot());
+        Assert.assertFalse(window.getVisits().get(3).getNode().isRoot());
+
+        SpanObject parsed = window.getVisits().get(2).getNode().parse();
+        Assert.assertEquals(1, parsed.getSpanId());
+        Assert.assertEquals("v", parsed.getTags(0).getValue());
+        Assert.assertEquals("segA", window.getVisits().get(2).getNode().getSegment().getSegmentId());
+        Assert.assertEquals("service", window.getVisits().get(2).getNode().getSegment().getService());
+    }
+
+    @Test
+    public void testPagedWindow() {
+        TraceSpanTree.Window window = tree.window(null, -1, 2, 3);
+
+        Assert.assertEquals(6, window.getTotal());
+        Assert.assertEquals(Arrays.asList("segAS1", "segBS0", "segAS2"), ids(window.getVisits()));
+    }
+
+    @Test
+    public void testCollapseAndExpand() {
+        TraceSpanTree.Window window = tree.window(null, 1, 0, 100);
+
+        Assert.assertEquals(4, window.getTotal());
+        Assert.assertEquals(Arrays.asList("segCS0", "segAS0", "segAS1", "segAS3"), ids(window.getVisits()));
+        Assert.assertEquals(2, window.getVisits().get(2).getCollapsedDescendants());
+        Assert.assertEquals(0, window.getVisits().get(3).getCollapsedDescendants());
+
+        TraceSpanTree.Window subtree = tree.window(tree.find("segAS1"), -1, 0, 100);
+        Assert.assertEquals(Arrays.asList("segAS1", "segBS0", "segAS2"), ids(subtree.getVisits()));
+        Assert.assertEquals(
+            Arrays.asList(0, 1, 1),
+            subtree.getVisits().stream().map(TraceSpanTree.Visit::getDepth).collect(Collectors.toList())
+        );
+    }
+
+    private static SpanObject.Builder span(int spanId, int parentSpanId, long startTime) {
+        return SpanObject.newBuilder().setSpanId(spanId).setParentSpanId(parentSpanId).setStartTime(startTime);
+    }
+
+    private static List<String> ids(List<TraceSpanTree.Visit> visits) {
+        return visits.stream().map(visit -> visit.getNode().getSegmentSpanId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote;
+
+import io.grpc.stub.StreamObserver;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
+import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
+import org.apache.skywalking.oap.server.core.worker.RemoteHandleWorker;
+import org.apache.skywalking.oap.server.core.worker.WorkerInstancesService;
+import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
+import org.apache.skywalking.oap.server.testing.module.ModuleManagerTesting;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compare the remote_in throughput of delivering every received message to the worker one by one, with the stream
+ * data created by reflection, and {@link RemoteServiceHandler} delivering the batches grouped by the worker.
+ */
+@BenchmarkMode({Mode.Throughput})
+@State(Scope.Thread)
+public class RemoteServiceHandlerBenchmark {
+    private static final int WORKER_SIZE = 20;
+    private static final int MESSAGE_SIZE = 10000;
+
+    private final List<RemoteMessage> messages = new ArrayList<>(MESSAGE_SIZE);
+    private WorkerInstancesService workerInstancesService;
+    private RemoteServiceHandler remoteServiceHandler;
+    private HistogramMetrics remoteInHistogram;
+
+    @Setup
+    public void setup() {
+        ModuleManagerTesting moduleManager = new ModuleManagerTesting();
+        ModuleDefineTesting moduleDefine = new ModuleDefineTesting();
+        moduleManager.put(CoreModule.NAME, moduleDefine);
+        workerInstancesService = new WorkerInstancesService();
+        moduleDefine.provider().registerServiceImplementation(IWorkerInstanceGetter.class, workerInstancesService);
+
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
+            @Override
+            public void inc() {
+            }
+
+            @Override
+            public void inc(double value) {
+            }
+        });
+        remoteInHistogram = new HistogramMetrics() {
+            @Override
+            public void observe(double value) {
+            }
+        };
+        when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(remoteInHistogram);
+        ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
+        moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
+        telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+
+        for (int i = 0; i < WORKER_SIZE; i++) {
+            workerInstancesService.put("worker-" + i, new CountingWorker(moduleManager), EndpointData.class);
+        }
+        for (int i = 0; i < MESSAGE_SIZE; i++) {
+            messages.add(RemoteMessage.newBuilder()
+                                      .setNextWorkerName("worker-" + i % WORKER_SIZE)
+                                      .setRemoteData(RemoteData.newBuilder()
+                                                               .addDataStrings("mock-endpoint-" + i)
+                                                               .addDataLongs(202103011200L)
+                                                               .addDataLongs(i))
+                                      .build());
+        }
+        remoteServiceHandler = new RemoteServiceHandler(moduleManager);
+    }
+
+    /**
+     * The previous receiving, the stream data are created by reflection and delivered one by one, every message is
+     * timed.
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void testPerMessage(Blackhole blackhole) throws Exception {
+        for (RemoteMessage message : messages) {
+            HistogramMetrics.Timer timer = remoteInHistogram.createTimer();
+            try {
+                RemoteHandleWorker handleWorker = workerInstancesService.get(message.getNextWorkerName());
+                StreamData streamData = handleWorker.getStreamDataClass().newInstance();
+                streamData.deserialize(message.getRemoteData());
+                handleWorker.getWorker().in(streamData);
+            } finally {
+                timer.finish();
+            }
+        }
+        blackhole.consume(workerInstancesService);
+    }
+
+    @Benchmark
+    public void testBatched(Blackhole blackhole) {
+        StreamObserver<RemoteMessage> observer = remoteServiceHandler.call(new StreamObserver<Empty>() {
+            @Override
+            public void onNext(Empty empty) {
+                blackhole.consume(empty);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        for (RemoteMessage message : messages) {
+            observer.onNext(message);
+        }
+        observer.onCompleted();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(RemoteServiceHandlerBenchmark.class.getName())
+                                          .addProfiler(GCProfiler.class)
+                                          .jvmArgsAppend("-Xmx512m", "-Xms512m")
+                                          .forks(1)
+                                          .build();
+        new Runner(opt).run();
+    }
+
+    public static class EndpointData extends StreamData {
+        private String entityId;
+        private long timeBucket;
+        private long value;
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+            entityId = remoteData.getDataStrings(0);
+            timeBucket = remoteData.getDataLongs(0);
+            value = remoteData.getDataLongs(1);
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+
+    /**
+     * The worker of the L2 aggregation, which puts the stream data into the queue. Here the data are only counted.
+     */
+    private static class CountingWorker extends AbstractWorker<EndpointData> {
+        private long count;
+        private long sum;
+
+        private CountingWorker(ModuleManagerTesting moduleManager) {
+            super(moduleManager);
+        }
+
+        @Override
+        public void in(EndpointData data) {
+            count++;
+            sum += data.value;
+        }
+
+        @Override
+        public void in(List<EndpointData> inputs) {
+            count += inputs.size();
+            for (EndpointData data : inputs) {
+                sum += data.value;
+            }
+        }
+    }
+
+    /*
+        Environment:
+
+        # JMH version: 1.21
+        # VM version: JDK 1.8.0_392, OpenJDK 64-Bit Server VM, 25.392-b08
+        # VM options: -Xmx512m -Xms512m
+        # Warmup: 3 iterations, 3 s each
+        # Measurement: 5 iterations, 3 s each
+        # Threads: 1 thread, will synchronize iterations
+        # Benchmark mode: Throughput, ops/time
+
+        Benchmark                                                        Mode  Cnt       Score      Error  Units
+        RemoteServiceHandlerBenchmark.testBatched                       thrpt    5    1254.318 ±  126.343  ops/s
+        RemoteServiceHandlerBenchmark.testBatched:·gc.alloc.rate.norm   thrpt    5  495280.116 ±    0.019   B/op
+        RemoteServiceHandlerBenchmark.testPerMessage                    thrpt    5     530.212 ±   95.889  ops/s
+        RemoteServiceHandlerBenchmark.testPerMessage:·gc.alloc.rate.norm thrpt   5  720000.305 ±    0.260   B/op
+
+        One op receives 10,000 messages for 20 workers. Most of the saving comes from reading the clock once per batch
+        rather than twice per message, and from creating the stream data without reflection.
+     */
+}
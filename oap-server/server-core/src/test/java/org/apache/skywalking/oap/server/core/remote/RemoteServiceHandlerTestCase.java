@@ -23,6 +23,11 @@ import io.grpc.inprocess.InProcessServerBuilder;
 import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcCleanupRule;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.apache.skywalking.oap.server.core.CoreModule;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
@@ -60,6 +65,58 @@ public class RemoteServiceHandlerTestCase {
         final String testWorkerId = "mock-worker";
 
         ModuleManagerTesting moduleManager = new ModuleManagerTesting();
+        TestWorker worker = new TestWorker(moduleManager);
+        StreamObserver<RemoteMessage> streamObserver = startCall(moduleManager, testWorkerId, worker, null);
+
+        streamObserver.onNext(buildRemoteMessage(testWorkerId));
+        streamObserver.onCompleted();
+    }
+
+    @Test
+    public void batchTest() throws Exception {
+        final String testWorkerId = "mock-worker";
+
+        ModuleManagerTesting moduleManager = new ModuleManagerTesting();
+        BatchTestWorker worker = new BatchTestWorker(moduleManager);
+        CountDownLatch completed = new CountDownLatch(1);
+        StreamObserver<RemoteMessage> streamObserver = startCall(moduleManager, testWorkerId, worker, completed);
+
+        for (int i = 0; i < 3; i++) {
+            streamObserver.onNext(buildRemoteMessage(testWorkerId));
+        }
+        Assert.assertTrue(worker.batches.isEmpty());
+
+        streamObserver.onCompleted();
+        Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, worker.batches.size());
+        Assert.assertEquals(3, worker.batches.get(0).size());
+    }
+
+    @Test
+    public void flushIdleStreamTest() throws Exception {
+        final String testWorkerId = "mock-worker";
+
+        ModuleManagerTesting moduleManager = new ModuleManagerTesting();
+        BatchTestWorker worker = new BatchTestWorker(moduleManager);
+        StreamObserver<RemoteMessage> streamObserver = startCall(moduleManager, testWorkerId, worker, null);
+
+        for (int i = 0; i < 3; i++) {
+            streamObserver.onNext(buildRemoteMessage(testWorkerId));
+        }
+
+        // The stream is kept open, the batch is flushed after the max delay.
+        for (int i = 0; i < 50 && worker.batches.isEmpty(); i++) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals(1, worker.batches.size());
+        Assert.assertEquals(3, worker.batches.get(0).size());
+        streamObserver.onCompleted();
+    }
+
+    private StreamObserver<RemoteMessage> startCall(ModuleManagerTesting moduleManager,
+                                                    String testWorkerId,
+                                                    AbstractWorker worker,
+                                                    CountDownLatch completed) throws DuplicateProviderException, ProviderNotFoundException, IOException {
         ModuleDefineTesting moduleDefine = new ModuleDefineTesting();
         moduleManager.put(CoreModule.NAME, moduleDefine);
 
@@ -67,7 +124,6 @@ public class RemoteServiceHandlerTestCase {
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceGetter.class, workerInstancesService);
         moduleDefine.provider().registerServiceImplementation(IWorkerInstanceSetter.class, workerInstancesService);
 
-        TestWorker worker = new TestWorker(moduleManager);
         workerInstancesService.put(testWorkerId, worker, TestRemoteData.class);
 
         String serverName = InProcessServerBuilder.generateName();
@@ -110,7 +166,7 @@ public class RemoteServiceHandlerTestCase {
             .directExecutor()
             .build()));
 
-        StreamObserver<RemoteMessage> streamObserver = remoteServiceStub.call(new StreamObserver<Empty>() {
+        return remoteServiceStub.call(new StreamObserver<Empty>() {
             @Override
             public void onNext(Empty empty) {
 
@@ -123,10 +179,14 @@ public class RemoteServiceHandlerTestCase {
 
             @Override
             public void onCompleted() {
-
+                if (completed != null) {
+                    completed.countDown();
+                }
             }
         });
+    }
 
+    private RemoteMessage buildRemoteMessage(String testWorkerId) {
         RemoteMessage.Builder remoteMessage = RemoteMessage.newBuilder();
         remoteMessage.setNextWorkerName(testWorkerId);
 
@@ -137,9 +197,7 @@ public class RemoteServiceHandlerTestCase {
         remoteData.addDataLongs(10);
         remoteData.addDataLongs(20);
         remoteMessage.setRemoteData(remoteData);
-
-        streamObserver.onNext(remoteMessage.build());
-        streamObserver.onCompleted();
+        return remoteMessage.build();
     }
 
     static class TestRemoteData extends StreamData {
@@ -189,4 +247,22 @@ public class RemoteServiceHandlerTestCase {
             Assert.assertEquals(20, data.long2);
         }
     }
+
+    static class BatchTestWorker extends AbstractWorker {
+        private final List<List> batches = Collections.synchronizedList(new ArrayList<>());
+
+        public BatchTestWorker(ModuleDefineHolder moduleDefineHolder) {
+            super(moduleDefineHolder);
+        }
+
+        @Override
+        public void in(Object o) {
+            Assert.fail("The remote data should be received in batch.");
+        }
+
+        @Override
+        public void in(List inputs) {
+            batches.add(inputs);
+        }
+    }
 }
@@ -18,12 +18,25 @@
 
 package org.apache.skywalking.oap.server.core.remote.client;
 
+import io.grpc.stub.StreamObserver;
 import io.grpc.testing.GrpcServerRule;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.skywalking.oap.server.core.CoreModule;
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.remote.RemoteProtocolVersion;
 import org.apache.skywalking.oap.server.core.remote.RemoteServiceHandler;
+import org.apache.skywalking.oap.server.core.remote.data.PackedObjects;
 import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.Empty;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeRequest;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.HandshakeResponse;
 import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteMessage;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteServiceGrpc;
 import org.apache.skywalking.oap.server.core.worker.AbstractWorker;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceGetter;
 import org.apache.skywalking.oap.server.core.worker.IWorkerInstanceSetter;
@@ -31,6 +44,7 @@ import org.apache.skywalking.oap.server.core.worker.WorkerInstancesService;
 import org.apache.skywalking.oap.server.library.module.ModuleDefineHolder;
 import org.apache.skywalking.oap.server.telemetry.TelemetryModule;
 import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.GaugeMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
 import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
 import org.apache.skywalking.oap.server.testing.module.ModuleDefineTesting;
@@ -69,6 +83,99 @@ public class GRPCRemoteClientTestCase {
 
     @Test
     public void testPush() throws InterruptedException {
+        mockTelemetry();
+
+        grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
+
+        Address address = new Address("not-important", 11, false);
+        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null));
+        remoteClient.connect();
+
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+
+        for (int i = 0; i < 12; i++) {
+            remoteClient.push(nextWorkerName, new TestStreamData());
+        }
+
+        TimeUnit.SECONDS.sleep(2);
+    }
+
+    @Test
+    public void testPushInCompactProtocol() throws InterruptedException {
+        mockTelemetry();
+
+        RecordingRemoteService remoteService = new RecordingRemoteService(2, true);
+        grpcServerRule.getServiceRegistry().addService(remoteService);
+
+        GRPCRemoteClient remoteClient = spy(
+            new GRPCRemoteClient(
+                moduleManager, new Address("not-important", 11, false), 1, 10, 10, null, true, 10, false));
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        remoteClient.connect();
+
+        remoteClient.push(nextWorkerName, new PackedStreamData());
+        remoteClient.push("unknown-worker", new PackedStreamData());
+
+        Assert.assertTrue(remoteService.latch.await(10, TimeUnit.SECONDS));
+        RemoteMessage first = remoteService.messages.get(0);
+        Assert.assertEquals(7, first.getNextWorkerId());
+        Assert.assertEquals("", first.getNextWorkerName());
+        Assert.assertEquals(99, first.getWorkerDictionaryId());
+        Assert.assertEquals(1, first.getRemoteData().getDataObjectBytesCount());
+        // The worker not in the dictionary is sent by name.
+        RemoteMessage second = remoteService.messages.get(1);
+        Assert.assertEquals(0, second.getNextWorkerId());
+        Assert.assertEquals("unknown-worker", second.getNextWorkerName());
+    }
+
+    @Test
+    public void testPushInLegacyProtocol() throws InterruptedException {
+        mockTelemetry();
+
+        RecordingRemoteService remoteService = new RecordingRemoteService(1, false);
+        grpcServerRule.getServiceRegistry().addService(remoteService);
+
+        GRPCRemoteClient remoteClient = spy(
+            new GRPCRemoteClient(moduleManager, new Address("not-important", 11, false), 1, 10, 10, null));
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        remoteClient.connect();
+
+        remoteClient.push(nextWorkerName, new PackedStreamData());
+
+        Assert.assertTrue(remoteService.latch.await(10, TimeUnit.SECONDS));
+        RemoteMessage message = remoteService.messages.get(0);
+        Assert.assertEquals(nextWorkerName, message.getNextWorkerName());
+        Assert.assertEquals(0, message.getNextWorkerId());
+        Assert.assertEquals(0, message.getRemoteData().getDataObjectBytesCount());
+        Assert.assertEquals("a,1", message.getRemoteData().getDataObjectStrings(0));
+    }
+
+    @Test
+    public void testPushInLongLivedStream() throws InterruptedException {
+        mockTelemetry();
+
+        RecordingRemoteService remoteService = new RecordingRemoteService(2, true);
+        grpcServerRule.getServiceRegistry().addService(remoteService);
+
+        GRPCRemoteClient remoteClient = spy(
+            new GRPCRemoteClient(
+                moduleManager, new Address("not-important", 11, false), 1, 10, 10, null, false, 1, true));
+        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        remoteClient.connect();
+
+        remoteClient.push(nextWorkerName, new PackedStreamData());
+        TimeUnit.MILLISECONDS.sleep(500);
+        remoteClient.push(nextWorkerName, new PackedStreamData());
+
+        Assert.assertTrue(remoteService.latch.await(10, TimeUnit.SECONDS));
+        // Both batches are sent through the same stream, only the first message carries the dictionary id.
+        Assert.assertEquals(1, remoteService.streams.get());
+        Assert.assertEquals(99, remoteService.messages.get(0).getWorkerDictionaryId());
+        Assert.assertEquals(0, remoteService.messages.get(1).getWorkerDictionaryId());
+        Assert.assertEquals(7, remoteService.messages.get(1).getNextWorkerId());
+    }
+
+    private void mockTelemetry() {
         MetricsCreator metricsCreator = mock(MetricsCreator.class);
         when(metricsCreator.createCounter(any(), any(), any(), any())).thenReturn(new CounterMetrics() {
             @Override
@@ -82,6 +189,7 @@ public class GRPCRemoteClientTestCase {
             }
         });
 
+        when(metricsCreator.createGauge(any(), any(), any(), any())).thenReturn(mock(GaugeMetrics.class));
         when(metricsCreator.createHistogramMetric(any(), any(), any(), any())).thenReturn(new HistogramMetrics() {
             @Override
             public Timer createTimer() {
@@ -97,20 +205,77 @@ public class GRPCRemoteClientTestCase {
         ModuleDefineTesting telemetryModuleDefine = new ModuleDefineTesting();
         moduleManager.put(TelemetryModule.NAME, telemetryModuleDefine);
         telemetryModuleDefine.provider().registerServiceImplementation(MetricsCreator.class, metricsCreator);
+    }
 
-        grpcServerRule.getServiceRegistry().addService(new RemoteServiceHandler(moduleManager));
+    /**
+     * Record the received messages, the handshake is not implemented as the receivers of the old versions, unless
+     * supported.
+     */
+    private static class RecordingRemoteService extends RemoteServiceGrpc.RemoteServiceImplBase {
+        private final List<RemoteMessage> messages = new CopyOnWriteArrayList<>();
+        private final AtomicInteger streams = new AtomicInteger();
+        private final CountDownLatch latch;
+        private final boolean handshakeSupported;
 
-        Address address = new Address("not-important", 11, false);
-        GRPCRemoteClient remoteClient = spy(new GRPCRemoteClient(moduleManager, address, 1, 10, 10, null));
-        remoteClient.connect();
+        private RecordingRemoteService(int expectedMessages, boolean handshakeSupported) {
+            this.latch = new CountDownLatch(expectedMessages);
+            this.handshakeSupported = handshakeSupported;
+        }
 
-        doReturn(grpcServerRule.getChannel()).when(remoteClient).getChannel();
+        @Override
+        public void handshake(HandshakeRequest request, StreamObserver<HandshakeResponse> responseObserver) {
+            if (!handshakeSupported) {
+                super.handshake(request, responseObserver);
+                return;
+            }
+            responseObserver.onNext(HandshakeResponse.newBuilder()
+                                                     .setProtocolVersion(RemoteProtocolVersion.COMPACT)
+                                                     .setWorkerDictionaryId(99)
+                                                     .putWorkerIds("mock-worker", 7)
+                                                     .build());
+            responseObserver.onCompleted();
+        }
 
-        for (int i = 0; i < 12; i++) {
-            remoteClient.push(nextWorkerName, new TestStreamData());
+        @Override
+        public StreamObserver<RemoteMessage> call(StreamObserver<Empty> responseObserver) {
+            streams.incrementAndGet();
+            return new StreamObserver<RemoteMessage>() {
+                @Override
+                public void onNext(RemoteMessage message) {
+                    messages.add(message);
+                    latch.countDown();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    responseObserver.onNext(Empty.getDefaultInstance());
+                    responseObserver.onCompleted();
+                }
+            };
         }
+    }
 
-        TimeUnit.SECONDS.sleep(2);
+    public static class PackedStreamData extends StreamData {
+
+        @Override
+        public int remoteHashCode() {
+            return 0;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            DataTable table = new DataTable();
+            table.put("a", 1L);
+            return RemoteData.newBuilder().addDataObjectBytes(PackedObjects.pack(table));
+        }
     }
 
     public static class TestStreamData extends StreamData {
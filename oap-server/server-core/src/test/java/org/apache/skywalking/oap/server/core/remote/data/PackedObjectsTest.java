@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.data;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.DataTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntKeyLongValueTable;
+import org.apache.skywalking.oap.server.core.analysis.metrics.IntList;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PackedObjectsTest {
+
+    @Test
+    public void testDataTable() {
+        DataTable table = new DataTable();
+        table.put("100", 5L);
+        table.put("200", -3L);
+        table.put("key", Long.MAX_VALUE);
+
+        Assert.assertEquals(table, PackedObjects.unpack(PackedObjects.pack(table)));
+        Assert.assertTrue(PackedObjects.pack(table).size() < table.toStorageData().length());
+    }
+
+    @Test
+    public void testIntList() {
+        IntList list = new IntList(3);
+        list.add(50);
+        list.add(-1);
+        list.add(99);
+
+        Assert.assertEquals(list, PackedObjects.unpack(PackedObjects.pack(list)));
+        Assert.assertEquals(new IntList(0), PackedObjects.unpack(PackedObjects.pack(new IntList(0))));
+    }
+
+    @Test
+    public void testIntKeyLongValueTable() {
+        IntKeyLongValueTable table = new IntKeyLongValueTable();
+        table.put(0, 10L);
+        table.put(100, 20L);
+        table.put(-5, 30L);
+
+        Assert.assertEquals(table, PackedObjects.unpack(PackedObjects.pack(table)));
+    }
+
+    @Test
+    public void testToLegacy() {
+        DataTable table = new DataTable();
+        table.put("1", 1L);
+        IntList list = new IntList(1);
+        list.add(50);
+
+        RemoteData packed = RemoteData.newBuilder()
+                                      .addDataLongs(10)
+                                      .addDataObjectBytes(PackedObjects.pack(table))
+                                      .addDataObjectBytes(PackedObjects.pack(list))
+                                      .build();
+        RemoteData legacy = PackedObjects.toLegacy(packed);
+
+        Assert.assertEquals(0, legacy.getDataObjectBytesCount());
+        Assert.assertEquals(10, legacy.getDataLongs(0));
+        Assert.assertEquals(table.toStorageData(), legacy.getDataObjectStrings(0));
+        Assert.assertEquals(list.toStorageData(), legacy.getDataObjectStrings(1));
+
+        Assert.assertEquals(table, PackedObjects.dataTable(packed, 0));
+        Assert.assertEquals(list, PackedObjects.intList(packed, 1));
+        Assert.assertEquals(table, PackedObjects.dataTable(legacy, 0));
+        Assert.assertEquals(list, PackedObjects.intList(legacy, 1));
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.remote.selector;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.remote.client.RemoteClient;
+import org.apache.skywalking.oap.server.core.remote.data.StreamData;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConsistentHashSelectorTest {
+    private static final int KEYS = 100_000;
+
+    @Test
+    public void testSameRingOnDifferentNodes() {
+        List<RemoteClient> clients = clients(1, 2, 3);
+        ConsistentHashSelector selector = new ConsistentHashSelector(100, fraction -> {
+        });
+        ConsistentHashSelector another = new ConsistentHashSelector(100, fraction -> {
+        });
+        // The client list of another OAP node is a different instance with the same addresses.
+        List<RemoteClient> anotherClients = clients(1, 2, 3);
+
+        for (int i = 0; i < KEYS; i++) {
+            StreamData data = data(i);
+            Assert.assertEquals(
+                selector.select(clients, data).getAddress(), another.select(anotherClients, data).getAddress());
+        }
+    }
+
+    @Test
+    public void testBalance() {
+        List<RemoteClient> clients = clients(1, 2, 3, 4);
+        ConsistentHashSelector selector = new ConsistentHashSelector(200, fraction -> {
+        });
+
+        int[] counts = new int[clients.size()];
+        for (int i = 0; i < KEYS; i++) {
+            counts[clients.indexOf(selector.select(clients, data(("service" + i).hashCode())))]++;
+        }
+        for (int count : counts) {
+            Assert.assertTrue(String.valueOf(count), Math.abs(count - KEYS / 4) < KEYS / 4 * 0.2);
+        }
+    }
+
+    @Test
+    public void testMinimalRemapWhenNodeJoins() {
+        List<Double> fractions = new ArrayList<>();
+        ConsistentHashSelector selector = new ConsistentHashSelector(200, fractions::add);
+        List<RemoteClient> before = clients(1, 2, 3);
+        List<RemoteClient> after = clients(1, 2, 3, 4);
+
+        Address[] owners = new Address[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            owners[i] = selector.select(before, data(i)).getAddress();
+        }
+        Assert.assertTrue(fractions.isEmpty());
+
+        int remapped = 0;
+        for (int i = 0; i < KEYS; i++) {
+            Address owner = selector.select(after, data(i)).getAddress();
+            if (!owner.equals(owners[i])) {
+                // Only the keys moving to the new node are remapped.
+                Assert.assertEquals("host4", owner.getHost());
+                remapped++;
+            }
+        }
+
+        Assert.assertEquals(1, fractions.size());
+        double fraction = fractions.get(0);
+        Assert.assertTrue(String.valueOf(fraction), fraction > 0.15 && fraction < 0.35);
+        Assert.assertEquals(fraction, (double) remapped / KEYS, 0.01);
+    }
+
+    @Test
+    public void testMinimalRemapWhenNodeLeaves() {
+        List<Double> fractions = new ArrayList<>();
+        ConsistentHashSelector selector = new ConsistentHashSelector(200, fractions::add);
+        List<RemoteClient> before = clients(1, 2, 3, 4);
+        List<RemoteClient> after = clients(1, 2, 4);
+
+        Address[] owners = new Address[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            owners[i] = selector.select(before, data(i)).getAddress();
+        }
+        for (int i = 0; i < KEYS; i++) {
+            Address owner = selector.select(after, data(i)).getAddress();
+            if (!"host3".equals(owners[i].getHost())) {
+                Assert.assertEquals(owners[i], owner);
+            }
+        }
+
+        Assert.assertEquals(1, fractions.size());
+        Assert.assertTrue(String.valueOf(fractions.get(0)), fractions.get(0) > 0.15 && fractions.get(0) < 0.35);
+    }
+
+    @Test
+    public void testNoRemapWhenMembersUnchanged() {
+        List<Double> fractions = new ArrayList<>();
+        ConsistentHashSelector selector = new ConsistentHashSelector(100, fractions::add);
+        selector.select(clients(1, 2, 3), data(1));
+        selector.select(clients(1, 2, 3), data(1));
+
+        Assert.assertEquals(1, fractions.size());
+        Assert.assertEquals(0, fractions.get(0), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalVirtualNodes() {
+        new ConsistentHashSelector(0, fraction -> {
+        });
+    }
+
+    private static List<RemoteClient> clients(int... ids) {
+        ImmutableList.Builder<RemoteClient> clients = ImmutableList.builder();
+        for (int id : ids) {
+            clients.add(new TestRemoteClient(new Address("host" + id, 11800, false)));
+        }
+        return clients.build();
+    }
+
+    private static StreamData data(int hashCode) {
+        return new TestStreamData(hashCode);
+    }
+
+    private static class TestRemoteClient implements RemoteClient {
+        private final Address address;
+
+        private TestRemoteClient(Address address) {
+            this.address = address;
+        }
+
+        @Override
+        public Address getAddress() {
+            return address;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void push(String nextWorkerName, StreamData streamData) {
+        }
+
+        @Override
+        public int compareTo(RemoteClient o) {
+            return address.compareTo(o.getAddress());
+        }
+    }
+
+    private static class TestStreamData extends StreamData {
+        private final int hashCode;
+
+        private TestStreamData(int hashCode) {
+            this.hashCode = hashCode;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.core.storage.ttl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.cluster.RemoteInstance;
+import org.apache.skywalking.oap.server.core.remote.client.Address;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.junit.Assert;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DataTTLKeeperTimerTest {
+    private static final String[] HOSTS = {"10.0.0.1", "10.0.0.2", "10.0.0.3"};
+
+    @Test
+    public void testSelectOneNodeForEveryKey() {
+        int[] selected = new int[HOSTS.length];
+        for (int i = 0; i < 3000; i++) {
+            int nodes = 0;
+            for (int self = 0; self < HOSTS.length; self++) {
+                if (DataTTLKeeperTimer.isSelected("model_" + i, cluster(self, HOSTS))) {
+                    selected[self]++;
+                    nodes++;
+                }
+            }
+            Assert.assertEquals(1, nodes);
+        }
+        for (int count : selected) {
+            Assert.assertTrue("Unbalanced selection " + Arrays.toString(selected), count > 800);
+        }
+    }
+
+    @Test
+    public void testOnlyKeysOfLeftNodeMove() {
+        String[] remainingHosts = {HOSTS[0], HOSTS[2]};
+        for (int i = 0; i < 3000; i++) {
+            String key = "model_" + i;
+            if (DataTTLKeeperTimer.isSelected(key, cluster(0, HOSTS))) {
+                Assert.assertTrue(DataTTLKeeperTimer.isSelected(key, cluster(0, remainingHosts)));
+            }
+            if (DataTTLKeeperTimer.isSelected(key, cluster(2, HOSTS))) {
+                Assert.assertTrue(DataTTLKeeperTimer.isSelected(key, cluster(1, remainingHosts)));
+            }
+        }
+    }
+
+    @Test
+    public void testSelectAllWithoutCluster() {
+        Assert.assertTrue(DataTTLKeeperTimer.isSelected("model", Collections.emptyList()));
+    }
+
+    @Test
+    public void testLatencyOfEveryDownsampling() {
+        MetricsCreator metricsCreator = mock(MetricsCreator.class);
+        when(metricsCreator.createHistogramMetric(anyString(), anyString(), any(), any()))
+            .thenAnswer(invocation -> mock(HistogramMetrics.class));
+        Whitebox.setInternalState(DataTTLKeeperTimer.INSTANCE, "metricsCreator", metricsCreator);
+
+        Model hour = model(DownSampling.Hour);
+        Model day = model(DownSampling.Day);
+        HistogramMetrics hourLatency = DataTTLKeeperTimer.INSTANCE.latencyOf(hour);
+        Assert.assertNotSame(hourLatency, DataTTLKeeperTimer.INSTANCE.latencyOf(day));
+        Assert.assertSame(hourLatency, DataTTLKeeperTimer.INSTANCE.latencyOf(hour));
+        verify(metricsCreator).createHistogramMetric(
+            anyString(), anyString(), any(), values("ttl_test_metrics", "hour"));
+        verify(metricsCreator).createHistogramMetric(
+            anyString(), anyString(), any(), values("ttl_test_metrics", "day"));
+        verify(metricsCreator, times(2)).createHistogramMetric(anyString(), anyString(), any(), any());
+    }
+
+    private static MetricsTag.Values values(String... values) {
+        return argThat(tagValues -> Arrays.equals(values, tagValues.getValues()));
+    }
+
+    private static Model model(DownSampling downSampling) {
+        return new Model(
+            "ttl_test_metrics", Collections.emptyList(), Collections.emptyList(), 0, downSampling, false, false, "");
+    }
+
+    /**
+     * @return the OAP nodes seen by the given node, in the reverse order for the odd node.
+     */
+    private static List<RemoteInstance> cluster(int self, String... hosts) {
+        List<RemoteInstance> instances = new ArrayList<>();
+        for (int i = 0; i < hosts.length; i++) {
+            instances.add(new RemoteInstance(new Address(hosts[i], 11800, i == self)));
+        }
+        if (self % 2 == 1) {
+            Collections.reverse(instances);
+        }
+        return instances;
+    }
+}
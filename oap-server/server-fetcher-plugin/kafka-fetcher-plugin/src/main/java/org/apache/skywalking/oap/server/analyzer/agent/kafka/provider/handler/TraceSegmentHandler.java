@@ -72,7 +72,8 @@ public class TraceSegmentHandler implements KafkaHandler {
     @Override
     public void handle(final ConsumerRecord<String, Bytes> record) {
         try {
-            SegmentObject segment = SegmentObject.parseFrom(record.value().get());
+            final byte[] rawSegment = record.value().get();
+            SegmentObject segment = SegmentObject.parseFrom(rawSegment);
             if (log.isDebugEnabled()) {
                 log.debug(
                     "Fetched a tracing segment[{}] from service instance[{}].",
@@ -83,7 +84,7 @@ public class TraceSegmentHandler implements KafkaHandler {
 
             HistogramMetrics.Timer timer = histogram.createTimer();
             try {
-                segmentParserService.send(segment);
+                segmentParserService.send(segment, rawSegment);
             } catch (Exception e) {
                 errorCounter.inc();
                 log.error(e.getMessage(), e);
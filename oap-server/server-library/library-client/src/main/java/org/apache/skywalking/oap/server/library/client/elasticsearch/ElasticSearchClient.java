@@ -536,7 +536,10 @@ public class ElasticSearchClient implements Client, HealthCheckable {
         return response.getStatusLine().getStatusCode();
     }
 
-    public void synchronousBulk(BulkRequest request) {
+    /**
+     * @return the response including the result of every item, or NULL if the whole bulk failed.
+     */
+    public BulkResponse synchronousBulk(BulkRequest request) {
         request.timeout(TimeValue.timeValueMinutes(2));
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
         request.waitForActiveShards(ActiveShardCount.ONE);
@@ -545,8 +548,10 @@ public class ElasticSearchClient implements Client, HealthCheckable {
             BulkResponse responses = client.bulk(request);
             log.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
             healthChecker.health();
+            return responses;
         } catch (Throwable t) {
             healthChecker.unHealth(t);
+            return null;
         }
     }
 
@@ -26,8 +26,17 @@ public class CustomThreadFactory implements ThreadFactory {
     private final ThreadGroup group;
     private final AtomicInteger threadNumber = new AtomicInteger(1);
     private final String namePrefix;
+    private final boolean daemon;
 
     public CustomThreadFactory(String name) {
+        this(name, false);
+    }
+
+    /**
+     * @param daemon true to create the daemon threads, which don't prevent the JVM from exiting.
+     */
+    public CustomThreadFactory(String name, boolean daemon) {
+        this.daemon = daemon;
         SecurityManager s = System.getSecurityManager();
         group = (s != null) ? s.getThreadGroup() : Thread.currentThread().getThreadGroup();
         namePrefix = name + "-" + poolNumber.getAndIncrement() + "-thread-";
@@ -36,8 +45,8 @@ public class CustomThreadFactory implements ThreadFactory {
     @Override
     public Thread newThread(Runnable r) {
         Thread t = new Thread(group, r, namePrefix + threadNumber.getAndIncrement(), 0);
-        if (t.isDaemon())
-            t.setDaemon(false);
+        if (t.isDaemon() != daemon)
+            t.setDaemon(daemon);
         if (t.getPriority() != Thread.NORM_PRIORITY)
             t.setPriority(Thread.NORM_PRIORITY);
         return t;
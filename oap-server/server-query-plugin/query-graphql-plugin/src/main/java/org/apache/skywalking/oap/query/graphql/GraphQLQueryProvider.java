@@ -97,6 +97,10 @@ public class GraphQLQueryProvider extends ModuleProvider {
                                            .resolvers(new TopNRecordsQuery(getManager()))
                                            ////////
                                            .file("query-protocol/trace.graphqls")
+                                           /*
+                                            * The paged query of the huge traces, extending the trace query protocol.
+                                            */
+                                           .file("trace-window.graphqls")
                                            .resolvers(new TraceQuery(getManager()))
                                            .file("query-protocol/alarm.graphqls")
                                            .resolvers(new AlarmQuery(getManager()))
@@ -29,6 +29,7 @@ import org.apache.skywalking.oap.server.library.module.ModuleProvider;
 import org.apache.skywalking.oap.server.library.module.ServiceNotProvidedException;
 import org.apache.skywalking.oap.server.receiver.sharing.server.SharingServerModule;
 import org.apache.skywalking.oap.server.receiver.trace.module.TraceModule;
+import org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc.RawSegmentServiceDefinition;
 import org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc.TraceSegmentReportServiceHandler;
 import org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc.TraceSegmentReportServiceHandlerCompat;
 import org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.rest.TraceSegmentReportListServletHandler;
@@ -67,8 +68,12 @@ public class TraceModuleProvider extends ModuleProvider {
                                                                 .getService(JettyHandlerRegister.class);
 
         TraceSegmentReportServiceHandler traceSegmentReportServiceHandler = new TraceSegmentReportServiceHandler(getManager());
-        grpcHandlerRegister.addHandler(traceSegmentReportServiceHandler);
-        grpcHandlerRegister.addHandler(new TraceSegmentReportServiceHandlerCompat(traceSegmentReportServiceHandler));
+        grpcHandlerRegister.addHandler(RawSegmentServiceDefinition.bind(
+            traceSegmentReportServiceHandler.bindService(), traceSegmentReportServiceHandler));
+        grpcHandlerRegister.addHandler(RawSegmentServiceDefinition.bind(
+            new TraceSegmentReportServiceHandlerCompat(traceSegmentReportServiceHandler).bindService(),
+            traceSegmentReportServiceHandler
+        ));
 
         jettyHandlerRegister.addHandler(new TraceSegmentReportListServletHandler(getManager()));
         jettyHandlerRegister.addHandler(new TraceSegmentReportSingleServletHandler(getManager()));
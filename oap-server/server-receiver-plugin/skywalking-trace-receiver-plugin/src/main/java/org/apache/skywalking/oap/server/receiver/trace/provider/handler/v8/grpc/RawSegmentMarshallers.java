@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
+
+import com.google.common.io.ByteStreams;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+
+/**
+ * The gRPC marshallers of {@link SegmentObject} and {@link SegmentCollection}, which keep the bytes of every segment
+ * from the wire, so the segment doesn't need to be serialized again before being persisted.
+ */
+final class RawSegmentMarshallers {
+    private static final int SEGMENTS_TAG =
+        SegmentCollection.SEGMENTS_FIELD_NUMBER << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    static final MethodDescriptor.Marshaller<RawSegment> SEGMENT = new MethodDescriptor.Marshaller<RawSegment>() {
+        @Override
+        public InputStream stream(final RawSegment value) {
+            return new ByteArrayInputStream(value.getBytes());
+        }
+
+        @Override
+        public RawSegment parse(final InputStream stream) {
+            try {
+                final byte[] bytes = ByteStreams.toByteArray(stream);
+                return new RawSegment(SegmentObject.parseFrom(bytes), bytes);
+            } catch (IOException e) {
+                throw invalid(e);
+            }
+        }
+    };
+
+    static final MethodDescriptor.Marshaller<List<RawSegment>> COLLECTION = new MethodDescriptor.Marshaller<List<RawSegment>>() {
+        @Override
+        public InputStream stream(final List<RawSegment> value) {
+            try {
+                final ByteString.Output output = ByteString.newOutput();
+                final CodedOutputStream codedOutput = CodedOutputStream.newInstance(output);
+                for (final RawSegment segment : value) {
+                    codedOutput.writeByteArray(SegmentCollection.SEGMENTS_FIELD_NUMBER, segment.getBytes());
+                }
+                codedOutput.flush();
+                return output.toByteString().newInput();
+            } catch (IOException e) {
+                throw invalid(e);
+            }
+        }
+
+        @Override
+        public List<RawSegment> parse(final InputStream stream) {
+            try {
+                final CodedInputStream input = CodedInputStream.newInstance(ByteStreams.toByteArray(stream));
+                final List<RawSegment> segments = new ArrayList<>();
+                int tag;
+                while ((tag = input.readTag()) != 0) {
+                    if (tag == SEGMENTS_TAG) {
+                        final byte[] bytes = input.readByteArray();
+                        segments.add(new RawSegment(SegmentObject.parseFrom(bytes), bytes));
+                    } else if (!input.skipField(tag)) {
+                        break;
+                    }
+                }
+                return segments;
+            } catch (IOException e) {
+                throw invalid(e);
+            }
+        }
+    };
+
+    private RawSegmentMarshallers() {
+    }
+
+    private static RuntimeException invalid(IOException e) {
+        return Status.INTERNAL.withDescription("Invalid protobuf byte sequence").withCause(e).asRuntimeException();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
+
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerMethodDefinition;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.ServiceDescriptor;
+import io.grpc.stub.ServerCalls;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.apm.network.common.v3.Commands;
+
+/**
+ * Rebind the {@code collect} and {@code collectInSync} methods of the trace segment report service, to receive the
+ * segments through the {@link RawSegmentMarshallers}. The other methods are bound as they are.
+ *
+ * The generated {@code bindService} is final, so the handlers are registered by the definition this builds.
+ */
+public final class RawSegmentServiceDefinition {
+    private static final String COLLECT = "collect";
+    private static final String COLLECT_IN_SYNC = "collectInSync";
+
+    private RawSegmentServiceDefinition() {
+    }
+
+    public static ServerServiceDefinition bind(final ServerServiceDefinition definition,
+                                        final TraceSegmentReportServiceHandler handler) {
+        final ServiceDescriptor descriptor = definition.getServiceDescriptor();
+        final ServiceDescriptor.Builder descriptorBuilder = ServiceDescriptor.newBuilder(descriptor.getName())
+                                                                             .setSchemaDescriptor(
+                                                                                 descriptor.getSchemaDescriptor());
+        final List<ServerMethodDefinition<?, ?>> methods = new ArrayList<>();
+        for (final ServerMethodDefinition<?, ?> method : definition.getMethods()) {
+            final MethodDescriptor<?, ?> methodDescriptor = method.getMethodDescriptor();
+            final String methodName = methodDescriptor.getFullMethodName();
+            final ServerMethodDefinition<?, ?> bound;
+            if (MethodDescriptor.generateFullMethodName(descriptor.getName(), COLLECT).equals(methodName)) {
+                bound = ServerMethodDefinition.create(
+                    methodDescriptor.toBuilder(RawSegmentMarshallers.SEGMENT, commandsMarshaller(methodDescriptor))
+                                    .build(),
+                    ServerCalls.asyncClientStreamingCall(handler::collectRaw)
+                );
+            } else if (MethodDescriptor.generateFullMethodName(descriptor.getName(), COLLECT_IN_SYNC).equals(methodName)) {
+                bound = ServerMethodDefinition.create(
+                    methodDescriptor.toBuilder(RawSegmentMarshallers.COLLECTION, commandsMarshaller(methodDescriptor))
+                                    .build(),
+                    ServerCalls.asyncUnaryCall(handler::collectRawInSync)
+                );
+            } else {
+                bound = method;
+            }
+            descriptorBuilder.addMethod(bound.getMethodDescriptor());
+            methods.add(bound);
+        }
+
+        final ServerServiceDefinition.Builder builder = ServerServiceDefinition.builder(descriptorBuilder.build());
+        methods.forEach(builder::addMethod);
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static MethodDescriptor.Marshaller<Commands> commandsMarshaller(MethodDescriptor<?, ?> methodDescriptor) {
+        return (MethodDescriptor.Marshaller<Commands>) methodDescriptor.getResponseMarshaller();
+    }
+}
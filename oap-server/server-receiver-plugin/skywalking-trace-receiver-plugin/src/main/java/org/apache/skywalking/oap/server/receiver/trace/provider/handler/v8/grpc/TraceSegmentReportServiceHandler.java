@@ -19,6 +19,7 @@
 package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
 
 import io.grpc.stub.StreamObserver;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.network.common.v3.Commands;
 import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
@@ -62,22 +63,49 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
 
     @Override
     public StreamObserver<SegmentObject> collect(StreamObserver<Commands> responseObserver) {
+        final StreamObserver<RawSegment> rawObserver = collectRaw(responseObserver);
         return new StreamObserver<SegmentObject>() {
             @Override
             public void onNext(SegmentObject segment) {
+                rawObserver.onNext(new RawSegment(segment, null));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                rawObserver.onError(throwable);
+            }
+
+            @Override
+            public void onCompleted() {
+                rawObserver.onCompleted();
+            }
+        };
+    }
+
+    @Override
+    public void collectInSync(final SegmentCollection request, final StreamObserver<Commands> responseObserver) {
+        if (log.isDebugEnabled()) {
+            log.debug("received {} segments", request.getSegmentsCount());
+        }
+
+        request.getSegmentsList().forEach(segment -> send(segment, null));
+
+        responseObserver.onNext(Commands.newBuilder().build());
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * The same as {@link #collect(StreamObserver)}, but the received segments carry their original bytes.
+     */
+    StreamObserver<RawSegment> collectRaw(StreamObserver<Commands> responseObserver) {
+        return new StreamObserver<RawSegment>() {
+            @Override
+            public void onNext(RawSegment segment) {
                 if (log.isDebugEnabled()) {
                     log.debug("received segment in streaming");
                 }
 
-                HistogramMetrics.Timer timer = histogram.createTimer();
-                try {
-                    segmentParserService.send(segment);
-                } catch (Exception e) {
-                    errorCounter.inc();
-                    log.error(e.getMessage(), e);
-                } finally {
-                    timer.finish();
-                }
+                send(segment.getSegment(), segment.getBytes());
             }
 
             @Override
@@ -94,25 +122,30 @@ public class TraceSegmentReportServiceHandler extends TraceSegmentReportServiceG
         };
     }
 
-    @Override
-    public void collectInSync(final SegmentCollection request, final StreamObserver<Commands> responseObserver) {
+    /**
+     * The same as {@link #collectInSync(SegmentCollection, StreamObserver)}, but the received segments carry their
+     * original bytes.
+     */
+    void collectRawInSync(final List<RawSegment> request, final StreamObserver<Commands> responseObserver) {
         if (log.isDebugEnabled()) {
-            log.debug("received {} segments", request.getSegmentsCount());
+            log.debug("received {} segments", request.size());
         }
 
-        request.getSegmentsList().forEach(segment -> {
-            HistogramMetrics.Timer timer = histogram.createTimer();
-            try {
-                segmentParserService.send(segment);
-            } catch (Exception e) {
-                errorCounter.inc();
-                log.error(e.getMessage(), e);
-            } finally {
-                timer.finish();
-            }
-        });
+        request.forEach(segment -> send(segment.getSegment(), segment.getBytes()));
 
         responseObserver.onNext(Commands.newBuilder().build());
         responseObserver.onCompleted();
     }
+
+    private void send(SegmentObject segment, byte[] rawSegment) {
+        HistogramMetrics.Timer timer = histogram.createTimer();
+        try {
+            segmentParserService.send(segment, rawSegment);
+        } catch (Exception e) {
+            errorCounter.inc();
+            log.error(e.getMessage(), e);
+        } finally {
+            timer.finish();
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
+
+import java.util.List;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentObject;
+import org.apache.skywalking.apm.network.language.agent.v3.SpanObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RawSegmentMarshallersTest {
+    @Test
+    public void testParseSegment() {
+        final SegmentObject segment = mockSegment("segment-1");
+
+        final RawSegment rawSegment = RawSegmentMarshallers.SEGMENT.parse(segment.toByteString().newInput());
+
+        Assert.assertEquals(segment, rawSegment.getSegment());
+        Assert.assertArrayEquals(segment.toByteArray(), rawSegment.getBytes());
+    }
+
+    @Test
+    public void testParseCollection() {
+        final SegmentCollection collection = SegmentCollection.newBuilder()
+                                                              .addSegments(mockSegment("segment-1"))
+                                                              .addSegments(mockSegment("segment-2"))
+                                                              .build();
+
+        final List<RawSegment> rawSegments = RawSegmentMarshallers.COLLECTION.parse(
+            collection.toByteString().newInput());
+
+        Assert.assertEquals(2, rawSegments.size());
+        for (int i = 0; i < rawSegments.size(); i++) {
+            Assert.assertEquals(collection.getSegments(i), rawSegments.get(i).getSegment());
+            Assert.assertArrayEquals(collection.getSegments(i).toByteArray(), rawSegments.get(i).getBytes());
+        }
+    }
+
+    @Test
+    public void testStreamCollection() throws Exception {
+        final SegmentCollection collection = SegmentCollection.newBuilder()
+                                                              .addSegments(mockSegment("segment-1"))
+                                                              .addSegments(mockSegment("segment-2"))
+                                                              .build();
+        final List<RawSegment> rawSegments = RawSegmentMarshallers.COLLECTION.parse(
+            collection.toByteString().newInput());
+
+        Assert.assertEquals(collection, SegmentCollection.parseFrom(RawSegmentMarshallers.COLLECTION.stream(rawSegments)));
+    }
+
+    private static SegmentObject mockSegment(String segmentId) {
+        return SegmentObject.newBuilder()
+                            .setTraceId("trace-1")
+                            .setTraceSegmentId(segmentId)
+                            .setService("mock-service")
+                            .setServiceInstance("mock-instance")
+                            .addSpans(SpanObject.newBuilder()
+                                                .setSpanId(0)
+                                                .setParentSpanId(-1)
+                                                .setOperationName("/mock"))
+                            .build();
+    }
+}
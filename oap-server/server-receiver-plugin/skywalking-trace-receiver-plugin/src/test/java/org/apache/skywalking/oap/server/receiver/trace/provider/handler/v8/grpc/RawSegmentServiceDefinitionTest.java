@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.receiver.trace.provider.handler.v8.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.skywalking.apm.network.language.agent.v3.SegmentCollection;
+import org.apache.skywalking.apm.network.language.agent.v3.TraceSegmentReportServiceGrpc;
+import org.apache.skywalking.oap.server.core.server.GRPCHandlerRegister;
+import org.apache.skywalking.oap.server.core.server.auth.AuthenticationInterceptor;
+import org.apache.skywalking.oap.server.receiver.sharing.server.ReceiverGRPCHandlerRegister;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class RawSegmentServiceDefinitionTest {
+    private final List<ServerServiceDefinition> definitions = new ArrayList<>();
+    private TraceSegmentReportServiceHandler handler;
+    private Server server;
+    private ManagedChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        handler = mock(TraceSegmentReportServiceHandler.class);
+
+        ReceiverGRPCHandlerRegister register = new ReceiverGRPCHandlerRegister();
+        register.setGrpcHandlerRegister(new GRPCHandlerRegister() {
+            @Override
+            public void addHandler(BindableService handler) {
+                definitions.add(handler.bindService());
+            }
+
+            @Override
+            public void addHandler(ServerServiceDefinition definition) {
+                definitions.add(definition);
+            }
+
+            @Override
+            public void addFilter(ServerInterceptor interceptor) {
+            }
+        });
+        register.addFilter(new AuthenticationInterceptor("token"));
+        register.addHandler(RawSegmentServiceDefinition.bind(
+            new TraceSegmentReportServiceGrpc.TraceSegmentReportServiceImplBase() {
+            }.bindService(), handler));
+
+        String name = InProcessServerBuilder.generateName();
+        InProcessServerBuilder serverBuilder = InProcessServerBuilder.forName(name).directExecutor();
+        definitions.forEach(serverBuilder::addService);
+        server = serverBuilder.build().start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        channel.shutdownNow();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testRejectUnauthenticatedCall() {
+        try {
+            TraceSegmentReportServiceGrpc.newBlockingStub(channel)
+                                         .withDeadlineAfter(5, TimeUnit.SECONDS)
+                                         .collectInSync(SegmentCollection.getDefaultInstance());
+            Assert.fail("The call without the token should be rejected.");
+        } catch (StatusRuntimeException e) {
+            Assert.assertEquals(Status.Code.PERMISSION_DENIED, e.getStatus().getCode());
+        }
+        verify(handler, never()).collectRawInSync(any(), any());
+    }
+}
@@ -56,6 +56,15 @@ public class StorageModuleElasticsearchConfig extends ModuleConfig {
     private int syncBulkActions = 50000;
     private int flushInterval = 10;
     private int concurrentRequests = 2;
+    /**
+     * The max number of the sync bulks of the metrics data in flight at the same time.
+     */
+    private int syncConcurrentRequests = 2;
+    /**
+     * The max payload size(MB) of one sync bulk. The bulk is executed before reaching {@link #syncBulkActions} when the
+     * payload exceeds this size.
+     */
+    private int syncBulkSizeInMB = 10;
     /**
      * @since 7.0.0 This could be managed inside {@link #secretsManagementFile}
      */
@@ -93,6 +93,7 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
 
     protected final StorageModuleElasticsearchConfig config;
     protected ElasticSearchClient elasticSearchClient;
+    protected BatchProcessEsDAO batchProcessEsDAO;
 
     public StorageModuleElasticsearchProvider() {
         super();
@@ -165,11 +166,11 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
             .getTrustStorePass(), config.getUser(), config.getPassword(),
             indexNameConverters(config.getNameSpace())
         );
-        this.registerServiceImplementation(
-            IBatchDAO.class,
-            new BatchProcessEsDAO(elasticSearchClient, config.getBulkActions(), config.getSyncBulkActions(), config
-                .getFlushInterval(), config.getConcurrentRequests())
+        batchProcessEsDAO = new BatchProcessEsDAO(
+            elasticSearchClient, config.getBulkActions(), config.getSyncBulkActions(), config.getFlushInterval(),
+            config.getConcurrentRequests(), config.getSyncConcurrentRequests(), config.getSyncBulkSizeInMB()
         );
+        this.registerServiceImplementation(IBatchDAO.class, batchProcessEsDAO);
         this.registerServiceImplementation(StorageDAO.class, new StorageEsDAO(elasticSearchClient));
         this.registerServiceImplementation(
             IHistoryDeleteDAO.class, new HistoryDeleteEsDAO(elasticSearchClient));
@@ -210,6 +211,7 @@ public class StorageModuleElasticsearchProvider extends ModuleProvider {
         HealthCheckMetrics healthChecker = metricCreator.createHealthCheckerGauge(
             "storage_elasticsearch", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         elasticSearchClient.registerChecker(healthChecker);
+        batchProcessEsDAO.registerMetricsCreator(metricCreator);
         try {
             elasticSearchClient.connect();
             StorageEsInstaller installer = new StorageEsInstaller(elasticSearchClient, getManager(), config);
@@ -18,37 +18,104 @@
 
 package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-import com.google.common.collect.Lists;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Getter;
 import org.apache.skywalking.oap.server.core.storage.IBatchDAO;
 import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
+import org.apache.skywalking.oap.server.telemetry.api.CounterMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.HistogramMetrics;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsCreator;
+import org.apache.skywalking.oap.server.telemetry.api.MetricsTag;
+import org.apache.skywalking.oap.server.telemetry.none.MetricsCreatorNoop;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.rest.RestStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * BatchProcessEsDAO executes the record data asynchronously through the bulk processor, and the metrics data of every
+ * persistence round synchronously.
+ *
+ * The synchronous requests are split into the bulks limited by the number of actions and the payload size, and at most
+ * {@link #syncConcurrentRequests} bulks are in flight at the same time, while the next bulk is being built. The limit of
+ * the actions adapts to the bulk latency, it is halved when a bulk is slow or rejected, and grows back gradually when
+ * the full bulks are fast. Only the items rejected by the ElasticSearch cluster, or all items of a failed bulk, are
+ * retried with the exponential backoff.
+ */
 public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(BatchProcessEsDAO.class);
+    /**
+     * The limit of the sync bulk actions doesn't shrink below this number.
+     */
+    static final int MIN_SYNC_BULK_ACTIONS = 100;
+    /**
+     * The sync bulk taking longer than this(ms) shrinks the limit of the actions, and the full one taking less than the
+     * half of it grows the limit.
+     */
+    static final long SYNC_BULK_TARGET_LATENCY = 5000;
+    private static final int SYNC_BULK_MAX_RETRIES = 3;
+    private static final long SYNC_BULK_RETRY_BACKOFF = 100;
 
     private BulkProcessor bulkProcessor;
     private final int bulkActions;
     private final int syncBulkActions;
+    private final long syncBulkSizeInBytes;
     private final int flushInterval;
     private final int concurrentRequests;
+    private final int syncConcurrentRequests;
+    private final ExecutorService syncBulkExecutor;
+    private final AtomicInteger syncBulkActionsLimit;
+
+    private volatile MetricsCreator metricsCreator = new MetricsCreatorNoop();
+    private final Map<String, HistogramMetrics> bulkLatency = new ConcurrentHashMap<>();
+    private final Map<String, CounterMetrics> bulkRejected = new ConcurrentHashMap<>();
 
-    public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int syncBulkActions, int flushInterval, int concurrentRequests) {
+    public BatchProcessEsDAO(ElasticSearchClient client, int bulkActions, int syncBulkActions, int flushInterval,
+                             int concurrentRequests, int syncConcurrentRequests, int syncBulkSizeInMB) {
         super(client);
         this.bulkActions = bulkActions;
         this.syncBulkActions = syncBulkActions;
+        this.syncBulkSizeInBytes = syncBulkSizeInMB > 0 ? syncBulkSizeInMB * 1024L * 1024L : Long.MAX_VALUE;
         this.flushInterval = flushInterval;
         this.concurrentRequests = concurrentRequests;
+        this.syncConcurrentRequests = Math.max(syncConcurrentRequests, 1);
+        this.syncBulkExecutor = this.syncConcurrentRequests > 1 ? Executors.newFixedThreadPool(
+            this.syncConcurrentRequests, new CustomThreadFactory("ElasticSearchSyncBulk", true)) : null;
+        this.syncBulkActionsLimit = new AtomicInteger(syncBulkActions);
+    }
+
+    /**
+     * Register the metrics creator, the bulk latency and rejection metrics are not reported before this.
+     */
+    public void registerMetricsCreator(MetricsCreator metricsCreator) {
+        this.metricsCreator = metricsCreator;
+        bulkLatency.clear();
+        bulkRejected.clear();
     }
 
     @Override
@@ -62,21 +129,213 @@ public class BatchProcessEsDAO extends EsDAO implements IBatchDAO {
 
     @Override
     public void synchronous(List<PrepareRequest> prepareRequests) {
-        if (CollectionUtils.isNotEmpty(prepareRequests)) {
-            List<List<PrepareRequest>> partitions = Lists.partition(prepareRequests, syncBulkActions);
+        if (CollectionUtils.isEmpty(prepareRequests)) {
+            return;
+        }
+        List<DocWriteRequest<?>> requests = new ArrayList<>(prepareRequests.size());
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            if (prepareRequest instanceof InsertRequest) {
+                requests.add((IndexRequest) prepareRequest);
+            } else {
+                requests.add((UpdateRequest) prepareRequest);
+            }
+        }
 
-            for (List<PrepareRequest> partition : partitions) {
-                BulkRequest request = new BulkRequest();
+        for (int retries = 0; ; retries++) {
+            requests = executeBulks(requests);
+            if (requests.isEmpty()) {
+                return;
+            }
+            if (retries >= SYNC_BULK_MAX_RETRIES) {
+                LOGGER.error("{} requests of the sync bulk are dropped after {} retries.", requests.size(), retries);
+                return;
+            }
+            try {
+                Thread.sleep(SYNC_BULK_RETRY_BACKOFF << retries);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("{} requests of the sync bulk are dropped as interrupted.", requests.size());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Execute the requests in the bulks, and wait for all of them.
+     *
+     * @return the requests to retry.
+     */
+    private List<DocWriteRequest<?>> executeBulks(List<DocWriteRequest<?>> requests) {
+        final List<DocWriteRequest<?>> retries = new ArrayList<>();
+        final List<Future<List<DocWriteRequest<?>>>> futures = new ArrayList<>();
+        final Semaphore inFlight = new Semaphore(syncConcurrentRequests);
+
+        int position = 0;
+        try {
+            while (position < requests.size()) {
+                // Build the next bulk by the latest limit of the actions, once an in-flight bulk finishes.
+                inFlight.acquire();
+                final int from = position;
+                final BulkRequest bulk = new BulkRequest();
+                final int limit = syncBulkActionsLimit.get();
+                while (position < requests.size() && bulk.numberOfActions() < limit
+                    && (bulk.numberOfActions() == 0 || bulk.estimatedSizeInBytes() < syncBulkSizeInBytes)) {
+                    bulk.add(requests.get(position++));
+                }
+                final List<DocWriteRequest<?>> bulkRequests = requests.subList(from, position);
 
-                for (PrepareRequest prepareRequest : partition) {
-                    if (prepareRequest instanceof InsertRequest) {
-                        request.add((IndexRequest) prepareRequest);
-                    } else {
-                        request.add((UpdateRequest) prepareRequest);
+                if (syncBulkExecutor == null || futures.isEmpty() && position == requests.size()) {
+                    // No need to hand off the only bulk.
+                    try {
+                        retries.addAll(executeBulk(bulk, bulkRequests));
+                    } finally {
+                        inFlight.release();
                     }
+                    continue;
+                }
+                try {
+                    futures.add(syncBulkExecutor.submit(() -> {
+                        try {
+                            return executeBulk(bulk, bulkRequests);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }));
+                } catch (Throwable t) {
+                    inFlight.release();
+                    throw t;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            retries.addAll(requests.subList(position, requests.size()));
+        }
+
+        for (Future<List<DocWriteRequest<?>>> future : futures) {
+            try {
+                retries.addAll(future.get());
+            } catch (ExecutionException e) {
+                LOGGER.error(e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return retries;
+    }
+
+    /**
+     * @param requests the requests in the bulk, in the same order.
+     * @return the rejected requests, or all requests if the whole bulk failed.
+     */
+    private List<DocWriteRequest<?>> executeBulk(BulkRequest bulk, List<DocWriteRequest<?>> requests) {
+        final long startTime = System.nanoTime();
+        final BulkResponse response = getClient().synchronousBulk(bulk);
+        final long latency = System.nanoTime() - startTime;
+
+        final Set<String> indices = new HashSet<>();
+        for (DocWriteRequest<?> request : requests) {
+            indices.add(request.index());
+        }
+        for (String index : indices) {
+            latencyOf(index).observe(latency / 1.0E9D);
+        }
+
+        if (response == null) {
+            adaptSyncBulkActions(requests.size(), latency / 1000000, true);
+            return requests;
+        }
+        final List<DocWriteRequest<?>> rejected = new ArrayList<>();
+        if (response.hasFailures()) {
+            for (BulkItemResponse item : response.getItems()) {
+                if (item.isFailed() && item.status() == RestStatus.TOO_MANY_REQUESTS) {
+                    final DocWriteRequest<?> request = requests.get(item.getItemId());
+                    rejectedOf(request.index()).inc();
+                    rejected.add(request);
                 }
-                getClient().synchronousBulk(request);
             }
+            for (ItemFailures failures : groupItemFailures(response)) {
+                LOGGER.error(
+                    "Failed to write {} documents of index {} for {}, such as document {}: {}", failures.getCount(),
+                    failures.getIndex(), failures.getReason(), failures.getSampleId(), failures.getSampleMessage()
+                );
+            }
+        }
+        adaptSyncBulkActions(requests.size(), latency / 1000000, !rejected.isEmpty());
+        return rejected;
+    }
+
+    /**
+     * Group the failed items of the bulk, except the rejected ones, by the index and the failure reason, in order to
+     * log them once per group rather than once per item.
+     */
+    static Collection<ItemFailures> groupItemFailures(BulkResponse response) {
+        final Map<String, ItemFailures> groups = new LinkedHashMap<>();
+        for (BulkItemResponse item : response.getItems()) {
+            if (!item.isFailed() || item.status() == RestStatus.TOO_MANY_REQUESTS) {
+                continue;
+            }
+            final String reason = item.status() + " " + ElasticsearchException.getExceptionName(
+                item.getFailure().getCause());
+            groups.computeIfAbsent(item.getIndex() + " " + reason, key -> new ItemFailures(item, reason)).count++;
+        }
+        return groups.values();
+    }
+
+    /**
+     * Halve the limit of the sync bulk actions when the bulk is rejected or slower than {@link
+     * #SYNC_BULK_TARGET_LATENCY}, and grow it by a quarter when the full bulk is faster than the half of it.
+     *
+     * @param latency the latency of the bulk in milliseconds.
+     */
+    void adaptSyncBulkActions(int actions, long latency, boolean rejected) {
+        final int min = Math.min(MIN_SYNC_BULK_ACTIONS, syncBulkActions);
+        syncBulkActionsLimit.updateAndGet(limit -> {
+            if (rejected || latency > SYNC_BULK_TARGET_LATENCY) {
+                return Math.max(min, limit / 2);
+            }
+            if (actions >= limit && latency < SYNC_BULK_TARGET_LATENCY / 2) {
+                return Math.min(syncBulkActions, limit + Math.max(limit / 4, 1));
+            }
+            return limit;
+        });
+    }
+
+    int getSyncBulkActionsLimit() {
+        return syncBulkActionsLimit.get();
+    }
+
+    private HistogramMetrics latencyOf(String index) {
+        return bulkLatency.computeIfAbsent(
+            TimeSeriesUtils.isolateNameFromIndexName(index), name -> metricsCreator.createHistogramMetric(
+                "elasticsearch_sync_bulk_latency", "The latency of the sync bulks including the index",
+                new MetricsTag.Keys("index"), new MetricsTag.Values(name)
+            ));
+    }
+
+    private CounterMetrics rejectedOf(String index) {
+        return bulkRejected.computeIfAbsent(
+            TimeSeriesUtils.isolateNameFromIndexName(index), name -> metricsCreator.createCounter(
+                "elasticsearch_sync_bulk_rejected_count", "The number of the sync bulk items rejected by the index",
+                new MetricsTag.Keys("index"), new MetricsTag.Values(name)
+            ));
+    }
+
+    /**
+     * The failed items of the same index and failure reason in a bulk.
+     */
+    @Getter
+    static class ItemFailures {
+        private final String index;
+        private final String reason;
+        private final String sampleId;
+        private final String sampleMessage;
+        private int count;
+
+        private ItemFailures(BulkItemResponse sample, String reason) {
+            this.index = sample.getIndex();
+            this.reason = reason;
+            this.sampleId = sample.getId();
+            this.sampleMessage = sample.getFailureMessage();
         }
     }
 }
@@ -36,7 +36,7 @@ public class HistoryDeleteEsDAO extends EsDAO implements IHistoryDeleteDAO {
     }
 
     @Override
-    public void deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
+    public long deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
         ElasticSearchClient client = getClient();
 
         long deadline;
@@ -47,7 +47,7 @@ public class HistoryDeleteEsDAO extends EsDAO implements IHistoryDeleteDAO {
                  * As all metrics data in different down sampling rule of one day are in the same index, the deletion operation
                  * is only required to run once.
                  */
-                return;
+                return 0;
             }
         }
         deadline = Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMdd"));
@@ -72,5 +72,14 @@ public class HistoryDeleteEsDAO extends EsDAO implements IHistoryDeleteDAO {
         if (!leftIndices.contains(formattedLatestIndex)) {
             client.createIndex(latestIndex);
         }
+        return -1;
+    }
+
+    /**
+     * The metrics of the same function are in the same physical index.
+     */
+    @Override
+    public String getDeletionKey(Model model) {
+        return IndexController.INSTANCE.getTableName(model);
     }
 }
@@ -120,6 +120,22 @@ public class TimeSeriesUtils {
         return Long.valueOf(indexName.substring(indexName.lastIndexOf(Const.LINE) + 1));
     }
 
+    /**
+     * @return the index name without the time suffix, or the index name itself if it isn't a time series index.
+     */
+    static String isolateNameFromIndexName(String indexName) {
+        int index = indexName.lastIndexOf(Const.LINE);
+        if (index <= 0 || index == indexName.length() - 1) {
+            return indexName;
+        }
+        for (int i = index + 1; i < indexName.length(); i++) {
+            if (!Character.isDigit(indexName.charAt(i))) {
+                return indexName;
+            }
+        }
+        return indexName.substring(0, index);
+    }
+
     /**
      * Follow the dayStep to re-format the time bucket literal long value.
      *
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchClient;
+import org.apache.skywalking.oap.server.library.client.elasticsearch.ElasticSearchInsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.mapper.MapperParsingException;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BatchProcessEsDAOTest {
+    private ElasticSearchClient client;
+    private List<List<String>> bulks;
+    private List<String> rejectedIds;
+
+    @Before
+    public void setUp() {
+        client = mock(ElasticSearchClient.class);
+        bulks = Collections.synchronizedList(new ArrayList<>());
+        rejectedIds = Collections.synchronizedList(new ArrayList<>());
+        when(client.synchronousBulk(any())).thenAnswer(invocation -> {
+            BulkRequest bulk = invocation.getArgument(0);
+            List<String> ids = new ArrayList<>();
+            BulkItemResponse[] items = new BulkItemResponse[bulk.numberOfActions()];
+            for (int i = 0; i < items.length; i++) {
+                DocWriteRequest request = bulk.requests().get(i);
+                ids.add(request.id());
+                if (rejectedIds.remove(request.id())) {
+                    items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(
+                        request.index(), request.type(), request.id(), new EsRejectedExecutionException("rejected")));
+                } else {
+                    items[i] = new BulkItemResponse(i, DocWriteRequest.OpType.INDEX, new IndexResponse(
+                        new ShardId(request.index(), "_na_", 0), request.type(), request.id(), 1, 1, 1, true));
+                }
+            }
+            bulks.add(ids);
+            return new BulkResponse(items, 1);
+        });
+    }
+
+    @Test
+    public void testRetryRejectedItemsOnly() {
+        BatchProcessEsDAO dao = new BatchProcessEsDAO(client, 1000, 1000, 10, 2, 2, 10);
+        rejectedIds.add("b");
+
+        dao.synchronous(requests("a", "b", "c"));
+
+        Assert.assertEquals(2, bulks.size());
+        Assert.assertEquals(3, bulks.get(0).size());
+        Assert.assertEquals(Collections.singletonList("b"), bulks.get(1));
+        Assert.assertEquals(500, dao.getSyncBulkActionsLimit());
+    }
+
+    @Test
+    public void testConcurrentBulks() {
+        BatchProcessEsDAO dao = new BatchProcessEsDAO(client, 1000, 2, 10, 2, 3, 10);
+
+        dao.synchronous(requests("a", "b", "c", "d", "e"));
+
+        Assert.assertEquals(3, bulks.size());
+        List<String> ids = new ArrayList<>();
+        bulks.forEach(ids::addAll);
+        Collections.sort(ids);
+        Assert.assertEquals(5, ids.size());
+        Assert.assertEquals("a", ids.get(0));
+        Assert.assertEquals("e", ids.get(4));
+    }
+
+    @Test
+    public void testAdaptSyncBulkActions() {
+        BatchProcessEsDAO dao = new BatchProcessEsDAO(client, 1000, 1000, 10, 2, 2, 10);
+
+        dao.adaptSyncBulkActions(1000, BatchProcessEsDAO.SYNC_BULK_TARGET_LATENCY + 1, false);
+        Assert.assertEquals(500, dao.getSyncBulkActionsLimit());
+        dao.adaptSyncBulkActions(100, 1, false);
+        Assert.assertEquals(500, dao.getSyncBulkActionsLimit());
+        dao.adaptSyncBulkActions(500, 1, false);
+        Assert.assertEquals(625, dao.getSyncBulkActionsLimit());
+        for (int i = 0; i < 10; i++) {
+            dao.adaptSyncBulkActions(1000, 1, true);
+        }
+        Assert.assertEquals(BatchProcessEsDAO.MIN_SYNC_BULK_ACTIONS, dao.getSyncBulkActionsLimit());
+        for (int i = 0; i < 20; i++) {
+            dao.adaptSyncBulkActions(1000, 1, false);
+        }
+        Assert.assertEquals(1000, dao.getSyncBulkActionsLimit());
+    }
+
+    @Test
+    public void testGroupItemFailures() {
+        BulkItemResponse[] items = new BulkItemResponse[] {
+            failure(0, "metrics-a-20201017", "a", new ElasticsearchStatusException("conflict a", RestStatus.CONFLICT)),
+            failure(1, "metrics-a-20201017", "b", new MapperParsingException("parsing b")),
+            failure(2, "metrics-a-20201017", "c", new ElasticsearchStatusException("conflict c", RestStatus.CONFLICT)),
+            failure(3, "metrics-b-20201017", "d", new ElasticsearchStatusException("conflict d", RestStatus.CONFLICT)),
+            failure(4, "metrics-b-20201017", "e", new EsRejectedExecutionException("rejected e")),
+            new BulkItemResponse(5, DocWriteRequest.OpType.INDEX, new IndexResponse(
+                new ShardId("metrics-b-20201017", "_na_", 0), "type", "f", 1, 1, 1, true))
+        };
+
+        List<BatchProcessEsDAO.ItemFailures> groups = new ArrayList<>(
+            BatchProcessEsDAO.groupItemFailures(new BulkResponse(items, 1)));
+
+        Assert.assertEquals(3, groups.size());
+        Assert.assertEquals("metrics-a-20201017", groups.get(0).getIndex());
+        Assert.assertEquals("CONFLICT status_exception", groups.get(0).getReason());
+        Assert.assertEquals(2, groups.get(0).getCount());
+        Assert.assertEquals("a", groups.get(0).getSampleId());
+        Assert.assertEquals("metrics-a-20201017", groups.get(1).getIndex());
+        Assert.assertEquals("BAD_REQUEST mapper_parsing_exception", groups.get(1).getReason());
+        Assert.assertEquals(1, groups.get(1).getCount());
+        Assert.assertEquals("metrics-b-20201017", groups.get(2).getIndex());
+        Assert.assertEquals(1, groups.get(2).getCount());
+    }
+
+    private static BulkItemResponse failure(int itemId, String index, String id, Exception cause) {
+        return new BulkItemResponse(
+            itemId, DocWriteRequest.OpType.INDEX, new BulkItemResponse.Failure(index, "type", id, cause));
+    }
+
+    private static List<PrepareRequest> requests(String... ids) {
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (String id : ids) {
+            requests.add(new ElasticSearchInsertRequest("metrics-all-20201017", "type", id));
+        }
+        return requests;
+    }
+}
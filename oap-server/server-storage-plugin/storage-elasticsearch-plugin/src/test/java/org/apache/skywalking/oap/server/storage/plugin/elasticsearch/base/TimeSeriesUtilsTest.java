@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.testcontainers.shaded.com.google.common.collect.Lists;
 
 import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.compressTimeBucket;
+import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.isolateNameFromIndexName;
 import static org.apache.skywalking.oap.server.storage.plugin.elasticsearch.base.TimeSeriesUtils.writeIndexName;
 
 public class TimeSeriesUtilsTest {
@@ -59,6 +60,15 @@ public class TimeSeriesUtilsTest {
         Assert.assertEquals(20000123L, compressTimeBucket(20000125, 11));
     }
 
+    @Test
+    public void testIsolateNameFromIndexName() {
+        Assert.assertEquals("metrics-all", isolateNameFromIndexName("metrics-all-20200809"));
+        Assert.assertEquals("sw_segment", isolateNameFromIndexName("sw_segment-20200809"));
+        Assert.assertEquals("ui_template", isolateNameFromIndexName("ui_template"));
+        Assert.assertEquals("metrics-all", isolateNameFromIndexName("metrics-all"));
+        Assert.assertEquals("metrics-", isolateNameFromIndexName("metrics-"));
+    }
+
     @Test
     public void testIndexRolling() {
         long secondTimeBucket = 2020_0809_1010_59L;
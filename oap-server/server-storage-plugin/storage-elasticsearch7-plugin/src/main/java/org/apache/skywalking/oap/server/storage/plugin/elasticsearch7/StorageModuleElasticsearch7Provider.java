@@ -92,6 +92,7 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
 
     protected final StorageModuleElasticsearch7Config config;
     protected ElasticSearch7Client elasticSearch7Client;
+    protected BatchProcessEsDAO batchProcessEsDAO;
 
     public StorageModuleElasticsearch7Provider() {
         super();
@@ -163,12 +164,11 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
             .getTrustStorePass(), config.getUser(), config.getPassword(),
             indexNameConverters(config.getNameSpace())
         );
-        this.registerServiceImplementation(
-            IBatchDAO.class,
-            new BatchProcessEsDAO(elasticSearch7Client, config.getBulkActions(), config.getSyncBulkActions(),
-                                  config.getFlushInterval(), config.getConcurrentRequests()
-            )
+        batchProcessEsDAO = new BatchProcessEsDAO(
+            elasticSearch7Client, config.getBulkActions(), config.getSyncBulkActions(), config.getFlushInterval(),
+            config.getConcurrentRequests(), config.getSyncConcurrentRequests(), config.getSyncBulkSizeInMB()
         );
+        this.registerServiceImplementation(IBatchDAO.class, batchProcessEsDAO);
         this.registerServiceImplementation(StorageDAO.class, new StorageEs7DAO(elasticSearch7Client));
         this.registerServiceImplementation(
             IHistoryDeleteDAO.class, new HistoryDeleteEsDAO(elasticSearch7Client));
@@ -219,6 +219,7 @@ public class StorageModuleElasticsearch7Provider extends ModuleProvider {
         HealthCheckMetrics healthChecker = metricCreator.createHealthCheckerGauge(
             "storage_elasticsearch", MetricsTag.EMPTY_KEY, MetricsTag.EMPTY_VALUE);
         elasticSearch7Client.registerChecker(healthChecker);
+        batchProcessEsDAO.registerMetricsCreator(metricCreator);
         try {
             elasticSearch7Client.connect();
 
@@ -394,7 +394,7 @@ public class ElasticSearch7Client extends ElasticSearchClient {
     }
 
     @Override
-    public void synchronousBulk(BulkRequest request) {
+    public BulkResponse synchronousBulk(BulkRequest request) {
         request.timeout(TimeValue.timeValueMinutes(2));
         request.setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL);
         request.waitForActiveShards(ActiveShardCount.ONE);
@@ -403,8 +403,10 @@ public class ElasticSearch7Client extends ElasticSearchClient {
             BulkResponse responses = client.bulk(request, RequestOptions.DEFAULT);
             log.info("Synchronous bulk took time: {} millis, size: {}", responses.getTook().getMillis(), size);
             healthChecker.health();
+            return responses;
         } catch (Throwable t) {
             healthChecker.unHealth(t);
+            return null;
         }
     }
 
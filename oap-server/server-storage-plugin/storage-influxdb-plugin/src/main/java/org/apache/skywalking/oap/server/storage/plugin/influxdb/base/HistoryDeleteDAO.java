@@ -35,7 +35,7 @@ public class HistoryDeleteDAO implements IHistoryDeleteDAO {
     }
 
     @Override
-    public void deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
+    public long deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
         if (log.isDebugEnabled()) {
             log.debug("TTL execution log, model: {}", model.getName());
         }
@@ -46,5 +46,6 @@ public class HistoryDeleteDAO implements IHistoryDeleteDAO {
         } catch (Exception e) {
             log.error("TTL execution log, model: {}, errMsg: {}", model.getName(), e.getMessage());
         }
+        return -1;
     }
 }
@@ -28,7 +28,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * A SQL executor.
+ * A SQL executor. The executors of the same SQL could share one {@link PreparedStatement} in a JDBC batch, see {@link
+ * #getSql()} and {@link #setParameters(PreparedStatement)}.
  */
 public class SQLExecutor implements InsertRequest, UpdateRequest {
 
@@ -42,14 +43,25 @@ public class SQLExecutor implements InsertRequest, UpdateRequest {
         this.param = param;
     }
 
+    public String getSql() {
+        return sql;
+    }
+
     public void invoke(Connection connection) throws SQLException {
-        PreparedStatement preparedStatement = connection.prepareStatement(sql);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            setParameters(preparedStatement);
+
+            LOGGER.debug("execute aql in batch: {}", sql);
+            preparedStatement.execute();
+        }
+    }
 
+    /**
+     * Set the parameters of this executor to the statement prepared by {@link #getSql()}.
+     */
+    public void setParameters(PreparedStatement preparedStatement) throws SQLException {
         for (int i = 0; i < param.size(); i++) {
             preparedStatement.setObject(i + 1, param.get(i));
         }
-
-        LOGGER.debug("execute aql in batch: {}", sql);
-        preparedStatement.execute();
     }
 }
@@ -59,4 +59,14 @@ public class H2StorageConfig extends ModuleConfig {
      * @since 8.2.0
      */
     private int numOfSearchableValuesPerTag = 2;
+    /**
+     * The max number of the rows executed in one JDBC batch. The requests of the same SQL share one prepared statement
+     * in the batch.
+     */
+    private int maxSizeOfBatchSql = 100;
+    /**
+     * The number of the connections executing the batches in parallel. The pool of the connections should be larger
+     * than it.
+     */
+    private int batchPersistentPoolSize = 1;
 }
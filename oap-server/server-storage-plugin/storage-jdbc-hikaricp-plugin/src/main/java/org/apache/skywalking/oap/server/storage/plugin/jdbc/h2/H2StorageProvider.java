@@ -120,7 +120,8 @@ public class H2StorageProvider extends ModuleProvider {
         // 创建H2客户端
         h2Client = new JDBCHikariCPClient(settings);
 
-        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(h2Client));
+        this.registerServiceImplementation(IBatchDAO.class, new H2BatchDAO(
+            h2Client, config.getMaxSizeOfBatchSql(), config.getBatchPersistentPoolSize()));
         this.registerServiceImplementation(
                 StorageDAO.class,
                 new H2StorageDAO(
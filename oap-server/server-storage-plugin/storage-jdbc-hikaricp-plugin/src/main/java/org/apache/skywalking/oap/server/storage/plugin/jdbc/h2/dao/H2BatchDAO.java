@@ -19,8 +19,16 @@
 package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.apm.commons.datacarrier.DataCarrier;
 import org.apache.skywalking.apm.commons.datacarrier.consumer.BulkConsumePool;
@@ -32,16 +40,33 @@ import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
 import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
 import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
 import org.apache.skywalking.oap.server.library.util.CollectionUtils;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
 
+/**
+ * The requests are grouped by their SQL, and the requests of the same SQL are executed through one {@link
+ * PreparedStatement} in the JDBC batches of at most {@link #maxSizeOfBatchSql} rows. Every batch is committed in its own
+ * transaction. When a batch fails, its requests are executed one by one, in order to avoid one failure makes the rest
+ * of the batch failure.
+ *
+ * The batches are spread over {@link #batchPersistentPoolSize} connections, and executed in parallel if more than one.
+ */
 @Slf4j
 public class H2BatchDAO implements IBatchDAO {
     private JDBCHikariCPClient h2Client;
     private final DataCarrier<PrepareRequest> dataCarrier;
+    private final int maxSizeOfBatchSql;
+    private final int batchPersistentPoolSize;
+    private final ExecutorService executorService;
 
-    public H2BatchDAO(JDBCHikariCPClient h2Client) {
+    public H2BatchDAO(JDBCHikariCPClient h2Client, int maxSizeOfBatchSql, int batchPersistentPoolSize) {
         this.h2Client = h2Client;
+        this.maxSizeOfBatchSql = Math.max(maxSizeOfBatchSql, 1);
+        this.batchPersistentPoolSize = Math.max(batchPersistentPoolSize, 1);
+        this.executorService = this.batchPersistentPoolSize > 1
+            ? Executors.newFixedThreadPool(this.batchPersistentPoolSize, new CustomThreadFactory("H2BatchPersistent", true))
+            : null;
 
         String name = "H2_ASYNCHRONOUS_BATCH_PERSISTENT";
         BulkConsumePool.Creator creator = new BulkConsumePool.Creator(name, 1, 20);
@@ -65,21 +90,94 @@ public class H2BatchDAO implements IBatchDAO {
             log.debug("batch sql statements execute, data size: {}", prepareRequests.size());
         }
 
-        try (Connection connection = h2Client.getConnection()) {
-            for (PrepareRequest prepareRequest : prepareRequests) {
-                try {
-                    SQLExecutor sqlExecutor = (SQLExecutor) prepareRequest;
-                    sqlExecutor.invoke(connection);
-                } catch (SQLException e) {
-                    // Just avoid one execution failure makes the rest of batch failure.
-                    log.error(e.getMessage(), e);
-                }
+        final List<List<SQLExecutor>> batches = groupBySql(prepareRequests);
+        if (executorService == null || batches.size() == 1) {
+            executeBatches(batches);
+            return;
+        }
+
+        final int partitionNum = Math.min(batchPersistentPoolSize, batches.size());
+        final List<List<List<SQLExecutor>>> partitions = new ArrayList<>(partitionNum);
+        for (int i = 0; i < partitionNum; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < batches.size(); i++) {
+            partitions.get(i % partitionNum).add(batches.get(i));
+        }
+
+        final List<Future<?>> futures = new ArrayList<>(partitionNum);
+        for (List<List<SQLExecutor>> partition : partitions) {
+            futures.add(executorService.submit(() -> executeBatches(partition)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.error(e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Group the requests by their SQL, keeping the order of the requests of the same SQL, and split every group into the
+     * batches of at most {@link #maxSizeOfBatchSql} requests.
+     */
+    private List<List<SQLExecutor>> groupBySql(List<PrepareRequest> prepareRequests) {
+        final Map<String, List<SQLExecutor>> groups = new LinkedHashMap<>();
+        for (PrepareRequest prepareRequest : prepareRequests) {
+            SQLExecutor sqlExecutor = (SQLExecutor) prepareRequest;
+            groups.computeIfAbsent(sqlExecutor.getSql(), sql -> new ArrayList<>()).add(sqlExecutor);
+        }
+
+        final List<List<SQLExecutor>> batches = new ArrayList<>();
+        for (List<SQLExecutor> group : groups.values()) {
+            for (int from = 0; from < group.size(); from += maxSizeOfBatchSql) {
+                batches.add(group.subList(from, Math.min(from + maxSizeOfBatchSql, group.size())));
+            }
+        }
+        return batches;
+    }
+
+    private void executeBatches(List<List<SQLExecutor>> batches) {
+        try (Connection connection = h2Client.getTransactionConnection()) {
+            for (List<SQLExecutor> batch : batches) {
+                executeBatch(connection, batch);
             }
         } catch (SQLException | JDBCClientException e) {
             log.error(e.getMessage(), e);
         }
     }
 
+    private void executeBatch(Connection connection, List<SQLExecutor> batch) throws SQLException {
+        final String sql = batch.get(0).getSql();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            for (SQLExecutor sqlExecutor : batch) {
+                sqlExecutor.setParameters(preparedStatement);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+            connection.commit();
+            return;
+        } catch (SQLException e) {
+            connection.rollback();
+            log.warn("Failed to execute the batch of {} statements, execute them one by one. {}", batch.size(), sql, e);
+        }
+
+        for (SQLExecutor sqlExecutor : batch) {
+            try {
+                sqlExecutor.invoke(connection);
+                connection.commit();
+            } catch (SQLException e) {
+                // Just avoid one execution failure makes the rest of batch failure.
+                connection.rollback();
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
     @Override
     public void asynchronous(InsertRequest insertRequest) {
         this.dataCarrier.produce(insertRequest);
@@ -30,39 +30,45 @@ import org.joda.time.DateTime;
 
 public class H2HistoryDeleteDAO implements IHistoryDeleteDAO {
 
-    private final JDBCHikariCPClient client;
+    protected final JDBCHikariCPClient client;
 
     public H2HistoryDeleteDAO(JDBCHikariCPClient client) {
         this.client = client;
     }
 
     @Override
-    public void deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
+    public long deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
         SQLBuilder dataDeleteSQL = new SQLBuilder("delete from " + model.getName() + " where ")
             .append(timeBucketColumnName).append("<= ? ");
 
+        final long deadline = getDeadline(model, ttl);
+        if (deadline < 0) {
+            return 0;
+        }
         try (Connection connection = client.getConnection()) {
-            long deadline;
-            if (model.isRecord()) {
-                deadline = Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMddHHmmss"));
-            } else {
-                switch (model.getDownsampling()) {
-                    case Minute:
-                        deadline = Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMddHHmm"));
-                        break;
-                    case Hour:
-                        deadline = Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMddHH"));
-                        break;
-                    case Day:
-                        deadline = Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMdd"));
-                        break;
-                    default:
-                        return;
-                }
-            }
-            client.executeUpdate(connection, dataDeleteSQL.toString(), deadline);
+            return client.executeUpdate(connection, dataDeleteSQL.toString(), deadline);
         } catch (JDBCClientException | SQLException e) {
             throw new IOException(e.getMessage(), e);
         }
     }
+
+    /**
+     * @return the time bucket of the TTL days ago, in the precision of the model, or -1 if the model isn't time
+     * series.
+     */
+    protected long getDeadline(Model model, int ttl) {
+        if (model.isRecord()) {
+            return Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMddHHmmss"));
+        }
+        switch (model.getDownsampling()) {
+            case Minute:
+                return Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMddHHmm"));
+            case Hour:
+                return Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMddHH"));
+            case Day:
+                return Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMdd"));
+            default:
+                return -1;
+        }
+    }
 }
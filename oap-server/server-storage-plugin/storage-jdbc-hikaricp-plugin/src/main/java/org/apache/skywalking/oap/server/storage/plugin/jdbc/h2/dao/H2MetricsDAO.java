@@ -20,17 +20,43 @@ package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import org.apache.skywalking.oap.server.core.analysis.FunctionCategory;
+import org.apache.skywalking.oap.server.core.analysis.meter.function.sum.SumFunction;
+import org.apache.skywalking.oap.server.core.analysis.metrics.CountMetrics;
 import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.SumMetrics;
 import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
 import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
 import org.apache.skywalking.oap.server.core.storage.StorageData;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.core.storage.type.StorageDataComplexObject;
 import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
 
+/**
+ * The sum and count metrics are upserted by the MERGE statements, see {@link #prepareBatchUpsert(Model, List)}. The
+ * other databases override the upsert statement, and could upsert multiple metrics in one statement.
+ */
 public class H2MetricsDAO extends H2SQLExecutor implements IMetricsDAO {
+    /**
+     * The functions whose value is the sum of the combined metrics, in the {@link #VALUE_COLUMN}.
+     */
+    private static final Set<String> SUM_FUNCTIONS = new HashSet<>(Arrays.asList(
+        FunctionCategory.uniqueFunctionName(SumMetrics.class),
+        FunctionCategory.uniqueFunctionName(CountMetrics.class),
+        FunctionCategory.uniqueFunctionName(SumFunction.class)
+    ));
+    protected static final String VALUE_COLUMN = "value";
 
     private JDBCHikariCPClient h2Client;
     private StorageHashMapBuilder<Metrics> storageBuilder;
@@ -60,4 +86,89 @@ public class H2MetricsDAO extends H2SQLExecutor implements IMetricsDAO {
     public SQLExecutor prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
         return getUpdateExecutor(model.getName(), metrics, storageBuilder);
     }
+
+    @Override
+    public boolean isUpsertSupported(Model model) {
+        return SUM_FUNCTIONS.contains(model.getAggregationFunctionName());
+    }
+
+    @Override
+    public List<PrepareRequest> prepareBatchUpsert(Model model, List<Metrics> metrics) throws IOException {
+        final List<ModelColumn> columns = TableMetaInfo.get(model.getName()).getColumns();
+        final int rowsOfStatement = maxRowsOfUpsert();
+        final List<PrepareRequest> requests = new ArrayList<>(metrics.size() / rowsOfStatement + 1);
+        for (int from = 0; from < metrics.size(); from += rowsOfStatement) {
+            final List<List<Object>> rows = new ArrayList<>(rowsOfStatement);
+            for (Metrics m : metrics.subList(from, Math.min(from + rowsOfStatement, metrics.size()))) {
+                rows.add(toRow(m, columns));
+            }
+            requests.add(getUpsertExecutor(model.getName(), columns, rows));
+        }
+        return requests;
+    }
+
+    /**
+     * @return the max number of the metrics upserted by one statement.
+     */
+    protected int maxRowsOfUpsert() {
+        return 1;
+    }
+
+    /**
+     * H2 1.4 doesn't support MERGE USING, the existing value is read by the sub query in the same statement. The
+     * statements of the same model are still executed in one JDBC batch.
+     *
+     * @param rows the values of the ID column and all columns of the metrics, in the order of the table columns.
+     */
+    protected SQLExecutor getUpsertExecutor(String modelName, List<ModelColumn> columns, List<List<Object>> rows) {
+        final List<Object> row = rows.get(0);
+        final List<Object> param = new ArrayList<>(row.size() + 1);
+        final SQLBuilder sqlBuilder = new SQLBuilder().append("MERGE INTO " + modelName + columnList(columns))
+                                                      .append(" KEY(" + H2TableInstaller.ID_COLUMN + ") VALUES(?");
+        param.add(row.get(0));
+        for (int i = 0; i < columns.size(); i++) {
+            final String columnName = columns.get(i).getColumnName().getName();
+            if (VALUE_COLUMN.equals(columnName)) {
+                final String storageName = columns.get(i).getColumnName().getStorageName();
+                sqlBuilder.append(",IFNULL((SELECT " + storageName + " FROM " + modelName + " WHERE "
+                                      + H2TableInstaller.ID_COLUMN + " = ?), 0) + ?");
+                param.add(row.get(0));
+            } else {
+                sqlBuilder.append(",?");
+            }
+            param.add(row.get(i + 1));
+        }
+        sqlBuilder.append(")");
+        return new SQLExecutor(sqlBuilder.toString(), param);
+    }
+
+    /**
+     * @return the ID column and all columns of the metrics in the parentheses, so the upsert doesn't depend on the
+     * order of the columns in the existing table.
+     */
+    protected static String columnList(List<ModelColumn> columns) {
+        final StringBuilder columnList = new StringBuilder("(").append(H2TableInstaller.ID_COLUMN);
+        for (ModelColumn column : columns) {
+            columnList.append(",").append(column.getColumnName().getStorageName());
+        }
+        return columnList.append(")").toString();
+    }
+
+    /**
+     * @return the values of the ID column and all columns of the metrics, in the order of the table columns.
+     */
+    private List<Object> toRow(Metrics metrics, List<ModelColumn> columns) {
+        final Map<String, Object> objectMap = storageBuilder.entity2Storage(metrics);
+        final List<Object> row = new ArrayList<>(columns.size() + 1);
+        row.add(metrics.id());
+        for (ModelColumn column : columns) {
+            final Object value = objectMap.get(column.getColumnName().getName());
+            if (value instanceof StorageDataComplexObject) {
+                row.add(((StorageDataComplexObject) value).toStorageData());
+            } else {
+                row.add(value);
+            }
+        }
+        return row;
+    }
 }
@@ -119,6 +119,7 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
             parameters.add(ids.get(i));
         }
         sql.append(")");
+        appendTimeBucketRange(sql, parameters, duration);
 
         MetricsValues metricsValues = new MetricsValues();
         // Label is null, because in readMetricsValues, no label parameter.
@@ -169,6 +170,7 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
             parameters.add(ids.get(i));
         }
         sql.append(")");
+        appendTimeBucketRange(sql, parameters, duration);
 
         Map<String, DataTable> idMap = new HashMap<>();
         try (Connection connection = h2Client.getConnection()) {
@@ -211,6 +213,7 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
             parameters.add(ids.get(i));
         }
         sql.append(")");
+        appendTimeBucketRange(sql, parameters, duration);
 
         final int defaultValue = ValueColumnMetadata.INSTANCE.getDefaultValue(condition.getName());
 
@@ -232,4 +235,15 @@ public class H2MetricsQueryDAO extends H2SQLExecutor implements IMetricsQueryDAO
             throw new IOException(e);
         }
     }
+
+    /**
+     * The IDs include the time buckets, but the time bucket range is still required to only read the partitions of
+     * the duration, if the table is partitioned.
+     */
+    private static void appendTimeBucketRange(StringBuilder sql, List<Object> parameters, Duration duration) {
+        sql.append(" and ").append(Metrics.TIME_BUCKET).append(" >= ?");
+        sql.append(" and ").append(Metrics.TIME_BUCKET).append(" <= ?");
+        parameters.add(duration.getStartTimeBucket());
+        parameters.add(duration.getEndTimeBucket());
+    }
 }
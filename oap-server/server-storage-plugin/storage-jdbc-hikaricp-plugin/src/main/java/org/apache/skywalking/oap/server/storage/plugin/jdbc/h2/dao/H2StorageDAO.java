@@ -35,10 +35,10 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 
 @RequiredArgsConstructor
 public class H2StorageDAO implements StorageDAO {
-    private final ModuleManager manager;
-    private final JDBCHikariCPClient h2Client;
-    private final int maxSizeOfArrayColumn;
-    private final int numOfSearchableValuesPerTag;
+    protected final ModuleManager manager;
+    protected final JDBCHikariCPClient h2Client;
+    protected final int maxSizeOfArrayColumn;
+    protected final int numOfSearchableValuesPerTag;
 
     @Override
     public IMetricsDAO newMetricsDao(StorageBuilder storageBuilder) {
@@ -26,6 +26,7 @@ import java.sql.SQLException;
 import java.util.List;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.skywalking.oap.server.core.analysis.NodeType;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
 import org.apache.skywalking.oap.server.core.storage.StorageException;
 import org.apache.skywalking.oap.server.core.storage.model.Model;
 import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
@@ -69,16 +70,23 @@ public class H2TableInstaller extends ModelInstaller {
         JDBCHikariCPClient jdbcHikariCPClient = (JDBCHikariCPClient) client;
         try (Connection connection = jdbcHikariCPClient.getConnection()) {
             SQLBuilder tableCreateSQL = new SQLBuilder("CREATE TABLE IF NOT EXISTS " + model.getName() + " (");
+            final String partitionClause = getPartitionClause(model);
             /**
              * 512 is also the ElasticSearch ID size.
              */
-            tableCreateSQL.appendLine("id VARCHAR(512) PRIMARY KEY, ");
+            tableCreateSQL.appendLine(partitionClause == null ? "id VARCHAR(512) PRIMARY KEY, " : "id VARCHAR(512) NOT NULL, ");
             for (int i = 0; i < model.getColumns().size(); i++) {
                 ModelColumn column = model.getColumns().get(i);
                 tableCreateSQL.appendLine(
-                    getColumn(column) + (i != model.getColumns().size() - 1 ? "," : ""));
+                    getColumn(column) + (i != model.getColumns().size() - 1 || partitionClause != null ? "," : ""));
+            }
+            if (partitionClause != null) {
+                tableCreateSQL.appendLine("PRIMARY KEY (" + ID_COLUMN + ", " + Metrics.TIME_BUCKET + ")");
             }
             tableCreateSQL.appendLine(")");
+            if (partitionClause != null) {
+                tableCreateSQL.appendLine(partitionClause);
+            }
 
             if (log.isDebugEnabled()) {
                 log.debug("creating table: " + tableCreateSQL.toStringInNewLine());
@@ -86,6 +94,9 @@ public class H2TableInstaller extends ModelInstaller {
 
             jdbcHikariCPClient.execute(connection, tableCreateSQL.toString());
 
+            if (partitionClause != null) {
+                createPartitions(connection, model);
+            }
             createTableIndexes(jdbcHikariCPClient, connection, model);
         } catch (JDBCClientException | SQLException e) {
             throw new StorageException(e.getMessage(), e);
@@ -131,6 +142,22 @@ public class H2TableInstaller extends ModelInstaller {
         }
     }
 
+    /**
+     * H2 doesn't support the partitioned tables.
+     *
+     * @return the partition clause following the columns, or NULL if the table isn't partitioned. The time bucket of
+     * the partitioned table is a part of the primary key, as the databases require.
+     */
+    protected String getPartitionClause(Model model) {
+        return null;
+    }
+
+    /**
+     * Create the partitions of the table just created with the {@link #getPartitionClause(Model)}.
+     */
+    protected void createPartitions(Connection connection, Model model) throws JDBCClientException {
+    }
+
     protected void createTableIndexes(JDBCHikariCPClient client,
                                       Connection connection,
                                       Model model) throws JDBCClientException {
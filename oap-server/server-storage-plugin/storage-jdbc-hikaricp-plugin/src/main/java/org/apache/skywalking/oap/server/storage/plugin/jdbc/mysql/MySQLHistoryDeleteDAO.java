@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2HistoryDeleteDAO;
+
+/**
+ * Drop the expired partitions of the partitioned tables. The tables which aren't partitioned are still cleaned by the
+ * DELETE statements. The partitions of the next days are created by the {@link MySQLTablePartitioner} itself.
+ */
+public class MySQLHistoryDeleteDAO extends H2HistoryDeleteDAO {
+    private final MySQLTablePartitioner partitioner;
+
+    public MySQLHistoryDeleteDAO(JDBCHikariCPClient client, MySQLTablePartitioner partitioner) {
+        super(client);
+        this.partitioner = partitioner;
+    }
+
+    @Override
+    public long deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
+        final long deadline = getDeadline(model, ttl);
+        if (!partitioner.isPartitioned(model) || deadline < 0) {
+            return super.deleteHistory(model, timeBucketColumnName, ttl);
+        }
+
+        final boolean partitioned;
+        try (Connection connection = client.getConnection()) {
+            partitioned = partitioner.dropExpiredPartitions(connection, model, deadline);
+        } catch (JDBCClientException | SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return partitioned ? -1 : super.deleteHistory(model, timeBucketColumnName, ttl);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2MetricsDAO;
+
+/**
+ * Upsert multiple metrics in one INSERT ... ON DUPLICATE KEY UPDATE statement.
+ */
+public class MySQLMetricsDAO extends H2MetricsDAO {
+    private static final int MAX_ROWS_OF_UPSERT = 100;
+
+    public MySQLMetricsDAO(JDBCHikariCPClient client, StorageHashMapBuilder<Metrics> storageBuilder) {
+        super(client, storageBuilder);
+    }
+
+    @Override
+    protected int maxRowsOfUpsert() {
+        return MAX_ROWS_OF_UPSERT;
+    }
+
+    @Override
+    protected SQLExecutor getUpsertExecutor(String modelName, List<ModelColumn> columns, List<List<Object>> rows) {
+        final List<Object> param = new ArrayList<>(rows.size() * (columns.size() + 1));
+        final SQLBuilder sqlBuilder = new SQLBuilder().append("INSERT INTO " + modelName + columnList(columns) + " VALUES");
+        for (int i = 0; i < rows.size(); i++) {
+            sqlBuilder.append(i == 0 ? "(?" : ",(?");
+            for (int j = 0; j < columns.size(); j++) {
+                sqlBuilder.append(",?");
+            }
+            sqlBuilder.append(")");
+            param.addAll(rows.get(i));
+        }
+        for (ModelColumn column : columns) {
+            if (VALUE_COLUMN.equals(column.getColumnName().getName())) {
+                sqlBuilder.append(" ").append(buildUpsertClause(modelName, column.getColumnName().getStorageName()));
+            }
+        }
+        return new SQLExecutor(sqlBuilder.toString(), param);
+    }
+
+    protected String buildUpsertClause(String modelName, String valueColumn) {
+        return "ON DUPLICATE KEY UPDATE " + valueColumn + " = " + valueColumn + " + VALUES(" + valueColumn + ")";
+    }
+}
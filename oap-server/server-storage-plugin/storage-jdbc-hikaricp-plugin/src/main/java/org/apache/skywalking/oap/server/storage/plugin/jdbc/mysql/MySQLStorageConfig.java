@@ -39,5 +39,19 @@ public class MySQLStorageConfig extends ModuleConfig {
      * @since 8.2.0
      */
     private int numOfSearchableValuesPerTag = 2;
+    /**
+     * Inherit from {@link org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.H2StorageConfig#getMaxSizeOfBatchSql()}
+     */
+    private int maxSizeOfBatchSql = 100;
+    /**
+     * Inherit from {@link org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.H2StorageConfig#getBatchPersistentPoolSize()}
+     */
+    private int batchPersistentPoolSize = 4;
+    /**
+     * Create the tables of the metrics and records partitioned by the days of the time bucket, and remove the expired
+     * data by dropping the partitions. The existing tables aren't changed. MySQL 5.7 or PostgreSQL 11 or later is
+     * required, TiDB doesn't support it.
+     */
+    private boolean enablePartitionedTables = false;
     private Properties properties;
 }
@@ -35,17 +35,31 @@ import org.apache.skywalking.oap.server.library.module.ModuleManager;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
 import org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao.H2TableInstaller;
+import org.joda.time.DateTime;
 
 /**
  * Extend H2TableInstaller but match MySQL SQL syntax.
  */
 @Slf4j
 public class MySQLTableInstaller extends H2TableInstaller {
+    protected final MySQLTablePartitioner partitioner;
+
     public MySQLTableInstaller(Client client,
                                ModuleManager moduleManager,
                                int maxSizeOfArrayColumn,
                                int numOfSearchableValuesPerTag) {
+        this(client, moduleManager, maxSizeOfArrayColumn, numOfSearchableValuesPerTag,
+             new MySQLTablePartitioner((JDBCHikariCPClient) client, false)
+        );
+    }
+
+    public MySQLTableInstaller(Client client,
+                               ModuleManager moduleManager,
+                               int maxSizeOfArrayColumn,
+                               int numOfSearchableValuesPerTag,
+                               MySQLTablePartitioner partitioner) {
         super(client, moduleManager, maxSizeOfArrayColumn, numOfSearchableValuesPerTag);
+        this.partitioner = partitioner;
         /*
          * Override column because the default column names in core have syntax conflict with MySQL.
          */
@@ -60,6 +74,7 @@ public class MySQLTableInstaller extends H2TableInstaller {
         try (Connection conn = h2Client.getConnection()) {
             try (ResultSet rset = conn.getMetaData().getTables(conn.getCatalog(), null, model.getName(), null)) {
                 if (rset.next()) {
+                    partitioner.addTable(conn, model);
                     return true;
                 }
             }
@@ -69,6 +84,16 @@ public class MySQLTableInstaller extends H2TableInstaller {
         return false;
     }
 
+    @Override
+    protected String getPartitionClause(Model model) {
+        return partitioner.isPartitioned(model) ? partitioner.getPartitionClause(model) : null;
+    }
+
+    @Override
+    protected void createPartitions(Connection connection, Model model) throws JDBCClientException {
+        partitioner.createPartitions(connection, model, new DateTime());
+    }
+
     @Override
     protected void createTableIndexes(JDBCHikariCPClient client,
                                       Connection connection,
@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.server.pool.CustomThreadFactory;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLBuilder;
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+
+/**
+ * MySQLTablePartitioner partitions the time series tables by the days of the time bucket, like the time range indexes
+ * of ElasticSearch, so the expired data are removed by dropping the partitions rather than deleting the rows, and the
+ * queries of the time bucket range only read the partitions of the days in range.
+ *
+ * The minute, hour and day metrics of the same name share one table, and their time buckets are in the different
+ * precisions, so the partitions of every precision are kept in its own range of the time bucket. The day ones are less
+ * than {@link #HOUR_TIME_BUCKET_FLOOR}, the hour ones are from it to {@link #MINUTE_TIME_BUCKET_FLOOR}, and the minute
+ * ones are from the latter. The name of the partitions ends with the suffix of the precision, see {@link
+ * #partitionSuffix(Model)}. The tables of the records are in one precision, and have no suffix.
+ *
+ * The partition p{yyyyMMdd}{suffix} keeps the data before the day, and after the day of the previous partition of the
+ * same precision. The pmax{suffix} partition keeps the data of the precision after the last day, so there is always a
+ * partition to write.
+ *
+ * The partitions of the next days are created when the tables are installed, and every hour after {@link #start()},
+ * no matter whether the TTL is enabled. Every OAP node creates them without the coordination, the failure is ignored when the
+ * partitions have been created by another node.
+ */
+@Slf4j
+public class MySQLTablePartitioner {
+    /**
+     * The partitions of the next days are created in advance, the data of the future days are kept in the pmax
+     * partition, until the partitions of them are created.
+     */
+    static final int NUM_OF_PRECREATED_DAYS = 3;
+    private static final long CREATE_PARTITIONS_PERIOD_MINUTES = 60;
+    protected static final String MAX_PARTITION = "pmax";
+    /**
+     * The smallest hour time bucket(yyyyMMddHH), which is larger than all the day time buckets(yyyyMMdd).
+     */
+    protected static final long HOUR_TIME_BUCKET_FLOOR = 1000000000L;
+    /**
+     * The smallest minute time bucket(yyyyMMddHHmm), which is larger than all the hour time buckets.
+     */
+    protected static final long MINUTE_TIME_BUCKET_FLOOR = 100000000000L;
+    private static final Pattern DAY_PARTITION = Pattern.compile("p(\\d{8})([mhd]?)$");
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormat.forPattern("yyyyMMdd");
+
+    protected final JDBCHikariCPClient client;
+    private final boolean enabled;
+    /**
+     * The models of the partitioned tables, whose partitions of the next days are created periodically. The models of
+     * the same table in different precisions are all kept.
+     */
+    private final Map<String, Model> partitionedModels = new ConcurrentHashMap<>();
+
+    public MySQLTablePartitioner(JDBCHikariCPClient client, boolean enabled) {
+        this.client = client;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true if the table of the model should be partitioned. The tables created before the partitioned tables
+     * are enabled are not partitioned, see {@link #dropExpiredPartitions(Connection, Model, long)}.
+     */
+    public boolean isPartitioned(Model model) {
+        return enabled && model.isTimeSeries() && model.getColumns().stream().anyMatch(
+            column -> Metrics.TIME_BUCKET.equals(column.getColumnName().getName()));
+    }
+
+    /**
+     * @return the partition clause following the columns of the CREATE TABLE statement. The table of the metrics has
+     * the max partitions of all precisions, because it's shared by the models of them.
+     */
+    public String getPartitionClause(Model model) {
+        if (model.isRecord()) {
+            return "PARTITION BY RANGE (" + Metrics.TIME_BUCKET + ") (PARTITION " + MAX_PARTITION
+                + " VALUES LESS THAN MAXVALUE)";
+        }
+        return "PARTITION BY RANGE (" + Metrics.TIME_BUCKET + ") ("
+            + "PARTITION " + MAX_PARTITION + "d VALUES LESS THAN (" + HOUR_TIME_BUCKET_FLOOR + "), "
+            + "PARTITION " + MAX_PARTITION + "h VALUES LESS THAN (" + MINUTE_TIME_BUCKET_FLOOR + "), "
+            + "PARTITION " + MAX_PARTITION + "m VALUES LESS THAN MAXVALUE)";
+    }
+
+    /**
+     * Create the partitions of the next days periodically for the tables added by {@link #addTable(Connection,
+     * Model)}.
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Executors.newSingleThreadScheduledExecutor(new CustomThreadFactory("TablePartitioner", true))
+                 .scheduleWithFixedDelay(
+                     this::createPartitionsOfAllTables, CREATE_PARTITIONS_PERIOD_MINUTES,
+                     CREATE_PARTITIONS_PERIOD_MINUTES, TimeUnit.MINUTES
+                 );
+    }
+
+    /**
+     * Add the existing table of the model, and create the partitions of the next days if the table is partitioned.
+     * The tables created before the partitioned tables are enabled are ignored.
+     */
+    public void addTable(Connection connection, Model model) throws JDBCClientException {
+        if (!isPartitioned(model) || !isPartitionedTable(connection, model.getName())) {
+            return;
+        }
+        partitionedModels.put(modelKey(model), model);
+        createPartitions(connection, model, new DateTime());
+    }
+
+    /**
+     * Create the partitions of the days until {@link #NUM_OF_PRECREATED_DAYS} days later in the precision of the
+     * model, which don't exist yet. The first partition of the precision keeps all data of it before today.
+     */
+    public void createPartitions(Connection connection, Model model, DateTime now) throws JDBCClientException {
+        partitionedModels.put(modelKey(model), model);
+        final List<Long> days = listDays(connection, model);
+        final Long lastDay = days.isEmpty() ? null : days.get(days.size() - 1);
+
+        DateTime day = now.withTimeAtStartOfDay();
+        if (lastDay != null) {
+            final DateTime nextDay = DAY_FORMATTER.parseDateTime(String.valueOf(lastDay)).plusDays(1);
+            if (nextDay.isAfter(day)) {
+                day = nextDay;
+            }
+        }
+        final DateTime latestDay = now.withTimeAtStartOfDay().plusDays(NUM_OF_PRECREATED_DAYS);
+        final List<Long> newDays = new ArrayList<>();
+        for (; !day.isAfter(latestDay); day = day.plusDays(1)) {
+            newDays.add(Long.parseLong(day.toString("yyyyMMdd")));
+        }
+        if (!newDays.isEmpty()) {
+            log.info("Create the partitions {} of the table {}.", newDays, model.getName());
+            try {
+                addPartitions(connection, model, lastDay, newDays);
+            } catch (JDBCClientException e) {
+                // Every OAP node creates the partitions, another one may have created them at the same time.
+                if (!listDays(connection, model).contains(newDays.get(newDays.size() - 1))) {
+                    throw e;
+                }
+                log.info(
+                    "The partitions {} of the table {} have been created by another OAP node.", newDays,
+                    model.getName()
+                );
+            }
+        }
+    }
+
+    /**
+     * Drop the partitions of the precision of the model, whose data are all at or before the deadline.
+     *
+     * @return false if the table isn't partitioned, then nothing is dropped.
+     */
+    public boolean dropExpiredPartitions(Connection connection, Model model,
+                                         long deadline) throws JDBCClientException {
+        final List<String> partitions = listPartitions(connection, model.getName());
+        if (partitions.isEmpty()) {
+            return false;
+        }
+        final List<String> expiredPartitions = new ArrayList<>();
+        for (final String partition : partitions) {
+            final Matcher matcher = DAY_PARTITION.matcher(partition);
+            if (matcher.find() && matcher.group(2).equals(partitionSuffix(model))
+                && toTimeBucket(model, Long.parseLong(matcher.group(1))) <= deadline) {
+                expiredPartitions.add(partition);
+            }
+        }
+        if (!expiredPartitions.isEmpty()) {
+            log.info("Drop the expired partitions {} of the table {}.", expiredPartitions, model.getName());
+            dropPartitions(connection, model, expiredPartitions, deadline);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the table exists and is partitioned.
+     */
+    protected boolean isPartitionedTable(Connection connection, String tableName) throws JDBCClientException {
+        return !listPartitions(connection, tableName).isEmpty();
+    }
+
+    /**
+     * @return the names of the partitions of the table, or empty if the table isn't partitioned.
+     */
+    protected List<String> listPartitions(Connection connection, String tableName) throws JDBCClientException {
+        final List<String> partitions = new ArrayList<>();
+        try (ResultSet resultSet = client.executeQuery(
+            connection,
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS WHERE TABLE_SCHEMA = DATABASE()"
+                + " AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL", tableName
+        )) {
+            while (resultSet.next()) {
+                partitions.add(resultSet.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+        return partitions;
+    }
+
+    /**
+     * Split the max partition of the precision of the model into the partitions of the new days.
+     *
+     * @param lastDay the day of the last existing partition of the precision, NULL if there is none.
+     * @param newDays the ascending days of the new partitions.
+     */
+    protected void addPartitions(Connection connection, Model model, Long lastDay,
+                                 List<Long> newDays) throws JDBCClientException {
+        final SQLBuilder sqlBuilder = new SQLBuilder().append("ALTER TABLE ").append(model.getName())
+                                                      .append(" REORGANIZE PARTITION ")
+                                                      .append(MAX_PARTITION + partitionSuffix(model)).append(" INTO (");
+        for (final Long day : newDays) {
+            sqlBuilder.append("PARTITION p").append(day + partitionSuffix(model))
+                      .append(" VALUES LESS THAN (").append(String.valueOf(toTimeBucket(model, day))).append("), ");
+        }
+        final Long upperBound = upperBound(model);
+        sqlBuilder.append("PARTITION ").append(MAX_PARTITION + partitionSuffix(model))
+                  .append(" VALUES LESS THAN ").append(upperBound == null ? "MAXVALUE" : "(" + upperBound + ")")
+                  .append(")");
+        client.execute(connection, sqlBuilder.toString());
+    }
+
+    /**
+     * @param deadline the data at or before the deadline are expired.
+     */
+    protected void dropPartitions(Connection connection, Model model, List<String> partitions,
+                                  long deadline) throws JDBCClientException {
+        client.execute(
+            connection, "ALTER TABLE " + model.getName() + " DROP PARTITION " + String.join(", ", partitions));
+    }
+
+    private void createPartitionsOfAllTables() {
+        final DateTime now = new DateTime();
+        for (final Model model : partitionedModels.values()) {
+            try (Connection connection = client.getConnection()) {
+                createPartitions(connection, model, now);
+            } catch (Throwable t) {
+                log.error("Failed to create the partitions of the table {}.", model.getName(), t);
+            }
+        }
+    }
+
+    /**
+     * @return the ascending days of the partitions of the table in the precision of the model, excluding the max
+     * partition.
+     */
+    private List<Long> listDays(Connection connection, Model model) throws JDBCClientException {
+        final List<Long> days = new ArrayList<>();
+        for (final String partition : listPartitions(connection, model.getName())) {
+            final Matcher matcher = DAY_PARTITION.matcher(partition);
+            if (matcher.find() && matcher.group(2).equals(partitionSuffix(model))) {
+                days.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        days.sort(Long::compare);
+        return days;
+    }
+
+    /**
+     * @return the time bucket of the start of the day, in the precision of the model.
+     */
+    protected static long toTimeBucket(Model model, long day) {
+        if (model.isRecord()) {
+            return day * 1000000;
+        }
+        switch (model.getDownsampling()) {
+            case Hour:
+                return day * 100;
+            case Day:
+                return day;
+            default:
+                return day * 10000;
+        }
+    }
+
+    /**
+     * @return the suffix of the partition names in the precision of the model, m, h or d of the minute, hour and day
+     * metrics, and none of the records.
+     */
+    protected static String partitionSuffix(Model model) {
+        if (model.isRecord()) {
+            return "";
+        }
+        switch (model.getDownsampling()) {
+            case Hour:
+                return "h";
+            case Day:
+                return "d";
+            default:
+                return "m";
+        }
+    }
+
+    /**
+     * @return the inclusive lower bound of the time buckets in the precision of the model, NULL if unbounded.
+     */
+    protected static Long lowerBound(Model model) {
+        if (model.isRecord()) {
+            return null;
+        }
+        switch (model.getDownsampling()) {
+            case Hour:
+                return HOUR_TIME_BUCKET_FLOOR;
+            case Day:
+                return null;
+            default:
+                return MINUTE_TIME_BUCKET_FLOOR;
+        }
+    }
+
+    /**
+     * @return the exclusive upper bound of the time buckets in the precision of the model, NULL if unbounded.
+     */
+    protected static Long upperBound(Model model) {
+        if (model.isRecord()) {
+            return null;
+        }
+        switch (model.getDownsampling()) {
+            case Hour:
+                return MINUTE_TIME_BUCKET_FLOOR;
+            case Day:
+                return HOUR_TIME_BUCKET_FLOOR;
+            default:
+                return null;
+        }
+    }
+
+    private static String modelKey(Model model) {
+        return model.getName() + "_" + model.getDownsampling();
+    }
+}
@@ -32,8 +32,8 @@ import java.util.List;
 public class PostgreSQLTableInstaller extends MySQLTableInstaller {
 
     public PostgreSQLTableInstaller(Client client, ModuleManager moduleManager, int maxSizeOfArrayColumn,
-                                    int numOfSearchableValuesPerTag) {
-        super(client, moduleManager, maxSizeOfArrayColumn, numOfSearchableValuesPerTag);
+                                    int numOfSearchableValuesPerTag, PostgreSQLTablePartitioner partitioner) {
+        super(client, moduleManager, maxSizeOfArrayColumn, numOfSearchableValuesPerTag, partitioner);
     }
 
     @Override
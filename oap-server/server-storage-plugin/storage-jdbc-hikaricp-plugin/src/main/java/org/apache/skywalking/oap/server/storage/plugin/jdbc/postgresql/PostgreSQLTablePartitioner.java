@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLTablePartitioner;
+
+/**
+ * The partitions of PostgreSQL are the tables named {table}_p{yyyyMMdd}{suffix}, the range of which is from the day of
+ * the previous partition of the same precision to the day. The first partition of every precision starts from the
+ * lower bound of the precision, so the ranges of the precisions sharing the table don't overlap. The default partition
+ * {table}_pmax keeps the data out of the ranges of all partitions, which are the data of the future days, or the late
+ * data before the first partition. PostgreSQL 11 or later is required.
+ *
+ * The names of the partitions longer than the max length of the identifiers are shortened by {@link
+ * #partitionName(String, String)}, rather than being truncated by PostgreSQL.
+ */
+@Slf4j
+public class PostgreSQLTablePartitioner extends MySQLTablePartitioner {
+    /**
+     * The max length of the identifiers of PostgreSQL, the longer names are truncated.
+     */
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+
+    public PostgreSQLTablePartitioner(JDBCHikariCPClient client, boolean enabled) {
+        super(client, enabled);
+    }
+
+    /**
+     * The ranges of all precisions are in the partitions of their own, and the rest are in the default partition.
+     */
+    @Override
+    public String getPartitionClause(Model model) {
+        return "PARTITION BY RANGE (" + Metrics.TIME_BUCKET + ")";
+    }
+
+    @Override
+    protected boolean isPartitionedTable(Connection connection, String tableName) throws JDBCClientException {
+        try (ResultSet resultSet = client.executeQuery(
+            connection,
+            "SELECT 1 FROM pg_partitioned_table t JOIN pg_class c ON c.oid = t.partrelid WHERE c.relname = ?", tableName
+        )) {
+            return resultSet.next();
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected List<String> listPartitions(Connection connection, String tableName) throws JDBCClientException {
+        final List<String> partitions = new ArrayList<>();
+        try (ResultSet resultSet = client.executeQuery(
+            connection,
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+                + " JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?", tableName
+        )) {
+            while (resultSet.next()) {
+                partitions.add(resultSet.getString(1));
+            }
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+        return partitions;
+    }
+
+    /**
+     * The partitions could not be added when the default partition has the data in the ranges of them, which happens
+     * when the partitions haven't been created for {@link #NUM_OF_PRECREATED_DAYS} days. Then the default partition is
+     * detached, and the data in the ranges are moved into the new partitions, in one transaction.
+     */
+    @Override
+    protected void addPartitions(Connection connection, Model model, Long lastDay,
+                                 List<Long> newDays) throws JDBCClientException {
+        final String defaultPartition = partitionName(model.getName(), "_" + MAX_PARTITION);
+        client.execute(connection, "CREATE TABLE IF NOT EXISTS " + defaultPartition
+            + " PARTITION OF " + model.getName() + " DEFAULT");
+
+        final Long from = lastDay == null ? lowerBound(model) : Long.valueOf(toTimeBucket(model, lastDay));
+        String range = Metrics.TIME_BUCKET + " < " + toTimeBucket(model, newDays.get(newDays.size() - 1));
+        if (from != null) {
+            range += " AND " + Metrics.TIME_BUCKET + " >= " + from;
+        }
+        if (!hasRows(connection, defaultPartition, range)) {
+            createRangePartitions(connection, model, lastDay, newDays);
+            return;
+        }
+
+        log.info("Move the data of the new partitions {} out of the default partition {}.", newDays, defaultPartition);
+        try {
+            connection.setAutoCommit(false);
+            try {
+                client.execute(connection, "ALTER TABLE " + model.getName() + " DETACH PARTITION " + defaultPartition);
+                createRangePartitions(connection, model, lastDay, newDays);
+                client.execute(connection, "INSERT INTO " + model.getName()
+                    + " SELECT * FROM " + defaultPartition + " WHERE " + range);
+                client.execute(connection, "DELETE FROM " + defaultPartition + " WHERE " + range);
+                client.execute(connection, "ALTER TABLE " + model.getName()
+                    + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+                connection.commit();
+            } catch (JDBCClientException | SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+    }
+
+    private void createRangePartitions(Connection connection, Model model, Long lastDay,
+                                       List<Long> newDays) throws JDBCClientException {
+        final Long lowerBound = lowerBound(model);
+        String from = lastDay != null ? String.valueOf(toTimeBucket(model, lastDay))
+            : lowerBound != null ? String.valueOf(lowerBound) : "MINVALUE";
+        for (final Long day : newDays) {
+            final String to = String.valueOf(toTimeBucket(model, day));
+            client.execute(connection, "CREATE TABLE IF NOT EXISTS "
+                + partitionName(model.getName(), "_p" + day + partitionSuffix(model)) + " PARTITION OF " + model.getName() + " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+            from = to;
+        }
+    }
+
+    private boolean hasRows(Connection connection, String table, String condition) throws JDBCClientException {
+        try (ResultSet resultSet = client.executeQuery(
+            connection, "SELECT 1 FROM " + table + " WHERE " + condition + " LIMIT 1")) {
+            return resultSet.next();
+        } catch (SQLException e) {
+            throw new JDBCClientException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Drop the tables of the expired partitions, and delete the expired data of the precision of the model in the
+     * default partition.
+     */
+    @Override
+    protected void dropPartitions(Connection connection, Model model, List<String> partitions,
+                                  long deadline) throws JDBCClientException {
+        client.execute(connection, "DROP TABLE IF EXISTS " + String.join(", ", partitions));
+        final String defaultPartition = partitionName(model.getName(), "_" + MAX_PARTITION);
+        final Long lowerBound = lowerBound(model);
+        if (lowerBound == null) {
+            client.executeUpdate(
+                connection,
+                "DELETE FROM " + defaultPartition + " WHERE " + Metrics.TIME_BUCKET + " <= ?",
+                deadline
+            );
+        } else {
+            client.executeUpdate(
+                connection,
+                "DELETE FROM " + defaultPartition + " WHERE " + Metrics.TIME_BUCKET + " >= ? AND "
+                    + Metrics.TIME_BUCKET + " <= ?",
+                lowerBound, deadline
+            );
+        }
+    }
+
+    /**
+     * @return the name of the partition of the table, which is the table name followed by the suffix. When it's longer
+     * than the max length of the identifiers, the table name is shortened and followed by its hash code, so the
+     * suffix is kept, and the partitions of the different tables don't share the name.
+     */
+    static String partitionName(String tableName, String suffix) {
+        if (tableName.length() + suffix.length() <= MAX_IDENTIFIER_LENGTH) {
+            return tableName + suffix;
+        }
+        final String hash = String.format("_%08x", tableName.hashCode());
+        return tableName.substring(0, MAX_IDENTIFIER_LENGTH - hash.length() - suffix.length()) + hash + suffix;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql.dao;
+
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLMetricsDAO;
+
+public class PostgreSQLMetricsDAO extends MySQLMetricsDAO {
+    /**
+     * The max length of the identifiers of PostgreSQL, the longer names are truncated.
+     */
+    private static final int MAX_IDENTIFIER_LENGTH = 63;
+    private static final String PRIMARY_KEY_SUFFIX = "_pkey";
+
+    public PostgreSQLMetricsDAO(JDBCHikariCPClient client, StorageHashMapBuilder<Metrics> storageBuilder) {
+        super(client, storageBuilder);
+    }
+
+    /**
+     * The conflict target is the primary key constraint rather than the id column, because the primary key of the
+     * partitioned table is (id, time_bucket), and PostgreSQL doesn't allow a unique constraint of the id only there.
+     */
+    @Override
+    protected String buildUpsertClause(String modelName, String valueColumn) {
+        return "ON CONFLICT ON CONSTRAINT " + primaryKeyName(modelName) + " DO UPDATE SET " + valueColumn + " = "
+            + modelName + "." + valueColumn + " + EXCLUDED." + valueColumn;
+    }
+
+    /**
+     * @return the name PostgreSQL gives to the primary key constraint of the table, which is the table name truncated
+     * to fit the suffix in the max length of the identifiers.
+     */
+    static String primaryKeyName(String tableName) {
+        final int maxLength = MAX_IDENTIFIER_LENGTH - PRIMARY_KEY_SUFFIX.length();
+        return (tableName.length() > maxLength ? tableName.substring(0, maxLength) : tableName) + PRIMARY_KEY_SUFFIX;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class H2BatchDAOTest {
+    private JDBCHikariCPClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:h2-batch-dao-test;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "sa");
+        client = new JDBCHikariCPClient(settings);
+        client.connect();
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "CREATE TABLE test_metrics (id VARCHAR(64) PRIMARY KEY, value BIGINT)");
+            client.execute(connection, "CREATE TABLE test_record (id VARCHAR(64) PRIMARY KEY, value BIGINT)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "DROP TABLE test_metrics");
+            client.execute(connection, "DROP TABLE test_record");
+        }
+        client.shutdown();
+    }
+
+    @Test
+    public void testGroupBySqlInParallel() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 100, 2);
+
+        List<PrepareRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            requests.add(insert("test_metrics", "m" + i, i));
+            requests.add(insert("test_record", "r" + i, i));
+        }
+        batchDAO.synchronous(requests);
+
+        requests.clear();
+        for (int i = 0; i < 250; i++) {
+            requests.add(new SQLExecutor("UPDATE test_metrics SET value = ? WHERE id = ?", Arrays.asList(i * 2L, "m" + i)));
+        }
+        batchDAO.synchronous(requests);
+
+        Assert.assertEquals(250, count("test_metrics"));
+        Assert.assertEquals(250, count("test_record"));
+        Assert.assertEquals(249L * 250, sum("test_metrics"));
+        Assert.assertEquals(249L * 250 / 2, sum("test_record"));
+    }
+
+    @Test
+    public void testExecuteOneByOneWhenBatchFailed() throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 100, 1);
+
+        batchDAO.synchronous(Arrays.asList(
+            insert("test_record", "r0", 1),
+            insert("test_record", "r1", 1),
+            insert("test_record", "r0", 1),
+            insert("test_record", "r2", 1)
+        ));
+
+        Assert.assertEquals(3, count("test_record"));
+    }
+
+    private static SQLExecutor insert(String table, String id, long value) {
+        return new SQLExecutor("INSERT INTO " + table + " VALUES(?,?)", Arrays.asList(id, value));
+    }
+
+    private long count(String table) throws Exception {
+        return queryLong("SELECT COUNT(*) FROM " + table);
+    }
+
+    private long sum(String table) throws Exception {
+        return queryLong("SELECT SUM(value) FROM " + table);
+    }
+
+    private long queryLong(String sql) throws Exception {
+        try (Connection connection = client.getConnection();
+             ResultSet rs = client.executeQuery(connection, sql)) {
+            Assert.assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.h2.dao;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.analysis.FunctionCategory;
+import org.apache.skywalking.oap.server.core.analysis.metrics.LongAvgMetrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.Metrics;
+import org.apache.skywalking.oap.server.core.analysis.metrics.SumMetrics;
+import org.apache.skywalking.oap.server.core.remote.grpc.proto.RemoteData;
+import org.apache.skywalking.oap.server.core.storage.IMetricsDAO;
+import org.apache.skywalking.oap.server.core.storage.StorageHashMapBuilder;
+import org.apache.skywalking.oap.server.core.storage.model.ColumnName;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.library.client.request.InsertRequest;
+import org.apache.skywalking.oap.server.library.client.request.PrepareRequest;
+import org.apache.skywalking.oap.server.library.client.request.UpdateRequest;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.SQLExecutor;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.TableMetaInfo;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql.MySQLMetricsDAO;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql.PostgreSQLTablePartitioner;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql.dao.PostgreSQLMetricsDAO;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class H2MetricsDAOTest {
+    private static final String MODEL_NAME = "test_sum_metrics";
+    private static final String COLUMN_LIST = "(id,entity_id,value,time_bucket)";
+    private static Model MODEL;
+
+    private JDBCHikariCPClient client;
+
+    @BeforeClass
+    public static void setUpModel() {
+        List<ModelColumn> columns = Arrays.asList(
+            column("entity_id", String.class),
+            column("value", long.class),
+            column("time_bucket", long.class)
+        );
+        MODEL = new Model(MODEL_NAME, columns, Collections.emptyList(), 0, DownSampling.Hour, false, false,
+                          FunctionCategory.uniqueFunctionName(SumMetrics.class)
+        );
+        TableMetaInfo.addModel(MODEL);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        Properties settings = new Properties();
+        settings.setProperty("dataSourceClassName", "org.h2.jdbcx.JdbcDataSource");
+        settings.setProperty("dataSource.url", "jdbc:h2:mem:h2-metrics-dao-test;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        settings.setProperty("dataSource.user", "sa");
+        client = new JDBCHikariCPClient(settings);
+        client.connect();
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "CREATE TABLE " + MODEL_NAME
+                + " (id VARCHAR(512) PRIMARY KEY, entity_id VARCHAR(512), value BIGINT, time_bucket BIGINT)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Connection connection = client.getConnection()) {
+            client.execute(connection, "DROP TABLE " + MODEL_NAME);
+        }
+        client.shutdown();
+    }
+
+    @Test
+    public void testUpsertByMerge() throws Exception {
+        H2MetricsDAO metricsDAO = new H2MetricsDAO(client, new TestSumMetrics.Builder());
+        assertUpsert(metricsDAO, 3);
+    }
+
+    @Test
+    public void testUpsertMultipleRowsInOneStatement() throws Exception {
+        H2MetricsDAO metricsDAO = new MySQLMetricsDAO(client, new TestSumMetrics.Builder());
+        assertUpsert(metricsDAO, 1);
+    }
+
+    @Test
+    public void testUpsertByDefault() throws Exception {
+        final H2MetricsDAO h2MetricsDAO = new H2MetricsDAO(client, new TestSumMetrics.Builder());
+        // Only the read, insert and update are provided, the upsert falls back to them.
+        final IMetricsDAO metricsDAO = new IMetricsDAO() {
+            @Override
+            public List<Metrics> multiGet(Model model, List<Metrics> metrics) throws IOException {
+                return h2MetricsDAO.multiGet(model, metrics);
+            }
+
+            @Override
+            public InsertRequest prepareBatchInsert(Model model, Metrics metrics) throws IOException {
+                return h2MetricsDAO.prepareBatchInsert(model, metrics);
+            }
+
+            @Override
+            public UpdateRequest prepareBatchUpdate(Model model, Metrics metrics) throws IOException {
+                return h2MetricsDAO.prepareBatchUpdate(model, metrics);
+            }
+        };
+        assertUpsert(metricsDAO, 3);
+    }
+
+    @Test
+    public void testUpsertClause() {
+        Assert.assertEquals(
+            "INSERT INTO " + MODEL_NAME + COLUMN_LIST + " VALUES(?,?,?,?) ON DUPLICATE KEY UPDATE value = value + VALUES(value)",
+            upsertOne(new MySQLMetricsDAO(client, new TestSumMetrics.Builder())).getSql()
+        );
+        Assert.assertEquals(
+            "INSERT INTO " + MODEL_NAME + COLUMN_LIST + " VALUES(?,?,?,?) ON CONFLICT ON CONSTRAINT " + MODEL_NAME
+                + "_pkey DO UPDATE SET value = " + MODEL_NAME + ".value + EXCLUDED.value",
+            upsertOne(new PostgreSQLMetricsDAO(client, new TestSumMetrics.Builder())).getSql()
+        );
+    }
+
+    @Test
+    public void testPostgreSQLUpsertClauseOfPartitionedTable() {
+        // The primary key of the partitioned table is (id, time_bucket), the upsert targets the primary key constraint,
+        // whose name is truncated as the PostgreSQL does for the long table names.
+        final String modelName = "test_sum_metrics_of_the_partitioned_table_with_a_very_long_name_hour";
+        final Model model = new Model(
+            modelName, Arrays.asList(column("entity_id", String.class), column("value", long.class),
+                                     column("time_bucket", long.class)
+        ), Collections.emptyList(), 0, DownSampling.Hour, false, false,
+            FunctionCategory.uniqueFunctionName(SumMetrics.class)
+        );
+        TableMetaInfo.addModel(model);
+        Assert.assertTrue(new PostgreSQLTablePartitioner(client, true).isPartitioned(model));
+
+        final SQLExecutor upsert = upsertOne(new PostgreSQLMetricsDAO(client, new TestSumMetrics.Builder()), model);
+        Assert.assertEquals(
+            "INSERT INTO " + modelName + COLUMN_LIST + " VALUES(?,?,?,?) ON CONFLICT ON CONSTRAINT "
+                + modelName.substring(0, 58) + "_pkey DO UPDATE SET value = " + modelName + ".value + EXCLUDED.value",
+            upsert.getSql()
+        );
+    }
+
+    @Test
+    public void testUpsertSupported() {
+        H2MetricsDAO metricsDAO = new H2MetricsDAO(client, new TestSumMetrics.Builder());
+        Assert.assertTrue(metricsDAO.isUpsertSupported(MODEL));
+        Assert.assertFalse(metricsDAO.isUpsertSupported(
+            new Model("test_avg_metrics", Collections.emptyList(), Collections.emptyList(), 0, DownSampling.Hour,
+                      false, false, FunctionCategory.uniqueFunctionName(LongAvgMetrics.class)
+            )));
+    }
+
+    private void assertUpsert(IMetricsDAO metricsDAO, int expectedStatements) throws Exception {
+        H2BatchDAO batchDAO = new H2BatchDAO(client, 100, 1);
+
+        List<PrepareRequest> requests = metricsDAO.prepareBatchUpsert(
+            MODEL, Arrays.asList(metrics("a", 5), metrics("b", 7), metrics("c", 1)));
+        Assert.assertEquals(expectedStatements, requests.size());
+        batchDAO.synchronous(requests);
+        batchDAO.synchronous(metricsDAO.prepareBatchUpsert(MODEL, Arrays.asList(metrics("a", 3), metrics("d", 2))));
+
+        Assert.assertEquals(8, value("a"));
+        Assert.assertEquals(7, value("b"));
+        Assert.assertEquals(1, value("c"));
+        Assert.assertEquals(2, value("d"));
+    }
+
+    private SQLExecutor upsertOne(H2MetricsDAO metricsDAO) {
+        return upsertOne(metricsDAO, MODEL);
+    }
+
+    private SQLExecutor upsertOne(H2MetricsDAO metricsDAO, Model model) {
+        try {
+            return (SQLExecutor) metricsDAO.prepareBatchUpsert(model, Collections.singletonList(metrics("a", 1))).get(0);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private long value(String entityId) throws Exception {
+        try (Connection connection = client.getConnection();
+             ResultSet rs = client.executeQuery(
+                 connection, "SELECT value FROM " + MODEL_NAME + " WHERE id = ?", "202010100_" + entityId)) {
+            Assert.assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+
+    private static Metrics metrics(String entityId, long value) {
+        TestSumMetrics metrics = new TestSumMetrics();
+        metrics.entityId = entityId;
+        metrics.setValue(value);
+        metrics.setTimeBucket(202010100L);
+        return metrics;
+    }
+
+    private static ModelColumn column(String name, Class<?> type) {
+        return new ModelColumn(new ColumnName(MODEL_NAME, name), type, type, false, false, false, 0, null);
+    }
+
+    private static class TestSumMetrics extends SumMetrics {
+        private String entityId;
+
+        @Override
+        public String id() {
+            return getTimeBucket() + "_" + entityId;
+        }
+
+        @Override
+        public Metrics toHour() {
+            return null;
+        }
+
+        @Override
+        public Metrics toDay() {
+            return null;
+        }
+
+        @Override
+        public int remoteHashCode() {
+            return entityId.hashCode();
+        }
+
+        @Override
+        public void deserialize(RemoteData remoteData) {
+        }
+
+        @Override
+        public RemoteData.Builder serialize() {
+            return null;
+        }
+
+        private static class Builder implements StorageHashMapBuilder<Metrics> {
+            @Override
+            public Metrics storage2Entity(Map<String, Object> dbMap) {
+                TestSumMetrics metrics = new TestSumMetrics();
+                metrics.entityId = (String) dbMap.get("entity_id");
+                metrics.setValue(((Number) dbMap.get("value")).longValue());
+                metrics.setTimeBucket(((Number) dbMap.get("time_bucket")).longValue());
+                return metrics;
+            }
+
+            @Override
+            public Map<String, Object> entity2Storage(Metrics storageData) {
+                TestSumMetrics metrics = (TestSumMetrics) storageData;
+                Map<String, Object> map = new HashMap<>();
+                map.put("entity_id", metrics.entityId);
+                map.put("value", metrics.getValue());
+                map.put("time_bucket", metrics.getTimeBucket());
+                return map;
+            }
+        }
+    }
+}
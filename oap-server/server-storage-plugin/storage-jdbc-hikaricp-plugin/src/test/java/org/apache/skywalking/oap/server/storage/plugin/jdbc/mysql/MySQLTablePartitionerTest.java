@@ -0,0 +1,359 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package org.apache.skywalking.oap.server.storage.plugin.jdbc.mysql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.skywalking.oap.server.core.analysis.DownSampling;
+import org.apache.skywalking.oap.server.core.storage.model.ColumnName;
+import org.apache.skywalking.oap.server.core.storage.model.Model;
+import org.apache.skywalking.oap.server.core.storage.model.ModelColumn;
+import org.apache.skywalking.oap.server.library.client.jdbc.JDBCClientException;
+import org.apache.skywalking.oap.server.library.client.jdbc.hikaricp.JDBCHikariCPClient;
+import org.apache.skywalking.oap.server.storage.plugin.jdbc.postgresql.PostgreSQLTablePartitioner;
+import org.joda.time.DateTime;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MySQLTablePartitionerTest {
+    private static final DateTime NOW = new DateTime(2020, 10, 10, 12, 0);
+
+    private JDBCHikariCPClient client;
+    private List<String> partitions;
+
+    @Before
+    public void setUp() {
+        client = mock(JDBCHikariCPClient.class);
+        partitions = new ArrayList<>();
+    }
+
+    @Test
+    public void testIsPartitioned() {
+        Assert.assertTrue(new MySQLTablePartitioner(client, true).isPartitioned(model("test_metrics", DownSampling.Minute, false)));
+        Assert.assertFalse(new MySQLTablePartitioner(client, true).isPartitioned(model("test_traffic", DownSampling.None, false)));
+        Assert.assertFalse(new MySQLTablePartitioner(client, false).isPartitioned(model("test_metrics", DownSampling.Minute, false)));
+    }
+
+    @Test
+    public void testCreatePartitionsOfNewTable() throws Exception {
+        partitions.addAll(Arrays.asList("pmaxd", "pmaxh", "pmaxm"));
+        partitioner().createPartitions(null, model("test_metrics", DownSampling.Minute, false), NOW);
+
+        verify(client).execute(
+            null,
+            "ALTER TABLE test_metrics REORGANIZE PARTITION pmaxm INTO ("
+                + "PARTITION p20201010m VALUES LESS THAN (202010100000), "
+                + "PARTITION p20201011m VALUES LESS THAN (202010110000), "
+                + "PARTITION p20201012m VALUES LESS THAN (202010120000), "
+                + "PARTITION p20201013m VALUES LESS THAN (202010130000), "
+                + "PARTITION pmaxm VALUES LESS THAN MAXVALUE)"
+        );
+    }
+
+    @Test
+    public void testCreateMissingPartitions() throws Exception {
+        partitions.addAll(Arrays.asList(
+            "p20201011h", "p20201009h", "p20201010h", "p20201012h", "pmaxd", "pmaxh", "p20201013m", "pmaxm"));
+        partitioner().createPartitions(null, model("test_metrics", DownSampling.Hour, false), NOW);
+
+        verify(client).execute(
+            null,
+            "ALTER TABLE test_metrics REORGANIZE PARTITION pmaxh INTO ("
+                + "PARTITION p20201013h VALUES LESS THAN (2020101300), "
+                + "PARTITION pmaxh VALUES LESS THAN (100000000000))"
+        );
+
+        partitions.add("p20201013h");
+        partitioner().createPartitions(null, model("test_metrics", DownSampling.Hour, false), NOW);
+        verify(client, times(1)).execute(any(), anyString());
+    }
+
+    @Test
+    public void testPartitionsCreatedByAnotherNode() throws Exception {
+        partitions.addAll(Arrays.asList("p20201011m", "pmaxm"));
+        doAnswer(invocation -> {
+            partitions.addAll(0, Arrays.asList("p20201012m", "p20201013m"));
+            throw new JDBCClientException("Duplicate partition name p20201012m");
+        }).when(client).execute(any(), anyString());
+
+        partitioner().createPartitions(null, model("test_metrics", DownSampling.Minute, false), NOW);
+        verify(client).execute(any(), anyString());
+    }
+
+    @Test(expected = JDBCClientException.class)
+    public void testFailToCreatePartitions() throws Exception {
+        partitions.addAll(Arrays.asList("p20201011m", "pmaxm"));
+        doThrow(new JDBCClientException("Lock wait timeout exceeded")).when(client).execute(any(), anyString());
+
+        partitioner().createPartitions(null, model("test_metrics", DownSampling.Minute, false), NOW);
+    }
+
+    @Test
+    public void testDropExpiredPartitions() throws Exception {
+        partitions.addAll(Arrays.asList("p20201001", "p20201002", "p20201003", "pmax"));
+        Assert.assertTrue(partitioner().dropExpiredPartitions(
+            null, model("test_records", DownSampling.Second, true), 20201002120000L));
+
+        verify(client).execute(null, "ALTER TABLE test_records DROP PARTITION p20201001, p20201002");
+    }
+
+    @Test
+    public void testNotPartitionedTable() throws Exception {
+        Assert.assertFalse(partitioner().dropExpiredPartitions(
+            null, model("test_records", DownSampling.Second, true), 20201002120000L));
+
+        verify(client, never()).execute(any(), anyString());
+    }
+
+    @Test
+    public void testAddTable() throws Exception {
+        final MySQLTablePartitioner partitioner = partitioner();
+        partitioner.addTable(null, model("test_metrics", DownSampling.Minute, false));
+        verify(client, never()).execute(any(), anyString());
+
+        partitions.addAll(Arrays.asList("p20201011m", "pmaxm"));
+        partitioner.addTable(null, model("test_metrics", DownSampling.Minute, false));
+        verify(client).execute(any(), anyString());
+    }
+
+    @Test
+    public void testMetricsOfAllPrecisionsInOneTable() throws Exception {
+        final Model minute = model("test_metrics", DownSampling.Minute, false);
+        final Model hour = model("test_metrics", DownSampling.Hour, false);
+        final Model day = model("test_metrics", DownSampling.Day, false);
+        final MySQLTable table = new MySQLTable(partitioner().getPartitionClause(hour));
+
+        // The table is created by one of the models, and all of them add the partitions of their own.
+        for (Model model : Arrays.asList(hour, day, minute)) {
+            partitioner().createPartitions(null, model, NOW);
+        }
+
+        Assert.assertEquals("p20201011m", table.partitionOf(202010101230L));
+        Assert.assertEquals("p20201011h", table.partitionOf(2020101012L));
+        Assert.assertEquals("p20201011d", table.partitionOf(20201010L));
+        Assert.assertEquals("p20201010m", table.partitionOf(202010091230L));
+        Assert.assertEquals("p20201010h", table.partitionOf(2020100912L));
+        Assert.assertEquals("p20201010d", table.partitionOf(20201009L));
+        Assert.assertEquals("pmaxm", table.partitionOf(202010201230L));
+        Assert.assertEquals("pmaxh", table.partitionOf(2020102012L));
+        Assert.assertEquals("pmaxd", table.partitionOf(20201020L));
+
+        // Only the partitions of the hour metrics are expired by the TTL of the hour metrics.
+        Assert.assertTrue(partitioner().dropExpiredPartitions(null, hour, 2020101100L));
+        Assert.assertFalse(partitions.contains("p20201010h"));
+        Assert.assertFalse(partitions.contains("p20201011h"));
+        Assert.assertEquals("p20201012h", table.partitionOf(2020101012L));
+        Assert.assertEquals("p20201011m", table.partitionOf(202010101230L));
+        Assert.assertEquals("p20201011d", table.partitionOf(20201010L));
+        Assert.assertEquals("p20201010d", table.partitionOf(20201009L));
+    }
+
+    @Test
+    public void testCreatePostgreSQLPartitions() throws Exception {
+        mockDefaultPartitionRows(false);
+        new PostgreSQLTablePartitioner(client, true) {
+            @Override
+            protected List<String> listPartitions(Connection connection, String tableName) {
+                return partitions;
+            }
+        }.createPartitions(null, model("test_metrics", DownSampling.Day, false), NOW);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(client, times(5)).execute(any(), sql.capture());
+        Assert.assertEquals(Arrays.asList(
+            "CREATE TABLE IF NOT EXISTS test_metrics_pmax PARTITION OF test_metrics DEFAULT",
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201010d PARTITION OF test_metrics FOR VALUES FROM (MINVALUE) TO (20201010)",
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201011d PARTITION OF test_metrics FOR VALUES FROM (20201010) TO (20201011)",
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201012d PARTITION OF test_metrics FOR VALUES FROM (20201011) TO (20201012)",
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201013d PARTITION OF test_metrics FOR VALUES FROM (20201012) TO (20201013)"
+        ), sql.getAllValues());
+    }
+
+    @Test
+    public void testCreatePostgreSQLPartitionsOfHourMetrics() throws Exception {
+        mockDefaultPartitionRows(false);
+        partitions.addAll(Arrays.asList("test_metrics_p20201013d", "test_metrics_pmax"));
+        new PostgreSQLTablePartitioner(client, true) {
+            @Override
+            protected List<String> listPartitions(Connection connection, String tableName) {
+                return partitions;
+            }
+        }.createPartitions(null, model("test_metrics", DownSampling.Hour, false), NOW);
+
+        verify(client).executeQuery(
+            null, "SELECT 1 FROM test_metrics_pmax WHERE time_bucket < 2020101300 AND time_bucket >= 1000000000 LIMIT 1");
+        verify(client).execute(
+            null,
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201010h PARTITION OF test_metrics FOR VALUES FROM (1000000000) TO (2020101000)"
+        );
+        verify(client, times(5)).execute(any(), anyString());
+    }
+
+    @Test
+    public void testCreatePostgreSQLPartitionsOfLongTableName() throws Exception {
+        mockDefaultPartitionRows(false);
+        final String table = "meter_oap_instance_persistence_prepare_percentile_hour";
+        new PostgreSQLTablePartitioner(client, true) {
+            @Override
+            protected List<String> listPartitions(Connection connection, String tableName) {
+                return partitions;
+            }
+        }.createPartitions(null, model(table, DownSampling.Day, false), NOW);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(client, times(5)).execute(any(), sql.capture());
+        Assert.assertEquals(
+            "CREATE TABLE IF NOT EXISTS " + table + "_pmax PARTITION OF " + table + " DEFAULT", sql.getAllValues().get(0));
+        final Pattern partitionName = Pattern.compile("CREATE TABLE IF NOT EXISTS (\\w+) PARTITION OF");
+        final List<String> names = new ArrayList<>();
+        for (final String statement : sql.getAllValues().subList(1, 5)) {
+            final Matcher matcher = partitionName.matcher(statement);
+            Assert.assertTrue(matcher.find());
+            names.add(matcher.group(1));
+        }
+        for (int i = 0; i < names.size(); i++) {
+            Assert.assertEquals(63, names.get(i).length());
+            Assert.assertTrue(names.get(i).startsWith("meter_oap_instance_persistence_prepare_perc_"));
+            Assert.assertTrue(names.get(i).endsWith("_p2020101" + i + "d"));
+        }
+    }
+
+    @Test
+    public void testMovePostgreSQLDefaultPartitionRows() throws Exception {
+        mockDefaultPartitionRows(true);
+        partitions.addAll(Arrays.asList("test_metrics_p20201010d", "test_metrics_pmax"));
+        final Connection connection = mock(Connection.class);
+        new PostgreSQLTablePartitioner(client, true) {
+            @Override
+            protected List<String> listPartitions(Connection connection, String tableName) {
+                return partitions;
+            }
+        }.createPartitions(connection, model("test_metrics", DownSampling.Day, false), NOW);
+
+        verify(client).executeQuery(
+            connection, "SELECT 1 FROM test_metrics_pmax WHERE time_bucket < 20201013 AND time_bucket >= 20201010 LIMIT 1");
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(client, times(8)).execute(any(), sql.capture());
+        Assert.assertEquals(Arrays.asList(
+            "CREATE TABLE IF NOT EXISTS test_metrics_pmax PARTITION OF test_metrics DEFAULT",
+            "ALTER TABLE test_metrics DETACH PARTITION test_metrics_pmax",
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201011d PARTITION OF test_metrics FOR VALUES FROM (20201010) TO (20201011)",
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201012d PARTITION OF test_metrics FOR VALUES FROM (20201011) TO (20201012)",
+            "CREATE TABLE IF NOT EXISTS test_metrics_p20201013d PARTITION OF test_metrics FOR VALUES FROM (20201012) TO (20201013)",
+            "INSERT INTO test_metrics SELECT * FROM test_metrics_pmax WHERE time_bucket < 20201013 AND time_bucket >= 20201010",
+            "DELETE FROM test_metrics_pmax WHERE time_bucket < 20201013 AND time_bucket >= 20201010",
+            "ALTER TABLE test_metrics ATTACH PARTITION test_metrics_pmax DEFAULT"
+        ), sql.getAllValues());
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(connection).setAutoCommit(true);
+    }
+
+    /**
+     * Keep the partitions of a MySQL table in memory, which are changed by the executed statements.
+     */
+    private class MySQLTable {
+        private final List<String> bounds = new ArrayList<>();
+
+        private MySQLTable(String partitionClause) throws Exception {
+            parse(partitionClause, 0);
+            doAnswer(invocation -> {
+                final String sql = invocation.getArgument(1);
+                final Matcher reorganize = Pattern.compile("REORGANIZE PARTITION (\\w+) INTO (.*)$").matcher(sql);
+                final Matcher drop = Pattern.compile("DROP PARTITION (.*)$").matcher(sql);
+                if (reorganize.find()) {
+                    final int index = partitions.indexOf(reorganize.group(1));
+                    partitions.remove(index);
+                    bounds.remove(index);
+                    parse(reorganize.group(2), index);
+                } else if (drop.find()) {
+                    for (final String partition : drop.group(1).split(", ")) {
+                        final int index = partitions.indexOf(partition);
+                        partitions.remove(index);
+                        bounds.remove(index);
+                    }
+                }
+                return null;
+            }).when(client).execute(any(), anyString());
+        }
+
+        private void parse(String partitionClause, int index) {
+            final Matcher matcher = Pattern.compile("PARTITION (\\w+) VALUES LESS THAN (\\((\\d+)\\)|MAXVALUE)")
+                                           .matcher(partitionClause);
+            while (matcher.find()) {
+                partitions.add(index, matcher.group(1));
+                bounds.add(index++, matcher.group(3));
+            }
+        }
+
+        /**
+         * @return the partition the row of the time bucket is written into, like MySQL does.
+         */
+        private String partitionOf(long timeBucket) {
+            for (int i = 0; i < partitions.size(); i++) {
+                if (bounds.get(i) == null || timeBucket < Long.parseLong(bounds.get(i))) {
+                    return partitions.get(i);
+                }
+            }
+            throw new IllegalStateException("No partition for " + timeBucket);
+        }
+    }
+
+    private void mockDefaultPartitionRows(boolean hasRows) throws Exception {
+        final ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(hasRows);
+        when(client.executeQuery(any(), anyString())).thenReturn(resultSet);
+    }
+
+    private MySQLTablePartitioner partitioner() {
+        return new MySQLTablePartitioner(client, true) {
+            @Override
+            protected List<String> listPartitions(Connection connection, String tableName) {
+                return partitions;
+            }
+        };
+    }
+
+    private static Model model(String name, DownSampling downSampling, boolean record) {
+        return new Model(
+            name,
+            Collections.singletonList(new ModelColumn(
+                new ColumnName(name, "time_bucket"), long.class, long.class, false, false, false, 0, null)),
+            Collections.emptyList(), 0, downSampling, record, false, null
+        );
+    }
+}
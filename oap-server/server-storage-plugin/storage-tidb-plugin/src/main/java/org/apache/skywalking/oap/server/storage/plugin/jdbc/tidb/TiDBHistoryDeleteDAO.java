@@ -37,7 +37,7 @@ public class TiDBHistoryDeleteDAO implements IHistoryDeleteDAO {
     }
 
     @Override
-    public void deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
+    public long deleteHistory(Model model, String timeBucketColumnName, int ttl) throws IOException {
         SQLBuilder dataDeleteSQL = new SQLBuilder("delete from " + model.getName() + " where ")
             .append(timeBucketColumnName).append("<= ? ")
             .append(" limit 10000");
@@ -58,11 +58,15 @@ public class TiDBHistoryDeleteDAO implements IHistoryDeleteDAO {
                         deadline = Long.parseLong(new DateTime().plusDays(-ttl).toString("yyyyMMdd"));
                         break;
                     default:
-                        return;
+                        return 0;
                 }
             }
-            while (client.executeUpdate(connection, dataDeleteSQL.toString(), deadline) > 0) {
+            long deleted = 0;
+            int batch;
+            while ((batch = client.executeUpdate(connection, dataDeleteSQL.toString(), deadline)) > 0) {
+                deleted += batch;
             }
+            return deleted;
         } catch (JDBCClientException | SQLException e) {
             throw new IOException(e.getMessage(), e);
         }